@@ -0,0 +1,50 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шифрование и дешифрование одного блока с развёрнутым ключом, без выделения памяти.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlockCipherBenchmark {
+
+    @Param({"RC6", "Twofish"})
+    private String algorithm;
+
+    private IExpandedKey expandedKey;
+    private byte[] block;
+
+    @Setup
+    public void setUp() {
+        ISymmetricCipher cipher = "RC6".equals(algorithm) ? new RC6() : new Twofish();
+        byte[] key = new byte[16];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        expandedKey = cipher.init(key);
+        block = new byte[cipher.getBlockSize()];
+    }
+
+    @Benchmark
+    public byte[] encryptBlock() {
+        expandedKey.encryptBlock(block, 0, block, 0);
+        return block;
+    }
+
+    @Benchmark
+    public byte[] decryptBlock() {
+        expandedKey.decryptBlock(block, 0, block, 0);
+        return block;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость Диффи-Хеллмана на группах MODP: создание участника (генерация секрета
+ * и g^x mod p) общим возведением в степень и по таблице {@link DhGroup}, вычисление общего секрета.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiffieHellmanBenchmark {
+
+    // RFC 2409, группа 2 (1024 бит)
+    private static final String MODP_1024 =
+            "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
+            "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
+            "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
+            "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED" +
+            "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE65381" +
+            "FFFFFFFFFFFFFFFF";
+
+    @Param({"1024", "2048", "3072", "4096"})
+    private int bits;
+
+    private BigInteger p;
+    private BigInteger g;
+    private DhGroup group;
+    private DiffieHellman party;
+    private BigInteger peerPublicKey;
+
+    @Setup
+    public void setUp() {
+        group = switch (bits) {
+            case 1024 -> new DhGroup(new BigInteger(MODP_1024, 16), BigInteger.valueOf(2));
+            case 2048 -> DhGroup.MODP_2048;
+            case 3072 -> DhGroup.MODP_3072;
+            case 4096 -> DhGroup.MODP_4096;
+            default -> throw new IllegalArgumentException("Unsupported modulus size: " + bits);
+        };
+        p = group.getP();
+        g = group.getG();
+        party = new DiffieHellman(p, g);
+        peerPublicKey = new DiffieHellman(p, g).getPublicKey();
+        // Таблица степеней g строится при первом участнике группы, а не в замере
+        group.createParticipant();
+    }
+
+    // Пара ключей общим g.modPow
+    @Benchmark
+    public DiffieHellman construct() {
+        return new DiffieHellman(p, g);
+    }
+
+    // Пара ключей по таблице степеней g группы
+    @Benchmark
+    public DiffieHellman constructFromGroup() {
+        return group.createParticipant();
+    }
+
+    @Benchmark
+    public byte[] computeSharedSecret() {
+        return party.computeSharedSecret(peerPublicKey);
+    }
+}
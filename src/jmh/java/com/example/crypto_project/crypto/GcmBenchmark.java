@@ -0,0 +1,60 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GCM против CTR на тех же размерах, что и ModesBenchmark: разница - цена аутентификации GHASH.
+ * Набивка в обоих режимах не используется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GcmBenchmark {
+
+    @Param({"RC6", "Twofish"})
+    private String algorithm;
+
+    @Param({"GCM", "CTR"})
+    private CipherMode mode;
+
+    @Param({"64", "4096", "1048576", "67108864"})
+    private int size;
+
+    private BlockCipherModes modes;
+    private IExpandedKey key;
+    private byte[] iv;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ISymmetricCipher cipher = "RC6".equals(algorithm) ? new RC6() : new Twofish();
+        modes = new BlockCipherModes(cipher);
+        key = cipher.init(new byte[16]);
+        iv = modes.generateIV();
+        plaintext = new byte[size];
+        new Random(1).nextBytes(plaintext);
+        ciphertext = modes.encrypt(plaintext, key, iv, mode, PaddingMode.PKCS7);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return modes.encrypt(plaintext, key, iv, mode, PaddingMode.PKCS7);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return modes.decrypt(ciphertext, key, iv, mode, PaddingMode.PKCS7);
+    }
+}
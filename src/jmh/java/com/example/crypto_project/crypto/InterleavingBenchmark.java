@@ -0,0 +1,69 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шифрование 64 КБ многоблочными ядрами с чередованием 1, 4 и 8 блоков за проход.
+ * Ядра Twofish на 8 блоков проиграли и живут только здесь ({@link WideTwofishKernel}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InterleavingBenchmark {
+
+    private static final int BLOCKS = 4096;
+
+    @Param({"RC6", "Twofish"})
+    private String algorithm;
+
+    @Param({"1", "4", "8"})
+    private int interleave;
+
+    private RC6.ExpandedKey rc6Key;
+    private Twofish.ExpandedKey twofishKey;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[16];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        rc6Key = (RC6.ExpandedKey) new RC6().init(key);
+        twofishKey = (Twofish.ExpandedKey) new Twofish().init(key);
+        data = new byte[BLOCKS * 16];
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        if ("RC6".equals(algorithm)) {
+            rc6Key.encryptBlocks(data, 0, data, 0, BLOCKS, interleave);
+        } else if (interleave == 8) {
+            WideTwofishKernel.encryptBlocks(twofishKey, data, 0, data, 0, BLOCKS);
+        } else {
+            twofishKey.encryptBlocks(data, 0, data, 0, BLOCKS, interleave);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        if ("RC6".equals(algorithm)) {
+            rc6Key.decryptBlocks(data, 0, data, 0, BLOCKS, interleave);
+        } else if (interleave == 8) {
+            WideTwofishKernel.decryptBlocks(twofishKey, data, 0, data, 0, BLOCKS);
+        } else {
+            twofishKey.decryptBlocks(data, 0, data, 0, BLOCKS, interleave);
+        }
+        return data;
+    }
+}
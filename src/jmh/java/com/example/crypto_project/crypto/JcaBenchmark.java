@@ -0,0 +1,90 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одинаковая нагрузка через javax.crypto.Cipher: AES из JDK (с аппаратными интринсиками AES-NI
+ * и GHASH) против RC6 и Twofish из {@link CryptoProjectProvider} в режимах CTR и GCM.
+ * Каждая операция - init и doFinal, как при шифровании отдельного сообщения; при шифровании GCM
+ * IV каждый раз новый, потому что JDK запрещает повтор.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JcaBenchmark {
+
+    @Param({"AES", "RC6", "Twofish"})
+    private String algorithm;
+
+    @Param({"CTR", "GCM"})
+    private String mode;
+
+    @Param({"64", "4096", "1048576", "67108864"})
+    private int size;
+
+    private Cipher encryptor;
+    private Cipher decryptor;
+    private SecretKeySpec key;
+    private byte[] iv;
+    private long messageCounter;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws GeneralSecurityException {
+        String transformation = algorithm + "/" + mode + "/NoPadding";
+        if ("AES".equals(algorithm)) {
+            encryptor = Cipher.getInstance(transformation);
+            decryptor = Cipher.getInstance(transformation);
+        } else {
+            CryptoProjectProvider provider = new CryptoProjectProvider();
+            encryptor = Cipher.getInstance(transformation, provider);
+            decryptor = Cipher.getInstance(transformation, provider);
+        }
+        key = new SecretKeySpec(new byte[16], algorithm);
+        iv = new byte["GCM".equals(mode) ? 12 : 16];
+        plaintext = new byte[size];
+        new Random(1).nextBytes(plaintext);
+        encryptor.init(Cipher.ENCRYPT_MODE, key, parameters(iv));
+        ciphertext = encryptor.doFinal(plaintext);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws GeneralSecurityException {
+        // Новый IV на сообщение: счётчик в первых байтах
+        byte[] messageIv = iv.clone();
+        long counter = ++messageCounter;
+        for (int i = 0; i < Long.BYTES; i++) {
+            messageIv[i] = (byte) (counter >>> (8 * i));
+        }
+        encryptor.init(Cipher.ENCRYPT_MODE, key, parameters(messageIv));
+        return encryptor.doFinal(plaintext);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws GeneralSecurityException {
+        decryptor.init(Cipher.DECRYPT_MODE, key, parameters(iv));
+        return decryptor.doFinal(ciphertext);
+    }
+
+    private AlgorithmParameterSpec parameters(byte[] messageIv) {
+        return "GCM".equals(mode) ? new GCMParameterSpec(128, messageIv) : new IvParameterSpec(messageIv);
+    }
+}
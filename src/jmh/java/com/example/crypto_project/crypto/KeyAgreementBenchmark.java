@@ -0,0 +1,51 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * X25519 против Диффи-Хеллмана в группах MODP через общий интерфейс {@link IKeyAgreement}:
+ * создание участника (пара ключей) и вычисление общего секрета.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyAgreementBenchmark {
+
+    @Param({"X25519", "DH-2048", "DH-3072"})
+    private String algorithm;
+
+    private DhGroup group;
+    private IKeyAgreement party;
+    private byte[] peerPublicKey;
+
+    @Setup
+    public void setUp() {
+        group = switch (algorithm) {
+            case "X25519" -> null;
+            case "DH-2048" -> DhGroup.MODP_2048;
+            case "DH-3072" -> DhGroup.MODP_3072;
+            default -> throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        };
+        party = createParticipant();
+        peerPublicKey = createParticipant().getEncodedPublicKey();
+    }
+
+    @Benchmark
+    public IKeyAgreement createParticipant() {
+        return group == null ? new X25519() : group.createParticipant();
+    }
+
+    @Benchmark
+    public byte[] computeSharedSecret() {
+        return party.computeSharedSecret(peerPublicKey);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение шифрования одного блока с развёртыванием ключа на каждый блок
+ * (старый путь {@code encrypt(data, key)}) и с заранее развёрнутым ключом.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyScheduleBenchmark {
+
+    @Param({"RC6", "Twofish"})
+    private String algorithm;
+
+    @Param({"16", "24", "32"})
+    private int keySize;
+
+    private ISymmetricCipher cipher;
+    private IExpandedKey expandedKey;
+    private byte[] key;
+    private byte[] block;
+
+    @Setup
+    public void setUp() {
+        cipher = "RC6".equals(algorithm) ? new RC6() : new Twofish();
+        key = new byte[keySize];
+        block = new byte[cipher.getBlockSize()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        expandedKey = cipher.init(key);
+    }
+
+    @Benchmark
+    public byte[] blockWithKeyExpansion() {
+        return cipher.encrypt(block, key);
+    }
+
+    @Benchmark
+    public byte[] blockWithExpandedKey() {
+        return expandedKey.encrypt(block);
+    }
+
+    @Benchmark
+    public IExpandedKey keyExpansionOnly() {
+        return cipher.init(key);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.crypto_project.crypto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Прежняя упрощённая реализация Twofish (g без MDS и ключезависимых S-боксов).
+ * Оставлена только как точка отсчёта для {@link TwofishBenchmark}; не совместима со спецификацией.
+ */
+class LegacyTwofish implements ISymmetricCipher {
+    
+    private static final int BLOCK_SIZE_BYTES = 16;
+    private static final int ROUNDS = 16;
+    
+    // S-боксы Twofish (упрощенная версия)
+    private static final int[][] SBOX = {
+        {
+            0xa9, 0x67, 0xb3, 0xe8, 0x04, 0xfd, 0xa3, 0x76, 0x9a, 0x92, 0x80, 0x78, 0xe4, 0xdd, 0xd1, 0x38,
+            0x0d, 0xc6, 0x35, 0x98, 0x18, 0xf7, 0xec, 0x6c, 0x43, 0x75, 0x37, 0x26, 0xfa, 0x13, 0x94, 0x48,
+            0xf2, 0xd0, 0x8b, 0x30, 0x84, 0x54, 0xdf, 0x23, 0x19, 0x5b, 0x3d, 0x59, 0xf3, 0xae, 0xa2, 0x82,
+            0x63, 0x01, 0x83, 0x2e, 0xd9, 0x51, 0x9b, 0x7c, 0xa6, 0xeb, 0xa5, 0xbe, 0x16, 0x0c, 0xe3, 0x61,
+            0xc0, 0x8c, 0x3a, 0xf5, 0x73, 0x2c, 0x25, 0x0b, 0xbb, 0x4e, 0x89, 0x6b, 0x53, 0x6a, 0xb4, 0xf1,
+            0xe1, 0xe6, 0xbd, 0x45, 0xe2, 0xf4, 0xb6, 0x66, 0xcc, 0x95, 0x03, 0x56, 0xd4, 0x1c, 0x1e, 0xd7,
+            0xfb, 0xc3, 0x8e, 0xb5, 0xe9, 0xcf, 0xbf, 0xba, 0xea, 0x77, 0x39, 0xaf, 0x33, 0xc9, 0x62, 0x71,
+            0x81, 0x79, 0x09, 0xad, 0x24, 0xcd, 0xf9, 0xd8, 0xe5, 0xc5, 0xb9, 0x4d, 0x44, 0x08, 0x86, 0xe7,
+            0xa1, 0x1d, 0xaa, 0xed, 0x06, 0x70, 0xb2, 0xd2, 0x41, 0x7b, 0xa0, 0x11, 0x31, 0xc2, 0x27, 0x90,
+            0x20, 0xf6, 0x60, 0xff, 0x96, 0x5c, 0xb1, 0xab, 0x9e, 0x9c, 0x52, 0x1b, 0x5f, 0x93, 0x0a, 0xef,
+            0x91, 0x85, 0x49, 0xee, 0x2d, 0x4f, 0x8f, 0x3b, 0x47, 0x87, 0x6d, 0x46, 0xd6, 0x3e, 0x69, 0x64,
+            0x2a, 0xce, 0xcb, 0x2f, 0xfc, 0x97, 0x05, 0x7a, 0xac, 0x7f, 0xd5, 0x1a, 0x4b, 0x0e, 0xa7, 0x5a,
+            0x28, 0x14, 0x3f, 0x29, 0x88, 0x3c, 0x4c, 0x02, 0xb8, 0xda, 0xb0, 0x17, 0x55, 0x1f, 0x8a, 0x7d,
+            0x57, 0xc7, 0x8d, 0x74, 0xb7, 0xc4, 0x9f, 0x72, 0x7e, 0x15, 0x22, 0x12, 0x58, 0x07, 0x99, 0x34,
+            0x6e, 0x50, 0xde, 0x68, 0x65, 0xbc, 0xdb, 0xf8, 0xc8, 0xa8, 0x2b, 0x40, 0xdc, 0xfe, 0x32, 0xa4,
+            0xca, 0x10, 0x21, 0xf0, 0xd3, 0x5d, 0x0f, 0x00, 0x6f, 0x9d, 0x36, 0x42, 0x4a, 0x5e, 0xc1, 0xe0
+        },
+        {
+            0x75, 0xf3, 0xc6, 0xf4, 0xdb, 0x7b, 0xfb, 0xc8, 0x4a, 0xd3, 0xe6, 0x6b, 0x45, 0x7d, 0xe8, 0x4b,
+            0xd6, 0x32, 0xd8, 0xfd, 0x37, 0x71, 0xf1, 0xe1, 0x30, 0x0f, 0xf8, 0x1b, 0x87, 0xfa, 0x06, 0x3f,
+            0x5e, 0xba, 0xae, 0x5b, 0x8a, 0x00, 0xbc, 0x9d, 0x6d, 0xc1, 0xb1, 0x0e, 0x80, 0x5d, 0xd2, 0xd5,
+            0xa0, 0x84, 0x07, 0x14, 0xb5, 0x90, 0x2c, 0xa3, 0xb2, 0x73, 0x4c, 0x54, 0x92, 0x74, 0x36, 0x51,
+            0x38, 0xb0, 0xbd, 0x5a, 0xfc, 0x60, 0x62, 0x96, 0x6c, 0x42, 0xf7, 0x10, 0x7c, 0x28, 0x27, 0x8c,
+            0x13, 0x95, 0x9c, 0xc7, 0x24, 0x46, 0x3b, 0x70, 0xca, 0xe3, 0x85, 0xcb, 0x11, 0xd0, 0x93, 0xb8,
+            0xa6, 0x83, 0x20, 0xff, 0x9f, 0x77, 0xc3, 0xcc, 0x03, 0x6f, 0x08, 0xbf, 0x40, 0xe7, 0x2b, 0xe2,
+            0x79, 0x0c, 0xaa, 0x82, 0x41, 0x3a, 0xea, 0xb9, 0xe4, 0x9a, 0xa4, 0x97, 0x7e, 0xda, 0x7a, 0x17,
+            0x66, 0x94, 0xa1, 0x1d, 0x3d, 0xf0, 0xde, 0xb3, 0x0b, 0x72, 0xa7, 0x1c, 0xef, 0xd1, 0x53, 0x3e,
+            0x8f, 0x33, 0x26, 0x5f, 0xec, 0x76, 0x2a, 0x49, 0x81, 0x88, 0xee, 0x21, 0xc4, 0x1a, 0xeb, 0xd9,
+            0xc5, 0x39, 0x99, 0xcd, 0xad, 0x31, 0x8b, 0x01, 0x18, 0x23, 0xdd, 0x1f, 0x4e, 0x2d, 0xf9, 0x48,
+            0x4f, 0xf2, 0x65, 0x8e, 0x78, 0x5c, 0x58, 0x19, 0x8d, 0xe5, 0x98, 0x57, 0x67, 0x7f, 0x05, 0x64,
+            0xaf, 0x63, 0xb6, 0xfe, 0xf5, 0xb7, 0x3c, 0xa5, 0xce, 0xe9, 0x68, 0x44, 0xe0, 0x4d, 0x43, 0x69,
+            0x29, 0x2e, 0xac, 0x15, 0x59, 0xa8, 0x0a, 0x9e, 0x6e, 0x47, 0xdf, 0x34, 0x35, 0x6a, 0xcf, 0xdc,
+            0x22, 0xc9, 0xc0, 0x9b, 0x89, 0xd4, 0xed, 0xab, 0x12, 0xa2, 0x0d, 0x52, 0xbb, 0x02, 0x2f, 0xa9,
+            0xd7, 0x61, 0x1e, 0xb4, 0x50, 0x04, 0xf6, 0xc2, 0x16, 0x25, 0x86, 0x56, 0x55, 0x09, 0xbe, 0x91
+        }
+    };
+    
+    @Override
+    public IExpandedKey init(byte[] key) {
+        return new ExpandedKey(generateSubkeys(key));
+    }
+    
+    @Override
+    public int getBlockSize() {
+        return BLOCK_SIZE_BYTES;
+    }
+    
+    // Функция g (упрощенная версия)
+    private static int g(int x, int[] subkeys) {
+        int a = x & 0xFF;
+        int b = (x >>> 8) & 0xFF;
+        int c = (x >>> 16) & 0xFF;
+        int d = (x >>> 24) & 0xFF;
+        
+        int y0 = SBOX[0][a] ^ SBOX[1][b] ^ SBOX[0][c] ^ SBOX[1][d];
+        int y1 = SBOX[1][a] ^ SBOX[0][b] ^ SBOX[1][c] ^ SBOX[0][d];
+        int y2 = SBOX[0][a] ^ SBOX[1][b] ^ SBOX[0][c] ^ SBOX[1][d];
+        int y3 = SBOX[1][a] ^ SBOX[0][b] ^ SBOX[1][c] ^ SBOX[0][d];
+        
+        return (y3 << 24) | (y2 << 16) | (y1 << 8) | y0;
+    }
+    
+    // Генерация подключей (упрощенная версия)
+    private int[] generateSubkeys(byte[] key) {
+        int[] subkeys = new int[40]; // 8 для отбеливания + 32 для раундов
+        
+        // Простое расширение ключа (в реальной реализации это сложнее)
+        int[] keyWords = bytesToWords(padKey(key));
+        
+        for (int i = 0; i < subkeys.length; i++) {
+            subkeys[i] = keyWords[i % keyWords.length] + i * 0x9E3779B9;
+            subkeys[i] = Integer.rotateLeft(subkeys[i], i % 32);
+        }
+        
+        return subkeys;
+    }
+    
+    // Дополнение ключа до нужного размера
+    private byte[] padKey(byte[] key) {
+        byte[] padded = new byte[32]; // Максимальный размер ключа
+        System.arraycopy(key, 0, padded, 0, Math.min(key.length, 32));
+        return padded;
+    }
+    
+    // Преобразование байтов в 32-битные слова (little-endian)
+    private static int[] bytesToWords(byte[] bytes) {
+        int[] words = new int[bytes.length / 4];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = (bytes[4*i] & 0xFF) | 
+                      ((bytes[4*i+1] & 0xFF) << 8) | 
+                      ((bytes[4*i+2] & 0xFF) << 16) | 
+                      ((bytes[4*i+3] & 0xFF) << 24);
+        }
+        return words;
+    }
+    
+    // Развёрнутый ключ Twofish: подключи вычисляются один раз.
+    // Слова читаются через little-endian VarHandle; массивы и буферы проходят через общие раунды
+    private static final class ExpandedKey implements IExpandedKey {
+        
+        private final int[] subkeys;
+        
+        private ExpandedKey(int[] subkeys) {
+            this.subkeys = subkeys;
+        }
+        
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            encrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
+        }
+        
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            encrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
+        }
+        
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            decrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
+        }
+        
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            decrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
+        }
+        
+        @Override
+        public int getBlockSize() {
+            return BLOCK_SIZE_BYTES;
+        }
+        
+        // Раунды шифрования; результат пишется в out или outBuffer (второй равен null)
+        private void encrypt(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            // Предварительное отбеливание
+            int a = w0 ^ subkeys[0];
+            int b = w1 ^ subkeys[1];
+            int c = w2 ^ subkeys[2];
+            int d = w3 ^ subkeys[3];
+            
+            // 16 раундов, по два за итерацию: вместо обмена половин меняются роли пар (a, b) и (c, d)
+            for (int round = 0; round < ROUNDS; round += 2) {
+                int t0 = g(a, subkeys);
+                int t1 = g(Integer.rotateLeft(b, 8), subkeys);
+                c = Integer.rotateRight(c ^ (t0 + t1 + subkeys[2 * round + 8]), 1);
+                d = Integer.rotateLeft(d, 1) ^ (t0 + 2 * t1 + subkeys[2 * round + 9]);
+                
+                t0 = g(c, subkeys);
+                t1 = g(Integer.rotateLeft(d, 8), subkeys);
+                a = Integer.rotateRight(a ^ (t0 + t1 + subkeys[2 * round + 10]), 1);
+                b = Integer.rotateLeft(b, 1) ^ (t0 + 2 * t1 + subkeys[2 * round + 11]);
+            }
+            
+            // Отмена последнего обмена и финальное отбеливание
+            writeWords(c ^ subkeys[4], d ^ subkeys[5], a ^ subkeys[6], b ^ subkeys[7], out, outBuffer, outOff);
+        }
+        
+        private void decrypt(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            // Обратное финальное отбеливание с восстановлением последнего обмена
+            int c = w0 ^ subkeys[4];
+            int d = w1 ^ subkeys[5];
+            int a = w2 ^ subkeys[6];
+            int b = w3 ^ subkeys[7];
+            
+            // 16 раундов в обратном порядке
+            for (int round = ROUNDS - 2; round >= 0; round -= 2) {
+                int t0 = g(c, subkeys);
+                int t1 = g(Integer.rotateLeft(d, 8), subkeys);
+                a = Integer.rotateLeft(a, 1) ^ (t0 + t1 + subkeys[2 * round + 10]);
+                b = Integer.rotateRight(b ^ (t0 + 2 * t1 + subkeys[2 * round + 11]), 1);
+                
+                t0 = g(a, subkeys);
+                t1 = g(Integer.rotateLeft(b, 8), subkeys);
+                c = Integer.rotateLeft(c, 1) ^ (t0 + t1 + subkeys[2 * round + 8]);
+                d = Integer.rotateRight(d ^ (t0 + 2 * t1 + subkeys[2 * round + 9]), 1);
+            }
+            
+            // Обратное предварительное отбеливание
+            writeWords(a ^ subkeys[0], b ^ subkeys[1], c ^ subkeys[2], d ^ subkeys[3], out, outBuffer, outOff);
+        }
+        
+        // Запись четырёх 32-битных слов в little-endian
+        private static void writeWords(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            if (out != null) {
+                LittleEndian.putInt(out, outOff, w0);
+                LittleEndian.putInt(out, outOff + 4, w1);
+                LittleEndian.putInt(out, outOff + 8, w2);
+                LittleEndian.putInt(out, outOff + 12, w3);
+            } else {
+                LittleEndian.putInt(outBuffer, outOff, w0);
+                LittleEndian.putInt(outBuffer, outOff + 4, w1);
+                LittleEndian.putInt(outBuffer, outOff + 8, w2);
+                LittleEndian.putInt(outBuffer, outOff + 12, w3);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Возведение в степень по модулю групп MODP, как в Диффи-Хеллмане: BigInteger.modPow против
+ * движка Монтгомери из {@link CryptoMathUtils} всеми способами. Выделение памяти на операцию
+ * (gc.alloc.rate.norm) - в профиле gc, который включён в build.gradle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModPowBenchmark {
+
+    @Param({"2048", "3072"})
+    private int bits;
+
+    @Param({"BigInteger", "SLIDING_WINDOW", "FIXED_WINDOW", "LADDER"})
+    private String method;
+
+    private BigInteger p;
+    private BigInteger base;
+    private BigInteger exponent;
+    private CryptoMathUtils.Montgomery montgomery;
+    private CryptoMathUtils.Exponentiation exponentiation;
+
+    @Setup
+    public void setUp() {
+        p = (bits == 2048 ? DhGroup.MODP_2048 : DhGroup.MODP_3072).getP();
+        Random random = new Random(1);
+        // Основание - чужой публичный ключ, показатель - приватный ключ той же длины, что в DiffieHellman
+        base = new BigInteger(bits - 1, random);
+        exponent = new BigInteger(bits - 1, random);
+        montgomery = new CryptoMathUtils.Montgomery(p);
+        exponentiation = "BigInteger".equals(method) ? null : CryptoMathUtils.Exponentiation.valueOf(method);
+    }
+
+    @Benchmark
+    public BigInteger modPow() {
+        if (exponentiation == null) {
+            return base.modPow(exponent, p);
+        }
+        return montgomery.modPow(base, exponent, exponentiation);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный цикл BlockCipherModes (RC6) для каждого режима и набивки на размерах от 64 Б до 64 МБ.
+ * Пропускная способность в операциях; для МБ/с умножить на size. С профилировщиком gc
+ * (включён в build.gradle) видно и выделение памяти на операцию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ModesBenchmark {
+
+    @Param({"ECB", "CBC", "PCBC", "CFB", "OFB", "CTR", "RANDOM_DELTA"})
+    private CipherMode mode;
+
+    @Param({"PKCS7", "ZEROS", "ANSI_X923", "ISO_10126"})
+    private PaddingMode padding;
+
+    @Param({"64", "4096", "1048576", "67108864"})
+    private int size;
+
+    private BlockCipherModes modes;
+    private IExpandedKey key;
+    private byte[] iv;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RC6 cipher = new RC6();
+        modes = new BlockCipherModes(cipher);
+        key = cipher.init(new byte[16]);
+        iv = modes.generateIV();
+        plaintext = new byte[size];
+        new Random(1).nextBytes(plaintext);
+        ciphertext = modes.encrypt(plaintext, key, iv, mode, padding);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return modes.encrypt(plaintext, key, iv, mode, padding);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return modes.decrypt(ciphertext, key, iv, mode, padding);
+    }
+}
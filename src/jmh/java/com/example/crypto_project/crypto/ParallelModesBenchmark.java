@@ -0,0 +1,70 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование параллельных режимов по числу потоков (1..N).
+ * Порог параллельности обнулён, чтобы при threads > 1 всегда работал пул.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelModesBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int threads;
+
+    @Param({"ECB", "CTR", "CBC", "CFB"})
+    private CipherMode mode;
+
+    @Param({"67108864"})
+    private int size;
+
+    private ForkJoinPool pool;
+    private BlockCipherModes modes;
+    private IExpandedKey key;
+    private byte[] iv;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RC6 cipher = new RC6();
+        pool = new ForkJoinPool(threads);
+        modes = new BlockCipherModes(cipher, pool, 0);
+        key = cipher.init(new byte[16]);
+        iv = modes.generateIV();
+        plaintext = new byte[size];
+        new Random(1).nextBytes(plaintext);
+        ciphertext = modes.encrypt(plaintext, key, iv, mode, PaddingMode.PKCS7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Для CBC/CFB параллельно только дешифрование, шифрование остаётся последовательным
+    @Benchmark
+    public byte[] encrypt() {
+        return modes.encrypt(plaintext, key, iv, mode, PaddingMode.PKCS7);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return modes.decrypt(ciphertext, key, iv, mode, PaddingMode.PKCS7);
+    }
+}
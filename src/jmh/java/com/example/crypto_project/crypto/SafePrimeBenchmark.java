@@ -0,0 +1,73 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время до безопасного простого у {@link CryptoMathUtils.SafePrimeGenerator} в зависимости от числа потоков
+ * и у последовательного BigInteger.probablePrime с проверкой 2q + 1.
+ * Счётчик candidates (кандидатов после решета в секунду) выводится рядом с основным результатом.
+ * Время поиска распределено геометрически, поэтому итерации длиннее обычных.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SafePrimeBenchmark {
+
+    @Param({"512", "1024"})
+    private int bits;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private CryptoMathUtils.SafePrimeGenerator generator;
+    private final SecureRandom random = new SecureRandom();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Candidates {
+
+        public long candidates;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            candidates = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        generator = new CryptoMathUtils.SafePrimeGenerator(threads);
+    }
+
+    @Benchmark
+    public BigInteger generate(Candidates counters) {
+        CryptoMathUtils.SafePrime safePrime = generator.generate(bits);
+        counters.candidates += safePrime.getCandidates();
+        return safePrime.getP();
+    }
+
+    // Исходный способ: простое q, пока 2q + 1 не окажется простым (от числа потоков не зависит)
+    @Benchmark
+    public BigInteger probablePrime() {
+        while (true) {
+            BigInteger q = BigInteger.probablePrime(bits - 1, random);
+            BigInteger p = q.shiftLeft(1).setBit(0);
+            if (p.isProbablePrime(64)) {
+                return p;
+            }
+        }
+    }
+}
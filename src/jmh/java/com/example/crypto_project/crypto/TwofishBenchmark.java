@@ -0,0 +1,62 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение табличного Twofish с полным развёртыванием ключа и прежней упрощённой реализации:
+ * шифрование блока, развёртывание ключа и шифрование 64 КБ в ECB.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TwofishBenchmark {
+
+    @Param({"full-keying", "legacy"})
+    private String implementation;
+
+    private ISymmetricCipher cipher;
+    private IExpandedKey expandedKey;
+    private byte[] key;
+    private byte[] block;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        cipher = "legacy".equals(implementation) ? new LegacyTwofish() : new Twofish();
+        key = new byte[32];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        block = new byte[16];
+        data = new byte[64 * 1024];
+        expandedKey = cipher.init(key);
+    }
+
+    @Benchmark
+    public byte[] encryptBlock() {
+        expandedKey.encryptBlock(block, 0, block, 0);
+        return block;
+    }
+
+    @Benchmark
+    public IExpandedKey keyExpansion() {
+        return cipher.init(key);
+    }
+
+    @Benchmark
+    public byte[] encrypt64K() {
+        for (int i = 0; i < data.length; i += 16) {
+            expandedKey.encryptBlock(data, i, data, i);
+        }
+        return data;
+    }
+}
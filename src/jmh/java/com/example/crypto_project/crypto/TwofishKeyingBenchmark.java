@@ -0,0 +1,49 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точка пересечения стратегий развёртывания ключа Twofish: новый ключ и шифрование
+ * size байт под ним. По результатам выставлены пороги в {@link Twofish.Keying#forVolume(long)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TwofishKeyingBenchmark {
+
+    @Param({"ZERO", "PARTIAL", "FULL"})
+    private Twofish.Keying keying;
+
+    @Param({"16", "64", "128", "256", "512", "1024", "4096", "65536"})
+    private int size;
+
+    private final Twofish cipher = new Twofish();
+    private byte[] key;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        key = new byte[32];
+        data = new byte[size];
+    }
+
+    @Benchmark
+    public byte[] keyAndEncrypt() {
+        // Новый ключ на каждое сообщение, как в сессиях чата
+        key[0]++;
+        IExpandedKey expandedKey = cipher.init(key, keying);
+        for (int i = 0; i < data.length; i += 16) {
+            expandedKey.encryptBlock(data, i, data, i);
+        }
+        return data;
+    }
+}
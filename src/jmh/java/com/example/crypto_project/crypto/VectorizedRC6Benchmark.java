@@ -0,0 +1,52 @@
+package com.example.crypto_project.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шифрование 64 КБ скалярным RC6 и векторным RC6Vectorized.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VectorizedRC6Benchmark {
+
+    private static final int BLOCKS = 4096;
+
+    @Param({"scalar", "vector"})
+    private String implementation;
+
+    private IExpandedKey expandedKey;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[16];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        ISymmetricCipher cipher = "vector".equals(implementation) ? new RC6Vectorized() : new RC6();
+        expandedKey = cipher.init(key);
+        data = new byte[BLOCKS * 16];
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        expandedKey.encryptBlocks(data, 0, data, 0, BLOCKS);
+        return data;
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        expandedKey.decryptBlocks(data, 0, data, 0, BLOCKS);
+        return data;
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.crypto_project.crypto;
+
+/**
+ * Ядра Twofish на 8 блоков за проход - только для сравнения в {@link InterleavingBenchmark}.
+ * В рабочем коде их нет: состояние 8 блоков не помещается в регистры, и по замеру ядро
+ * медленнее рабочего на 4 блока ({@link Twofish.ExpandedKey#INTERLEAVE}).
+ */
+final class WideTwofishKernel {
+
+    private static final int BLOCK_SIZE_BYTES = 16;
+    private static final int ROUNDS = 16;
+
+    private WideTwofishKernel() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Шифрование по 8 блоков; хвост - рабочими ядрами ключа
+     */
+    static void encryptBlocks(Twofish.ExpandedKey key, byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int i = 0;
+        for (; i + 8 <= nBlocks; i += 8) {
+            encrypt8(key, in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+        }
+        key.encryptBlocks(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES, nBlocks - i);
+    }
+
+    static void decryptBlocks(Twofish.ExpandedKey key, byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int i = 0;
+        for (; i + 8 <= nBlocks; i += 8) {
+            decrypt8(key, in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+        }
+        key.decryptBlocks(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES, nBlocks - i);
+    }
+
+    // 8 независимых блоков шифруются вперемешку: обращения к таблицам разных блоков
+    // перекрываются по задержке
+    private static void encrypt8(Twofish.ExpandedKey key, byte[] in, int inOff, byte[] out, int outOff) {
+        int[] subkeys = key.subkeys();
+        int a0 = LittleEndian.getInt(in, inOff) ^ subkeys[0];
+        int b0 = LittleEndian.getInt(in, inOff + 4) ^ subkeys[1];
+        int c0 = LittleEndian.getInt(in, inOff + 8) ^ subkeys[2];
+        int d0 = LittleEndian.getInt(in, inOff + 12) ^ subkeys[3];
+        int a1 = LittleEndian.getInt(in, inOff + 16) ^ subkeys[0];
+        int b1 = LittleEndian.getInt(in, inOff + 20) ^ subkeys[1];
+        int c1 = LittleEndian.getInt(in, inOff + 24) ^ subkeys[2];
+        int d1 = LittleEndian.getInt(in, inOff + 28) ^ subkeys[3];
+        int a2 = LittleEndian.getInt(in, inOff + 32) ^ subkeys[0];
+        int b2 = LittleEndian.getInt(in, inOff + 36) ^ subkeys[1];
+        int c2 = LittleEndian.getInt(in, inOff + 40) ^ subkeys[2];
+        int d2 = LittleEndian.getInt(in, inOff + 44) ^ subkeys[3];
+        int a3 = LittleEndian.getInt(in, inOff + 48) ^ subkeys[0];
+        int b3 = LittleEndian.getInt(in, inOff + 52) ^ subkeys[1];
+        int c3 = LittleEndian.getInt(in, inOff + 56) ^ subkeys[2];
+        int d3 = LittleEndian.getInt(in, inOff + 60) ^ subkeys[3];
+        int a4 = LittleEndian.getInt(in, inOff + 64) ^ subkeys[0];
+        int b4 = LittleEndian.getInt(in, inOff + 68) ^ subkeys[1];
+        int c4 = LittleEndian.getInt(in, inOff + 72) ^ subkeys[2];
+        int d4 = LittleEndian.getInt(in, inOff + 76) ^ subkeys[3];
+        int a5 = LittleEndian.getInt(in, inOff + 80) ^ subkeys[0];
+        int b5 = LittleEndian.getInt(in, inOff + 84) ^ subkeys[1];
+        int c5 = LittleEndian.getInt(in, inOff + 88) ^ subkeys[2];
+        int d5 = LittleEndian.getInt(in, inOff + 92) ^ subkeys[3];
+        int a6 = LittleEndian.getInt(in, inOff + 96) ^ subkeys[0];
+        int b6 = LittleEndian.getInt(in, inOff + 100) ^ subkeys[1];
+        int c6 = LittleEndian.getInt(in, inOff + 104) ^ subkeys[2];
+        int d6 = LittleEndian.getInt(in, inOff + 108) ^ subkeys[3];
+        int a7 = LittleEndian.getInt(in, inOff + 112) ^ subkeys[0];
+        int b7 = LittleEndian.getInt(in, inOff + 116) ^ subkeys[1];
+        int c7 = LittleEndian.getInt(in, inOff + 120) ^ subkeys[2];
+        int d7 = LittleEndian.getInt(in, inOff + 124) ^ subkeys[3];
+
+        for (int round = 0; round < ROUNDS; round += 2) {
+            int k0 = subkeys[2 * round + 8];
+            int k1 = subkeys[2 * round + 9];
+            int k2 = subkeys[2 * round + 10];
+            int k3 = subkeys[2 * round + 11];
+            int x0 = key.g(a0);
+            int y0 = key.g(Integer.rotateLeft(b0, 8));
+            int x1 = key.g(a1);
+            int y1 = key.g(Integer.rotateLeft(b1, 8));
+            int x2 = key.g(a2);
+            int y2 = key.g(Integer.rotateLeft(b2, 8));
+            int x3 = key.g(a3);
+            int y3 = key.g(Integer.rotateLeft(b3, 8));
+            int x4 = key.g(a4);
+            int y4 = key.g(Integer.rotateLeft(b4, 8));
+            int x5 = key.g(a5);
+            int y5 = key.g(Integer.rotateLeft(b5, 8));
+            int x6 = key.g(a6);
+            int y6 = key.g(Integer.rotateLeft(b6, 8));
+            int x7 = key.g(a7);
+            int y7 = key.g(Integer.rotateLeft(b7, 8));
+            c0 = Integer.rotateRight(c0 ^ (x0 + y0 + k0), 1);
+            d0 = Integer.rotateLeft(d0, 1) ^ (x0 + 2 * y0 + k1);
+            c1 = Integer.rotateRight(c1 ^ (x1 + y1 + k0), 1);
+            d1 = Integer.rotateLeft(d1, 1) ^ (x1 + 2 * y1 + k1);
+            c2 = Integer.rotateRight(c2 ^ (x2 + y2 + k0), 1);
+            d2 = Integer.rotateLeft(d2, 1) ^ (x2 + 2 * y2 + k1);
+            c3 = Integer.rotateRight(c3 ^ (x3 + y3 + k0), 1);
+            d3 = Integer.rotateLeft(d3, 1) ^ (x3 + 2 * y3 + k1);
+            c4 = Integer.rotateRight(c4 ^ (x4 + y4 + k0), 1);
+            d4 = Integer.rotateLeft(d4, 1) ^ (x4 + 2 * y4 + k1);
+            c5 = Integer.rotateRight(c5 ^ (x5 + y5 + k0), 1);
+            d5 = Integer.rotateLeft(d5, 1) ^ (x5 + 2 * y5 + k1);
+            c6 = Integer.rotateRight(c6 ^ (x6 + y6 + k0), 1);
+            d6 = Integer.rotateLeft(d6, 1) ^ (x6 + 2 * y6 + k1);
+            c7 = Integer.rotateRight(c7 ^ (x7 + y7 + k0), 1);
+            d7 = Integer.rotateLeft(d7, 1) ^ (x7 + 2 * y7 + k1);
+            x0 = key.g(c0);
+            y0 = key.g(Integer.rotateLeft(d0, 8));
+            x1 = key.g(c1);
+            y1 = key.g(Integer.rotateLeft(d1, 8));
+            x2 = key.g(c2);
+            y2 = key.g(Integer.rotateLeft(d2, 8));
+            x3 = key.g(c3);
+            y3 = key.g(Integer.rotateLeft(d3, 8));
+            x4 = key.g(c4);
+            y4 = key.g(Integer.rotateLeft(d4, 8));
+            x5 = key.g(c5);
+            y5 = key.g(Integer.rotateLeft(d5, 8));
+            x6 = key.g(c6);
+            y6 = key.g(Integer.rotateLeft(d6, 8));
+            x7 = key.g(c7);
+            y7 = key.g(Integer.rotateLeft(d7, 8));
+            a0 = Integer.rotateRight(a0 ^ (x0 + y0 + k2), 1);
+            b0 = Integer.rotateLeft(b0, 1) ^ (x0 + 2 * y0 + k3);
+            a1 = Integer.rotateRight(a1 ^ (x1 + y1 + k2), 1);
+            b1 = Integer.rotateLeft(b1, 1) ^ (x1 + 2 * y1 + k3);
+            a2 = Integer.rotateRight(a2 ^ (x2 + y2 + k2), 1);
+            b2 = Integer.rotateLeft(b2, 1) ^ (x2 + 2 * y2 + k3);
+            a3 = Integer.rotateRight(a3 ^ (x3 + y3 + k2), 1);
+            b3 = Integer.rotateLeft(b3, 1) ^ (x3 + 2 * y3 + k3);
+            a4 = Integer.rotateRight(a4 ^ (x4 + y4 + k2), 1);
+            b4 = Integer.rotateLeft(b4, 1) ^ (x4 + 2 * y4 + k3);
+            a5 = Integer.rotateRight(a5 ^ (x5 + y5 + k2), 1);
+            b5 = Integer.rotateLeft(b5, 1) ^ (x5 + 2 * y5 + k3);
+            a6 = Integer.rotateRight(a6 ^ (x6 + y6 + k2), 1);
+            b6 = Integer.rotateLeft(b6, 1) ^ (x6 + 2 * y6 + k3);
+            a7 = Integer.rotateRight(a7 ^ (x7 + y7 + k2), 1);
+            b7 = Integer.rotateLeft(b7, 1) ^ (x7 + 2 * y7 + k3);
+        }
+
+        writeWords(c0 ^ subkeys[4], d0 ^ subkeys[5], a0 ^ subkeys[6], b0 ^ subkeys[7], out, outOff);
+        writeWords(c1 ^ subkeys[4], d1 ^ subkeys[5], a1 ^ subkeys[6], b1 ^ subkeys[7], out, outOff + 16);
+        writeWords(c2 ^ subkeys[4], d2 ^ subkeys[5], a2 ^ subkeys[6], b2 ^ subkeys[7], out, outOff + 32);
+        writeWords(c3 ^ subkeys[4], d3 ^ subkeys[5], a3 ^ subkeys[6], b3 ^ subkeys[7], out, outOff + 48);
+        writeWords(c4 ^ subkeys[4], d4 ^ subkeys[5], a4 ^ subkeys[6], b4 ^ subkeys[7], out, outOff + 64);
+        writeWords(c5 ^ subkeys[4], d5 ^ subkeys[5], a5 ^ subkeys[6], b5 ^ subkeys[7], out, outOff + 80);
+        writeWords(c6 ^ subkeys[4], d6 ^ subkeys[5], a6 ^ subkeys[6], b6 ^ subkeys[7], out, outOff + 96);
+        writeWords(c7 ^ subkeys[4], d7 ^ subkeys[5], a7 ^ subkeys[6], b7 ^ subkeys[7], out, outOff + 112);
+    }
+
+    // 8 независимых блоков дешифруются вперемешку: обращения к таблицам разных блоков
+    // перекрываются по задержке
+    private static void decrypt8(Twofish.ExpandedKey key, byte[] in, int inOff, byte[] out, int outOff) {
+        int[] subkeys = key.subkeys();
+        int c0 = LittleEndian.getInt(in, inOff) ^ subkeys[4];
+        int d0 = LittleEndian.getInt(in, inOff + 4) ^ subkeys[5];
+        int a0 = LittleEndian.getInt(in, inOff + 8) ^ subkeys[6];
+        int b0 = LittleEndian.getInt(in, inOff + 12) ^ subkeys[7];
+        int c1 = LittleEndian.getInt(in, inOff + 16) ^ subkeys[4];
+        int d1 = LittleEndian.getInt(in, inOff + 20) ^ subkeys[5];
+        int a1 = LittleEndian.getInt(in, inOff + 24) ^ subkeys[6];
+        int b1 = LittleEndian.getInt(in, inOff + 28) ^ subkeys[7];
+        int c2 = LittleEndian.getInt(in, inOff + 32) ^ subkeys[4];
+        int d2 = LittleEndian.getInt(in, inOff + 36) ^ subkeys[5];
+        int a2 = LittleEndian.getInt(in, inOff + 40) ^ subkeys[6];
+        int b2 = LittleEndian.getInt(in, inOff + 44) ^ subkeys[7];
+        int c3 = LittleEndian.getInt(in, inOff + 48) ^ subkeys[4];
+        int d3 = LittleEndian.getInt(in, inOff + 52) ^ subkeys[5];
+        int a3 = LittleEndian.getInt(in, inOff + 56) ^ subkeys[6];
+        int b3 = LittleEndian.getInt(in, inOff + 60) ^ subkeys[7];
+        int c4 = LittleEndian.getInt(in, inOff + 64) ^ subkeys[4];
+        int d4 = LittleEndian.getInt(in, inOff + 68) ^ subkeys[5];
+        int a4 = LittleEndian.getInt(in, inOff + 72) ^ subkeys[6];
+        int b4 = LittleEndian.getInt(in, inOff + 76) ^ subkeys[7];
+        int c5 = LittleEndian.getInt(in, inOff + 80) ^ subkeys[4];
+        int d5 = LittleEndian.getInt(in, inOff + 84) ^ subkeys[5];
+        int a5 = LittleEndian.getInt(in, inOff + 88) ^ subkeys[6];
+        int b5 = LittleEndian.getInt(in, inOff + 92) ^ subkeys[7];
+        int c6 = LittleEndian.getInt(in, inOff + 96) ^ subkeys[4];
+        int d6 = LittleEndian.getInt(in, inOff + 100) ^ subkeys[5];
+        int a6 = LittleEndian.getInt(in, inOff + 104) ^ subkeys[6];
+        int b6 = LittleEndian.getInt(in, inOff + 108) ^ subkeys[7];
+        int c7 = LittleEndian.getInt(in, inOff + 112) ^ subkeys[4];
+        int d7 = LittleEndian.getInt(in, inOff + 116) ^ subkeys[5];
+        int a7 = LittleEndian.getInt(in, inOff + 120) ^ subkeys[6];
+        int b7 = LittleEndian.getInt(in, inOff + 124) ^ subkeys[7];
+
+        for (int round = ROUNDS - 2; round >= 0; round -= 2) {
+            int k0 = subkeys[2 * round + 8];
+            int k1 = subkeys[2 * round + 9];
+            int k2 = subkeys[2 * round + 10];
+            int k3 = subkeys[2 * round + 11];
+            int x0 = key.g(c0);
+            int y0 = key.g(Integer.rotateLeft(d0, 8));
+            int x1 = key.g(c1);
+            int y1 = key.g(Integer.rotateLeft(d1, 8));
+            int x2 = key.g(c2);
+            int y2 = key.g(Integer.rotateLeft(d2, 8));
+            int x3 = key.g(c3);
+            int y3 = key.g(Integer.rotateLeft(d3, 8));
+            int x4 = key.g(c4);
+            int y4 = key.g(Integer.rotateLeft(d4, 8));
+            int x5 = key.g(c5);
+            int y5 = key.g(Integer.rotateLeft(d5, 8));
+            int x6 = key.g(c6);
+            int y6 = key.g(Integer.rotateLeft(d6, 8));
+            int x7 = key.g(c7);
+            int y7 = key.g(Integer.rotateLeft(d7, 8));
+            a0 = Integer.rotateLeft(a0, 1) ^ (x0 + y0 + k2);
+            b0 = Integer.rotateRight(b0 ^ (x0 + 2 * y0 + k3), 1);
+            a1 = Integer.rotateLeft(a1, 1) ^ (x1 + y1 + k2);
+            b1 = Integer.rotateRight(b1 ^ (x1 + 2 * y1 + k3), 1);
+            a2 = Integer.rotateLeft(a2, 1) ^ (x2 + y2 + k2);
+            b2 = Integer.rotateRight(b2 ^ (x2 + 2 * y2 + k3), 1);
+            a3 = Integer.rotateLeft(a3, 1) ^ (x3 + y3 + k2);
+            b3 = Integer.rotateRight(b3 ^ (x3 + 2 * y3 + k3), 1);
+            a4 = Integer.rotateLeft(a4, 1) ^ (x4 + y4 + k2);
+            b4 = Integer.rotateRight(b4 ^ (x4 + 2 * y4 + k3), 1);
+            a5 = Integer.rotateLeft(a5, 1) ^ (x5 + y5 + k2);
+            b5 = Integer.rotateRight(b5 ^ (x5 + 2 * y5 + k3), 1);
+            a6 = Integer.rotateLeft(a6, 1) ^ (x6 + y6 + k2);
+            b6 = Integer.rotateRight(b6 ^ (x6 + 2 * y6 + k3), 1);
+            a7 = Integer.rotateLeft(a7, 1) ^ (x7 + y7 + k2);
+            b7 = Integer.rotateRight(b7 ^ (x7 + 2 * y7 + k3), 1);
+            x0 = key.g(a0);
+            y0 = key.g(Integer.rotateLeft(b0, 8));
+            x1 = key.g(a1);
+            y1 = key.g(Integer.rotateLeft(b1, 8));
+            x2 = key.g(a2);
+            y2 = key.g(Integer.rotateLeft(b2, 8));
+            x3 = key.g(a3);
+            y3 = key.g(Integer.rotateLeft(b3, 8));
+            x4 = key.g(a4);
+            y4 = key.g(Integer.rotateLeft(b4, 8));
+            x5 = key.g(a5);
+            y5 = key.g(Integer.rotateLeft(b5, 8));
+            x6 = key.g(a6);
+            y6 = key.g(Integer.rotateLeft(b6, 8));
+            x7 = key.g(a7);
+            y7 = key.g(Integer.rotateLeft(b7, 8));
+            c0 = Integer.rotateLeft(c0, 1) ^ (x0 + y0 + k0);
+            d0 = Integer.rotateRight(d0 ^ (x0 + 2 * y0 + k1), 1);
+            c1 = Integer.rotateLeft(c1, 1) ^ (x1 + y1 + k0);
+            d1 = Integer.rotateRight(d1 ^ (x1 + 2 * y1 + k1), 1);
+            c2 = Integer.rotateLeft(c2, 1) ^ (x2 + y2 + k0);
+            d2 = Integer.rotateRight(d2 ^ (x2 + 2 * y2 + k1), 1);
+            c3 = Integer.rotateLeft(c3, 1) ^ (x3 + y3 + k0);
+            d3 = Integer.rotateRight(d3 ^ (x3 + 2 * y3 + k1), 1);
+            c4 = Integer.rotateLeft(c4, 1) ^ (x4 + y4 + k0);
+            d4 = Integer.rotateRight(d4 ^ (x4 + 2 * y4 + k1), 1);
+            c5 = Integer.rotateLeft(c5, 1) ^ (x5 + y5 + k0);
+            d5 = Integer.rotateRight(d5 ^ (x5 + 2 * y5 + k1), 1);
+            c6 = Integer.rotateLeft(c6, 1) ^ (x6 + y6 + k0);
+            d6 = Integer.rotateRight(d6 ^ (x6 + 2 * y6 + k1), 1);
+            c7 = Integer.rotateLeft(c7, 1) ^ (x7 + y7 + k0);
+            d7 = Integer.rotateRight(d7 ^ (x7 + 2 * y7 + k1), 1);
+        }
+
+        writeWords(a0 ^ subkeys[0], b0 ^ subkeys[1], c0 ^ subkeys[2], d0 ^ subkeys[3], out, outOff);
+        writeWords(a1 ^ subkeys[0], b1 ^ subkeys[1], c1 ^ subkeys[2], d1 ^ subkeys[3], out, outOff + 16);
+        writeWords(a2 ^ subkeys[0], b2 ^ subkeys[1], c2 ^ subkeys[2], d2 ^ subkeys[3], out, outOff + 32);
+        writeWords(a3 ^ subkeys[0], b3 ^ subkeys[1], c3 ^ subkeys[2], d3 ^ subkeys[3], out, outOff + 48);
+        writeWords(a4 ^ subkeys[0], b4 ^ subkeys[1], c4 ^ subkeys[2], d4 ^ subkeys[3], out, outOff + 64);
+        writeWords(a5 ^ subkeys[0], b5 ^ subkeys[1], c5 ^ subkeys[2], d5 ^ subkeys[3], out, outOff + 80);
+        writeWords(a6 ^ subkeys[0], b6 ^ subkeys[1], c6 ^ subkeys[2], d6 ^ subkeys[3], out, outOff + 96);
+        writeWords(a7 ^ subkeys[0], b7 ^ subkeys[1], c7 ^ subkeys[2], d7 ^ subkeys[3], out, outOff + 112);
+    }
+
+    private static void writeWords(int w0, int w1, int w2, int w3, byte[] out, int outOff) {
+        LittleEndian.putInt(out, outOff, w0);
+        LittleEndian.putInt(out, outOff + 4, w1);
+        LittleEndian.putInt(out, outOff + 8, w2);
+        LittleEndian.putInt(out, outOff + 12, w3);
+    }
+}
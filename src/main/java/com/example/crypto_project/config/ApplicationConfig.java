@@ -1,10 +1,15 @@
 package com.example.crypto_project.config;
 
+import com.example.crypto_project.crypto.CipherRegistry;
+import com.example.crypto_project.crypto.ExpandedKeyCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class ApplicationConfig {
 
@@ -12,4 +17,16 @@ public class ApplicationConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public CipherRegistry cipherRegistry() {
+        return CipherRegistry.withDefaults();
+    }
+
+    // При остановке приложения фоновое вытеснение останавливается, все развёрнутые ключи затираются
+    @Bean(destroyMethod = "close")
+    public ExpandedKeyCache expandedKeyCache(@Value("${app.crypto.keyCache.maxEntries:4096}") int maxEntries,
+                                             @Value("${app.crypto.keyCache.maxIdleSeconds:600}") long maxIdleSeconds) {
+        return new ExpandedKeyCache(maxEntries, Duration.ofSeconds(maxIdleSeconds));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.crypto_project.controller;
+
+import com.example.crypto_project.crypto.CipherCalibrator;
+import com.example.crypto_project.crypto.ExpandedKeyCache;
+import com.example.crypto_project.service.CipherCalibrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collection;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/crypto")
+@RequiredArgsConstructor
+public class CryptoController {
+
+    private final CipherCalibrationService calibrationService;
+    private final ExpandedKeyCache expandedKeyCache;
+
+    /**
+     * Выбранные реализации шифров, пороги параллельной обработки и замеренная скорость (МБ/с).
+     * Выбор действует на режимы, которые сервер создаёт через CipherRegistry.createModes;
+     * сообщения чата шифруются в браузере, и на них калибровка не влияет.
+     */
+    @GetMapping("/calibration")
+    public ResponseEntity<Collection<CipherCalibrator.Result>> getCalibration() {
+        return ResponseEntity.ok(calibrationService.getResults());
+    }
+
+    /**
+     * Счётчики кэша развёрнутых ключей. Кэш используют режимы, созданные через
+     * CipherRegistry.createModes(name, expandedKeyCache); сообщения чата шифруются в браузере
+     * и счётчики не меняют.
+     */
+    @GetMapping("/key-cache")
+    public ResponseEntity<Map<String, Long>> getKeyCache() {
+        return ResponseEntity.ok(Map.of(
+                "size", (long) expandedKeyCache.getSize(),
+                "maxEntries", (long) expandedKeyCache.getMaxEntries(),
+                "hits", expandedKeyCache.getHits(),
+                "misses", expandedKeyCache.getMisses(),
+                "evictions", expandedKeyCache.getEvictions()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.crypto_project.controller;
+
+import com.example.crypto_project.crypto.CipherMode;
+import com.example.crypto_project.crypto.CipherRegistry;
+import com.example.crypto_project.crypto.FileCipher;
+import com.example.crypto_project.crypto.IExpandedKey;
+import com.example.crypto_project.crypto.ISymmetricCipher;
+import com.example.crypto_project.crypto.PaddingMode;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+/**
+ * Консольное шифрование файлов без запуска Spring-контекста.
+ * <pre>
+ * encrypt|decrypt &lt;RC6|Twofish&gt; &lt;mode&gt; &lt;padding&gt; &lt;in&gt; &lt;out&gt; &lt;keyHex&gt; &lt;ivHex&gt;
+ * bench &lt;RC6|Twofish&gt; &lt;mode&gt; &lt;padding&gt; &lt;in&gt; &lt;out&gt; &lt;keyHex&gt; &lt;ivHex&gt;
+ * </pre>
+ * Скорость выводится в МБ/с вместе с базовой скоростью чтения файла через FileInputStream.
+ */
+public class Main {
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 8) {
+            System.out.println("Usage: encrypt|decrypt|bench <RC6|Twofish> <mode> <padding> <in> <out> <keyHex> <ivHex>");
+            System.exit(1);
+        }
+        String command = args[0];
+        ISymmetricCipher cipher = CipherRegistry.withDefaults().get(args[1]);
+        CipherMode mode = CipherMode.valueOf(args[2].toUpperCase());
+        PaddingMode paddingMode = PaddingMode.valueOf(args[3].toUpperCase());
+        Path in = Path.of(args[4]);
+        Path out = Path.of(args[5]);
+        IExpandedKey key = cipher.init(HexFormat.of().parseHex(args[6]));
+        byte[] iv = HexFormat.of().parseHex(args[7]);
+        FileCipher fileCipher = new FileCipher();
+
+        switch (command) {
+            case "encrypt":
+                report("encrypt", Files.size(in), time(() -> fileCipher.encrypt(in, out, key, iv, mode, paddingMode)));
+                break;
+            case "decrypt":
+                report("decrypt", Files.size(in), time(() -> fileCipher.decrypt(in, out, key, iv, mode, paddingMode)));
+                break;
+            case "bench":
+                long size = Files.size(in);
+                report("FileInputStream read", size, time(() -> readFully(in)));
+                report("encrypt", size, time(() -> fileCipher.encrypt(in, out, key, iv, mode, paddingMode)));
+                report("decrypt", Files.size(out), time(() -> fileCipher.decrypt(out, in.resolveSibling(in.getFileName() + ".dec"),
+                        key, iv, mode, paddingMode)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    // Базовая линия: простое чтение файла в heap-буфер
+    private static void readFully(Path path) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(path.toFile())) {
+            while (in.read(buffer) != -1) {
+                // только чтение
+            }
+        }
+    }
+
+    private static long time(IoAction action) throws IOException {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, long bytes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-22s %10.1f MB in %7.3f s: %8.1f MB/s%n", label, bytes / MB, seconds, bytes / MB / seconds);
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
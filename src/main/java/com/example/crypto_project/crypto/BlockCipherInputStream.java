@@ -0,0 +1,111 @@
+package com.example.crypto_project.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Входной поток, шифрующий (или дешифрующий) данные исходного потока по мере чтения.
+ * В памяти держится только фиксированный буфер, поэтому размер входа не ограничен.
+ * Режим GCM недоступен: при создании потока - IllegalArgumentException.
+ */
+public class BlockCipherInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ModeProcessor processor;
+    private final byte[] inputBuffer = new byte[BUFFER_SIZE];
+    private final byte[] outputBuffer;
+    private final byte[] singleByte = new byte[1];
+    private int outputPosition;
+    private int outputLength;
+    private boolean finished;
+
+    private BlockCipherInputStream(InputStream in, ModeProcessor processor) {
+        super(in);
+        this.processor = processor;
+        this.outputBuffer = new byte[processor.getOutputSize(BUFFER_SIZE)];
+    }
+
+    public static BlockCipherInputStream encrypting(InputStream in, IExpandedKey key, byte[] iv,
+                                                    CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherInputStream(in, new ModeProcessor(key, iv, mode, paddingMode, true));
+    }
+
+    public static BlockCipherInputStream decrypting(InputStream in, IExpandedKey key, byte[] iv,
+                                                    CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherInputStream(in, new ModeProcessor(key, iv, mode, paddingMode, false));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte, 0, 1);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (outputPosition == outputLength) {
+            if (finished) {
+                return -1;
+            }
+            fill();
+        }
+        int n = Math.min(len, outputLength - outputPosition);
+        System.arraycopy(outputBuffer, outputPosition, b, off, n);
+        outputPosition += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Пропуск через чтение: состояние режима зависит от каждого байта
+        long skipped = 0;
+        while (skipped < n) {
+            while (outputPosition == outputLength) {
+                if (finished) {
+                    return skipped;
+                }
+                fill();
+            }
+            int step = (int) Math.min(n - skipped, outputLength - outputPosition);
+            outputPosition += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return outputLength - outputPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    // Очередная порция из исходного потока; по его окончании - завершение режима
+    private void fill() throws IOException {
+        int read = in.read(inputBuffer);
+        outputPosition = 0;
+        if (read == -1) {
+            outputLength = processor.doFinal(outputBuffer, 0);
+            finished = true;
+        } else {
+            outputLength = processor.update(inputBuffer, 0, read, outputBuffer, 0);
+        }
+    }
+}
@@ -1,26 +1,83 @@
 package com.example.crypto_project.crypto;
 
+import com.example.crypto_project.crypto.util.XorUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class BlockCipherModes {
-    
+
+    // Порог, начиная с которого независимые блоки обрабатываются параллельно
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024 * 1024;
+    // Размер порции для одного потока: кратен блоку и помещается в L2-кэш
+    static final int CHUNK_SIZE = 64 * 1024;
+    // Число блоков гаммы CTR, шифруемых одним вызовом encryptBlocks
+    private static final int KEYSTREAM_BATCH_BLOCKS = 64;
+    // Слово счётчика Random Delta: счётчики big-endian, как у CTR
+    private static final VarHandle COUNTER_WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
     private final ISymmetricCipher cipher;
     private final SecureRandom random = new SecureRandom();
-    
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    // Кэш развёрнутых ключей для методов с byte[] ключом; null - ключ разворачивается на каждый вызов.
+    // Таблицы GHASH кэшированных ключей хранит кэш; для остальных они строятся на вызов
+    private final ExpandedKeyCache keyCache;
+
     public BlockCipherModes(ISymmetricCipher cipher) {
+        this(cipher, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param cipher блочный шифр
+     * @param pool пул потоков для параллельных режимов (ECB, CTR, RANDOM_DELTA, дешифрование CBC/CFB)
+     * @param parallelThreshold минимальный размер данных в байтах для параллельной обработки
+     */
+    public BlockCipherModes(ISymmetricCipher cipher, ForkJoinPool pool, int parallelThreshold) {
+        this(cipher, pool, parallelThreshold, null);
+    }
+
+    /**
+     * @param keyCache кэш развёрнутых ключей или null
+     */
+    public BlockCipherModes(ISymmetricCipher cipher, ForkJoinPool pool, int parallelThreshold, ExpandedKeyCache keyCache) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold must not be negative.");
+        }
         this.cipher = cipher;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.keyCache = keyCache;
     }
-    
+
     // Генерация IV
     public byte[] generateIV() {
         byte[] iv = new byte[cipher.getBlockSize()];
         random.nextBytes(iv);
         return iv;
     }
-    
-    // Основной метод шифрования
+
+    // Основной метод шифрования; стратегия развёртывания ключа выбирается по объёму данных
     public byte[] encrypt(byte[] data, byte[] key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        if (keyCache != null && mode == CipherMode.GCM) {
+            return keyCache.withGaloisCounterMode(cipher, key, gcm -> gcm.encrypt(data, iv));
+        }
+        if (keyCache != null) {
+            return keyCache.withKey(cipher, key, expanded -> encrypt(data, expanded, iv, mode, paddingMode));
+        }
+        return encrypt(data, cipher.init(key, data.length), iv, mode, paddingMode);
+    }
+
+    // Шифрование с заранее развёрнутым ключом (ключ разворачивается один раз на сессию)
+    public byte[] encrypt(byte[] data, IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        checkStealingMode(mode, paddingMode);
         switch (mode) {
             case ECB: return encryptECB(data, key, paddingMode);
             case CBC: return encryptCBC(data, key, iv, paddingMode);
@@ -29,12 +86,34 @@ public class BlockCipherModes {
             case OFB: return encryptOFB(data, key, iv);
             case CTR: return encryptCTR(data, key, iv);
             case RANDOM_DELTA: return encryptRandomDelta(data, key, iv);
+            case GCM: return encryptGCM(data, key, iv);
             default: throw new IllegalArgumentException("Unsupported mode: " + mode);
         }
     }
-    
-    // Основной метод дешифрования
+
+    // Основной метод дешифрования; для GCM проверяет тег и бросает SecurityException при несовпадении
     public byte[] decrypt(byte[] data, byte[] key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        if (keyCache != null && mode == CipherMode.GCM) {
+            return keyCache.withGaloisCounterMode(cipher, key, gcm -> gcm.decrypt(data, iv));
+        }
+        if (keyCache != null) {
+            return keyCache.withKey(cipher, key, expanded -> decrypt(data, expanded, iv, mode, paddingMode));
+        }
+        return decrypt(data, cipher.init(key, data.length), iv, mode, paddingMode);
+    }
+
+    /**
+     * Развёртывание ключа для сессии, в которой ожидается expectedBytes байт данных
+     * (например, короткие сообщения чата или массовая выгрузка).
+     * @param expectedBytes ожидаемый объём; отрицательное значение - объём неизвестен
+     */
+    public IExpandedKey expandKey(byte[] key, long expectedBytes) {
+        return cipher.init(key, expectedBytes);
+    }
+
+    // Дешифрование с заранее развёрнутым ключом
+    public byte[] decrypt(byte[] data, IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        checkStealingMode(mode, paddingMode);
         switch (mode) {
             case ECB: return decryptECB(data, key, paddingMode);
             case CBC: return decryptCBC(data, key, iv, paddingMode);
@@ -43,72 +122,173 @@ public class BlockCipherModes {
             case OFB: return decryptOFB(data, key, iv);
             case CTR: return decryptCTR(data, key, iv);
             case RANDOM_DELTA: return decryptRandomDelta(data, key, iv);
+            case GCM: return decryptGCM(data, key, iv);
             default: throw new IllegalArgumentException("Unsupported mode: " + mode);
         }
     }
-    
-    // ECB - каждый блок шифруется независимо
-    private byte[] encryptECB(byte[] data, byte[] key, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
-        byte[] padded = addPadding(data, blockSize, paddingMode);
-        byte[] result = new byte[padded.length];
-        
-        for (int i = 0; i < padded.length; i += blockSize) {
-            byte[] block = Arrays.copyOfRange(padded, i, i + blockSize);
-            byte[] encrypted = cipher.encrypt(block, key);
-            System.arraycopy(encrypted, 0, result, i, blockSize);
+
+    /**
+     * Шифрование оставшихся байт src в dst, как Cipher.doFinal(ByteBuffer, ByteBuffer).
+     * Буферы могут быть heap или direct (в том числе отображёнными файлами) и обрабатываются без
+     * копирования в heap. src и dst могут быть одним буфером; при набивке в dst нужно место
+     * на дополнительный блок, поэтому для работы "на месте" передаётся dst = src.duplicate()
+     * с увеличенным пределом. GCM обрабатывает сообщение целиком через копию в heap.
+     * @return число записанных в dst байт; позиция src сдвигается до предела, dst - на результат
+     */
+    public int encrypt(ByteBuffer src, ByteBuffer dst, IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        if (mode == CipherMode.GCM) {
+            return processGCM(src, dst, key, iv, true);
+        }
+        return process(src, dst, new ModeProcessor(key, iv, mode, paddingMode, true));
+    }
+
+    /**
+     * Дешифрование оставшихся байт src в dst; семантика как у
+     * {@link #encrypt(ByteBuffer, ByteBuffer, IExpandedKey, byte[], CipherMode, PaddingMode)}.
+     * Открытый текст GCM пишется в dst только после проверки тега, иначе - SecurityException.
+     * @return число записанных в dst байт (без набивки)
+     */
+    public int decrypt(ByteBuffer src, ByteBuffer dst, IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        if (mode == CipherMode.GCM) {
+            return processGCM(src, dst, key, iv, false);
         }
+        return process(src, dst, new ModeProcessor(key, iv, mode, paddingMode, false));
+    }
+
+    private static int process(ByteBuffer src, ByteBuffer dst, ModeProcessor processor) {
+        int length = src.remaining();
+        int inIndex = src.position();
+        int outIndex = dst.position();
+        int required = processor.getFinalOutputSize(length);
+        if (dst.remaining() < required) {
+            throw new IllegalArgumentException("Output buffer too small: " + required + " bytes required");
+        }
+        int produced = processor.update(src, inIndex, length, dst, outIndex);
+        produced += processor.doFinal(dst, outIndex + produced);
+        src.position(inIndex + length);
+        dst.position(outIndex + produced);
+        return produced;
+    }
+
+    // Сообщение GCM целиком: копия src в heap, результат пишется в dst после успешной обработки,
+    // поэтому src и dst могут совпадать. Копии затираются
+    private static int processGCM(ByteBuffer src, ByteBuffer dst, IExpandedKey key, byte[] iv, boolean encrypting) {
+        int length = src.remaining();
+        int required = encrypting ? length + GaloisCounterMode.TAG_LENGTH
+                : Math.max(0, length - GaloisCounterMode.TAG_LENGTH);
+        if (dst.remaining() < required) {
+            throw new IllegalArgumentException("Output buffer too small: " + required + " bytes required");
+        }
+        byte[] message = new byte[length];
+        src.get(src.position(), message);
+        byte[] result = null;
+        try {
+            result = encrypting ? encryptGCM(message, key, iv) : decryptGCM(message, key, iv);
+            dst.put(dst.position(), result);
+        } finally {
+            Arrays.fill(message, (byte) 0);
+            if (result != null) {
+                Arrays.fill(result, (byte) 0);
+            }
+        }
+        src.position(src.limit());
+        dst.position(dst.position() + result.length);
+        return result.length;
+    }
+
+    // GCM: набивка не используется, к шифротексту дописывается тег; IV из 12 байт или блок целиком.
+    // Таблицы GHASH строятся на вызов и затираются после него: общий экземпляр режимов ключей не хранит
+    private static byte[] encryptGCM(byte[] data, IExpandedKey key, byte[] iv) {
+        GaloisCounterMode gcm = new GaloisCounterMode(key);
+        try {
+            return gcm.encrypt(data, iv);
+        } finally {
+            gcm.wipe();
+        }
+    }
+
+    private static byte[] decryptGCM(byte[] data, IExpandedKey key, byte[] iv) {
+        GaloisCounterMode gcm = new GaloisCounterMode(key);
+        try {
+            return gcm.decrypt(data, iv);
+        } finally {
+            gcm.wipe();
+        }
+    }
+
+    // Все режимы ниже после подготовки не выделяют память на каждый блок:
+    // блоки шифруются прямо из входного массива в результирующий через encryptBlock/decryptBlock.
+
+    // ECB - каждый блок шифруется независимо
+    private byte[] encryptECB(byte[] data, IExpandedKey key, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
+        byte[] result = new byte[paddedLength(data.length, blockSize)];
+        int tailOffset = writePaddedTail(data, result, blockSize, paddingMode);
+
+        forEachChunk(result.length, (from, to) -> {
+            // Блоки до хвоста берутся прямо из data пачкой, последний блок с набивкой - из result
+            int dataEnd = Math.min(to, tailOffset);
+            key.encryptBlocks(data, from, result, from, (dataEnd - from) / blockSize);
+            if (to > tailOffset) {
+                key.encryptBlock(result, tailOffset, result, tailOffset);
+            }
+        });
         return result;
     }
-    
+
     // CBC - каждый блок XOR с предыдущим зашифрованным
-    private byte[] encryptCBC(byte[] data, byte[] key, byte[] iv, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
+    private byte[] encryptCBC(byte[] data, IExpandedKey key, byte[] iv, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
-        byte[] padded = addPadding(data, blockSize, paddingMode);
-        byte[] result = new byte[padded.length];
-        byte[] previousBlock = iv.clone();
-        
-        for (int i = 0; i < padded.length; i += blockSize) {
-            byte[] block = Arrays.copyOfRange(padded, i, i + blockSize);
-            
+        if (paddingMode == PaddingMode.CTS) {
+            return encryptCBCStealing(data, key, iv);
+        }
+        byte[] result = new byte[paddedLength(data.length, blockSize)];
+        int tailOffset = writePaddedTail(data, result, blockSize, paddingMode);
+        byte[] previousBlock = iv;
+        int previousOffset = 0;
+
+        for (int i = 0; i < result.length; i += blockSize) {
+            byte[] source = i < tailOffset ? data : result;
+
             // XOR с предыдущим блоком
-            xor(block, previousBlock);
-            
-            byte[] encrypted = cipher.encrypt(block, key);
-            System.arraycopy(encrypted, 0, result, i, blockSize);
-            previousBlock = encrypted;
+            XorUtils.xor(source, i, previousBlock, previousOffset, result, i, blockSize);
+
+            key.encryptBlock(result, i, result, i);
+            previousBlock = result;
+            previousOffset = i;
         }
         return result;
     }
-    
+
     // CFB - шифруется предыдущий зашифрованный блок, результат XOR с данными
-    private byte[] encryptCFB(byte[] data, byte[] key, byte[] iv) {
-        int blockSize = cipher.getBlockSize();
+    private byte[] encryptCFB(byte[] data, IExpandedKey key, byte[] iv) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
         byte[] result = new byte[data.length];
-        byte[] previousCiphertext = iv.clone();
+        byte[] keystream = new byte[blockSize];
+        byte[] previousCiphertext = iv;
+        int previousOffset = 0;
 
         for (int i = 0; i < data.length; i += blockSize) {
-            byte[] keystream = cipher.encrypt(previousCiphertext, key);
+            key.encryptBlock(previousCiphertext, previousOffset, keystream, 0);
             int blockLength = Math.min(blockSize, data.length - i);
-            byte[] block = Arrays.copyOfRange(data, i, i + blockLength);
 
-            xor(block, Arrays.copyOf(keystream, blockLength));
+            XorUtils.xor(data, i, keystream, 0, result, i, blockLength);
 
-            System.arraycopy(block, 0, result, i, blockLength);
-            previousCiphertext = block;
+            previousCiphertext = result;
+            previousOffset = i;
         }
         return result;
     }
 
     // OFB - шифруется IV, затем результат предыдущего шифрования
-    private byte[] encryptOFB(byte[] data, byte[] key, byte[] iv) {
-        int blockSize = cipher.getBlockSize();
+    private byte[] encryptOFB(byte[] data, IExpandedKey key, byte[] iv) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
@@ -116,240 +296,505 @@ public class BlockCipherModes {
         byte[] keystreamBlock = iv.clone();
 
         for (int i = 0; i < data.length; i += blockSize) {
-            keystreamBlock = cipher.encrypt(keystreamBlock, key);
+            key.encryptBlock(keystreamBlock, 0, keystreamBlock, 0);
             int blockLength = Math.min(blockSize, data.length - i);
 
-            for (int j = 0; j < blockLength; j++) {
-                result[i + j] = (byte) (data[i + j] ^ keystreamBlock[j]);
-            }
+            XorUtils.xor(data, i, keystreamBlock, 0, result, i, blockLength);
         }
         return result;
     }
 
     // CTR - шифруется счетчик, результат XOR с данными
-    private byte[] encryptCTR(byte[] data, byte[] key, byte[] nonce) {
-        int blockSize = cipher.getBlockSize();
-        if (nonce.length != blockSize) {
+    private byte[] encryptCTR(byte[] data, IExpandedKey key, byte[] nonce) {
+        if (nonce.length != key.getBlockSize()) {
             throw new IllegalArgumentException("Nonce length must match block size.");
         }
+        return applyCounterKeystream(data, key, nonce, null);
+    }
+
+    // Random Delta - счётчик с шагом Δ вместо 1: counter_i = IV + i·Δ.
+    // Гамма любого блока вычисляется напрямую, поэтому режим параллелится, как CTR
+    private byte[] encryptRandomDelta(byte[] data, IExpandedKey key, byte[] iv) {
+        if (iv.length != key.getBlockSize()) {
+            throw new IllegalArgumentException("IV length must match block size.");
+        }
+        return applyCounterKeystream(data, key, iv, randomDelta(key, iv));
+    }
+
+    // Общий проход счётчиковых режимов; delta == null - шаг 1 (CTR)
+    private byte[] applyCounterKeystream(byte[] data, IExpandedKey key, byte[] iv, byte[] delta) {
+        int blockSize = key.getBlockSize();
         byte[] result = new byte[data.length];
-        byte[] counter = nonce.clone();
-        
-        for (int i = 0; i < data.length; i += blockSize) {
-            byte[] keystream = cipher.encrypt(counter, key);
-            int blockLength = Math.min(blockSize, data.length - i);
-            
-            for (int j = 0; j < blockLength; j++) {
-                result[i + j] = (byte) (data[i + j] ^ keystream[j]);
+
+        forEachChunk(data.length, (from, to) -> {
+            // Счётчик порции - счётчик её первого блока
+            byte[] counter = iv.clone();
+            if (delta == null) {
+                addToCounter(counter, from / blockSize);
+            } else {
+                addDelta(counter, delta, from / blockSize);
             }
-            incrementCounter(counter);
-        }
+            // Счётчики раскладываются пачкой и шифруются многоблочным ядром прямо на месте
+            byte[] keystream = new byte[KEYSTREAM_BATCH_BLOCKS * blockSize];
+
+            for (int i = from; i < to; i += keystream.length) {
+                int length = Math.min(keystream.length, to - i);
+                int blocks = (length + blockSize - 1) / blockSize;
+                for (int j = 0; j < blocks; j++) {
+                    System.arraycopy(counter, 0, keystream, j * blockSize, blockSize);
+                    if (delta == null) {
+                        incrementCounter(counter);
+                    } else {
+                        addDelta(counter, delta);
+                    }
+                }
+                key.encryptBlocks(keystream, 0, keystream, 0, blocks);
+
+                XorUtils.xor(data, i, keystream, 0, result, i, length);
+            }
+        });
         return result;
     }
-    
-    // Реализация различных режимов набивки
-    private byte[] addPadding(byte[] data, int blockSize, PaddingMode paddingMode) {
-        int paddingLength = blockSize - (data.length % blockSize);
-        if (paddingLength == 0) {
-            paddingLength = blockSize;
+
+    // Независимые блоки обрабатываются порциями по CHUNK_SIZE в пуле потоков,
+    // если данных больше порога; иначе - одним диапазоном в текущем потоке
+    private void forEachChunk(int length, ChunkProcessor processor) {
+        if (length < parallelThreshold || length <= CHUNK_SIZE || pool.getParallelism() == 1) {
+            processor.process(0, length);
+            return;
         }
-        byte[] padded = new byte[data.length + paddingLength];
-        System.arraycopy(data, 0, padded, 0, data.length);
-        
+        pool.invoke(new ChunkTask(processor, 0, length));
+    }
+
+    @FunctionalInterface
+    private interface ChunkProcessor {
+        // Обработка диапазона [from, to); from кратно размеру блока
+        void process(int from, int to);
+    }
+
+    // Рекурсивное деление диапазона до порций размера CHUNK_SIZE
+    private static final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // Задача не сериализуется: RecursiveAction Serializable только по наследству
+        private final transient ChunkProcessor processor;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(ChunkProcessor processor, int from, int to) {
+            this.processor = processor;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                processor.process(from, to);
+                return;
+            }
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int middle = from + (chunks / 2) * CHUNK_SIZE;
+            invokeAll(new ChunkTask(processor, from, middle), new ChunkTask(processor, middle, to));
+        }
+    }
+
+    // Длина шифротекста с набивкой: набивка добавляется всегда (1..blockSize байт)
+    private static int paddedLength(int dataLength, int blockSize) {
+        return dataLength - (dataLength % blockSize) + blockSize;
+    }
+
+    // Копирует неполный хвост данных в последний блок result и дописывает набивку.
+    // Возвращает смещение последнего блока: все блоки до него берутся прямо из data.
+    private int writePaddedTail(byte[] data, byte[] result, int blockSize, PaddingMode paddingMode) {
+        int tailOffset = data.length - (data.length % blockSize);
+        System.arraycopy(data, tailOffset, result, tailOffset, data.length - tailOffset);
+        pad(result, tailOffset, data.length - tailOffset, blockSize, paddingMode, random);
+        return tailOffset;
+    }
+
+    // Дописывает набивку после dataLength байт данных в блоке block[offset, offset + blockSize)
+    static void pad(byte[] block, int offset, int dataLength, int blockSize, PaddingMode paddingMode, SecureRandom random) {
+        int paddingLength = blockSize - dataLength;
+        int end = offset + blockSize;
+
         switch (paddingMode) {
             case PKCS7:
-                for (int i = data.length; i < padded.length; i++) {
-                    padded[i] = (byte) paddingLength;
-                }
+                Arrays.fill(block, offset + dataLength, end, (byte) paddingLength);
                 break;
             case ZEROS:
-                // Нули уже установлены по умолчанию
+                Arrays.fill(block, offset + dataLength, end, (byte) 0);
                 break;
             case ANSI_X923:
-                padded[padded.length - 1] = (byte) paddingLength;
+                Arrays.fill(block, offset + dataLength, end - 1, (byte) 0);
+                block[end - 1] = (byte) paddingLength;
                 break;
             case ISO_10126:
-                for (int i = data.length; i < padded.length - 1; i++) {
-                    padded[i] = (byte) random.nextInt(256);
+                for (int i = offset + dataLength; i < end - 1; i++) {
+                    block[i] = (byte) random.nextInt(256);
                 }
-                padded[padded.length - 1] = (byte) paddingLength;
+                block[end - 1] = (byte) paddingLength;
                 break;
         }
-        return padded;
+    }
+
+    /**
+     * Строгая проверка набивки последнего блока data[offset, offset + blockSize) после дешифрования:
+     * длина от 1 до blockSize, байты PKCS7 равны длине, байты ANSI X9.23 - нулевые. Набивка нулями
+     * не хранит свою длину и считается верной всегда. Байты сравниваются без раннего выхода.
+     */
+    static boolean hasValidPadding(byte[] data, int offset, int blockSize, PaddingMode paddingMode) {
+        if (paddingMode == PaddingMode.ZEROS) {
+            return true;
+        }
+        int end = offset + blockSize;
+        int paddingLength = data[end - 1] & 0xFF;
+        if (paddingLength == 0 || paddingLength > blockSize) {
+            return false;
+        }
+        int expected;
+        switch (paddingMode) {
+            case PKCS7: expected = paddingLength; break;
+            case ANSI_X923: expected = 0; break;
+            case ISO_10126: return true;
+            default: throw new IllegalArgumentException("Unsupported padding: " + paddingMode);
+        }
+        int diff = 0;
+        for (int i = 2; i <= paddingLength; i++) {
+            diff |= (data[end - i] & 0xFF) ^ expected;
+        }
+        return diff == 0;
     }
 
     // Удаление различных режимов набивки
-    private byte[] removePadding(byte[] data, PaddingMode paddingMode) {
-        if (data.length == 0) {
-            return new byte[0];
+    private byte[] removePadding(byte[] data, int blockSize, PaddingMode paddingMode) {
+        int length = unpaddedLength(data, 0, data.length, blockSize, paddingMode);
+        return length == data.length ? data : Arrays.copyOf(data, length);
+    }
+
+    // Длина данных без набивки. Набивка занимает не больше одного блока,
+    // поэтому просматривается только последний блок участка data[offset, offset + length)
+    static int unpaddedLength(byte[] data, int offset, int length, int blockSize, PaddingMode paddingMode) {
+        if (length == 0) {
+            return 0;
+        }
+        int end = offset + length;
+
+        if (paddingMode == PaddingMode.ZEROS) {
+            // Набивка нулями не хранит свою длину: отбрасываем завершающие нули
+            int limit = Math.max(offset, end - blockSize);
+            int i = end;
+            while (i > limit && data[i - 1] == 0) {
+                i--;
+            }
+            return i - offset;
         }
-        
-        int paddingLength = data[data.length - 1] & 0xFF;
-        if (paddingLength > data.length || paddingLength == 0) {
-            return data;
+
+        int paddingLength = data[end - 1] & 0xFF;
+        if (paddingLength > length || paddingLength > blockSize || paddingLength == 0) {
+            return length;
         }
-        
+
         switch (paddingMode) {
             case PKCS7:
                 for (int i = 1; i <= paddingLength; i++) {
-                    if (data[data.length - i] != (byte) paddingLength) {
-                        return data;
+                    if (data[end - i] != (byte) paddingLength) {
+                        return length;
                     }
                 }
                 break;
-            case ZEROS:
             case ANSI_X923:
             case ISO_10126:
                 // Для этих режимов просто удаляем последние paddingLength байт
                 break;
         }
-        return Arrays.copyOfRange(data, 0, data.length - paddingLength);
+        return length - paddingLength;
     }
-    
+
     // Инкремент счетчика
-    private void incrementCounter(byte[] counter) {
+    static void incrementCounter(byte[] counter) {
         for (int i = counter.length - 1; i >= 0; i--) {
             counter[i]++;
             if (counter[i] != 0) break;
         }
     }
 
-    // Вспомогательный метод для XOR
-    private void xor(byte[] a, byte[] b) {
-        for (int i = 0; i < a.length; i++) {
-            a[i] ^= b[i];
+    // Прибавление к счётчику (big-endian) числа блоков
+    static void addToCounter(byte[] counter, long blocks) {
+        long carry = blocks;
+        for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+            long sum = (counter[i] & 0xFF) + (carry & 0xFF);
+            counter[i] = (byte) sum;
+            carry = (carry >>> 8) + (sum >>> 8);
         }
     }
-    
-    // Заглушки для остальных режимов
-    private byte[] encryptPCBC(byte[] data, byte[] key, byte[] iv, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
-        if (iv.length != blockSize) {
-            throw new IllegalArgumentException("IV length must match block size.");
-        }
-        byte[] padded = addPadding(data, blockSize, paddingMode);
-        byte[] result = new byte[padded.length];
 
-        byte[] prevCipherBlock = iv.clone();
-        byte[] prevPlainBlock = new byte[blockSize]; // Initial previous plaintext is all zeros
-
-        for (int i = 0; i < padded.length; i += blockSize) {
-            byte[] currentPlainBlock = Arrays.copyOfRange(padded, i, i + blockSize);
-            byte[] temp = currentPlainBlock.clone();
+    /**
+     * Шаг счётчика Random Delta: Δ = E_K(IV) с установленным младшим битом.
+     * Шаг зависит от ключа и IV, а нечётность даёт полный цикл по модулю 2^(8·blockSize),
+     * поэтому счётчики не повторяются в пределах сообщения.
+     */
+    static byte[] randomDelta(IExpandedKey key, byte[] iv) {
+        byte[] delta = new byte[iv.length];
+        key.encryptBlock(iv, 0, delta, 0);
+        delta[delta.length - 1] |= 1;
+        return delta;
+    }
 
-            xor(currentPlainBlock, prevCipherBlock);
-            xor(currentPlainBlock, prevPlainBlock);
+    // counter += delta по модулю 2^(8·length), big-endian. Вызывается на каждый блок,
+    // поэтому складываются 64-битные слова с конца, а не байты
+    static void addDelta(byte[] counter, byte[] delta) {
+        int i = counter.length - Long.BYTES;
+        long carry = 0;
+        for (; i >= 0; i -= Long.BYTES) {
+            long word = (long) COUNTER_WORD.get(counter, i);
+            long sum = word + (long) COUNTER_WORD.get(delta, i) + carry;
+            // Перенос: сумма без знака "обернулась" (при carry = 1 и delta = 2^64 - 1 она равна word)
+            carry = Long.compareUnsigned(sum, word) < 0 || (carry != 0 && sum == word) ? 1 : 0;
+            COUNTER_WORD.set(counter, i, sum);
+        }
+        // Старшие байты блока, не кратного 8
+        for (i += Long.BYTES - 1; i >= 0; i--) {
+            long sum = (counter[i] & 0xFF) + (delta[i] & 0xFF) + carry;
+            counter[i] = (byte) sum;
+            carry = sum >>> 8;
+        }
+    }
 
-            byte[] encrypted = cipher.encrypt(currentPlainBlock, key);
-            System.arraycopy(encrypted, 0, result, i, blockSize);
+    // counter += delta·blocks: переход к счётчику блока с номером blocks без перебора
+    static void addDelta(byte[] counter, byte[] delta, long blocks) {
+        byte[] sum = new BigInteger(1, counter)
+                .add(new BigInteger(1, delta).multiply(BigInteger.valueOf(blocks)))
+                .toByteArray();
+        // Отбрасываются старшие разряды (по модулю) или дополняются нули слева
+        int length = Math.min(sum.length, counter.length);
+        Arrays.fill(counter, (byte) 0);
+        System.arraycopy(sum, sum.length - length, counter, counter.length - length, length);
+    }
 
-            prevCipherBlock = encrypted;
-            prevPlainBlock = temp;
+    // Кража шифротекста определена только для CBC; потоковые режимы набивку не используют
+    static void checkStealingMode(CipherMode mode, PaddingMode paddingMode) {
+        if (paddingMode == PaddingMode.CTS && (mode == CipherMode.ECB || mode == CipherMode.PCBC)) {
+            throw new IllegalArgumentException("Ciphertext stealing is only supported in CBC mode");
         }
-        return result;
     }
-    
-    private byte[] encryptRandomDelta(byte[] data, byte[] key, byte[] iv) {
-        // Примечание: Random Delta - это нестандартный режим. Его реализация
-        // требует дополнительного протокола для обмена случайными "дельтами".
-        // Без четкой спецификации оставляем заглушку.
-        throw new UnsupportedOperationException("Random Delta not implemented yet");
+
+    // CTS переставляет два последних блока, поэтому данных нужно не меньше блока (пустые допускаются)
+    private static void checkStealingLength(int length, int blockSize) {
+        if (length > 0 && length < blockSize) {
+            throw new IllegalArgumentException("Ciphertext stealing requires at least one block of data");
+        }
     }
-    
-    // Методы дешифрования
-    private byte[] decryptECB(byte[] data, byte[] key, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
-        byte[] result = new byte[data.length];
 
-        for (int i = 0; i < data.length; i += blockSize) {
-            byte[] block = Arrays.copyOfRange(data, i, i + blockSize);
-            byte[] decrypted = cipher.decrypt(block, key);
-            System.arraycopy(decrypted, 0, result, i, blockSize);
+    // Шифротекст блочных режимов с набивкой должен состоять из целых блоков
+    private static void checkBlockAligned(byte[] data, int blockSize) {
+        if (data.length % blockSize != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be a multiple of block size.");
         }
-        return removePadding(result, paddingMode);
     }
-    
-    private byte[] decryptCBC(byte[] data, byte[] key, byte[] iv, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
+
+    // PCBC - каждый блок XOR с предыдущими открытым и зашифрованным блоками
+    private byte[] encryptPCBC(byte[] data, IExpandedKey key, byte[] iv, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
-        byte[] result = new byte[data.length];
-        byte[] previousBlock = iv.clone();
+        byte[] result = new byte[paddedLength(data.length, blockSize)];
+        int tailOffset = writePaddedTail(data, result, blockSize, paddingMode);
 
-        for (int i = 0; i < data.length; i += blockSize) {
-            byte[] block = Arrays.copyOfRange(data, i, i + blockSize);
-            byte[] decrypted = cipher.decrypt(block, key);
+        // Для первого блока предыдущий открытый текст - нули, поэтому XOR только с IV
+        byte[] source = tailOffset > 0 ? data : result;
+        XorUtils.xor(source, 0, iv, 0, result, 0, blockSize);
+        key.encryptBlock(result, 0, result, 0);
 
-            // XOR с предыдущим зашифрованным блоком
-            xor(decrypted, previousBlock);
-
-            System.arraycopy(decrypted, 0, result, i, blockSize);
-            previousBlock = block;
+        for (int i = blockSize; i < result.length; i += blockSize) {
+            source = i < tailOffset ? data : result;
+            // Предыдущий открытый текст всегда целиком лежит в data: хвост - только последний блок
+            for (int j = 0; j < blockSize; j++) {
+                result[i + j] = (byte) (source[i + j] ^ result[i - blockSize + j] ^ data[i - blockSize + j]);
+            }
+            key.encryptBlock(result, i, result, i);
         }
-        return removePadding(result, paddingMode);
+        return result;
+    }
+
+    // Методы дешифрования
+    private byte[] decryptECB(byte[] data, IExpandedKey key, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
+        checkBlockAligned(data, blockSize);
+        byte[] result = new byte[data.length];
+
+        forEachChunk(data.length, (from, to) ->
+                key.decryptBlocks(data, from, result, from, (to - from) / blockSize));
+        return removePadding(result, blockSize, paddingMode);
     }
-    
-    private byte[] decryptPCBC(byte[] data, byte[] key, byte[] iv, PaddingMode paddingMode) {
-        int blockSize = cipher.getBlockSize();
+
+    private byte[] decryptCBC(byte[] data, IExpandedKey key, byte[] iv, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
+        if (paddingMode == PaddingMode.CTS) {
+            return decryptCBCStealing(data, key, iv);
+        }
+        checkBlockAligned(data, blockSize);
         byte[] result = new byte[data.length];
+        decryptCBCBlocks(data, data.length, key, iv, result);
+        return removePadding(result, blockSize, paddingMode);
+    }
 
-        byte[] prevCipherBlock = iv.clone();
-        byte[] prevPlainBlock = new byte[blockSize]; // Initial previous plaintext is all zeros
+    // CBC-CS3 (NIST SP 800-38A, дополнение): шифротекст равен по длине открытому тексту.
+    // Последний блок дополняется нулями, после шифрования два последних шифроблока меняются
+    // местами, а от C(n-1) остаётся столько байт, сколько их было в последнем блоке
+    private byte[] encryptCBCStealing(byte[] data, IExpandedKey key, byte[] iv) {
+        int blockSize = key.getBlockSize();
+        checkStealingLength(data.length, blockSize);
+        byte[] result = new byte[data.length];
+        // Смещение последнего (возможно, неполного) блока
+        int lastOffset = data.length == 0 ? 0 : (data.length - 1) / blockSize * blockSize;
+        int end = lastOffset == 0 ? data.length : lastOffset;
+        byte[] previousBlock = iv;
+        int previousOffset = 0;
 
-        for (int i = 0; i < data.length; i += blockSize) {
-            byte[] currentCipherBlock = Arrays.copyOfRange(data, i, i + blockSize);
-            byte[] decrypted = cipher.decrypt(currentCipherBlock, key);
+        for (int i = 0; i < end; i += blockSize) {
+            XorUtils.xor(data, i, previousBlock, previousOffset, result, i, blockSize);
+            key.encryptBlock(result, i, result, i);
+            previousBlock = result;
+            previousOffset = i;
+        }
+        if (lastOffset == 0) {
+            return result;
+        }
+
+        int tail = data.length - lastOffset;
+        byte[] lastBlock = new byte[blockSize];
+        System.arraycopy(data, lastOffset, lastBlock, 0, tail);
+        XorUtils.xor(lastBlock, 0, result, previousOffset, lastBlock, 0, blockSize);
+        key.encryptBlock(lastBlock, 0, lastBlock, 0);
+        System.arraycopy(result, previousOffset, result, lastOffset, tail);
+        System.arraycopy(lastBlock, 0, result, previousOffset, blockSize);
+        return result;
+    }
 
-            xor(decrypted, prevCipherBlock);
-            xor(decrypted, prevPlainBlock);
+    // Обратное к CBC-CS3: Z = D(C(n)) восстанавливает отрезанный конец C(n-1), P(n) = Z xor C(n-1)
+    private byte[] decryptCBCStealing(byte[] data, IExpandedKey key, byte[] iv) {
+        int blockSize = key.getBlockSize();
+        checkStealingLength(data.length, blockSize);
+        byte[] result = new byte[data.length];
+        if (data.length <= blockSize) {
+            decryptCBCBlocks(data, data.length, key, iv, result);
+            return result;
+        }
+        int lastOffset = (data.length - 1) / blockSize * blockSize;
+        int penultimateOffset = lastOffset - blockSize;
+        int tail = data.length - lastOffset;
+        // Блоки до переставленной пары - обычный CBC
+        decryptCBCBlocks(data, penultimateOffset, key, iv, result);
 
-            System.arraycopy(decrypted, 0, result, i, blockSize);
+        byte[] z = new byte[blockSize];
+        key.decryptBlock(data, penultimateOffset, z, 0);
+        byte[] penultimate = z.clone();
+        System.arraycopy(data, lastOffset, penultimate, 0, tail);
+        XorUtils.xor(z, 0, data, lastOffset, result, lastOffset, tail);
 
-            prevCipherBlock = currentCipherBlock;
-            prevPlainBlock = decrypted;
+        key.decryptBlock(penultimate, 0, result, penultimateOffset);
+        if (penultimateOffset == 0) {
+            XorUtils.xor(result, 0, iv, 0, result, 0, blockSize);
+        } else {
+            XorUtils.xor(result, penultimateOffset, data, penultimateOffset - blockSize, result, penultimateOffset, blockSize);
         }
-        return removePadding(result, paddingMode);
+        return result;
     }
-    
-    private byte[] decryptCFB(byte[] data, byte[] key, byte[] iv) {
-        int blockSize = cipher.getBlockSize();
+
+    // Дешифрование первых length байт (целые блоки) CBC в result
+    private void decryptCBCBlocks(byte[] data, int length, IExpandedKey key, byte[] iv, byte[] result) {
+        if (length == 0) {
+            return;
+        }
+        int blockSize = key.getBlockSize();
+        // Предыдущий шифроблок известен заранее, поэтому порции независимы
+        forEachChunk(length, (from, to) -> {
+            key.decryptBlocks(data, from, result, from, (to - from) / blockSize);
+
+            // XOR с предыдущим зашифрованным блоком
+            if (from == 0) {
+                XorUtils.xor(result, 0, iv, 0, result, 0, blockSize);
+            } else {
+                XorUtils.xor(result, from, data, from - blockSize, result, from, blockSize);
+            }
+            XorUtils.xor(result, from + blockSize, data, from, result, from + blockSize, to - from - blockSize);
+        });
+    }
+
+    private byte[] decryptPCBC(byte[] data, IExpandedKey key, byte[] iv, PaddingMode paddingMode) {
+        int blockSize = key.getBlockSize();
         if (iv.length != blockSize) {
             throw new IllegalArgumentException("IV length must match block size.");
         }
+        checkBlockAligned(data, blockSize);
         byte[] result = new byte[data.length];
-        byte[] previousCiphertext = iv.clone();
 
         for (int i = 0; i < data.length; i += blockSize) {
-            byte[] keystream = cipher.encrypt(previousCiphertext, key);
-            int blockLength = Math.min(blockSize, data.length - i);
-            byte[] block = Arrays.copyOfRange(data, i, i + blockLength);
+            key.decryptBlock(data, i, result, i);
 
-            previousCiphertext = block.clone();
-            xor(block, Arrays.copyOf(keystream, blockLength));
+            if (i == 0) {
+                // Начальный предыдущий открытый текст - нули
+                XorUtils.xor(result, 0, iv, 0, result, 0, blockSize);
+            } else {
+                // XOR с предыдущими шифроблоком и открытым текстом
+                XorUtils.xor(result, i, data, i - blockSize, result, i, blockSize);
+                XorUtils.xor(result, i, result, i - blockSize, result, i, blockSize);
+            }
+        }
+        return removePadding(result, blockSize, paddingMode);
+    }
 
-            System.arraycopy(block, 0, result, i, blockLength);
+    private byte[] decryptCFB(byte[] data, IExpandedKey key, byte[] iv) {
+        int blockSize = key.getBlockSize();
+        if (iv.length != blockSize) {
+            throw new IllegalArgumentException("IV length must match block size.");
         }
+        byte[] result = new byte[data.length];
+
+        forEachChunk(data.length, (from, to) -> {
+            // Гамма блока i - шифр предыдущего шифроблока, а они лежат подряд в data[from - bs, to - bs):
+            // все полные блоки порции шифруются одной пачкой прямо в result
+            int fullEnd = from + (to - from) / blockSize * blockSize;
+            int start = from;
+            if (from == 0 && fullEnd > 0) {
+                key.encryptBlock(iv, 0, result, 0);
+                start = blockSize;
+            }
+            key.encryptBlocks(data, start - blockSize, result, start, (fullEnd - start) / blockSize);
+            XorUtils.xor(data, from, result, from, result, from, fullEnd - from);
+
+            if (fullEnd < to) {
+                // Неполный последний блок
+                byte[] keystream = new byte[blockSize];
+                if (fullEnd == 0) {
+                    key.encryptBlock(iv, 0, keystream, 0);
+                } else {
+                    key.encryptBlock(data, fullEnd - blockSize, keystream, 0);
+                }
+                XorUtils.xor(data, fullEnd, keystream, 0, result, fullEnd, to - fullEnd);
+            }
+        });
         return result;
     }
-    
-    private byte[] decryptOFB(byte[] data, byte[] key, byte[] iv) {
+
+    private byte[] decryptOFB(byte[] data, IExpandedKey key, byte[] iv) {
         // OFB дешифрование = шифрование
         return encryptOFB(data, key, iv);
     }
-    
-    private byte[] decryptCTR(byte[] data, byte[] key, byte[] iv) {
+
+    private byte[] decryptCTR(byte[] data, IExpandedKey key, byte[] iv) {
         // CTR дешифрование = шифрование
         return encryptCTR(data, key, iv);
     }
-    
-    private byte[] decryptRandomDelta(byte[] data, byte[] key, byte[] iv) {
-        // Примечание: Random Delta - это нестандартный режим. Его реализация
-        // требует дополнительного протокола для обмена случайными "дельтами".
-        // Без четкой спецификации оставляем заглушку.
-        throw new UnsupportedOperationException("Random Delta decryption not implemented yet");
+
+    private byte[] decryptRandomDelta(byte[] data, IExpandedKey key, byte[] iv) {
+        // Random Delta дешифрование = шифрование
+        return encryptRandomDelta(data, key, iv);
     }
-}
\ No newline at end of file
+}
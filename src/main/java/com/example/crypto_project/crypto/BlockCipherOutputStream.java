@@ -0,0 +1,72 @@
+package com.example.crypto_project.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Выходной поток, шифрующий (или дешифрующий) данные по мере записи.
+ * Состояние режима переносится между вызовами write, поэтому объём данных не ограничен,
+ * а результат совпадает с {@link BlockCipherModes} побайтно. Набивка дописывается при close().
+ * Режим GCM недоступен: при создании потока - IllegalArgumentException.
+ */
+public class BlockCipherOutputStream extends FilterOutputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ModeProcessor processor;
+    private final byte[] outputBuffer;
+    private final byte[] singleByte = new byte[1];
+    private boolean closed;
+
+    private BlockCipherOutputStream(OutputStream out, ModeProcessor processor) {
+        super(out);
+        this.processor = processor;
+        this.outputBuffer = new byte[processor.getOutputSize(BUFFER_SIZE)];
+    }
+
+    public static BlockCipherOutputStream encrypting(OutputStream out, IExpandedKey key, byte[] iv,
+                                                     CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherOutputStream(out, new ModeProcessor(key, iv, mode, paddingMode, true));
+    }
+
+    public static BlockCipherOutputStream decrypting(OutputStream out, IExpandedKey key, byte[] iv,
+                                                     CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherOutputStream(out, new ModeProcessor(key, iv, mode, paddingMode, false));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (len > 0) {
+            int chunk = Math.min(len, BUFFER_SIZE);
+            int produced = processor.update(b, off, chunk, outputBuffer, 0);
+            out.write(outputBuffer, 0, produced);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            int produced = processor.doFinal(outputBuffer, 0);
+            out.write(outputBuffer, 0, produced);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.crypto_project.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Канал чтения, шифрующий (или дешифрующий) данные нижележащего канала по мере чтения.
+ * Режим GCM недоступен: при создании канала - IllegalArgumentException.
+ */
+public class BlockCipherReadableChannel implements ReadableByteChannel {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+    private final ModeProcessor processor;
+    private final byte[] inputBuffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer inputView = ByteBuffer.wrap(inputBuffer);
+    private final byte[] outputBuffer;
+    private int outputPosition;
+    private int outputLength;
+    private boolean finished;
+    private boolean open = true;
+
+    private BlockCipherReadableChannel(ReadableByteChannel channel, ModeProcessor processor) {
+        this.channel = channel;
+        this.processor = processor;
+        this.outputBuffer = new byte[processor.getOutputSize(BUFFER_SIZE)];
+    }
+
+    public static BlockCipherReadableChannel encrypting(ReadableByteChannel channel, IExpandedKey key, byte[] iv,
+                                                        CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherReadableChannel(channel, new ModeProcessor(key, iv, mode, paddingMode, true));
+    }
+
+    public static BlockCipherReadableChannel decrypting(ReadableByteChannel channel, IExpandedKey key, byte[] iv,
+                                                        CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherReadableChannel(channel, new ModeProcessor(key, iv, mode, paddingMode, false));
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        while (outputPosition == outputLength) {
+            if (finished) {
+                return -1;
+            }
+            if (fill() == 0) {
+                // Неблокирующий канал без готовых данных
+                return 0;
+            }
+        }
+        int n = Math.min(dst.remaining(), outputLength - outputPosition);
+        dst.put(outputBuffer, outputPosition, n);
+        outputPosition += n;
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        channel.close();
+    }
+
+    // Очередная порция из исходного канала; по его окончании - завершение режима.
+    // Возвращает число прочитанных из канала байт
+    private int fill() throws IOException {
+        inputView.clear();
+        int read = channel.read(inputView);
+        outputPosition = 0;
+        if (read == -1) {
+            outputLength = processor.doFinal(outputBuffer, 0);
+            finished = true;
+        } else {
+            outputLength = processor.update(inputBuffer, 0, read, outputBuffer, 0);
+        }
+        return read;
+    }
+}
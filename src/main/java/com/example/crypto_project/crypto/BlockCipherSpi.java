@@ -0,0 +1,390 @@
+package com.example.crypto_project.crypto;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.CipherSpi;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.AlgorithmParameters;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.InvalidParameterException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidParameterSpecException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Адаптер javax.crypto для шифра из реестра. Режимы с набивкой и потоковые режимы идут через
+ * {@link ModeProcessor}, поэтому update отдаёт данные сразу, а ByteBuffer (в том числе direct)
+ * обрабатываются без копирования в heap. GCM накапливает сообщение до doFinal: открытый текст
+ * выдаётся только после проверки тега. Набивка при дешифровании проверяется строго: неверная
+ * (например, при чужом ключе или изменённом последнем блоке) - BadPaddingException, как у JDK.
+ * <p>
+ * Как и у шифров JDK, после doFinal состояние возвращается к моменту init с тем же IV;
+ * исключение - шифрование GCM, для которого нужен новый init с другим IV.
+ */
+final class BlockCipherSpi extends CipherSpi {
+
+    // Длина IV GCM, генерируемого при init без параметров
+    private static final int GCM_IV_LENGTH = 12;
+
+    private final CipherRegistry.Descriptor descriptor;
+    private CipherMode mode = CipherMode.ECB;
+    // null - NoPadding: вход режимов ECB/CBC/PCBC должен быть кратен блоку
+    private PaddingMode paddingMode = PaddingMode.PKCS7;
+    // Режим CTS: CBC с кражей шифротекста вместо набивки
+    private boolean stealing;
+
+    private boolean encrypting;
+    private byte[] iv;
+    // Все режимы, кроме GCM
+    private ModeProcessor processor;
+    // GCM: сообщение накапливается до doFinal
+    private GaloisCounterMode gcm;
+    private byte[] gcmBuffer = new byte[0];
+    private int gcmLength;
+    private boolean gcmIvUsed;
+
+    BlockCipherSpi(CipherRegistry.Descriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    @Override
+    protected void engineSetMode(String modeName) throws NoSuchAlgorithmException {
+        String name = modeName.toUpperCase(Locale.ROOT);
+        if ("CTS".equals(name)) {
+            mode = CipherMode.CBC;
+            stealing = true;
+            return;
+        }
+        try {
+            mode = CipherMode.valueOf(name);
+            stealing = false;
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchAlgorithmException("Unsupported mode: " + modeName);
+        }
+    }
+
+    @Override
+    protected void engineSetPadding(String padding) throws NoSuchPaddingException {
+        switch (padding.toUpperCase(Locale.ROOT)) {
+            case "NOPADDING":
+                paddingMode = null;
+                break;
+            case "PKCS5PADDING":
+            case "PKCS7PADDING":
+                paddingMode = PaddingMode.PKCS7;
+                break;
+            case "ZEROBYTEPADDING":
+                paddingMode = PaddingMode.ZEROS;
+                break;
+            case "X923PADDING":
+                paddingMode = PaddingMode.ANSI_X923;
+                break;
+            case "ISO10126PADDING":
+                paddingMode = PaddingMode.ISO_10126;
+                break;
+            default:
+                throw new NoSuchPaddingException("Unsupported padding: " + padding);
+        }
+    }
+
+    @Override
+    protected int engineGetBlockSize() {
+        return descriptor.getBlockSize();
+    }
+
+    @Override
+    protected int engineGetOutputSize(int inputLen) {
+        if (gcm != null) {
+            int total = gcmLength + inputLen;
+            return encrypting ? total + GaloisCounterMode.TAG_LENGTH : Math.max(0, total - GaloisCounterMode.TAG_LENGTH);
+        }
+        return processor.getFinalOutputSize(inputLen);
+    }
+
+    @Override
+    protected byte[] engineGetIV() {
+        return iv == null ? null : iv.clone();
+    }
+
+    // IV доступен через getIV; собственного формата AlgorithmParameters у шифров проекта нет
+    @Override
+    protected AlgorithmParameters engineGetParameters() {
+        return null;
+    }
+
+    @Override
+    protected int engineGetKeySize(Key key) throws InvalidKeyException {
+        byte[] raw = rawKey(key);
+        Arrays.fill(raw, (byte) 0);
+        return raw.length * 8;
+    }
+
+    // Без параметров: при шифровании IV генерируется, дешифрованию (кроме ECB) IV обязателен
+    @Override
+    protected void engineInit(int opmode, Key key, SecureRandom random) throws InvalidKeyException {
+        byte[] generated = null;
+        if (mode != CipherMode.ECB) {
+            if (opmode != Cipher.ENCRYPT_MODE) {
+                throw new InvalidKeyException("Decryption in " + mode + " mode requires an IV");
+            }
+            generated = new byte[mode == CipherMode.GCM ? GCM_IV_LENGTH : descriptor.getBlockSize()];
+            (random != null ? random : new SecureRandom()).nextBytes(generated);
+        }
+        init(opmode, key, generated);
+    }
+
+    @Override
+    protected void engineInit(int opmode, Key key, AlgorithmParameterSpec params, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (params == null) {
+            initWithoutParameters(opmode, key, random);
+            return;
+        }
+        byte[] parameterIv;
+        if (params instanceof GCMParameterSpec gcmSpec) {
+            if (gcmSpec.getTLen() != GaloisCounterMode.TAG_LENGTH * 8) {
+                throw new InvalidAlgorithmParameterException("Only 128-bit GCM tags are supported");
+            }
+            parameterIv = gcmSpec.getIV();
+        } else if (params instanceof IvParameterSpec ivSpec) {
+            parameterIv = ivSpec.getIV();
+        } else {
+            throw new InvalidAlgorithmParameterException("Unsupported parameters: " + params.getClass().getName());
+        }
+        if (mode == CipherMode.ECB) {
+            parameterIv = null;
+        } else if (mode == CipherMode.GCM ? parameterIv.length == 0 : parameterIv.length != descriptor.getBlockSize()) {
+            throw new InvalidAlgorithmParameterException("Invalid IV length: " + parameterIv.length);
+        }
+        init(opmode, key, parameterIv);
+    }
+
+    @Override
+    protected void engineInit(int opmode, Key key, AlgorithmParameters params, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (params == null) {
+            initWithoutParameters(opmode, key, random);
+            return;
+        }
+        try {
+            Class<? extends AlgorithmParameterSpec> type =
+                    mode == CipherMode.GCM ? GCMParameterSpec.class : IvParameterSpec.class;
+            engineInit(opmode, key, params.getParameterSpec(type), random);
+        } catch (InvalidParameterSpecException e) {
+            throw new InvalidAlgorithmParameterException("Unsupported parameters", e);
+        }
+    }
+
+    @Override
+    protected byte[] engineUpdate(byte[] input, int inputOffset, int inputLen) {
+        if (gcm != null) {
+            appendGcm(input, inputOffset, inputLen);
+            return new byte[0];
+        }
+        byte[] output = new byte[processor.getUpdateOutputSize(inputLen)];
+        int produced = inputLen == 0 ? 0 : processor.update(input, inputOffset, inputLen, output, 0);
+        return produced == output.length ? output : Arrays.copyOf(output, produced);
+    }
+
+    @Override
+    protected int engineUpdate(byte[] input, int inputOffset, int inputLen, byte[] output, int outputOffset)
+            throws ShortBufferException {
+        if (gcm != null) {
+            appendGcm(input, inputOffset, inputLen);
+            return 0;
+        }
+        checkOutput(output.length - outputOffset, processor.getUpdateOutputSize(inputLen));
+        return inputLen == 0 ? 0 : processor.update(input, inputOffset, inputLen, output, outputOffset);
+    }
+
+    @Override
+    protected int engineUpdate(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+        if (gcm != null) {
+            return super.engineUpdate(input, output);
+        }
+        int length = input.remaining();
+        int outIndex = output.position();
+        checkOutput(output.remaining(), processor.getUpdateOutputSize(length));
+        int produced = processor.update(input, input.position(), length, output, outIndex);
+        input.position(input.limit());
+        output.position(outIndex + produced);
+        return produced;
+    }
+
+    @Override
+    protected byte[] engineDoFinal(byte[] input, int inputOffset, int inputLen)
+            throws IllegalBlockSizeException, BadPaddingException {
+        if (gcm != null) {
+            return finishGcm(input, inputOffset, inputLen);
+        }
+        byte[] output = new byte[engineGetOutputSize(inputLen)];
+        int produced = finish(input, inputOffset, inputLen, output, 0);
+        return produced == output.length ? output : Arrays.copyOf(output, produced);
+    }
+
+    @Override
+    protected int engineDoFinal(byte[] input, int inputOffset, int inputLen, byte[] output, int outputOffset)
+            throws ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        checkOutput(output.length - outputOffset, engineGetOutputSize(inputLen));
+        if (gcm != null) {
+            byte[] result = finishGcm(input, inputOffset, inputLen);
+            System.arraycopy(result, 0, output, outputOffset, result.length);
+            return result.length;
+        }
+        return finish(input, inputOffset, inputLen, output, outputOffset);
+    }
+
+    @Override
+    protected int engineDoFinal(ByteBuffer input, ByteBuffer output)
+            throws ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        if (gcm != null) {
+            return super.engineDoFinal(input, output);
+        }
+        int length = input.remaining();
+        int outIndex = output.position();
+        checkOutput(output.remaining(), processor.getFinalOutputSize(length));
+        int produced = 0;
+        try {
+            produced = processor.update(input, input.position(), length, output, outIndex);
+            produced += processor.doFinal(output, outIndex + produced);
+            input.position(input.limit());
+            output.position(outIndex + produced);
+            return produced;
+        } catch (SecurityException e) {
+            for (int i = 0; i < produced; i++) {
+                output.put(outIndex + i, (byte) 0);
+            }
+            throw new BadPaddingException(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalBlockSizeException(e.getMessage());
+        } finally {
+            processor.reset(iv);
+        }
+    }
+
+    private void initWithoutParameters(int opmode, Key key, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (mode != CipherMode.ECB && opmode != Cipher.ENCRYPT_MODE) {
+            throw new InvalidAlgorithmParameterException("Decryption in " + mode + " mode requires an IV");
+        }
+        engineInit(opmode, key, random);
+    }
+
+    private void init(int opmode, Key key, byte[] initIv) throws InvalidKeyException {
+        if (opmode != Cipher.ENCRYPT_MODE && opmode != Cipher.DECRYPT_MODE) {
+            throw new InvalidParameterException("Only encryption and decryption are supported");
+        }
+        byte[] raw = rawKey(key);
+        IExpandedKey expandedKey = descriptor.getCipher().init(raw);
+        Arrays.fill(raw, (byte) 0);
+
+        encrypting = opmode == Cipher.ENCRYPT_MODE;
+        iv = initIv;
+        clearGcmBuffer();
+        if (mode == CipherMode.GCM) {
+            gcm = new GaloisCounterMode(expandedKey);
+            gcmIvUsed = false;
+            processor = null;
+        } else {
+            gcm = null;
+            processor = new ModeProcessor(expandedKey, iv, mode, stealing ? PaddingMode.CTS : paddingMode, encrypting, true);
+        }
+    }
+
+    private byte[] rawKey(Key key) throws InvalidKeyException {
+        if (key == null || !"RAW".equalsIgnoreCase(key.getFormat()) || key.getEncoded() == null) {
+            throw new InvalidKeyException("A raw secret key is required");
+        }
+        byte[] raw = key.getEncoded();
+        if (!descriptor.supportsKeySize(raw.length)) {
+            Arrays.fill(raw, (byte) 0);
+            throw new InvalidKeyException("Invalid key size for " + descriptor.getName() + ": " + raw.length + " bytes");
+        }
+        return raw;
+    }
+
+    private int finish(byte[] input, int inputOffset, int inputLen, byte[] output, int outputOffset)
+            throws IllegalBlockSizeException, BadPaddingException {
+        int produced = 0;
+        try {
+            produced = inputLen == 0 ? 0 : processor.update(input, inputOffset, inputLen, output, outputOffset);
+            return produced + processor.doFinal(output, outputOffset + produced);
+        } catch (SecurityException e) {
+            // Блоки до последнего уже записаны: неаутентичный открытый текст затирается, как у GCM
+            Arrays.fill(output, outputOffset, outputOffset + produced, (byte) 0);
+            throw new BadPaddingException(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalBlockSizeException(e.getMessage());
+        } finally {
+            processor.reset(iv);
+        }
+    }
+
+    private void appendGcm(byte[] input, int inputOffset, int inputLen) {
+        checkGcmIv();
+        if (gcmLength + inputLen > gcmBuffer.length) {
+            byte[] grown = Arrays.copyOf(gcmBuffer, Math.max(gcmLength + inputLen, gcmBuffer.length * 2));
+            Arrays.fill(gcmBuffer, 0, gcmLength, (byte) 0);
+            gcmBuffer = grown;
+        }
+        System.arraycopy(input, inputOffset, gcmBuffer, gcmLength, inputLen);
+        gcmLength += inputLen;
+    }
+
+    private byte[] finishGcm(byte[] input, int inputOffset, int inputLen) throws AEADBadTagException {
+        checkGcmIv();
+        byte[] message;
+        if (gcmLength == 0 && input != null && inputOffset == 0 && inputLen == input.length) {
+            // Сообщение целиком в одном вызове: без копирования
+            message = input;
+        } else {
+            if (inputLen > 0) {
+                appendGcm(input, inputOffset, inputLen);
+            }
+            message = Arrays.copyOf(gcmBuffer, gcmLength);
+            clearGcmBuffer();
+        }
+        try {
+            if (encrypting) {
+                gcmIvUsed = true;
+                return gcm.encrypt(message, iv);
+            }
+            return gcm.decrypt(message, iv);
+        } catch (SecurityException | IllegalArgumentException e) {
+            throw new AEADBadTagException(e.getMessage());
+        } finally {
+            if (message != input) {
+                Arrays.fill(message, (byte) 0);
+            }
+        }
+    }
+
+    // Повтор IV при шифровании GCM раскрывает ключ аутентификации, поэтому после doFinal нужен новый init
+    private void checkGcmIv() {
+        if (encrypting && gcmIvUsed) {
+            throw new IllegalStateException("GCM encryption requires a new IV: call init again");
+        }
+    }
+
+    private void clearGcmBuffer() {
+        Arrays.fill(gcmBuffer, 0, gcmLength, (byte) 0);
+        gcmLength = 0;
+    }
+
+    private static void checkOutput(int available, int required) throws ShortBufferException {
+        if (available < required) {
+            throw new ShortBufferException("Output buffer too small: " + required + " bytes required");
+        }
+    }
+}
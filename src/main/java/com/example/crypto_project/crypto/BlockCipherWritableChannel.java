@@ -0,0 +1,78 @@
+package com.example.crypto_project.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Канал записи, шифрующий (или дешифрующий) данные перед передачей в нижележащий канал.
+ * Набивка дописывается при close(). Режим GCM недоступен: при создании канала - IllegalArgumentException.
+ */
+public class BlockCipherWritableChannel implements WritableByteChannel {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final WritableByteChannel channel;
+    private final ModeProcessor processor;
+    private final ByteBuffer outputBuffer;
+    private boolean open = true;
+
+    private BlockCipherWritableChannel(WritableByteChannel channel, ModeProcessor processor) {
+        this.channel = channel;
+        this.processor = processor;
+        this.outputBuffer = ByteBuffer.allocate(processor.getOutputSize(BUFFER_SIZE));
+    }
+
+    public static BlockCipherWritableChannel encrypting(WritableByteChannel channel, IExpandedKey key, byte[] iv,
+                                                        CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherWritableChannel(channel, new ModeProcessor(key, iv, mode, paddingMode, true));
+    }
+
+    public static BlockCipherWritableChannel decrypting(WritableByteChannel channel, IExpandedKey key, byte[] iv,
+                                                        CipherMode mode, PaddingMode paddingMode) {
+        return new BlockCipherWritableChannel(channel, new ModeProcessor(key, iv, mode, paddingMode, false));
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int consumed = 0;
+        while (src.hasRemaining()) {
+            int chunk = Math.min(src.remaining(), BUFFER_SIZE);
+            // heap- и direct-буферы читаются напрямую, без промежуточной копии
+            int produced = processor.update(src, src.position(), chunk, outputBuffer.clear(), 0);
+            src.position(src.position() + chunk);
+            writeFully(produced);
+            consumed += chunk;
+        }
+        return consumed;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            writeFully(processor.doFinal(outputBuffer.clear(), 0));
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully(int length) throws IOException {
+        outputBuffer.clear().limit(length);
+        while (outputBuffer.hasRemaining()) {
+            channel.write(outputBuffer);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.crypto_project.crypto;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Замер реализаций алгоритма на текущей машине: каждая реализация из {@link CipherRegistry}
+ * шифрует CTR одним потоком в течение своей доли бюджета, победитель выбирается в реестре.
+ * Затем победитель замеряется в параллельном режиме BlockCipherModes: на машинах с одним-двумя
+ * ядрами пул может не окупаться, и тогда реестр запоминает порог "никогда" для
+ * {@link CipherRegistry#createModes}. Первая треть каждого замера - прогрев JIT, в результат не входит.
+ */
+public class CipherCalibrator {
+
+    private static final double MB = 1024.0 * 1024.0;
+    // Данные последовательного замера помещаются в L2, параллельного - делятся на много порций
+    private static final int SEQUENTIAL_PAYLOAD = 256 * 1024;
+    private static final int PARALLEL_PAYLOAD = 64 * BlockCipherModes.CHUNK_SIZE;
+
+    /**
+     * Итог калибровки одного алгоритма.
+     */
+    public static final class Result {
+
+        private final String algorithm;
+        private final CipherRegistry.Implementation implementation;
+        private final Map<CipherRegistry.Implementation, Double> throughput;
+        private final double parallelThroughput;
+        private final boolean pinned;
+
+        private Result(String algorithm, CipherRegistry.Implementation implementation,
+                       Map<CipherRegistry.Implementation, Double> throughput, double parallelThroughput, boolean pinned) {
+            this.algorithm = algorithm;
+            this.implementation = implementation;
+            this.throughput = Collections.unmodifiableMap(throughput);
+            this.parallelThroughput = parallelThroughput;
+            this.pinned = pinned;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public CipherRegistry.Implementation getImplementation() {
+            return implementation;
+        }
+
+        /**
+         * @return МБ/с каждой замеренной реализации в одном потоке; пусто, если выбор закреплён
+         */
+        public Map<CipherRegistry.Implementation, Double> getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * @return МБ/с выбранной реализации в параллельном режиме или 0, если не замерялось
+         */
+        public double getParallelThroughput() {
+            return parallelThroughput;
+        }
+
+        /**
+         * Параллельная обработка окупается, если она быстрее одного потока той же реализации
+         */
+        public boolean isParallel() {
+            Double sequential = throughput.get(implementation);
+            return sequential != null && parallelThroughput > sequential;
+        }
+
+        /**
+         * @return порог для {@link BlockCipherModes}: по умолчанию или "никогда", если пул не окупился
+         */
+        public int getParallelThreshold() {
+            return isParallel() || throughput.isEmpty() ? BlockCipherModes.DEFAULT_PARALLEL_THRESHOLD : Integer.MAX_VALUE;
+        }
+
+        public boolean isPinned() {
+            return pinned;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Duration budget;
+
+    public CipherCalibrator(Duration budget) {
+        this(ForkJoinPool.commonPool(), budget);
+    }
+
+    /**
+     * @param pool пул для параллельного замера
+     * @param budget общее время замера одного алгоритма
+     */
+    public CipherCalibrator(ForkJoinPool pool, Duration budget) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Calibration budget must be positive.");
+        }
+        this.pool = pool;
+        this.budget = budget;
+    }
+
+    /**
+     * Замеряет все реализации алгоритма и выбирает в реестре самую быструю вместе с порогом
+     * параллельной обработки.
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public Result calibrate(CipherRegistry registry, String algorithm) {
+        Map<CipherRegistry.Implementation, Double> throughput = new EnumMap<>(CipherRegistry.Implementation.class);
+        boolean measureParallel = pool.getParallelism() > 1;
+        int runs = registry.getImplementations(algorithm).size() + (measureParallel ? 1 : 0);
+        long runNanos = budget.toNanos() / runs;
+
+        CipherRegistry.Implementation best = null;
+        for (CipherRegistry.Implementation implementation : registry.getImplementations(algorithm)) {
+            ISymmetricCipher cipher = registry.describe(algorithm, implementation).getCipher();
+            double speed = measure(new BlockCipherModes(cipher, pool, Integer.MAX_VALUE), cipher, SEQUENTIAL_PAYLOAD, runNanos);
+            throughput.put(implementation, speed);
+            if (best == null || speed > throughput.get(best)) {
+                best = implementation;
+            }
+        }
+
+        double parallelThroughput = 0;
+        if (measureParallel) {
+            ISymmetricCipher cipher = registry.describe(algorithm, best).getCipher();
+            parallelThroughput = measure(new BlockCipherModes(cipher, pool, 0), cipher, PARALLEL_PAYLOAD, runNanos);
+        }
+        Result result = new Result(algorithm, best, throughput, parallelThroughput, false);
+        registry.select(algorithm, best, result.getParallelThreshold());
+        return result;
+    }
+
+    /**
+     * Закреплённый выбор без замера (для воспроизводимости).
+     * @throws IllegalArgumentException если реализация недоступна для алгоритма
+     */
+    public Result pin(CipherRegistry registry, String algorithm, CipherRegistry.Implementation implementation) {
+        Result result = new Result(algorithm, implementation, new EnumMap<>(CipherRegistry.Implementation.class), 0, true);
+        registry.select(algorithm, implementation, result.getParallelThreshold());
+        return result;
+    }
+
+    // МБ/с шифрования CTR за отведённое время без учёта первой трети (прогрев)
+    private static double measure(BlockCipherModes modes, ISymmetricCipher cipher, int payload, long nanos) {
+        byte[] data = new byte[payload];
+        new Random(1).nextBytes(data);
+        IExpandedKey key = cipher.init(new byte[16]);
+        byte[] iv = modes.generateIV();
+
+        long start = System.nanoTime();
+        long measureFrom = start + nanos / 3;
+        long end = start + nanos;
+        boolean measuring = false;
+        long measuredStart = 0;
+        long bytes = 0;
+        long now;
+        // Хотя бы один замеренный прогон, даже если он дольше бюджета
+        do {
+            modes.encrypt(data, key, iv, CipherMode.CTR, PaddingMode.PKCS7);
+            now = System.nanoTime();
+            if (measuring) {
+                bytes += payload;
+            } else if (now - measureFrom >= 0) {
+                measuring = true;
+                measuredStart = now;
+            }
+        } while (now - end < 0 || bytes == 0);
+
+        return bytes / MB / ((now - measuredStart) / 1e9);
+    }
+}
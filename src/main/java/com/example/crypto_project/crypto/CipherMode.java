@@ -7,5 +7,6 @@ public enum CipherMode {
     CFB,    // Cipher Feedback
     OFB,    // Output Feedback
     CTR,    // Counter
-    RANDOM_DELTA // Random Delta
+    RANDOM_DELTA, // Random Delta
+    GCM     // Galois/Counter Mode (AEAD): шифротекст и тег
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.example.crypto_project.crypto;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Реестр блочных шифров: имя алгоритма - фабрика и сведения о реализации.
+ * Экземпляр шифра создаётся фабрикой один раз при регистрации и раздаётся всем:
+ * ISymmetricCipher не хранит состояния между вызовами, всё состояние - в IExpandedKey.
+ * У алгоритма может быть несколько реализаций (скалярная, с чередованием блоков, векторная);
+ * get возвращает выбранную ({@link #select}, например по замеру {@link CipherCalibrator}).
+ * Вместе с реализацией запоминается порог параллельной обработки; серверные BlockCipherModes
+ * создаются через {@link #createModes}, чтобы получать и то, и другое.
+ * Поиск по имени не выделяет память. Потокобезопасен.
+ */
+public class CipherRegistry {
+
+    /**
+     * Реализация, которую шифр использует для пакетов блоков.
+     */
+    public enum Implementation {
+        /** Блок за блоком. */
+        SCALAR,
+        /** Несколько независимых блоков вперемешку в encryptBlocks. */
+        INTERLEAVED,
+        /** Пакеты блоков по дорожкам Vector API. */
+        VECTORIZED
+    }
+
+    /**
+     * Зарегистрированный шифр: общий экземпляр и его параметры.
+     */
+    public static final class Descriptor {
+
+        private final String name;
+        private final ISymmetricCipher cipher;
+        private final int[] keySizes;
+        private final Implementation implementation;
+
+        private Descriptor(String name, ISymmetricCipher cipher, int[] keySizes, Implementation implementation) {
+            this.name = name;
+            this.cipher = cipher;
+            this.keySizes = keySizes;
+            this.implementation = implementation;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ISymmetricCipher getCipher() {
+            return cipher;
+        }
+
+        public int getBlockSize() {
+            return cipher.getBlockSize();
+        }
+
+        /**
+         * @return допустимые длины ключа в байтах (копия)
+         */
+        public int[] getKeySizes() {
+            return keySizes.clone();
+        }
+
+        public boolean supportsKeySize(int keySize) {
+            for (int size : keySizes) {
+                if (size == keySize) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Implementation getImplementation() {
+            return implementation;
+        }
+    }
+
+    // Выбранная реализация каждого алгоритма и все зарегистрированные реализации
+    private final Map<String, Descriptor> ciphers = new ConcurrentHashMap<>();
+    private final Map<String, Map<Implementation, Descriptor>> candidates = new ConcurrentHashMap<>();
+    // Порог параллельной обработки по алгоритмам; нет записи - порог по умолчанию
+    private final Map<String, Integer> parallelThresholds = new ConcurrentHashMap<>();
+
+    /**
+     * Реестр с шифрами проекта: RC6 и Twofish во всех доступных реализациях.
+     * Выбрана самая быстрая в типичном случае: векторный RC6, если доступен Vector API, и Twofish
+     * с чередованием блоков.
+     */
+    public static CipherRegistry withDefaults() {
+        CipherRegistry registry = new CipherRegistry();
+        registry.register("RC6", () -> new SingleBlockCipher(new RC6()), Implementation.SCALAR, 16, 24, 32);
+        registry.register("RC6", RC6::new, Implementation.INTERLEAVED, 16, 24, 32);
+        if (RC6Vectorized.isVectorized()) {
+            registry.register("RC6", RC6Vectorized::new, Implementation.VECTORIZED, 16, 24, 32);
+        }
+        registry.register("Twofish", () -> new SingleBlockCipher(new Twofish()), Implementation.SCALAR, 16, 24, 32);
+        registry.register("Twofish", Twofish::new, Implementation.INTERLEAVED, 16, 24, 32);
+        return registry;
+    }
+
+    /**
+     * Регистрация реализации шифра; она же становится выбранной для этого имени.
+     * Прежняя реализация того же вида заменяется.
+     * @param name имя алгоритма, как оно приходит от клиентов
+     * @param factory фабрика, вызывается один раз
+     * @param implementation реализация пакетной обработки
+     * @param keySizes допустимые длины ключа в байтах
+     */
+    public void register(String name, Supplier<? extends ISymmetricCipher> factory,
+                         Implementation implementation, int... keySizes) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Algorithm name must not be empty.");
+        }
+        if (keySizes.length == 0) {
+            throw new IllegalArgumentException("At least one key size is required for " + name);
+        }
+        Descriptor descriptor = new Descriptor(name, factory.get(), keySizes.clone(), implementation);
+        candidates.computeIfAbsent(name, key -> Collections.synchronizedMap(new EnumMap<>(Implementation.class)))
+                .put(implementation, descriptor);
+        ciphers.put(name, descriptor);
+    }
+
+    /**
+     * Выбор одной из зарегистрированных реализаций: с этого момента её возвращают get и describe.
+     * @throws IllegalArgumentException если алгоритм или реализация не зарегистрированы
+     */
+    public void select(String name, Implementation implementation) {
+        ciphers.put(name, describe(name, implementation));
+    }
+
+    /**
+     * Выбор реализации и порога параллельной обработки для {@link #createModes}.
+     * @param parallelThreshold минимальный размер данных в байтах для параллельной обработки
+     * @throws IllegalArgumentException если алгоритм или реализация не зарегистрированы или порог отрицателен
+     */
+    public void select(String name, Implementation implementation, int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold must not be negative.");
+        }
+        select(name, implementation);
+        parallelThresholds.put(name, parallelThreshold);
+    }
+
+    /**
+     * @return порог параллельной обработки алгоритма
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public int getParallelThreshold(String name) {
+        describe(name);
+        return parallelThresholds.getOrDefault(name, BlockCipherModes.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Режимы шифрования выбранной реализации с выбранным порогом на общем пуле ForkJoin.
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public BlockCipherModes createModes(String name) {
+        return createModes(name, null);
+    }
+
+    /**
+     * То же, что {@link #createModes(String)}, но методы с byte[] ключом берут развёрнутый ключ из кэша.
+     * @param keyCache кэш развёрнутых ключей или null
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public BlockCipherModes createModes(String name, ExpandedKeyCache keyCache) {
+        return new BlockCipherModes(get(name), ForkJoinPool.commonPool(), getParallelThreshold(name), keyCache);
+    }
+
+    /**
+     * @return зарегистрированная реализация алгоритма (не обязательно выбранная)
+     * @throws IllegalArgumentException если алгоритм или реализация не зарегистрированы
+     */
+    public Descriptor describe(String name, Implementation implementation) {
+        Descriptor descriptor = getCandidates(name).get(implementation);
+        if (descriptor == null) {
+            throw new IllegalArgumentException(implementation + " implementation is not available for " + name);
+        }
+        return descriptor;
+    }
+
+    /**
+     * @return виды реализаций, зарегистрированные для алгоритма (копия)
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public Set<Implementation> getImplementations(String name) {
+        Map<Implementation, Descriptor> available = getCandidates(name);
+        synchronized (available) {
+            return available.isEmpty() ? EnumSet.noneOf(Implementation.class) : EnumSet.copyOf(available.keySet());
+        }
+    }
+
+    public boolean isSupported(String name) {
+        return name != null && ciphers.containsKey(name);
+    }
+
+    /**
+     * @return общий экземпляр шифра
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public ISymmetricCipher get(String name) {
+        return describe(name).getCipher();
+    }
+
+    /**
+     * @throws IllegalArgumentException если алгоритм не зарегистрирован
+     */
+    public Descriptor describe(String name) {
+        Descriptor descriptor = name == null ? null : ciphers.get(name);
+        if (descriptor == null) {
+            throw new IllegalArgumentException("Unsupported algorithm: " + name);
+        }
+        return descriptor;
+    }
+
+    private Map<Implementation, Descriptor> getCandidates(String name) {
+        Map<Implementation, Descriptor> available = name == null ? null : candidates.get(name);
+        if (available == null) {
+            throw new IllegalArgumentException("Unsupported algorithm: " + name);
+        }
+        return available;
+    }
+
+    /**
+     * @return имена зарегистрированных алгоритмов (неизменяемое представление)
+     */
+    public Set<String> getAlgorithms() {
+        return Collections.unmodifiableSet(ciphers.keySet());
+    }
+}
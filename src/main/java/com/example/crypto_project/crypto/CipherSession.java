@@ -0,0 +1,119 @@
+package com.example.crypto_project.crypto;
+
+import java.util.Arrays;
+
+/**
+ * Сессия шифрования с сохранением состояния: создаётся один раз на ключ, режим и набивку
+ * и переиспользуется для многих сообщений. Развёрнутый ключ и буферы режима живут всю сессию,
+ * между сообщениями меняется только IV ({@link #reset(byte[])}).
+ * Данные можно подавать порциями по мере поступления (update), результат совпадает
+ * с {@link BlockCipherModes} побайтно. Не потокобезопасна.
+ * <p>
+ * После doFinal сессия закрыта до следующего reset: продолжение с тем же IV
+ * повторило бы гамму CTR/OFB/CFB.
+ * <p>
+ * GCM сессией не поддерживается (IllegalArgumentException при создании): update выдал бы
+ * открытый текст до проверки тега. Сообщения GCM обрабатываются целиком через {@link BlockCipherModes}.
+ */
+public class CipherSession {
+
+    private final ModeProcessor processor;
+    private final int blockSize;
+    private boolean finished;
+
+    private CipherSession(ModeProcessor processor, int blockSize) {
+        this.processor = processor;
+        this.blockSize = blockSize;
+    }
+
+    public static CipherSession encrypting(IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        return new CipherSession(new ModeProcessor(key, iv, mode, paddingMode, true), key.getBlockSize());
+    }
+
+    public static CipherSession decrypting(IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode) {
+        return new CipherSession(new ModeProcessor(key, iv, mode, paddingMode, false), key.getBlockSize());
+    }
+
+    /**
+     * Обрабатывает очередную порцию данных. Режимы ECB/CBC/PCBC отдают только целые блоки,
+     * остаток накапливается до следующего вызова.
+     * @return число байт, записанных в out
+     */
+    public int update(byte[] in, int inOff, int len, byte[] out, int outOff) {
+        checkActive();
+        checkRange(in, inOff, len);
+        checkOutput(out, outOff, processor.getUpdateOutputSize(len));
+        return processor.update(in, inOff, len, out, outOff);
+    }
+
+    /**
+     * Завершает сообщение: дописывает набивку при шифровании или снимает её при дешифровании.
+     * @return число байт, записанных в out
+     */
+    public int doFinal(byte[] out, int outOff) {
+        return doFinal(new byte[0], 0, 0, out, outOff);
+    }
+
+    /**
+     * Последняя порция данных и завершение сообщения.
+     * @return число байт, записанных в out
+     */
+    public int doFinal(byte[] in, int inOff, int len, byte[] out, int outOff) {
+        checkActive();
+        checkRange(in, inOff, len);
+        checkOutput(out, outOff, processor.getFinalOutputSize(len));
+        finished = true;
+        int produced = processor.update(in, inOff, len, out, outOff);
+        return produced + processor.doFinal(out, outOff + produced);
+    }
+
+    /**
+     * Шифрование (дешифрование) целого сообщения, накопленного в сессии вместе с data.
+     * @return результат точной длины
+     */
+    public byte[] doFinal(byte[] data) {
+        byte[] result = new byte[getOutputSize(data.length)];
+        int length = doFinal(data, 0, data.length, result, 0);
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Начало нового сообщения с новым IV; ключ повторно не развёртывается.
+     * Незавершённое сообщение отбрасывается. Для ECB iv не используется и может быть null.
+     * @param iv вектор инициализации размером в блок
+     */
+    public void reset(byte[] iv) {
+        processor.reset(iv);
+        finished = false;
+    }
+
+    /**
+     * Число байт, которое вернёт doFinal для inputLength новых байт с учётом накопленных:
+     * точное при шифровании, верхняя граница при дешифровании.
+     */
+    public int getOutputSize(int inputLength) {
+        return processor.getFinalOutputSize(inputLength);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    private void checkActive() {
+        if (finished) {
+            throw new IllegalStateException("Session is finished, call reset with a new IV");
+        }
+    }
+
+    private static void checkRange(byte[] in, int inOff, int len) {
+        if (inOff < 0 || len < 0 || inOff > in.length - len) {
+            throw new IllegalArgumentException("Input range out of bounds.");
+        }
+    }
+
+    private static void checkOutput(byte[] out, int outOff, int required) {
+        if (outOff < 0 || outOff > out.length || out.length - outOff < required) {
+            throw new IllegalArgumentException("Output buffer too small: " + required + " bytes required");
+        }
+    }
+}
@@ -0,0 +1,715 @@
+package com.example.crypto_project.crypto;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Модульная арифметика для обмена ключами: возведение в степень по нечётному модулю
+ * в форме Монтгомери на 64-битных limb-ах фиксированной ширины. Промежуточные значения живут
+ * в буферах потока, поэтому возведение в степень выделяет память только на вход и результат
+ * (BigInteger.modPow создаёт новые массивы на каждом шаге).
+ * Генерация параметров Диффи-Хеллмана: параллельный поиск безопасных простых.
+ */
+public final class CryptoMathUtils {
+
+    /**
+     * Способ возведения в степень.
+     */
+    public enum Exponentiation {
+        // Скользящее окно: меньше всего умножений, время зависит от показателя - для открытых показателей
+        SLIDING_WINDOW,
+        // Фиксированное окно в 4 бита с выборкой из таблицы без ветвлений по показателю
+        FIXED_WINDOW,
+        // Лестница Монтгомери: умножение и возведение в квадрат на каждый бит, обмен без ветвлений
+        LADDER
+    }
+
+    // Последний созданный контекст: приложение работает с одной-двумя группами
+    private static volatile Montgomery lastMontgomery;
+
+    private CryptoMathUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Контекст Монтгомери для модуля; повторный вызов с тем же модулем возвращает тот же контекст.
+     * @throws IllegalArgumentException если модуль чётный или меньше 3
+     */
+    public static Montgomery montgomery(BigInteger modulus) {
+        Montgomery montgomery = lastMontgomery;
+        if (montgomery == null || !montgomery.getModulus().equals(modulus)) {
+            montgomery = new Montgomery(modulus);
+            lastMontgomery = montgomery;
+        }
+        return montgomery;
+    }
+
+    /**
+     * Новая группа Диффи-Хеллмана из безопасного простого на bits бит; поиск идёт на всех ядрах.
+     * @throws IllegalArgumentException если bits меньше 64
+     */
+    public static DhGroup generateDhGroup(int bits) {
+        return new SafePrimeGenerator(Runtime.getRuntime().availableProcessors()).generate(bits).toDhGroup();
+    }
+
+    /**
+     * Арифметика Монтгомери по фиксированному нечётному модулю: R = 2^(64 * limbs).
+     * Неизменяем и потокобезопасен; рабочие буферы у каждого потока свои.
+     */
+    public static final class Montgomery {
+
+        // Таблица степеней: 32 нечётные степени для окна 6 бит или 16 степеней для окна 4 бита
+        private static final int TABLE_SIZE = 32;
+        private static final int FIXED_WINDOW_BITS = 4;
+
+        private final BigInteger modulus;
+        private final int limbs;
+        private final long[] mod;
+        // -mod^(-1) mod 2^64
+        private final long inverse;
+        // R^2 mod modulus - перевод в форму Монтгомери; R mod modulus - единица в этой форме
+        private final long[] rSquared;
+        private final long[] one;
+        private final ThreadLocal<Workspace> workspace;
+
+        public Montgomery(BigInteger modulus) {
+            if (modulus.signum() <= 0 || !modulus.testBit(0) || modulus.bitLength() < 2) {
+                throw new IllegalArgumentException("Modulus must be an odd number greater than 2.");
+            }
+            this.modulus = modulus;
+            this.limbs = (modulus.bitLength() + 63) / 64;
+            this.mod = toLimbs(modulus, limbs);
+            this.inverse = -inverse64(mod[0]);
+            this.rSquared = toLimbs(BigInteger.ONE.shiftLeft(128 * limbs).mod(modulus), limbs);
+            this.one = toLimbs(BigInteger.ONE.shiftLeft(64 * limbs).mod(modulus), limbs);
+            this.workspace = ThreadLocal.withInitial(() -> new Workspace(limbs));
+        }
+
+        public BigInteger getModulus() {
+            return modulus;
+        }
+
+        /**
+         * @return число 64-битных limb-ов модуля
+         */
+        public int getLimbs() {
+            return limbs;
+        }
+
+        /**
+         * base^exponent mod modulus скользящим окном.
+         */
+        public BigInteger modPow(BigInteger base, BigInteger exponent) {
+            return modPow(base, exponent, Exponentiation.SLIDING_WINDOW);
+        }
+
+        /**
+         * base^exponent mod modulus выбранным способом. FIXED_WINDOW и LADDER обрабатывают все
+         * 64 * limbs бит показателя, поэтому время не зависит от его значения.
+         * @throws IllegalArgumentException если показатель отрицательный или длиннее модуля
+         */
+        public BigInteger modPow(BigInteger base, BigInteger exponent, Exponentiation exponentiation) {
+            Workspace ws = load(exponent);
+            if (base.signum() < 0 || base.compareTo(modulus) >= 0) {
+                base = base.mod(modulus);
+            }
+            toMontgomery(base, ws.base, ws);
+            switch (exponentiation) {
+                case SLIDING_WINDOW: slidingWindow(ws, exponent.bitLength()); break;
+                case FIXED_WINDOW: fixedWindow(ws); break;
+                case LADDER: ladder(ws); break;
+                default: throw new IllegalArgumentException("Unsupported exponentiation: " + exponentiation);
+            }
+            return finish(ws);
+        }
+
+        /**
+         * Таблица для многократного возведения в степень одного основания (генератора группы).
+         * @throws IllegalArgumentException если основание не меньше модуля или отрицательное
+         */
+        public FixedBase fixedBase(BigInteger base) {
+            if (base.signum() < 0 || base.compareTo(modulus) >= 0) {
+                throw new IllegalArgumentException("Base must be in the range [0, modulus).");
+            }
+            return new FixedBase(this, base);
+        }
+
+        // Буферы потока с показателем в limb-ах
+        private Workspace load(BigInteger exponent) {
+            if (exponent.signum() < 0 || exponent.bitLength() > 64 * limbs) {
+                throw new IllegalArgumentException("Exponent must be non-negative and not longer than the modulus.");
+            }
+            Workspace ws = workspace.get();
+            toLimbs(exponent, ws.exponent);
+            return ws;
+        }
+
+        // value * R^2 * R^(-1): перевод в форму Монтгомери
+        private void toMontgomery(BigInteger value, long[] out, Workspace ws) {
+            toLimbs(value, out);
+            multiply(out, rSquared, out, ws.product);
+        }
+
+        // Результат из ws.result: умножение на обычную единицу выводит из формы Монтгомери
+        private BigInteger finish(Workspace ws) {
+            Arrays.fill(ws.temp, 0);
+            ws.temp[0] = 1;
+            multiply(ws.result, ws.temp, ws.result, ws.product);
+            BigInteger result = fromLimbs(ws.result, ws.bytes);
+            // Показатель и производные от него значения не остаются в буферах потока
+            Arrays.fill(ws.exponent, 0);
+            Arrays.fill(ws.result, 0);
+            Arrays.fill(ws.temp, 0);
+            return result;
+        }
+
+        // Строка from + index копируется в out просмотром всех size строк: доступ к памяти не зависит от index
+        private void select(long[][] table, int from, int size, int index, long[] out) {
+            Arrays.fill(out, 0);
+            for (int row = 0; row < size; row++) {
+                // mask = -1 только для row == index
+                long mask = ((long) ((row ^ index) - 1)) >> 63;
+                long[] entry = table[from + row];
+                for (int j = 0; j < limbs; j++) {
+                    out[j] |= entry[j] & mask;
+                }
+            }
+        }
+
+        // Окно до 6 бит по длине показателя; таблица - нечётные степени base^1, base^3, ...
+        private void slidingWindow(Workspace ws, int bits) {
+            int window = bits > 671 ? 6 : bits > 239 ? 5 : bits > 79 ? 4 : bits > 23 ? 3 : 1;
+            long[][] table = ws.table;
+            System.arraycopy(ws.base, 0, table[0], 0, limbs);
+            if (window > 1) {
+                multiply(ws.base, ws.base, ws.temp, ws.product);
+                for (int i = 1; i < 1 << (window - 1); i++) {
+                    multiply(table[i - 1], ws.temp, table[i], ws.product);
+                }
+            }
+
+            long[] result = ws.result;
+            System.arraycopy(one, 0, result, 0, limbs);
+            int i = bits - 1;
+            while (i >= 0) {
+                if (!testBit(ws.exponent, i)) {
+                    multiply(result, result, result, ws.product);
+                    i--;
+                    continue;
+                }
+                // Самое длинное окно не длиннее window, заканчивающееся единичным битом
+                int low = Math.max(i - window + 1, 0);
+                while (!testBit(ws.exponent, low)) {
+                    low++;
+                }
+                int value = 0;
+                for (int j = i; j >= low; j--) {
+                    multiply(result, result, result, ws.product);
+                    value = (value << 1) | (testBit(ws.exponent, j) ? 1 : 0);
+                }
+                multiply(result, table[value >>> 1], result, ws.product);
+                i = low - 1;
+            }
+        }
+
+        // Окна по 4 бита от старших к младшим; строка таблицы выбирается просмотром всех строк
+        private void fixedWindow(Workspace ws) {
+            long[][] table = ws.table;
+            int size = 1 << FIXED_WINDOW_BITS;
+            System.arraycopy(one, 0, table[0], 0, limbs);
+            System.arraycopy(ws.base, 0, table[1], 0, limbs);
+            for (int i = 2; i < size; i++) {
+                multiply(table[i - 1], ws.base, table[i], ws.product);
+            }
+
+            long[] result = ws.result;
+            System.arraycopy(one, 0, result, 0, limbs);
+            for (int bit = 64 * limbs - FIXED_WINDOW_BITS; bit >= 0; bit -= FIXED_WINDOW_BITS) {
+                for (int s = 0; s < FIXED_WINDOW_BITS; s++) {
+                    multiply(result, result, result, ws.product);
+                }
+                int value = (int) (ws.exponent[bit >>> 6] >>> (bit & 63)) & (size - 1);
+                select(table, 0, size, value, ws.temp);
+                multiply(result, ws.temp, result, ws.product);
+            }
+        }
+
+        // Инвариант r1 = r0 * base; бит показателя выбирает, какой из двух возводится в квадрат
+        private void ladder(Workspace ws) {
+            long[] r0 = ws.result;
+            long[] r1 = ws.temp;
+            System.arraycopy(one, 0, r0, 0, limbs);
+            System.arraycopy(ws.base, 0, r1, 0, limbs);
+            long swapped = 0;
+            for (int bit = 64 * limbs - 1; bit >= 0; bit--) {
+                long b = (ws.exponent[bit >>> 6] >>> (bit & 63)) & 1;
+                conditionalSwap(r0, r1, swapped ^ b);
+                swapped = b;
+                multiply(r0, r1, r1, ws.product);
+                multiply(r0, r0, r0, ws.product);
+            }
+            conditionalSwap(r0, r1, swapped);
+        }
+
+        private void conditionalSwap(long[] a, long[] b, long swap) {
+            long mask = -swap;
+            for (int j = 0; j < limbs; j++) {
+                long t = (a[j] ^ b[j]) & mask;
+                a[j] ^= t;
+                b[j] ^= t;
+            }
+        }
+
+        /**
+         * Произведение Монтгомери a * b * R^(-1) mod modulus (CIOS). out может совпадать с a или b;
+         * последнее вычитание модуля выполняется без ветвления.
+         * @param t буфер из limbs + 2 слов
+         */
+        private void multiply(long[] a, long[] b, long[] out, long[] t) {
+            int n = limbs;
+            Arrays.fill(t, 0);
+            for (int i = 0; i < n; i++) {
+                long ai = a[i];
+                long carry = 0;
+                for (int j = 0; j < n; j++) {
+                    long lo = ai * b[j];
+                    long hi = unsignedMultiplyHigh(ai, b[j]);
+                    long s = lo + t[j];
+                    hi += carry(lo, t[j], s);
+                    long sum = s + carry;
+                    hi += carry(s, carry, sum);
+                    t[j] = sum;
+                    carry = hi;
+                }
+                long top = t[n] + carry;
+                t[n + 1] = carry(t[n], carry, top);
+                t[n] = top;
+
+                // Прибавление m * modulus обнуляет младшее слово, сдвиг на слово - деление на 2^64
+                long m = t[0] * inverse;
+                long lo = m * mod[0];
+                carry = unsignedMultiplyHigh(m, mod[0]) + carry(lo, t[0], lo + t[0]);
+                for (int j = 1; j < n; j++) {
+                    lo = m * mod[j];
+                    long hi = unsignedMultiplyHigh(m, mod[j]);
+                    long s = lo + t[j];
+                    hi += carry(lo, t[j], s);
+                    long sum = s + carry;
+                    hi += carry(s, carry, sum);
+                    t[j - 1] = sum;
+                    carry = hi;
+                }
+                top = t[n] + carry;
+                t[n - 1] = top;
+                t[n] = t[n + 1] + carry(t[n], carry, top);
+            }
+
+            // t < 2 * modulus: результат - t или t - modulus
+            long borrow = 0;
+            for (int j = 0; j < n; j++) {
+                long d = t[j] - mod[j] - borrow;
+                borrow = ((~t[j] & mod[j]) | (~(t[j] ^ mod[j]) & d)) >>> 63;
+                out[j] = d;
+            }
+            long mask = -(t[n] | (borrow ^ 1));
+            for (int j = 0; j < n; j++) {
+                out[j] = (out[j] & mask) | (t[j] & ~mask);
+            }
+        }
+    }
+
+    /**
+     * Степени фиксированного основания по гребёнке Лим-Ли: показатель из 64 * limbs бит делится на
+     * TABLES * TEETH блоков по width бит. Таблица t хранит для каждого i произведение
+     * base^(2^(k * width)) по блокам k = t * TEETH + j, где j - единичные биты i. Возведение в степень -
+     * width возведений в квадрат и TABLES * width умножений (у общих способов 64 * limbs квадратов),
+     * строка выбирается без ветвлений по показателю. Таблица неизменяема и разделяется между потоками.
+     */
+    public static final class FixedBase {
+
+        // Две таблицы по 2^8 значений (128 КБ для 2048-битного модуля): треть умножений общего способа
+        private static final int TEETH = 8;
+        private static final int TABLES = 2;
+        private static final int SIZE = 1 << TEETH;
+
+        private final Montgomery montgomery;
+        private final BigInteger base;
+        private final int width;
+        // Строки таблицы t - с t * SIZE по (t + 1) * SIZE - 1
+        private final long[][] table;
+
+        private FixedBase(Montgomery montgomery, BigInteger base) {
+            this.montgomery = montgomery;
+            this.base = base;
+            int limbs = montgomery.limbs;
+            this.width = 64 * limbs / (TABLES * TEETH);
+            this.table = new long[TABLES * SIZE][limbs];
+
+            // blocks[k] = base^(2^(k * width))
+            Workspace ws = montgomery.workspace.get();
+            long[][] blocks = new long[TABLES * TEETH][limbs];
+            montgomery.toMontgomery(base, blocks[0], ws);
+            for (int k = 1; k < blocks.length; k++) {
+                System.arraycopy(blocks[k - 1], 0, blocks[k], 0, limbs);
+                for (int i = 0; i < width; i++) {
+                    montgomery.multiply(blocks[k], blocks[k], blocks[k], ws.product);
+                }
+            }
+            for (int t = 0; t < TABLES; t++) {
+                int from = t * SIZE;
+                System.arraycopy(montgomery.one, 0, table[from], 0, limbs);
+                for (int index = 1; index < SIZE; index++) {
+                    int low = Integer.numberOfTrailingZeros(index);
+                    montgomery.multiply(table[from + (index & (index - 1))], blocks[t * TEETH + low],
+                            table[from + index], ws.product);
+                }
+            }
+        }
+
+        public BigInteger getBase() {
+            return base;
+        }
+
+        public BigInteger getModulus() {
+            return montgomery.getModulus();
+        }
+
+        /**
+         * base^exponent mod modulus; время не зависит от значения показателя.
+         * @throws IllegalArgumentException если показатель отрицательный или длиннее модуля
+         */
+        public BigInteger modPow(BigInteger exponent) {
+            Workspace ws = montgomery.load(exponent);
+            long[] result = ws.result;
+            System.arraycopy(montgomery.one, 0, result, 0, montgomery.limbs);
+            for (int column = width - 1; column >= 0; column--) {
+                montgomery.multiply(result, result, result, ws.product);
+                for (int t = 0; t < TABLES; t++) {
+                    int index = 0;
+                    for (int j = 0; j < TEETH; j++) {
+                        int bit = (t * TEETH + j) * width + column;
+                        index |= (int) ((ws.exponent[bit >>> 6] >>> (bit & 63)) & 1) << j;
+                    }
+                    montgomery.select(table, t * SIZE, SIZE, index, ws.temp);
+                    montgomery.multiply(result, ws.temp, result, ws.product);
+                }
+            }
+            return montgomery.finish(ws);
+        }
+    }
+
+    /**
+     * Безопасное простое p = 2q + 1 (q тоже простое) и статистика его поиска.
+     */
+    public static final class SafePrime {
+
+        private final BigInteger p;
+        private final BigInteger q;
+        private final long candidates;
+        private final long elapsedNanos;
+        private final int threads;
+
+        private SafePrime(BigInteger q, long candidates, long elapsedNanos, int threads) {
+            this.p = q.shiftLeft(1).setBit(0);
+            this.q = q;
+            this.candidates = candidates;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public BigInteger getP() {
+            return p;
+        }
+
+        public BigInteger getQ() {
+            return q;
+        }
+
+        /**
+         * @return число кандидатов, прошедших решето и проверенных тестом Миллера-Рабина
+         */
+        public long getCandidates() {
+            return candidates;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public double getCandidatesPerSecond() {
+            return elapsedNanos == 0 ? 0 : candidates * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Группа с наименьшим генератором g >= 2 подгруппы простого порядка q: g^q = 1 mod p.
+         * Генератор всей группы (порядка 2q) раскрывал бы младший бит закрытого ключа через символ Лежандра.
+         * Число 4 - всегда квадратичный вычет, поэтому перебор заканчивается не позже g = 4.
+         */
+        public DhGroup toDhGroup() {
+            BigInteger g = BigInteger.TWO;
+            while (!g.modPow(q, p).equals(BigInteger.ONE)) {
+                g = g.add(BigInteger.ONE);
+            }
+            return new DhGroup(p, g);
+        }
+    }
+
+    /**
+     * Параллельный поиск безопасных простых p = 2q + 1. Каждый поток берёт случайное окно нечётных q,
+     * просеивает его таблицей малых простых (отбрасываются q и p с малым делителем) и проверяет
+     * оставшихся кандидатов тестом Миллера-Рабина: основание 2 для q и p отсекает почти все составные,
+     * затем rounds раундов со случайными основаниями. Первое найденное число отменяет поиск остальных потоков.
+     */
+    public static final class SafePrimeGenerator {
+
+        public static final int DEFAULT_ROUNDS = 32;
+
+        // Кандидатов q в окне просеивания
+        private static final int WINDOW = 1 << 14;
+        // Нечётные простые до 2^16: решето оставляет около 2% окна
+        private static final int[] SMALL_PRIMES = smallPrimes(1 << 16);
+        private static final SecureRandom RANDOM = new SecureRandom();
+
+        private final int threads;
+        private final int rounds;
+
+        public SafePrimeGenerator(int threads) {
+            this(threads, DEFAULT_ROUNDS);
+        }
+
+        /**
+         * @param threads число потоков поиска
+         * @param rounds раундов Миллера-Рабина со случайным основанием для q и для p
+         */
+        public SafePrimeGenerator(int threads, int rounds) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Thread count must be positive.");
+            }
+            if (rounds <= 0) {
+                throw new IllegalArgumentException("Round count must be positive.");
+            }
+            this.threads = threads;
+            this.rounds = rounds;
+        }
+
+        /**
+         * Безопасное простое ровно на bits бит.
+         * @throws IllegalArgumentException если bits меньше 64
+         */
+        public SafePrime generate(int bits) {
+            if (bits < 64) {
+                throw new IllegalArgumentException("Safe prime must be at least 64 bits long.");
+            }
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "safe-prime-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            LongAdder candidates = new LongAdder();
+            long start = System.nanoTime();
+            try {
+                List<Callable<BigInteger>> searches = Collections.nCopies(threads, () -> search(bits, candidates));
+                // invokeAny прерывает остальные поиски после первого результата
+                BigInteger q = executor.invokeAny(searches);
+                return new SafePrime(q, candidates.sum(), System.nanoTime() - start, threads);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Safe prime generation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Перебор случайных окон до первого безопасного простого или до отмены
+        private BigInteger search(int bits, LongAdder candidates) {
+            boolean[] composite = new boolean[WINDOW];
+            while (true) {
+                // q из bits - 1 бит со старшим битом: p = 2q + 1 ровно bits бит
+                BigInteger base = new BigInteger(bits - 1, RANDOM).setBit(bits - 2).setBit(0);
+                sieve(base, composite);
+                for (int j = 0; j < WINDOW; j++) {
+                    if (composite[j]) {
+                        continue;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                    BigInteger q = base.add(BigInteger.valueOf(2L * j));
+                    candidates.increment();
+                    if (q.bitLength() == bits - 1 && isSafePrime(q)) {
+                        return q;
+                    }
+                }
+            }
+        }
+
+        // composite[j] - у q = base + 2j или p = 2q + 1 есть делитель из таблицы
+        private static void sieve(BigInteger base, boolean[] composite) {
+            Arrays.fill(composite, false);
+            byte[] bytes = base.toByteArray();
+            for (int prime : SMALL_PRIMES) {
+                int r = 0;
+                for (byte b : bytes) {
+                    r = ((r << 8) | (b & 0xFF)) % prime;
+                }
+                // q = 0 (mod prime) при 2j = -r, p = 2q + 1 = 0 (mod prime) при 4j = -(2r + 1)
+                long inverse2 = (prime + 1) >>> 1;
+                long inverse4 = inverse2 * inverse2 % prime;
+                mark(composite, (int) ((prime - r) % prime * inverse2 % prime), prime);
+                mark(composite, (int) ((prime - (2L * r + 1) % prime) % prime * inverse4 % prime), prime);
+            }
+        }
+
+        private static void mark(boolean[] composite, int from, int step) {
+            for (int j = from; j < composite.length; j += step) {
+                composite[j] = true;
+            }
+        }
+
+        private boolean isSafePrime(BigInteger q) {
+            BigInteger p = q.shiftLeft(1).setBit(0);
+            if (!millerRabin(q, BigInteger.TWO) || !millerRabin(p, BigInteger.TWO)) {
+                return false;
+            }
+            for (int i = 0; i < rounds; i++) {
+                if (!millerRabin(q, randomBase(q)) || !millerRabin(p, randomBase(p))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Один раунд Миллера-Рабина для нечётного n > 3 по основанию a из [2, n - 2]
+        private static boolean millerRabin(BigInteger n, BigInteger a) {
+            BigInteger nMinusOne = n.subtract(BigInteger.ONE);
+            int s = nMinusOne.getLowestSetBit();
+            BigInteger x = a.modPow(nMinusOne.shiftRight(s), n);
+            if (x.equals(BigInteger.ONE) || x.equals(nMinusOne)) {
+                return true;
+            }
+            for (int i = 1; i < s; i++) {
+                x = x.multiply(x).mod(n);
+                if (x.equals(nMinusOne)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static BigInteger randomBase(BigInteger n) {
+            BigInteger limit = n.subtract(BigInteger.TWO);
+            BigInteger a;
+            do {
+                a = new BigInteger(n.bitLength(), RANDOM);
+            } while (a.compareTo(BigInteger.TWO) < 0 || a.compareTo(limit) > 0);
+            return a;
+        }
+
+        private static int[] smallPrimes(int limit) {
+            boolean[] composite = new boolean[limit];
+            int count = 0;
+            for (int i = 3; i < limit; i += 2) {
+                if (!composite[i]) {
+                    count++;
+                    for (long j = (long) i * i; j < limit; j += 2L * i) {
+                        composite[(int) j] = true;
+                    }
+                }
+            }
+            int[] primes = new int[count];
+            for (int i = 3, k = 0; i < limit; i += 2) {
+                if (!composite[i]) {
+                    primes[k++] = i;
+                }
+            }
+            return primes;
+        }
+    }
+
+    // Буферы одного потока для контекста с limbs словами
+    private static final class Workspace {
+
+        private final long[] base;
+        private final long[] exponent;
+        private final long[] result;
+        private final long[] temp;
+        private final long[] product;
+        private final long[][] table;
+        private final byte[] bytes;
+
+        private Workspace(int limbs) {
+            this.base = new long[limbs];
+            this.exponent = new long[limbs];
+            this.result = new long[limbs];
+            this.temp = new long[limbs];
+            this.product = new long[limbs + 2];
+            this.table = new long[Montgomery.TABLE_SIZE][limbs];
+            this.bytes = new byte[8 * limbs];
+        }
+    }
+
+    // Старшие 64 бита беззнакового произведения через знаковое Math.multiplyHigh
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    // Перенос из сложения x + y (с входным переносом или без), давшего sum
+    private static long carry(long x, long y, long sum) {
+        return ((x & y) | ((x | y) & ~sum)) >>> 63;
+    }
+
+    // x^(-1) mod 2^64 для нечётного x методом Ньютона: каждый шаг удваивает число верных бит
+    private static long inverse64(long x) {
+        long inv = x;
+        for (int i = 0; i < 5; i++) {
+            inv *= 2 - x * inv;
+        }
+        return inv;
+    }
+
+    private static boolean testBit(long[] value, int bit) {
+        return (value[bit >>> 6] >>> (bit & 63) & 1) != 0;
+    }
+
+    private static long[] toLimbs(BigInteger value, int limbs) {
+        long[] result = new long[limbs];
+        toLimbs(value, result);
+        return result;
+    }
+
+    // Неотрицательное значение в limb-и от младшего к старшему; лишние limb-и обнуляются
+    private static void toLimbs(BigInteger value, long[] limbs) {
+        byte[] bytes = value.toByteArray();
+        Arrays.fill(limbs, 0);
+        for (int i = 0; i < bytes.length && i < 8 * limbs.length; i++) {
+            limbs[i >>> 3] |= (bytes[bytes.length - 1 - i] & 0xFFL) << (8 * (i & 7));
+        }
+        Arrays.fill(bytes, (byte) 0);
+    }
+
+    private static BigInteger fromLimbs(long[] limbs, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) (limbs[i >>> 3] >>> (8 * (i & 7)));
+        }
+        BigInteger result = new BigInteger(1, bytes);
+        Arrays.fill(bytes, (byte) 0);
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.crypto_project.crypto;
+
+import java.security.Provider;
+import java.util.Map;
+
+/**
+ * JCA-провайдер: шифры из {@link CipherRegistry} доступны через javax.crypto.Cipher,
+ * CipherInputStream/CipherOutputStream и NIO-перегрузки update/doFinal.
+ * Преобразование - "алгоритм/режим/набивка", например "RC6/CBC/PKCS5Padding" или
+ * "Twofish/GCM/NoPadding". Режимы - значения {@link CipherMode} и CTS (CBC-CS3),
+ * ключи - SecretKeySpec с сырыми байтами ключа.
+ * <pre>
+ * Cipher cipher = Cipher.getInstance("RC6/CTR/NoPadding", new CryptoProjectProvider());
+ * </pre>
+ */
+public final class CryptoProjectProvider extends Provider {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String NAME = "CryptoProject";
+
+    // Атрибуты, по которым Cipher.getInstance проверяет режим и набивку преобразования
+    static final String SUPPORTED_MODES = "ECB|CBC|PCBC|CFB|OFB|CTR|RANDOM_DELTA|GCM|CTS";
+    static final String SUPPORTED_PADDINGS =
+            "NOPADDING|PKCS5PADDING|PKCS7PADDING|ZEROBYTEPADDING|X923PADDING|ISO10126PADDING";
+
+    public CryptoProjectProvider() {
+        this(CipherRegistry.withDefaults());
+    }
+
+    /**
+     * @param registry шифры, которые будут зарегистрированы как службы Cipher
+     */
+    public CryptoProjectProvider(CipherRegistry registry) {
+        super(NAME, "1.0", "Project block ciphers (RC6, Twofish) with the project's modes and paddings");
+        for (String algorithm : registry.getAlgorithms()) {
+            putService(new CipherService(this, registry.describe(algorithm)));
+        }
+    }
+
+    // Служба создаёт SPI напрямую вокруг общего экземпляра шифра из реестра
+    private static final class CipherService extends Provider.Service {
+
+        private final CipherRegistry.Descriptor descriptor;
+
+        CipherService(Provider provider, CipherRegistry.Descriptor descriptor) {
+            super(provider, "Cipher", descriptor.getName(), BlockCipherSpi.class.getName(), null,
+                    Map.of("SupportedModes", SUPPORTED_MODES,
+                            "SupportedPaddings", SUPPORTED_PADDINGS,
+                            "SupportedKeyFormats", "RAW"));
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public Object newInstance(Object constructorParameter) {
+            return new BlockCipherSpi(descriptor);
+        }
+    }
+}
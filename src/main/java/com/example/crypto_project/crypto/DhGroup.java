@@ -0,0 +1,140 @@
+package com.example.crypto_project.crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Параметры группы Диффи-Хеллмана (модуль p и генератор g), общие для всех участников.
+ * Для нечётного p группа хранит таблицу степеней g ({@link CryptoMathUtils.FixedBase}):
+ * она строится при первом создании участника и затем разделяется всеми потоками,
+ * поэтому публичный ключ g^x вычисляется в несколько раз быстрее общего возведения в степень.
+ */
+public final class DhGroup {
+
+    // RFC 3526, группа 14 (2048 бит)
+    public static final DhGroup MODP_2048 = new DhGroup(new BigInteger(
+            "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
+            "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
+            "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
+            "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED" +
+            "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3D" +
+            "C2007CB8A163BF0598DA48361C55D39A69163FA8FD24CF5F" +
+            "83655D23DCA3AD961C62F356208552BB9ED529077096966D" +
+            "670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B" +
+            "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9" +
+            "DE2BCBF6955817183995497CEA956AE515D2261898FA0510" +
+            "15728E5A8AACAA68FFFFFFFFFFFFFFFF", 16), BigInteger.TWO);
+
+    // RFC 3526, группа 15 (3072 бит)
+    public static final DhGroup MODP_3072 = new DhGroup(new BigInteger(
+            "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
+            "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
+            "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
+            "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED" +
+            "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3D" +
+            "C2007CB8A163BF0598DA48361C55D39A69163FA8FD24CF5F" +
+            "83655D23DCA3AD961C62F356208552BB9ED529077096966D" +
+            "670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B" +
+            "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9" +
+            "DE2BCBF6955817183995497CEA956AE515D2261898FA0510" +
+            "15728E5A8AAAC42DAD33170D04507A33A85521ABDF1CBA64" +
+            "ECFB850458DBEF0A8AEA71575D060C7DB3970F85A6E1E4C7" +
+            "ABF5AE8CDB0933D71E8C94E04A25619DCEE3D2261AD2EE6B" +
+            "F12FFA06D98A0864D87602733EC86A64521F2B18177B200C" +
+            "BBE117577A615D6C770988C0BAD946E208E24FA074E5AB31" +
+            "43DB5BFCE0FD108E4B82D120A93AD2CAFFFFFFFFFFFFFFFF", 16), BigInteger.TWO);
+
+    // RFC 3526, группа 16 (4096 бит)
+    public static final DhGroup MODP_4096 = new DhGroup(new BigInteger(
+            "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
+            "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
+            "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
+            "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED" +
+            "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3D" +
+            "C2007CB8A163BF0598DA48361C55D39A69163FA8FD24CF5F" +
+            "83655D23DCA3AD961C62F356208552BB9ED529077096966D" +
+            "670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B" +
+            "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9" +
+            "DE2BCBF6955817183995497CEA956AE515D2261898FA0510" +
+            "15728E5A8AAAC42DAD33170D04507A33A85521ABDF1CBA64" +
+            "ECFB850458DBEF0A8AEA71575D060C7DB3970F85A6E1E4C7" +
+            "ABF5AE8CDB0933D71E8C94E04A25619DCEE3D2261AD2EE6B" +
+            "F12FFA06D98A0864D87602733EC86A64521F2B18177B200C" +
+            "BBE117577A615D6C770988C0BAD946E208E24FA074E5AB31" +
+            "43DB5BFCE0FD108E4B82D120A92108011A723C12A787E6D7" +
+            "88719A10BDBA5B2699C327186AF4E23C1A946834B6150BDA" +
+            "2583E9CA2AD44CE8DBBBC2DB04DE8EF92E8EFC141FBECAA6" +
+            "287C59474E6BC05D99B2964FA090C3A2233BA186515BE7ED" +
+            "1F612970CEE2D7AFB81BDD762170481CD0069127D5B05AA9" +
+            "93B4EA988D8FDDC186FFB7DC90A6C08F4DF435C934063199" +
+            "FFFFFFFFFFFFFFFF", 16), BigInteger.TWO);
+
+    private final BigInteger p;
+    private final BigInteger g;
+    // Таблица степеней g; null до первого использования или если p чётный
+    private volatile CryptoMathUtils.FixedBase generatorTable;
+
+    /**
+     * @param p простое число (модуль)
+     * @param g генератор
+     * @throws IllegalArgumentException если g не лежит в [2, p-2]
+     */
+    public DhGroup(BigInteger p, BigInteger g) {
+        if (g.compareTo(BigInteger.TWO) < 0 || g.compareTo(p.subtract(BigInteger.TWO)) > 0) {
+            throw new IllegalArgumentException("Generator must be in the range [2, p-2].");
+        }
+        this.p = p;
+        this.g = g;
+    }
+
+    /**
+     * Стандартная группа RFC 3526 с теми же параметрами (и уже построенной таблицей) или новая группа.
+     */
+    public static DhGroup of(BigInteger p, BigInteger g) {
+        for (DhGroup group : new DhGroup[]{MODP_2048, MODP_3072, MODP_4096}) {
+            if (group.p.equals(p) && group.g.equals(g)) {
+                return group;
+            }
+        }
+        return new DhGroup(p, g);
+    }
+
+    public BigInteger getP() {
+        return p;
+    }
+
+    public BigInteger getG() {
+        return g;
+    }
+
+    /**
+     * Новый участник обмена с публичным ключом, вычисленным по таблице группы.
+     */
+    public DiffieHellman createParticipant() {
+        return new DiffieHellman(this);
+    }
+
+    /**
+     * g^exponent mod p; для нечётного p - по общей таблице, время не зависит от показателя.
+     */
+    BigInteger generatorPower(BigInteger exponent) {
+        if (!p.testBit(0)) {
+            return g.modPow(exponent, p);
+        }
+        return generatorTable().modPow(exponent);
+    }
+
+    // Таблица строится один раз на группу: около одного возведения в степень
+    private CryptoMathUtils.FixedBase generatorTable() {
+        CryptoMathUtils.FixedBase table = generatorTable;
+        if (table == null) {
+            synchronized (this) {
+                table = generatorTable;
+                if (table == null) {
+                    table = CryptoMathUtils.montgomery(p).fixedBase(g);
+                    generatorTable = table;
+                }
+            }
+        }
+        return table;
+    }
+}
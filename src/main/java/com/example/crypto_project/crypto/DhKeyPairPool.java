@@ -0,0 +1,184 @@
+package com.example.crypto_project.crypto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул заранее сгенерированных участников Диффи-Хеллмана: серверный код, которому нужна пара ключей
+ * в потоке запроса, берёт готовую вместо возведения в степень. Пары генерируются фоновым потоком
+ * с низким приоритетом до targetDepth на группу; пополнение запускается, когда в пуле остаётся
+ * не больше lowWatermark пар. Каждая пара выдаётся ровно один раз; пустой пул генерирует пару синхронно.
+ * Библиотечный класс: сервер чата пар не создаёт (обмен ключами идёт в браузере), поэтому бином
+ * пул не регистрируется.
+ */
+public class DhKeyPairPool implements AutoCloseable {
+
+    // Очередь и счётчики одной группы
+    private static final class GroupPool {
+
+        private final DhGroup group;
+        private final Queue<DiffieHellman> pairs = new ConcurrentLinkedQueue<>();
+        // Размер очереди: ConcurrentLinkedQueue.size() обходит всю очередь
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private GroupPool(DhGroup group) {
+            this.group = group;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final int targetDepth;
+    private final int lowWatermark;
+    private final Map<DhGroup, GroupPool> pools = new LinkedHashMap<>();
+
+    /**
+     * @param targetDepth число готовых пар на группу после пополнения
+     * @param lowWatermark остаток, при котором запускается пополнение
+     * @param groups группы, для которых генерируются пары
+     */
+    public DhKeyPairPool(int targetDepth, int lowWatermark, DhGroup... groups) {
+        this(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dh-key-pair-pool");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }), targetDepth, lowWatermark, groups);
+    }
+
+    // executor - исполнитель пополнения (подменяется в тестах); закрывается вместе с пулом
+    DhKeyPairPool(ExecutorService executor, int targetDepth, int lowWatermark, DhGroup... groups) {
+        if (targetDepth <= 0) {
+            throw new IllegalArgumentException("Target depth must be positive.");
+        }
+        if (lowWatermark < 0 || lowWatermark >= targetDepth) {
+            throw new IllegalArgumentException("Low watermark must be in the range [0, targetDepth).");
+        }
+        if (groups.length == 0) {
+            throw new IllegalArgumentException("At least one group is required.");
+        }
+        this.executor = executor;
+        this.targetDepth = targetDepth;
+        this.lowWatermark = lowWatermark;
+        for (DhGroup group : groups) {
+            pools.put(group, new GroupPool(group));
+        }
+        pools.values().forEach(this::scheduleRefill);
+    }
+
+    /**
+     * Готовый участник группы или, если пул пуст, созданный в вызывающем потоке.
+     * @throws IllegalArgumentException если группа не настроена в пуле
+     */
+    public DiffieHellman acquire(DhGroup group) {
+        GroupPool pool = pool(group);
+        DiffieHellman pair = pool.pairs.poll();
+        if (pair == null) {
+            pool.misses.increment();
+            scheduleRefill(pool);
+            return group.createParticipant();
+        }
+        pool.hits.increment();
+        if (pool.depth.decrementAndGet() <= lowWatermark) {
+            scheduleRefill(pool);
+        }
+        return pair;
+    }
+
+    public Set<DhGroup> getGroups() {
+        return Collections.unmodifiableSet(pools.keySet());
+    }
+
+    /**
+     * @return число готовых пар группы
+     */
+    public int getDepth(DhGroup group) {
+        return pool(group).depth.get();
+    }
+
+    public long getHits(DhGroup group) {
+        return pool(group).hits.sum();
+    }
+
+    public long getMisses(DhGroup group) {
+        return pool(group).misses.sum();
+    }
+
+    /**
+     * @return доля запросов, обслуженных синхронной генерацией; 0, если запросов не было
+     */
+    public double getMissRate(DhGroup group) {
+        GroupPool pool = pool(group);
+        long misses = pool.misses.sum();
+        long total = misses + pool.hits.sum();
+        return total == 0 ? 0 : (double) misses / total;
+    }
+
+    public int getTargetDepth() {
+        return targetDepth;
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    /**
+     * Останавливает пополнение и отбрасывает невыданные пары.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (GroupPool pool : pools.values()) {
+            pool.pairs.clear();
+            pool.depth.set(0);
+        }
+    }
+
+    private GroupPool pool(DhGroup group) {
+        GroupPool pool = pools.get(group);
+        if (pool == null) {
+            throw new IllegalArgumentException("Group is not configured in the pool.");
+        }
+        return pool;
+    }
+
+    // Одно пополнение на группу одновременно
+    private void scheduleRefill(GroupPool pool) {
+        if (!pool.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> refill(pool));
+        } catch (RejectedExecutionException e) {
+            // Пул закрыт: дальше только синхронная генерация
+            pool.refilling.set(false);
+        }
+    }
+
+    private void refill(GroupPool pool) {
+        try {
+            while (pool.depth.get() < targetDepth && !executor.isShutdown()) {
+                pool.pairs.add(pool.group.createParticipant());
+                pool.depth.incrementAndGet();
+            }
+        } finally {
+            pool.refilling.set(false);
+        }
+        // Пары могли разобрать после проверки условия, но до сброса флага
+        if (pool.depth.get() <= lowWatermark && !executor.isShutdown()) {
+            scheduleRefill(pool);
+        }
+    }
+}
@@ -7,7 +7,10 @@ import java.security.SecureRandom;
  * Реализация протокола обмена ключами Диффи-Хеллмана.
  * Этот класс представляет одну сторону (участника) в обмене.
  */
-public class DiffieHellman {
+public class DiffieHellman implements IKeyAgreement {
+
+    // SecureRandom потокобезопасен; создание нового на каждого участника дорого
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     private final BigInteger p; // Простое число (модуль)
     private final BigInteger g; // Генератор (первообразный корень по модулю p)
@@ -15,6 +18,12 @@ public class DiffieHellman {
     private final BigInteger privateKey; // Секретный ключ (случайное число)
     private final BigInteger publicKey;  // Публичный ключ, вычисляемый на основе приватного
 
+    // Движок Монтгомери и способ возведения в степень; null - BigInteger.modPow
+    private final CryptoMathUtils.Montgomery montgomery;
+    private final CryptoMathUtils.Exponentiation exponentiation;
+    // Группа с таблицей степеней g; null - публичный ключ общим возведением в степень
+    private final DhGroup group;
+
     /**
      * Конструктор для инициализации участника с заданными параметрами p и g.
      * Генерирует приватный и публичный ключи.
@@ -23,17 +32,58 @@ public class DiffieHellman {
      * @param g Генератор g.
      */
     public DiffieHellman(BigInteger p, BigInteger g) {
+        this(p, g, null);
+    }
+
+    /**
+     * Конструктор с выбором способа возведения в степень.
+     * BigInteger.modPow быстрее за счёт интринсиков HotSpot, но выделяет память на каждом шаге,
+     * а время его работы зависит от приватного ключа. Движок {@link CryptoMathUtils} работает
+     * в буферах потока; FIXED_WINDOW и LADDER не зависят по времени от ключа.
+     *
+     * @param p Простое число p.
+     * @param g Генератор g.
+     * @param exponentiation Способ возведения в степень или null для BigInteger.modPow.
+     *                       Движку нужен нечётный p, для чётного всегда используется BigInteger.modPow.
+     */
+    public DiffieHellman(BigInteger p, BigInteger g, CryptoMathUtils.Exponentiation exponentiation) {
+        this(p, g, exponentiation, null);
+    }
+
+    /**
+     * Участник в группе: публичный ключ вычисляется по общей таблице степеней генератора группы.
+     *
+     * @param group Параметры группы.
+     */
+    public DiffieHellman(DhGroup group) {
+        this(group, null);
+    }
+
+    /**
+     * Участник в группе с выбором способа возведения в степень для общего секрета.
+     *
+     * @param group Параметры группы.
+     * @param exponentiation Способ возведения в степень или null для BigInteger.modPow.
+     */
+    public DiffieHellman(DhGroup group, CryptoMathUtils.Exponentiation exponentiation) {
+        this(group.getP(), group.getG(), exponentiation, group);
+    }
+
+    private DiffieHellman(BigInteger p, BigInteger g, CryptoMathUtils.Exponentiation exponentiation, DhGroup group) {
         this.p = p;
         this.g = g;
+        this.group = group;
+        boolean useMontgomery = exponentiation != null && p.testBit(0) && p.bitLength() > 1;
+        this.montgomery = useMontgomery ? CryptoMathUtils.montgomery(p) : null;
+        this.exponentiation = exponentiation;
 
         // Генерируем случайный приватный ключ в диапазоне [1, p-2]
         // Битность ключа должна быть достаточной для безопасности.
         int bitLength = p.bitLength() - 1;
-        SecureRandom random = new SecureRandom();
-        this.privateKey = new BigInteger(bitLength, random).add(BigInteger.ONE);
+        this.privateKey = new BigInteger(bitLength, RANDOM).add(BigInteger.ONE);
 
         // Вычисляем публичный ключ: publicKey = g^privateKey mod p
-        this.publicKey = g.modPow(privateKey, p);
+        this.publicKey = group != null ? group.generatorPower(privateKey) : modPow(g, privateKey);
     }
 
     /**
@@ -46,6 +96,27 @@ public class DiffieHellman {
         return publicKey;
     }
 
+    /**
+     * @return Публичный ключ big-endian без знака, дополненный нулями до длины p в байтах.
+     */
+    @Override
+    public byte[] getEncodedPublicKey() {
+        byte[] encoded = new byte[(p.bitLength() + 7) / 8];
+        byte[] magnitude = publicKey.toByteArray();
+        // toByteArray может добавить ведущий нулевой байт знака
+        int length = Math.min(magnitude.length, encoded.length);
+        System.arraycopy(magnitude, magnitude.length - length, encoded, encoded.length - length, length);
+        return encoded;
+    }
+
+    /**
+     * Общий секрет по публичному ключу в формате {@link #getEncodedPublicKey()}.
+     */
+    @Override
+    public byte[] computeSharedSecret(byte[] otherPartyPublicKey) {
+        return computeSharedSecret(new BigInteger(1, otherPartyPublicKey));
+    }
+
     /**
      * Вычисляет общий секретный ключ на основе публичного ключа другой стороны.
      *
@@ -58,10 +129,17 @@ public class DiffieHellman {
         }
 
         // Вычисляем общий секрет: sharedSecret = otherPartyPublicKey^privateKey mod p
-        BigInteger sharedSecret = otherPartyPublicKey.modPow(privateKey, p);
+        BigInteger sharedSecret = modPow(otherPartyPublicKey, privateKey);
 
         // Возвращаем хэш от секрета, чтобы получить ключ фиксированной длины (например, 256 бит)
         // Это хорошая практика (KDF - Key Derivation Function). Для простоты пока вернем toByteArray().
         return sharedSecret.toByteArray();
     }
-}
\ No newline at end of file
+
+    private BigInteger modPow(BigInteger base, BigInteger exponent) {
+        if (montgomery == null) {
+            return base.modPow(exponent, p);
+        }
+        return montgomery.modPow(base, exponent, exponentiation);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.crypto_project.crypto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный кэш развёрнутых ключей для серверных обработчиков, которые раз за разом видят
+ * одни и те же ключи чатов. Запись определяется экземпляром шифра (реестр отдаёт общие экземпляры)
+ * и отпечатком ключа - SHA-256 от случайной соли кэша и ключа, сами байты ключа не хранятся.
+ * Вытеснение - по числу записей (LRU) и по времени простоя; вытесненное расписание затирается,
+ * как только его перестают использовать. Простаивающие ключи проверяет и фоновый поток раз в
+ * половину времени простоя, поэтому они затираются и без обращений к кэшу; поток останавливается
+ * в {@link #close}. Ключи разворачиваются полной стратегией (Twofish FULL): кэшированный ключ
+ * обработает много данных.
+ */
+public final class ExpandedKeyCache implements AutoCloseable {
+
+    // Развёрнутый ключ и число вызовов, работающих с ним сейчас; поля меняются под блокировкой entries
+    private static final class Entry {
+
+        private final IExpandedKey key;
+        // Таблицы GHASH ключа, строятся при первом обращении в режиме GCM и затираются вместе с ключом
+        private GaloisCounterMode gcm;
+        private int users;
+        private long lastAccess;
+        private boolean evicted;
+
+        private Entry(IExpandedKey key) {
+            this.key = key;
+        }
+    }
+
+    // Ключ записи: шифр сравнивается по ссылке, отпечаток - по содержимому
+    private static final class Fingerprint {
+
+        private final ISymmetricCipher cipher;
+        private final byte[] digest;
+
+        private Fingerprint(ISymmetricCipher cipher, byte[] digest) {
+            this.cipher = cipher;
+            this.digest = digest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return cipher == other.cipher && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(cipher) + Arrays.hashCode(digest);
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxIdleNanos;
+    private final LongSupplier clock;
+    // null - вытеснение по расписанию не запускается
+    private final ScheduledExecutorService scheduler;
+    private final byte[] salt = new byte[32];
+    // Порядок доступа: первая запись - давно не использовавшаяся
+    private final LinkedHashMap<Fingerprint, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries наибольшее число развёрнутых ключей
+     * @param maxIdle время простоя, после которого ключ вытесняется
+     */
+    public ExpandedKeyCache(int maxEntries, Duration maxIdle) {
+        this(maxEntries, maxIdle, System::nanoTime, true);
+    }
+
+    // clock - источник времени в наносекундах (подменяется в тестах); вытеснение только при обращениях
+    ExpandedKeyCache(int maxEntries, Duration maxIdle, LongSupplier clock) {
+        this(maxEntries, maxIdle, clock, false);
+    }
+
+    private ExpandedKeyCache(int maxEntries, Duration maxIdle, LongSupplier clock, boolean scheduled) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        if (maxIdle.isNegative() || maxIdle.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.clock = clock;
+        new SecureRandom().nextBytes(salt);
+        this.scheduler = scheduled ? startIdleEviction() : null;
+    }
+
+    /**
+     * Выполняет action с развёрнутым ключом из кэша; при промахе ключ разворачивается и кэшируется.
+     * Ключ нельзя сохранять за пределами action: после вытеснения он будет затёрт.
+     * @param cipher шифр, которым разворачивается ключ
+     * @param key ключ шифрования
+     * @return результат action
+     */
+    public <T> T withKey(ISymmetricCipher cipher, byte[] key, Function<IExpandedKey, T> action) {
+        Entry entry = acquire(cipher, key);
+        try {
+            return action.apply(entry.key);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * То же, что {@link #withKey}, для режима GCM: таблицы GHASH хранятся в записи кэша
+     * и затираются при вытеснении вместе с ключом.
+     * @throws IllegalArgumentException если размер блока шифра не 128 бит
+     */
+    <T> T withGaloisCounterMode(ISymmetricCipher cipher, byte[] key, Function<GaloisCounterMode, T> action) {
+        Entry entry = acquire(cipher, key);
+        try {
+            return action.apply(galoisCounterMode(entry));
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * Вытесняет ключи, простаивающие дольше допустимого. Кэш делает это сам при каждом обращении
+     * и по расписанию.
+     */
+    public void evictIdle() {
+        synchronized (entries) {
+            evictIdle(clock.getAsLong());
+        }
+    }
+
+    /**
+     * Вытесняет и затирает все ключи; кэш остаётся рабочим.
+     */
+    public void clear() {
+        synchronized (entries) {
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                evict(it.next());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Останавливает вытеснение по расписанию и затирает все ключи (при остановке приложения).
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        clear();
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Фоновый поток с периодом в половину времени простоя: ключ живёт не дольше 1,5 * maxIdle
+    private ScheduledExecutorService startIdleEviction() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expanded-key-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(maxIdleNanos / 2, 1);
+        executor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+        return executor;
+    }
+
+    private Entry acquire(ISymmetricCipher cipher, byte[] key) {
+        Fingerprint fingerprint = new Fingerprint(cipher, fingerprint(key));
+        synchronized (entries) {
+            long now = clock.getAsLong();
+            evictIdle(now);
+            Entry entry = entries.get(fingerprint);
+            if (entry != null) {
+                hits.increment();
+                entry.users++;
+                entry.lastAccess = now;
+                return entry;
+            }
+        }
+        misses.increment();
+        // Развёртывание вне блокировки: полный ключ Twofish строится десятки микросекунд
+        IExpandedKey expanded = cipher.init(key, -1);
+        synchronized (entries) {
+            Entry entry = entries.get(fingerprint);
+            if (entry == null) {
+                entry = new Entry(expanded);
+                entries.put(fingerprint, entry);
+            } else {
+                // Другой поток успел развернуть тот же ключ
+                expanded.wipe();
+            }
+            entry.users++;
+            entry.lastAccess = clock.getAsLong();
+            evictOverflow();
+            return entry;
+        }
+    }
+
+    // Таблицы строятся вне блокировки; запись захвачена вызывающим, поэтому ключ не будет затёрт
+    private GaloisCounterMode galoisCounterMode(Entry entry) {
+        synchronized (entries) {
+            if (entry.gcm != null) {
+                return entry.gcm;
+            }
+        }
+        GaloisCounterMode gcm = new GaloisCounterMode(entry.key);
+        synchronized (entries) {
+            if (entry.gcm == null) {
+                entry.gcm = gcm;
+            }
+            return entry.gcm;
+        }
+    }
+
+    private void release(Entry entry) {
+        synchronized (entries) {
+            entry.users--;
+            if (entry.evicted && entry.users == 0) {
+                wipe(entry);
+            }
+        }
+    }
+
+    // Записи упорядочены по доступу, поэтому простаивающие - в начале
+    private void evictIdle(long now) {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (now - entry.lastAccess < maxIdleNanos) {
+                return;
+            }
+            evict(entry);
+            it.remove();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            evict(it.next());
+            it.remove();
+        }
+    }
+
+    // Используемый ключ затирается последним вызовом release
+    private void evict(Entry entry) {
+        entry.evicted = true;
+        evictions.increment();
+        if (entry.users == 0) {
+            wipe(entry);
+        }
+    }
+
+    private static void wipe(Entry entry) {
+        entry.key.wipe();
+        if (entry.gcm != null) {
+            entry.gcm.wipe();
+            entry.gcm = null;
+        }
+    }
+
+    private byte[] fingerprint(byte[] key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(key);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
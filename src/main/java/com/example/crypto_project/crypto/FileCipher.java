@@ -0,0 +1,170 @@
+package com.example.crypto_project.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Шифрование файлов через отображение в память (FileChannel.map): данные шифруются
+ * напрямую из отображённого окна источника в окно результата.
+ * Файл обрабатывается окнами (по умолчанию 16 МБ), поэтому размер не ограничен 2 ГБ.
+ * Режимы без зависимости между блоками (ECB, CTR, RANDOM_DELTA, дешифрование CBC/CFB) обрабатывают
+ * окна параллельно: состояние режима на границе окна вычисляется заранее.
+ * Остальные режимы проходят файл последовательно с переносом состояния между окнами.
+ * GCM не поддерживается (IllegalArgumentException): файл обрабатывается окнами, а не целиком.
+ */
+public class FileCipher {
+
+    // Окно отображения: кратно блоку, единица параллельной работы
+    static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+    // Кратность окна: заведомо кратна размеру блока любого шифра
+    private static final int WINDOW_ALIGNMENT = BlockCipherModes.CHUNK_SIZE;
+
+    private final ForkJoinPool pool;
+    private final int windowSize;
+
+    public FileCipher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FileCipher(ForkJoinPool pool) {
+        this(pool, DEFAULT_WINDOW_SIZE);
+    }
+
+    FileCipher(ForkJoinPool pool, int windowSize) {
+        if (windowSize <= 0 || windowSize % WINDOW_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of " + WINDOW_ALIGNMENT);
+        }
+        this.pool = pool;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Шифрует файл source в target.
+     * @return размер зашифрованного файла в байтах
+     */
+    public long encrypt(Path source, Path target, IExpandedKey key, byte[] iv,
+                        CipherMode mode, PaddingMode paddingMode) throws IOException {
+        return process(source, target, key, iv, mode, paddingMode, true);
+    }
+
+    /**
+     * Дешифрует файл source в target.
+     * @return размер расшифрованного файла в байтах
+     */
+    public long decrypt(Path source, Path target, IExpandedKey key, byte[] iv,
+                        CipherMode mode, PaddingMode paddingMode) throws IOException {
+        return process(source, target, key, iv, mode, paddingMode, false);
+    }
+
+    private long process(Path source, Path target, IExpandedKey key, byte[] iv,
+                         CipherMode mode, PaddingMode paddingMode, boolean encrypting) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long total = isParallelizable(mode, paddingMode, encrypting) && size > windowSize
+                    ? processParallel(in, out, size, key, iv, mode, paddingMode, encrypting)
+                    : processSequential(in, out, size, new ModeProcessor(key, iv, mode, paddingMode, encrypting));
+            // Окна вывода отображаются с запасом на набивку, лишнее отрезается
+            out.truncate(total);
+            return total;
+        }
+    }
+
+    // Пара блоков CTS может оказаться на границе окон, поэтому CBC с кражей шифротекста идёт одним проходом
+    private static boolean isParallelizable(CipherMode mode, PaddingMode paddingMode, boolean encrypting) {
+        return mode == CipherMode.ECB || isCounterMode(mode)
+                || (!encrypting && ((mode == CipherMode.CBC && paddingMode != PaddingMode.CTS) || mode == CipherMode.CFB));
+    }
+
+    // Один проход по файлу: вывод может отставать от ввода на удерживаемый блок
+    private long processSequential(FileChannel in, FileChannel out, long size, ModeProcessor processor) throws IOException {
+        long outputPosition = 0;
+        long position = 0;
+        do {
+            long length = Math.min(windowSize, size - position);
+            boolean last = position + length == size;
+            outputPosition += processWindow(in, out, position, length, outputPosition, processor, last);
+            position += length;
+        } while (position < size);
+        return outputPosition;
+    }
+
+    // Окна независимы: вывод окна начинается с того же смещения, что и ввод
+    private long processParallel(FileChannel in, FileChannel out, long size, IExpandedKey key, byte[] iv,
+                                 CipherMode mode, PaddingMode paddingMode, boolean encrypting) throws IOException {
+        int blockSize = key.getBlockSize();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (long position = 0; position < size; position += windowSize) {
+            long start = position;
+            long length = Math.min(windowSize, size - start);
+            boolean last = start + length == size;
+            byte[] state = windowState(in, start, blockSize, iv, mode);
+            // Набивка касается только последнего окна
+            ModeProcessor processor = new ModeProcessor(key, state, mode, last ? paddingMode : null, encrypting);
+            if (isCounterMode(mode)) {
+                processor.seek(start / blockSize);
+            }
+            tasks.add(() -> start + processWindow(in, out, start, length, start, processor, last));
+        }
+
+        long total = 0;
+        try {
+            for (Future<Long> result : pool.invokeAll(tasks)) {
+                total = Math.max(total, result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("File encryption interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return total;
+    }
+
+    private static boolean isCounterMode(CipherMode mode) {
+        return mode == CipherMode.CTR || mode == CipherMode.RANDOM_DELTA;
+    }
+
+    // Состояние режима на границе окна: предыдущий шифроблок CBC/CFB.
+    // Счётчиковые режимы начинают с IV и переходят к окну через ModeProcessor.seek
+    private static byte[] windowState(FileChannel in, long start, int blockSize, byte[] iv, CipherMode mode) throws IOException {
+        if (mode == CipherMode.ECB || isCounterMode(mode) || start == 0) {
+            return iv;
+        }
+        byte[] state = iv.clone();
+        ByteBuffer previous = ByteBuffer.wrap(state);
+        while (previous.hasRemaining()) {
+            in.read(previous, start - blockSize + previous.position());
+        }
+        return state;
+    }
+
+    // Обработка окна [position, position + length) ввода в вывод со смещения outputPosition.
+    // Возвращает число записанных байт
+    private static long processWindow(FileChannel in, FileChannel out, long position, long length,
+                                      long outputPosition, ModeProcessor processor, boolean last) throws IOException {
+        MappedByteBuffer source = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+        MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, outputPosition,
+                processor.getOutputSize((int) length));
+        // Шифрование идёт напрямую между отображёнными окнами, без копий в heap
+        int produced = processor.update(source, 0, (int) length, target, 0);
+        if (last) {
+            produced += processor.doFinal(target, produced);
+        }
+        return produced;
+    }
+}
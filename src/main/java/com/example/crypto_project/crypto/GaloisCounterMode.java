@@ -0,0 +1,228 @@
+package com.example.crypto_project.crypto;
+
+import com.example.crypto_project.crypto.util.XorUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Режим GCM (NIST SP 800-38D) для 128-битных блочных шифров: шифрование CTR и аутентификация
+ * GHASH за один проход - каждая пачка шифротекста хешируется, пока она в кэше.
+ * Умножение в GF(2^128) идёт по байту через таблицы Шоупа, построенные один раз для ключа.
+ * Результат шифрования - шифротекст с 16-байтным тегом в конце. Экземпляр неизменяем и потокобезопасен.
+ */
+final class GaloisCounterMode {
+
+    static final int TAG_LENGTH = 16;
+
+    private static final int BLOCK_SIZE = 16;
+    // IV такой длины используется как есть (J0 = IV || 0^31 || 1), остальные сжимаются GHASH
+    private static final int STANDARD_IV_LENGTH = 12;
+    // Число блоков гаммы, шифруемых и хешируемых за один шаг прохода
+    private static final int BATCH_BLOCKS = 64;
+
+    private static final VarHandle WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    // Редукция по модулю x^128 + x^7 + x^2 + x + 1 для 8 бит, выдвинутых за младший край
+    private static final long[] REDUCTION = reductionTable();
+
+    private final IExpandedKey key;
+    // Таблицы Шоупа: H * i для всех 8-битных i (4 КБ на ключ), старшая и младшая половины
+    private final long[] tableHigh = new long[256];
+    private final long[] tableLow = new long[256];
+
+    GaloisCounterMode(IExpandedKey key) {
+        if (key.getBlockSize() != BLOCK_SIZE) {
+            throw new IllegalArgumentException("GCM requires a 128-bit block cipher");
+        }
+        this.key = key;
+        byte[] h = new byte[BLOCK_SIZE];
+        key.encryptBlock(h, 0, h, 0);
+        buildTables((long) WORD.get(h, 0), (long) WORD.get(h, 8));
+    }
+
+    /**
+     * Затирает таблицы, производные от H; после этого экземпляр непригоден. Сам ключ не затирается.
+     */
+    void wipe() {
+        Arrays.fill(tableHigh, 0);
+        Arrays.fill(tableLow, 0);
+    }
+
+    /**
+     * @return шифротекст длины data.length и тег
+     */
+    byte[] encrypt(byte[] data, byte[] iv) {
+        byte[] counter = initialCounter(iv);
+        byte[] result = new byte[data.length + TAG_LENGTH];
+        long[] state = new long[2];
+        process(data, data.length, result, counter, state, true);
+        writeTag(state, data.length, counter, result, data.length);
+        return result;
+    }
+
+    /**
+     * Проверяет тег за постоянное время и только затем возвращает открытый текст.
+     * @throws SecurityException если тег не совпал
+     */
+    byte[] decrypt(byte[] data, byte[] iv) {
+        if (data.length < TAG_LENGTH) {
+            throw new IllegalArgumentException("Ciphertext is shorter than the authentication tag.");
+        }
+        int length = data.length - TAG_LENGTH;
+        byte[] counter = initialCounter(iv);
+        byte[] result = new byte[length];
+        long[] state = new long[2];
+        process(data, length, result, counter, state, false);
+
+        byte[] tag = new byte[TAG_LENGTH];
+        writeTag(state, length, counter, tag, 0);
+        if (!MessageDigest.isEqual(tag, Arrays.copyOfRange(data, length, data.length))) {
+            // Неаутентичный открытый текст наружу не выдаётся
+            Arrays.fill(result, (byte) 0);
+            throw new SecurityException("Authentication tag mismatch");
+        }
+        return result;
+    }
+
+    // Один проход: гамма пачкой через encryptBlocks, XOR и GHASH по шифротексту той же пачки.
+    // counter - J0, не меняется; гамма начинается с inc32(J0)
+    private void process(byte[] in, int length, byte[] out, byte[] counter, long[] state, boolean encrypting) {
+        byte[] next = counter.clone();
+        byte[] keystream = new byte[BATCH_BLOCKS * BLOCK_SIZE];
+        for (int i = 0; i < length; i += keystream.length) {
+            int chunk = Math.min(keystream.length, length - i);
+            int blocks = (chunk + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            for (int j = 0; j < blocks; j++) {
+                increment32(next);
+                System.arraycopy(next, 0, keystream, j * BLOCK_SIZE, BLOCK_SIZE);
+            }
+            key.encryptBlocks(keystream, 0, keystream, 0, blocks);
+
+            if (encrypting) {
+                XorUtils.xor(in, i, keystream, 0, out, i, chunk);
+                ghash(state, out, i, chunk);
+            } else {
+                ghash(state, in, i, chunk);
+                XorUtils.xor(in, i, keystream, 0, out, i, chunk);
+            }
+        }
+    }
+
+    // Тег = E_K(J0) xor GHASH(шифротекст || длины); AAD не используется
+    private void writeTag(long[] state, int length, byte[] counter, byte[] out, int outOff) {
+        state[1] ^= (long) length * 8;
+        multiply(state);
+        key.encryptBlock(counter, 0, out, outOff);
+        WORD.set(out, outOff, (long) WORD.get(out, outOff) ^ state[0]);
+        WORD.set(out, outOff + 8, (long) WORD.get(out, outOff + 8) ^ state[1]);
+    }
+
+    // J0 из IV: 96 бит дополняются счётчиком 1, иначе J0 = GHASH(IV || 0 || длина IV)
+    private byte[] initialCounter(byte[] iv) {
+        if (iv.length == 0) {
+            throw new IllegalArgumentException("IV must not be empty.");
+        }
+        byte[] counter = new byte[BLOCK_SIZE];
+        if (iv.length == STANDARD_IV_LENGTH) {
+            System.arraycopy(iv, 0, counter, 0, STANDARD_IV_LENGTH);
+            counter[BLOCK_SIZE - 1] = 1;
+            return counter;
+        }
+        long[] state = new long[2];
+        ghash(state, iv, 0, iv.length);
+        state[1] ^= (long) iv.length * 8;
+        multiply(state);
+        WORD.set(counter, 0, state[0]);
+        WORD.set(counter, 8, state[1]);
+        return counter;
+    }
+
+    // Хеширование блоков; неполный последний блок дополняется нулями (он всегда последний в проходе)
+    private void ghash(long[] state, byte[] data, int offset, int length) {
+        int end = offset + length;
+        for (; offset + BLOCK_SIZE <= end; offset += BLOCK_SIZE) {
+            state[0] ^= (long) WORD.get(data, offset);
+            state[1] ^= (long) WORD.get(data, offset + 8);
+            multiply(state);
+        }
+        if (offset < end) {
+            byte[] last = new byte[BLOCK_SIZE];
+            System.arraycopy(data, offset, last, 0, end - offset);
+            state[0] ^= (long) WORD.get(last, 0);
+            state[1] ^= (long) WORD.get(last, 8);
+            multiply(state);
+        }
+    }
+
+    // state = state * H по схеме Горнера: байты от младшего к старшему, сдвиг на 8 бит с редукцией
+    private void multiply(long[] state) {
+        long xHigh = state[0];
+        long xLow = state[1];
+        long zHigh = 0;
+        long zLow = 0;
+        for (int shift = 0; shift < 64; shift += 8) {
+            int rem = (int) zLow & 0xFF;
+            int b = (int) (xLow >>> shift) & 0xFF;
+            zLow = (zHigh << 56) | (zLow >>> 8);
+            zHigh = (zHigh >>> 8) ^ REDUCTION[rem] ^ tableHigh[b];
+            zLow ^= tableLow[b];
+        }
+        for (int shift = 0; shift < 64; shift += 8) {
+            int rem = (int) zLow & 0xFF;
+            int b = (int) (xHigh >>> shift) & 0xFF;
+            zLow = (zHigh << 56) | (zLow >>> 8);
+            zHigh = (zHigh >>> 8) ^ REDUCTION[rem] ^ tableHigh[b];
+            zLow ^= tableLow[b];
+        }
+        state[0] = zHigh;
+        state[1] = zLow;
+    }
+
+    // H * x^k в позиции 128 >> k (порядок бит GCM), остальные элементы - их XOR
+    private void buildTables(long hHigh, long hLow) {
+        tableHigh[128] = hHigh;
+        tableLow[128] = hLow;
+        for (int i = 64; i > 0; i >>= 1) {
+            long reduce = (hLow & 1) != 0 ? 0xE100000000000000L : 0;
+            hLow = (hHigh << 63) | (hLow >>> 1);
+            hHigh = (hHigh >>> 1) ^ reduce;
+            tableHigh[i] = hHigh;
+            tableLow[i] = hLow;
+        }
+        for (int i = 2; i <= 128; i *= 2) {
+            for (int j = 1; j < i; j++) {
+                tableHigh[i + j] = tableHigh[i] ^ tableHigh[j];
+                tableLow[i + j] = tableLow[i] ^ tableLow[j];
+            }
+        }
+    }
+
+    // Поправка для каждого байта, выдвигаемого при сдвиге на 8 бит: 8 однобитных шагов с редукцией
+    private static long[] reductionTable() {
+        long[] table = new long[256];
+        for (int r = 0; r < 256; r++) {
+            long high = 0;
+            long low = r;
+            for (int bit = 0; bit < 8; bit++) {
+                long reduce = (low & 1) != 0 ? 0xE100000000000000L : 0;
+                low = (high << 63) | (low >>> 1);
+                high = (high >>> 1) ^ reduce;
+            }
+            table[r] = high;
+        }
+        return table;
+    }
+
+    // inc32: растёт только младшее 32-битное слово счётчика
+    private static void increment32(byte[] counter) {
+        for (int i = BLOCK_SIZE - 1; i >= BLOCK_SIZE - 4; i--) {
+            if (++counter[i] != 0) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.crypto_project.crypto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Развёрнутый ключ блочного шифра.
+ * Расписание раундовых ключей вычисляется один раз в {@link ISymmetricCipher#init(byte[])}
+ * и затем переиспользуется для каждого блока. Реализации неизменяемы и потокобезопасны.
+ */
+public interface IExpandedKey {
+
+    /**
+     * Шифрование одного блока без выделения памяти.
+     * Допускается работа "на месте" (in == out, inOff == outOff).
+     * @param in входной массив
+     * @param inOff смещение блока во входном массиве
+     * @param out выходной массив
+     * @param outOff смещение блока в выходном массиве
+     */
+    void encryptBlock(byte[] in, int inOff, byte[] out, int outOff);
+
+    /**
+     * Дешифрование одного блока без выделения памяти.
+     * Допускается работа "на месте" (in == out, inOff == outOff).
+     * @param in входной массив
+     * @param inOff смещение блока во входном массиве
+     * @param out выходной массив
+     * @param outOff смещение блока в выходном массиве
+     */
+    void decryptBlock(byte[] in, int inOff, byte[] out, int outOff);
+
+    /**
+     * Шифрование nBlocks подряд идущих блоков. Реализации обрабатывают несколько независимых
+     * блоков вперемешку, чтобы загрузить конвейер процессора. Работа "на месте"
+     * допускается только при in == out и inOff == outOff.
+     * @param nBlocks число блоков
+     */
+    default void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int blockSize = getBlockSize();
+        for (int i = 0; i < nBlocks; i++) {
+            encryptBlock(in, inOff + i * blockSize, out, outOff + i * blockSize);
+        }
+    }
+
+    /**
+     * Дешифрование nBlocks подряд идущих блоков; ограничения как у
+     * {@link #encryptBlocks(byte[], int, byte[], int, int)}.
+     * @param nBlocks число блоков
+     */
+    default void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int blockSize = getBlockSize();
+        for (int i = 0; i < nBlocks; i++) {
+            decryptBlock(in, inOff + i * blockSize, out, outOff + i * blockSize);
+        }
+    }
+
+    /**
+     * Шифрование одного блока между буферами (heap или direct) по абсолютным индексам.
+     * Позиции буферов не меняются, допускается работа "на месте".
+     * @param in входной буфер
+     * @param inIndex индекс блока во входном буфере
+     * @param out выходной буфер
+     * @param outIndex индекс блока в выходном буфере
+     */
+    void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex);
+
+    /**
+     * Дешифрование одного блока между буферами (heap или direct) по абсолютным индексам.
+     * Позиции буферов не меняются, допускается работа "на месте".
+     * @param in входной буфер
+     * @param inIndex индекс блока во входном буфере
+     * @param out выходной буфер
+     * @param outIndex индекс блока в выходном буфере
+     */
+    void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex);
+
+    /**
+     * Шифрование всех оставшихся блоков src в dst, как Cipher.update(ByteBuffer, ByteBuffer)
+     * без режима и набивки. Позиции обоих буферов сдвигаются на число обработанных байт;
+     * src и dst могут быть одним буфером.
+     * @return число записанных в dst байт
+     */
+    default int encrypt(ByteBuffer src, ByteBuffer dst) {
+        int length = checkBlocks(src, dst);
+        int inIndex = src.position();
+        int outIndex = dst.position();
+        for (int i = 0; i < length; i += getBlockSize()) {
+            encryptBlock(src, inIndex + i, dst, outIndex + i);
+        }
+        src.position(inIndex + length);
+        dst.position(outIndex + length);
+        return length;
+    }
+
+    /**
+     * Дешифрование всех оставшихся блоков src в dst; семантика как у {@link #encrypt(ByteBuffer, ByteBuffer)}.
+     * @return число записанных в dst байт
+     */
+    default int decrypt(ByteBuffer src, ByteBuffer dst) {
+        int length = checkBlocks(src, dst);
+        int inIndex = src.position();
+        int outIndex = dst.position();
+        for (int i = 0; i < length; i += getBlockSize()) {
+            decryptBlock(src, inIndex + i, dst, outIndex + i);
+        }
+        src.position(inIndex + length);
+        dst.position(outIndex + length);
+        return length;
+    }
+
+    /**
+     * Шифрование блока данных
+     * @param data блок данных для шифрования
+     * @return зашифрованный блок
+     */
+    default byte[] encrypt(byte[] data) {
+        checkBlockLength(data);
+        byte[] result = new byte[data.length];
+        encryptBlock(data, 0, result, 0);
+        return result;
+    }
+
+    /**
+     * Дешифрование блока данных
+     * @param data блок данных для дешифрования
+     * @return расшифрованный блок
+     */
+    default byte[] decrypt(byte[] data) {
+        checkBlockLength(data);
+        byte[] result = new byte[data.length];
+        decryptBlock(data, 0, result, 0);
+        return result;
+    }
+
+    /**
+     * Получение размера блока в байтах
+     * @return размер блока
+     */
+    int getBlockSize();
+
+    /**
+     * Затирание расписания раундовых ключей нулями (вытеснение из {@link ExpandedKeyCache}).
+     * После вызова ключ непригоден; вызывающий гарантирует, что ключ больше никем не используется.
+     */
+    default void wipe() {
+    }
+
+    private int checkBlocks(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        if (length % getBlockSize() != 0) {
+            throw new IllegalArgumentException("Data length must be a multiple of block size.");
+        }
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes required");
+        }
+        return length;
+    }
+
+    private void checkBlockLength(byte[] data) {
+        if (data.length != getBlockSize()) {
+            throw new IllegalArgumentException("Data block size must be " + getBlockSize() + " bytes");
+        }
+    }
+}
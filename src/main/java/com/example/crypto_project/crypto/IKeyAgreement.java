@@ -0,0 +1,20 @@
+package com.example.crypto_project.crypto;
+
+/**
+ * Одна сторона протокола согласования ключа: публичный ключ передаётся собеседнику,
+ * общий секрет вычисляется из его публичного ключа.
+ */
+public interface IKeyAgreement {
+
+    /**
+     * @return публичный ключ в виде байтов для передачи другой стороне
+     */
+    byte[] getEncodedPublicKey();
+
+    /**
+     * @param otherPartyPublicKey публичный ключ другой стороны в формате {@link #getEncodedPublicKey()}
+     * @return общий секрет
+     * @throws IllegalArgumentException если публичный ключ некорректен
+     */
+    byte[] computeSharedSecret(byte[] otherPartyPublicKey);
+}
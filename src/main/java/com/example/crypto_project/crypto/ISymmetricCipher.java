@@ -1,6 +1,25 @@
 package com.example.crypto_project.crypto;
 
 public interface ISymmetricCipher {
+
+    /**
+     * Развёртывание ключа: расписание раундовых ключей строится один раз
+     * и используется для всех последующих блоков.
+     * @param key ключ шифрования
+     * @return неизменяемый развёрнутый ключ
+     */
+    IExpandedKey init(byte[] key);
+    
+    /**
+     * Развёртывание ключа с подсказкой об ожидаемом объёме данных под этим ключом.
+     * Шифры с несколькими стратегиями развёртывания (Twofish) выбирают по ней стратегию.
+     * @param key ключ шифрования
+     * @param expectedBytes ожидаемое число байт; отрицательное значение - объём неизвестен
+     * @return неизменяемый развёрнутый ключ
+     */
+    default IExpandedKey init(byte[] key, long expectedBytes) {
+        return init(key);
+    }
     
     /**
      * Шифрование блока данных
@@ -8,7 +27,9 @@ public interface ISymmetricCipher {
      * @param key ключ шифрования
      * @return зашифрованный блок
      */
-    byte[] encrypt(byte[] data, byte[] key);
+    default byte[] encrypt(byte[] data, byte[] key) {
+        return init(key, data.length).encrypt(data);
+    }
     
     /**
      * Дешифрование блока данных
@@ -16,11 +37,13 @@ public interface ISymmetricCipher {
      * @param key ключ дешифрования
      * @return расшифрованный блок
      */
-    byte[] decrypt(byte[] data, byte[] key);
+    default byte[] decrypt(byte[] data, byte[] key) {
+        return init(key, data.length).decrypt(data);
+    }
     
     /**
      * Получение размера блока в байтах
      * @return размер блока
      */
     int getBlockSize();
-}
\ No newline at end of file
+}
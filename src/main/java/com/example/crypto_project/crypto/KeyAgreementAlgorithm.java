@@ -0,0 +1,61 @@
+package com.example.crypto_project.crypto;
+
+import java.util.regex.Pattern;
+
+/**
+ * Протокол согласования ключа чата. Публичные ключи передаются в HEX-формате.
+ */
+public enum KeyAgreementAlgorithm {
+
+    // Диффи-Хеллман в группе RFC 3526 на 3072 бит (та же группа, что у клиента):
+    // ключ меньше модуля, то есть не длиннее 384 байт (768 HEX-символов)
+    DH(Pattern.compile("[0-9a-fA-F]{1,768}")) {
+        @Override
+        public IKeyAgreement createParticipant() {
+            return DhGroup.MODP_3072.createParticipant();
+        }
+    },
+    // X25519 (RFC 7748): 32-байтный публичный ключ (64 HEX-символа), в десятки раз быстрее DH
+    X25519(Pattern.compile("[0-9a-fA-F]{64}")) {
+        @Override
+        public IKeyAgreement createParticipant() {
+            return new X25519();
+        }
+    };
+
+    private final Pattern publicKeyFormat;
+
+    KeyAgreementAlgorithm(Pattern publicKeyFormat) {
+        this.publicKeyFormat = publicKeyFormat;
+    }
+
+    /**
+     * Новый участник обмена со случайным приватным ключом.
+     */
+    public abstract IKeyAgreement createParticipant();
+
+    /**
+     * @param hex публичный ключ в HEX-формате
+     * @return true, если строка может быть публичным ключом этого протокола
+     */
+    public boolean isValidPublicKey(String hex) {
+        return hex != null && publicKeyFormat.matcher(hex).matches();
+    }
+
+    /**
+     * @param name имя протокола без учёта регистра или null
+     * @return протокол; DH, если имя не указано
+     * @throws IllegalArgumentException если протокол неизвестен
+     */
+    public static KeyAgreementAlgorithm fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return DH;
+        }
+        for (KeyAgreementAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported key agreement: " + name);
+    }
+}
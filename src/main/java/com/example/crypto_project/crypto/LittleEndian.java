@@ -0,0 +1,55 @@
+package com.example.crypto_project.crypto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Чтение и запись little-endian слов через VarHandle вместо побайтовой сборки.
+ * Для ByteBuffer порядок байт не зависит от order() буфера, работают и heap-, и direct-буферы.
+ * Индексы абсолютные: позиция и предел буфера не меняются.
+ */
+final class LittleEndian {
+
+    private static final VarHandle INT_ARRAY = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BUFFER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private LittleEndian() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    static int getInt(byte[] bytes, int offset) {
+        return (int) INT_ARRAY.get(bytes, offset);
+    }
+
+    static int getInt(ByteBuffer buffer, int index) {
+        return (int) INT_BUFFER.get(buffer, index);
+    }
+
+    static void putInt(byte[] bytes, int offset, int value) {
+        INT_ARRAY.set(bytes, offset, value);
+    }
+
+    static void putInt(ByteBuffer buffer, int index, int value) {
+        INT_BUFFER.set(buffer, index, value);
+    }
+
+    static long getLong(byte[] bytes, int offset) {
+        return (long) LONG_ARRAY.get(bytes, offset);
+    }
+
+    static long getLong(ByteBuffer buffer, int index) {
+        return (long) LONG_BUFFER.get(buffer, index);
+    }
+
+    static void putLong(byte[] bytes, int offset, long value) {
+        LONG_ARRAY.set(bytes, offset, value);
+    }
+
+    static void putLong(ByteBuffer buffer, int index, long value) {
+        LONG_BUFFER.set(buffer, index, value);
+    }
+}
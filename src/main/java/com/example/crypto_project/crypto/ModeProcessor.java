@@ -0,0 +1,454 @@
+package com.example.crypto_project.crypto;
+
+import com.example.crypto_project.crypto.util.XorUtils;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Инкрементальное состояние режима шифрования для потоковой обработки.
+ * Между вызовами update хранит регистр режима (предыдущий шифроблок CBC/PCBC/CFB,
+ * выход шифра OFB, счётчик CTR/RANDOM_DELTA) и позицию в гамме. Режимы с набивкой удерживают
+ * не более одного блока, CBC с кражей шифротекста (CTS) - не более двух, поэтому память
+ * не зависит от объёма данных.
+ * Результат совпадает с {@link BlockCipherModes} побайтно. Не потокобезопасен.
+ * GCM не поддерживается (IllegalArgumentException в конструкторе): тег проверяется по всему
+ * сообщению, поэтому для GCM есть только методы BlockCipherModes, принимающие сообщение целиком.
+ * <p>
+ * Обработка идёт между ByteBuffer по абсолютным индексам, поэтому direct- и отображённые
+ * буферы шифруются без копирования в heap; перегрузки для byte[] оборачивают массивы.
+ * При обработке всего входа одним update и doFinal вывод не опережает ввод,
+ * поэтому такой проход допускает работу "на месте" (out == in, outOff == inOff).
+ * <p>
+ * При strictPadding неверная набивка при дешифровании - SecurityException (для JCA, где это
+ * BadPaddingException); иначе, как и {@link BlockCipherModes}, последний блок выдаётся целиком.
+ * <p>
+ * paddingMode == null означает обработку сегмента без набивки: вход ECB/CBC/PCBC
+ * должен быть кратен блоку, последний блок не удерживается. Так обрабатываются
+ * внутренние фрагменты данных, состояние которых вычислено заранее (например, счётчик CTR).
+ */
+final class ModeProcessor {
+
+    private final IExpandedKey key;
+    private final CipherMode mode;
+    private final PaddingMode paddingMode;
+    private final boolean encrypting;
+    private final boolean strictPadding;
+    private final int blockSize;
+    private final SecureRandom random;
+
+    // Неполный (или удерживаемый для снятия набивки) блок режимов ECB/CBC/PCBC; при CTS - два последних блока
+    private final ByteBuffer buffer;
+    private int bufferLength;
+
+    // Предыдущий шифроблок (CBC/PCBC/CFB), выход шифра (OFB) или счётчик (CTR/RANDOM_DELTA)
+    private final ByteBuffer register;
+    // Предыдущий открытый текст (PCBC)
+    private final ByteBuffer previousPlain;
+    // Копия шифроблока при дешифровании "на месте"
+    private final ByteBuffer scratch;
+    // Гамма и позиция в ней (CFB/OFB/CTR/RANDOM_DELTA)
+    private final ByteBuffer keystream;
+    private int keystreamPosition;
+    // Шаг счётчика RANDOM_DELTA, зависит от IV
+    private byte[] delta;
+
+    ModeProcessor(IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode, boolean encrypting) {
+        this(key, iv, mode, paddingMode, encrypting, false);
+    }
+
+    ModeProcessor(IExpandedKey key, byte[] iv, CipherMode mode, PaddingMode paddingMode, boolean encrypting,
+                  boolean strictPadding) {
+        if (mode == CipherMode.GCM) {
+            // Тег проверяется только по всему сообщению: потоковая выдача открытого текста обошла бы проверку
+            throw new IllegalArgumentException("GCM is only supported for whole messages");
+        }
+        BlockCipherModes.checkStealingMode(mode, paddingMode);
+        this.key = key;
+        this.mode = mode;
+        this.paddingMode = paddingMode;
+        this.encrypting = encrypting;
+        this.strictPadding = strictPadding;
+        this.blockSize = key.getBlockSize();
+        this.random = new SecureRandom();
+        this.buffer = ByteBuffer.allocate(isStealing() ? 2 * blockSize : blockSize);
+        this.register = ByteBuffer.allocate(blockSize);
+        this.previousPlain = ByteBuffer.allocate(blockSize);
+        this.scratch = ByteBuffer.allocate(blockSize);
+        this.keystream = ByteBuffer.allocate(blockSize);
+        this.keystreamPosition = blockSize;
+        loadIv(iv);
+    }
+
+    /**
+     * Возврат к началу потока с новым IV без повторного развёртывания ключа.
+     * Удерживаемые данные и остаток гаммы отбрасываются.
+     */
+    void reset(byte[] iv) {
+        Arrays.fill(buffer.array(), (byte) 0);
+        Arrays.fill(previousPlain.array(), (byte) 0);
+        Arrays.fill(keystream.array(), (byte) 0);
+        bufferLength = 0;
+        keystreamPosition = blockSize;
+        loadIv(iv);
+    }
+
+    private void loadIv(byte[] iv) {
+        if (mode != CipherMode.ECB) {
+            if (iv == null || iv.length != blockSize) {
+                throw new IllegalArgumentException("IV length must match block size.");
+            }
+            register.put(0, iv, 0, blockSize);
+        }
+        if (mode == CipherMode.RANDOM_DELTA) {
+            delta = BlockCipherModes.randomDelta(key, iv);
+        }
+    }
+
+    /**
+     * Переход к блоку с номером blocks от начала потока без обработки предыдущих
+     * (произвольный доступ счётчиковых режимов CTR и RANDOM_DELTA). Вызывается до update.
+     */
+    void seek(long blocks) {
+        if (mode == CipherMode.CTR) {
+            BlockCipherModes.addToCounter(register.array(), blocks);
+        } else if (mode == CipherMode.RANDOM_DELTA) {
+            BlockCipherModes.addDelta(register.array(), delta, blocks);
+        } else {
+            throw new IllegalStateException("Seek is only supported by counter modes, not " + mode);
+        }
+    }
+
+    /**
+     * Верхняя граница числа байт, которые вернёт update(inputLength) без doFinal.
+     */
+    int getUpdateOutputSize(int inputLength) {
+        if (!isBlockMode()) {
+            return inputLength;
+        }
+        int total = bufferLength + inputLength;
+        if (isStealing()) {
+            // Удерживается больше одного блока: хвост длиной от blockSize + 1 до 2 * blockSize
+            int released = Math.max(0, total - blockSize - 1);
+            return released - released % blockSize;
+        }
+        return total - total % blockSize;
+    }
+
+    /**
+     * Верхняя граница числа байт, которые вернут update(inputLength) и doFinal вместе.
+     */
+    int getOutputSize(int inputLength) {
+        return bufferLength + inputLength + blockSize;
+    }
+
+    /**
+     * Число байт, которое вернут update(inputLength) и сразу за ним doFinal:
+     * точное при шифровании, верхняя граница при дешифровании.
+     */
+    int getFinalOutputSize(int inputLength) {
+        int total = bufferLength + inputLength;
+        if (encrypting && isBlockMode() && paddingMode != null && !isStealing()) {
+            return total - total % blockSize + blockSize;
+        }
+        return total;
+    }
+
+    /**
+     * Обрабатывает очередную порцию данных.
+     * @return число байт, записанных в out
+     */
+    int update(byte[] in, int inOff, int len, byte[] out, int outOff) {
+        return update(ByteBuffer.wrap(in), inOff, len, ByteBuffer.wrap(out), outOff);
+    }
+
+    /**
+     * Обрабатывает len байт in начиная с индекса inOff; позиции буферов не меняются.
+     * @return число байт, записанных в out начиная с outOff
+     */
+    int update(ByteBuffer in, int inOff, int len, ByteBuffer out, int outOff) {
+        if (isStealing()) {
+            return updateStealing(in, inOff, len, out, outOff);
+        }
+        return isBlockMode() ? updateBlocks(in, inOff, len, out, outOff) : updateStream(in, inOff, len, out, outOff);
+    }
+
+    /**
+     * Завершает обработку: дописывает набивку при шифровании или снимает её при дешифровании.
+     * @return число байт, записанных в out
+     */
+    int doFinal(byte[] out, int outOff) {
+        return doFinal(ByteBuffer.wrap(out), outOff);
+    }
+
+    int doFinal(ByteBuffer out, int outOff) {
+        if (!isBlockMode()) {
+            return 0;
+        }
+        if (paddingMode == null) {
+            if (bufferLength != 0) {
+                throw new IllegalArgumentException("Data length must be a multiple of block size.");
+            }
+            return 0;
+        }
+        if (isStealing()) {
+            return finishStealing(out, outOff);
+        }
+        if (encrypting) {
+            BlockCipherModes.pad(buffer.array(), 0, bufferLength, blockSize, paddingMode, random);
+            processBlock(buffer, 0, out, outOff);
+            bufferLength = 0;
+            return blockSize;
+        }
+        if (bufferLength == 0) {
+            return 0;
+        }
+        if (bufferLength != blockSize) {
+            throw new IllegalArgumentException("Ciphertext length must be a multiple of block size.");
+        }
+        processBlock(buffer, 0, buffer, 0);
+        bufferLength = 0;
+        if (strictPadding && !BlockCipherModes.hasValidPadding(buffer.array(), 0, blockSize, paddingMode)) {
+            // Расшифрованный блок с неверной набивкой наружу не выдаётся
+            Arrays.fill(buffer.array(), (byte) 0);
+            throw new SecurityException("Invalid padding");
+        }
+        int length = BlockCipherModes.unpaddedLength(buffer.array(), 0, blockSize, blockSize, paddingMode);
+        out.put(outOff, buffer, 0, length);
+        return length;
+    }
+
+    private boolean isBlockMode() {
+        return mode == CipherMode.ECB || mode == CipherMode.CBC || mode == CipherMode.PCBC;
+    }
+
+    private boolean isStealing() {
+        return mode == CipherMode.CBC && paddingMode == PaddingMode.CTS;
+    }
+
+    // CBC-CS3: последние два блока (полный и неполный) меняются местами, поэтому удерживаются
+    // до doFinal; блок обрабатывается, как только за ним пришло больше двух блоков данных
+    private int updateStealing(ByteBuffer in, int inOff, int len, ByteBuffer out, int outOff) {
+        int produced = 0;
+
+        while (len > 0) {
+            if (bufferLength == 2 * blockSize || (bufferLength == blockSize && len > blockSize)) {
+                processBlock(buffer, 0, out, outOff + produced);
+                produced += blockSize;
+                bufferLength -= blockSize;
+                if (bufferLength > 0) {
+                    buffer.put(0, buffer, blockSize, blockSize);
+                }
+                continue;
+            }
+            if (bufferLength == 0 && len > 2 * blockSize) {
+                processBlock(in, inOff, out, outOff + produced);
+                produced += blockSize;
+                inOff += blockSize;
+                len -= blockSize;
+                continue;
+            }
+            int take = Math.min(len, 2 * blockSize - bufferLength);
+            buffer.put(bufferLength, in, inOff, take);
+            bufferLength += take;
+            inOff += take;
+            len -= take;
+        }
+        return produced;
+    }
+
+    // Хвост CBC-CS3: в буфере один блок либо полный блок и ещё от 1 до blockSize байт
+    private int finishStealing(ByteBuffer out, int outOff) {
+        int length = bufferLength;
+        if (length == 0) {
+            return 0;
+        }
+        if (length < blockSize) {
+            throw new IllegalArgumentException("Ciphertext stealing requires at least one block of data");
+        }
+        bufferLength = 0;
+        if (length == blockSize) {
+            processBlock(buffer, 0, out, outOff);
+            return length;
+        }
+        int tail = length - blockSize;
+        if (encrypting) {
+            // C(n-1) = CBC(P(n-1)), C(n) = CBC(P(n) с нулями); вывод C(n) и начало C(n-1)
+            processBlock(buffer, 0, buffer, 0);
+            Arrays.fill(buffer.array(), length, 2 * blockSize, (byte) 0);
+            processBlock(buffer, blockSize, buffer, blockSize);
+            out.put(outOff, buffer, blockSize, blockSize);
+            out.put(outOff + blockSize, buffer, 0, tail);
+        } else {
+            // Z = D(C(n)): его конец дополняет усечённый C(n-1), а начало даёт P(n) = Z xor C(n-1)
+            key.decryptBlock(buffer, 0, keystream, 0);
+            buffer.put(length, keystream, tail, 2 * blockSize - length);
+            processBlock(buffer, blockSize, out, outOff);
+            XorUtils.xor(keystream, 0, buffer, blockSize, out, outOff + blockSize, tail);
+        }
+        return length;
+    }
+
+    // ECB/CBC/PCBC: целые блоки обрабатываются сразу из входа, остаток копится в буфере.
+    // При дешифровании последний полный блок удерживается до doFinal ради набивки.
+    private int updateBlocks(ByteBuffer in, int inOff, int len, ByteBuffer out, int outOff) {
+        int produced = 0;
+        int holdBack = encrypting || paddingMode == null ? 0 : 1;
+
+        while (len > 0) {
+            if (bufferLength == blockSize) {
+                // За удерживаемым блоком есть данные, значит он не последний
+                processBlock(buffer, 0, out, outOff + produced);
+                produced += blockSize;
+                bufferLength = 0;
+            }
+            if (bufferLength == 0 && len >= blockSize + holdBack) {
+                processBlock(in, inOff, out, outOff + produced);
+                produced += blockSize;
+                inOff += blockSize;
+                len -= blockSize;
+                continue;
+            }
+            int take = Math.min(len, blockSize - bufferLength);
+            buffer.put(bufferLength, in, inOff, take);
+            bufferLength += take;
+            inOff += take;
+            len -= take;
+
+            if (holdBack == 0 && bufferLength == blockSize) {
+                processBlock(buffer, 0, out, outOff + produced);
+                produced += blockSize;
+                bufferLength = 0;
+            }
+        }
+        return produced;
+    }
+
+    // Один блок режимов с набивкой; допускается in == out
+    private void processBlock(ByteBuffer in, int inOff, ByteBuffer out, int outOff) {
+        switch (mode) {
+            case ECB:
+                if (encrypting) {
+                    key.encryptBlock(in, inOff, out, outOff);
+                } else {
+                    key.decryptBlock(in, inOff, out, outOff);
+                }
+                break;
+            case CBC:
+                if (encrypting) {
+                    XorUtils.xor(in, inOff, register, 0, out, outOff, blockSize);
+                    key.encryptBlock(out, outOff, out, outOff);
+                    register.put(0, out, outOff, blockSize);
+                } else {
+                    scratch.put(0, in, inOff, blockSize);
+                    key.decryptBlock(in, inOff, out, outOff);
+                    XorUtils.xor(out, outOff, register, 0, out, outOff, blockSize);
+                    register.put(0, scratch, 0, blockSize);
+                }
+                break;
+            case PCBC:
+                if (encrypting) {
+                    // register ^= previousPlain, затем previousPlain = открытый текст
+                    XorUtils.xor(register, 0, previousPlain, 0, register, 0, blockSize);
+                    previousPlain.put(0, in, inOff, blockSize);
+                    XorUtils.xor(in, inOff, register, 0, out, outOff, blockSize);
+                    key.encryptBlock(out, outOff, out, outOff);
+                    register.put(0, out, outOff, blockSize);
+                } else {
+                    scratch.put(0, in, inOff, blockSize);
+                    key.decryptBlock(in, inOff, out, outOff);
+                    XorUtils.xor(register, 0, previousPlain, 0, register, 0, blockSize);
+                    XorUtils.xor(out, outOff, register, 0, out, outOff, blockSize);
+                    previousPlain.put(0, out, outOff, blockSize);
+                    register.put(0, scratch, 0, blockSize);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected block mode: " + mode);
+        }
+    }
+
+    // CFB/OFB/CTR/RANDOM_DELTA: выход сразу, без буферизации; позиция в гамме переносится между вызовами
+    private int updateStream(ByteBuffer in, int inOff, int len, ByteBuffer out, int outOff) {
+        int i = 0;
+        while (i < len) {
+            if (keystreamPosition == blockSize) {
+                if (len - i >= blockSize) {
+                    processStreamBlock(in, inOff + i, out, outOff + i);
+                    i += blockSize;
+                    continue;
+                }
+                nextKeystream();
+            }
+            byte input = in.get(inOff + i);
+            byte output = (byte) (input ^ keystream.get(keystreamPosition));
+            out.put(outOff + i, output);
+            if (mode == CipherMode.CFB) {
+                // Регистр CFB заполняется шифротекстом по мере его появления
+                register.put(keystreamPosition, encrypting ? output : input);
+            }
+            keystreamPosition++;
+            i++;
+        }
+        return len;
+    }
+
+    // Целый блок потокового режима при выровненной позиции в гамме; допускается in == out
+    private void processStreamBlock(ByteBuffer in, int inOff, ByteBuffer out, int outOff) {
+        switch (mode) {
+            case CFB:
+                key.encryptBlock(register, 0, keystream, 0);
+                if (encrypting) {
+                    XorUtils.xor(in, inOff, keystream, 0, out, outOff, blockSize);
+                    register.put(0, out, outOff, blockSize);
+                } else {
+                    register.put(0, in, inOff, blockSize);
+                    XorUtils.xor(in, inOff, keystream, 0, out, outOff, blockSize);
+                }
+                break;
+            case OFB:
+                key.encryptBlock(register, 0, register, 0);
+                XorUtils.xor(in, inOff, register, 0, out, outOff, blockSize);
+                break;
+            case CTR:
+            case RANDOM_DELTA:
+                key.encryptBlock(register, 0, keystream, 0);
+                nextCounter();
+                XorUtils.xor(in, inOff, keystream, 0, out, outOff, blockSize);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected stream mode: " + mode);
+        }
+    }
+
+    // Очередной блок гаммы для побайтовой обработки неполных блоков
+    private void nextKeystream() {
+        switch (mode) {
+            case CFB:
+                key.encryptBlock(register, 0, keystream, 0);
+                break;
+            case OFB:
+                key.encryptBlock(register, 0, register, 0);
+                keystream.put(0, register, 0, blockSize);
+                break;
+            case CTR:
+            case RANDOM_DELTA:
+                key.encryptBlock(register, 0, keystream, 0);
+                nextCounter();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected stream mode: " + mode);
+        }
+        keystreamPosition = 0;
+    }
+
+    // CTR: счётчик + 1; RANDOM_DELTA: счётчик + Δ
+    private void nextCounter() {
+        if (delta == null) {
+            BlockCipherModes.incrementCounter(register.array());
+        } else {
+            BlockCipherModes.addDelta(register.array(), delta);
+        }
+    }
+}
@@ -4,5 +4,6 @@ public enum PaddingMode {
     PKCS7,
     ZEROS,
     ANSI_X923,
-    ISO_10126
+    ISO_10126,
+    CTS     // CBC-CS3: без набивки, шифротекст равен по длине открытому тексту (только CBC)
 }
\ No newline at end of file
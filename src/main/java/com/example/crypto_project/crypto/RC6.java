@@ -1,153 +1,549 @@
 package com.example.crypto_project.crypto;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * где b = 128/192/256
 */
 public class RC6 implements ISymmetricCipher {
 
-    private static final int R = 20;
+    static final int R = 20;
     private static final int BLOCK_SIZE_BYTES = 16;
 
     private static final int P32 = 0xB7E15163;
     private static final int Q32 = 0x9E3779B9;
 
     @Override
-    public byte[] encrypt(byte[] data, byte[] key) {
-        if (data.length != BLOCK_SIZE_BYTES) {
-            throw new IllegalArgumentException("Data block size must be " + BLOCK_SIZE_BYTES + " bytes for RC6");
+    public IExpandedKey init(byte[] key) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("Key size must be 16, 24 or 32 bytes for RC6");
         }
+        return new ExpandedKey(generateRoundKeys(key));
+    }
 
-        int[] S = generateRoundKeys(key); 
+    public int getBlockSize() {
+        return BLOCK_SIZE_BYTES;
+    }
 
-        int A = (data[0] & 0xFF) | ((data[1] & 0xFF) << 8) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 24);
-        int B = (data[4] & 0xFF) | ((data[5] & 0xFF) << 8) | ((data[6] & 0xFF) << 16) | ((data[7] & 0xFF) << 24);
-        int C = (data[8] & 0xFF) | ((data[9] & 0xFF) << 8) | ((data[10] & 0xFF) << 16) | ((data[11] & 0xFF) << 24);
-        int D = (data[12] & 0xFF) | ((data[13] & 0xFF) << 8) | ((data[14] & 0xFF) << 16) | ((data[15] & 0xFF) << 24);
+    private int[] generateRoundKeys(byte[] key) {
+        int c = key.length / 4;
+        int[] L = new int[c];
+        for (int i = 0; i < c; i++){
+            L[i] = (key[4*i] & 0xFF) | ((key[4*i+1] & 0xFF) << 8) | ((key[4*i+2] & 0xFF) << 16) | ((key[4*i+3] & 0xFF) << 24);
+        }
+        int sLength = 2 * R + 4;
+        int[] S = new int[sLength];
+        S[0] = P32;
+        for (int i = 1; i < sLength; i++) {
+            S[i] = S[i-1] + Q32;
+        }
+        int i = 0, j = 0;
+        int A = 0, B = 0;
+        for (int h = 0; h < 3 * Math.max(c, sLength); h++) {
+            A = S[i] = Integer.rotateLeft(S[i] + A + B, 3);
+            B = L[j] = Integer.rotateLeft(L[j] + A + B, A + B);
+            i = (i + 1) % sLength;
+            j = (j + 1) % c;
+        }
+        return S;
+    }
+
+    // Развёрнутый ключ RC6: массив раундовых ключей S вычисляется один раз.
+    // Слова читаются через little-endian VarHandle; массивы и буферы проходят через общие раунды
+    static final class ExpandedKey implements IExpandedKey {
 
-        B = B + S[0];
-        D = D + S[1];
-        for (int i = 0; i < R; i++) {
-            int t = Integer.rotateLeft(B * (2 * B + 1), 5);
-            int u = Integer.rotateLeft(D * (2 * D + 1), 5);
+        // Число блоков, обрабатываемых вперемешку по умолчанию: у RC6 длинная цепочка
+        // умножений, и 8 блоков обгоняют 4 (InterleavingBenchmark)
+        static final int INTERLEAVE = 8;
 
-            A = Integer.rotateLeft(A ^ t, u) + S[2 * i + 2];
-            C = Integer.rotateLeft(C ^ u, t) + S[2 * i + 3];
+        private final int[] S;
 
-            int temp = A;
-            A = B;
-            B = C;
-            C = D; 
-            D = temp;
+        private ExpandedKey(int[] S) {
+            this.S = S;
         }
-        A = A + S[2 * R + 2];
-        C = C + S[2 * R + 3];
 
-        byte[] encryptedData = new byte[BLOCK_SIZE_BYTES];
-        encryptedData[0] = (byte) A;
-        encryptedData[1] = (byte) (A >> 8);
-        encryptedData[2] = (byte) (A >> 16);
-        encryptedData[3] = (byte) (A >> 24);
+        // Раундовые ключи для векторного ядра (RC6Vectorized); массив не копируется и не изменяется
+        int[] roundKeys() {
+            return S;
+        }
 
-        encryptedData[4] = (byte) B;
-        encryptedData[5] = (byte) (B >> 8);
-        encryptedData[6] = (byte) (B >> 16);
-        encryptedData[7] = (byte) (B >> 24);
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            encrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
+        }
 
-        encryptedData[8] = (byte) C;
-        encryptedData[9] = (byte) (C >> 8);
-        encryptedData[10] = (byte) (C >> 16);
-        encryptedData[11] = (byte) (C >> 24);
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            encrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
+        }
 
-        encryptedData[12] = (byte) D;
-        encryptedData[13] = (byte) (D >> 8);
-        encryptedData[14] = (byte) (D >> 16);
-        encryptedData[15] = (byte) (D >> 24);
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            decrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
+        }
 
-        return encryptedData;
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            decrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
+        }
 
-    }
+        @Override
+        public void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            encryptBlocks(in, inOff, out, outOff, nBlocks, INTERLEAVE);
+        }
 
-    @Override
-    public byte[] decrypt(byte[] data, byte[] key) {
-        if (data.length != BLOCK_SIZE_BYTES) {
-            throw new IllegalArgumentException("Data block size must be " + BLOCK_SIZE_BYTES + " bytes for RC6.");
+        @Override
+        public void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            decryptBlocks(in, inOff, out, outOff, nBlocks, INTERLEAVE);
+        }
+
+        // interleave - 1, 4 или 8 блоков за проход (для сравнения в InterleavingBenchmark);
+        // хвост меньше ширины обрабатывается более узким ядром
+        void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks, int interleave) {
+            int i = 0;
+            if (interleave >= 8) {
+                for (; i + 8 <= nBlocks; i += 8) {
+                    encrypt8(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            if (interleave >= 4) {
+                for (; i + 4 <= nBlocks; i += 4) {
+                    encrypt4(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            for (; i < nBlocks; i++) {
+                encryptBlock(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+            }
+        }
+
+        void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks, int interleave) {
+            int i = 0;
+            if (interleave >= 8) {
+                for (; i + 8 <= nBlocks; i += 8) {
+                    decrypt8(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            if (interleave >= 4) {
+                for (; i + 4 <= nBlocks; i += 4) {
+                    decrypt4(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            for (; i < nBlocks; i++) {
+                decryptBlock(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+            }
         }
 
-        int[] S = generateRoundKeys(key);
+        @Override
+        public int getBlockSize() {
+            return BLOCK_SIZE_BYTES;
+        }
 
-        int A = (data[0] & 0xFF) | ((data[1] & 0xFF) << 8) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 24);
-        int B = (data[4] & 0xFF) | ((data[5] & 0xFF) << 8) | ((data[6] & 0xFF) << 16) | ((data[7] & 0xFF) << 24);
-        int C = (data[8] & 0xFF) | ((data[9] & 0xFF) << 8) | ((data[10] & 0xFF) << 16) | ((data[11] & 0xFF) << 24);
-        int D = (data[12] & 0xFF) | ((data[13] & 0xFF) << 8) | ((data[14] & 0xFF) << 16) | ((data[15] & 0xFF) << 24);
+        @Override
+        public void wipe() {
+            Arrays.fill(S, 0);
+        }
 
-        C = C - S[2 * R + 3];
-        A = A - S[2 * R + 2];
+        // Раунды шифрования; результат пишется в out или outBuffer (второй равен null)
+        private void encrypt(int A, int B, int C, int D, byte[] out, ByteBuffer outBuffer, int outOff) {
+            B = B + S[0];
+            D = D + S[1];
+            for (int i = 0; i < R; i++) {
+                int t = Integer.rotateLeft(B * (2 * B + 1), 5);
+                int u = Integer.rotateLeft(D * (2 * D + 1), 5);
 
-        for (int i = R - 1; i >= 0; i--) {
-            int temp = D;
-            D = C;
-            C = B;
-            B = A;
-            A = temp;
+                A = Integer.rotateLeft(A ^ t, u) + S[2 * i + 2];
+                C = Integer.rotateLeft(C ^ u, t) + S[2 * i + 3];
 
-            int t = Integer.rotateLeft(B * (2 * B + 1), 5);
-            int u = Integer.rotateLeft(D * (2 * D + 1), 5);
+                int temp = A;
+                A = B;
+                B = C;
+                C = D;
+                D = temp;
+            }
+            A = A + S[2 * R + 2];
+            C = C + S[2 * R + 3];
 
-            C = Integer.rotateRight(C - S[2 * i + 3], t) ^ u;
-            A = Integer.rotateRight(A - S[2 * i + 2], u) ^ t;
+            writeWords(A, B, C, D, out, outBuffer, outOff);
         }
 
-        D = D - S[1];
-        B = B - S[0];
+        private void decrypt(int A, int B, int C, int D, byte[] out, ByteBuffer outBuffer, int outOff) {
+            C = C - S[2 * R + 3];
+            A = A - S[2 * R + 2];
 
-        byte[] decryptedData = new byte[BLOCK_SIZE_BYTES];
-        decryptedData[0] = (byte) A;
-        decryptedData[1] = (byte) (A >> 8);
-        decryptedData[2] = (byte) (A >> 16);
-        decryptedData[3] = (byte) (A >> 24);
+            for (int i = R - 1; i >= 0; i--) {
+                int temp = D;
+                D = C;
+                C = B;
+                B = A;
+                A = temp;
 
-        decryptedData[4] = (byte) B;
-        decryptedData[5] = (byte) (B >> 8);
-        decryptedData[6] = (byte) (B >> 16);
-        decryptedData[7] = (byte) (B >> 24);
+                int t = Integer.rotateLeft(B * (2 * B + 1), 5);
+                int u = Integer.rotateLeft(D * (2 * D + 1), 5);
 
-        decryptedData[8] = (byte) C;
-        decryptedData[9] = (byte) (C >> 8);
-        decryptedData[10] = (byte) (C >> 16);
-        decryptedData[11] = (byte) (C >> 24);
+                C = Integer.rotateRight(C - S[2 * i + 3], t) ^ u;
+                A = Integer.rotateRight(A - S[2 * i + 2], u) ^ t;
+            }
 
-        decryptedData[12] = (byte) D;
-        decryptedData[13] = (byte) (D >> 8);
-        decryptedData[14] = (byte) (D >> 16);
-        decryptedData[15] = (byte) (D >> 24);
+            D = D - S[1];
+            B = B - S[0];
 
-        return decryptedData;
-    }
+            writeWords(A, B, C, D, out, outBuffer, outOff);
+        }
 
-    public int getBlockSize() {
-        return BLOCK_SIZE_BYTES;
-    }
+        // 4 независимых блоков шифруются вперемешку: цепочки умножений и сдвигов разных блоков
+        // не зависят друг от друга и занимают свободные порты процессора
+        private void encrypt4(byte[] in, int inOff, byte[] out, int outOff) {
+            int A0 = LittleEndian.getInt(in, inOff);
+            int B0 = LittleEndian.getInt(in, inOff + 4) + S[0];
+            int C0 = LittleEndian.getInt(in, inOff + 8);
+            int D0 = LittleEndian.getInt(in, inOff + 12) + S[1];
+            int A1 = LittleEndian.getInt(in, inOff + 16);
+            int B1 = LittleEndian.getInt(in, inOff + 20) + S[0];
+            int C1 = LittleEndian.getInt(in, inOff + 24);
+            int D1 = LittleEndian.getInt(in, inOff + 28) + S[1];
+            int A2 = LittleEndian.getInt(in, inOff + 32);
+            int B2 = LittleEndian.getInt(in, inOff + 36) + S[0];
+            int C2 = LittleEndian.getInt(in, inOff + 40);
+            int D2 = LittleEndian.getInt(in, inOff + 44) + S[1];
+            int A3 = LittleEndian.getInt(in, inOff + 48);
+            int B3 = LittleEndian.getInt(in, inOff + 52) + S[0];
+            int C3 = LittleEndian.getInt(in, inOff + 56);
+            int D3 = LittleEndian.getInt(in, inOff + 60) + S[1];
 
-    private int[] generateRoundKeys(byte[] key) {
-        int c = key.length / 4;
-        int[] L = new int[c];
-        for (int i = 0; i < c; i++){
-            L[i] = (key[4*i] & 0xFF) | ((key[4*i+1] & 0xFF) << 8) | ((key[4*i+2] & 0xFF) << 16) | ((key[4*i+3] & 0xFF) << 24);
+            for (int i = 0; i < R; i++) {
+                int s0 = S[2 * i + 2];
+                int s1 = S[2 * i + 3];
+                int t0 = Integer.rotateLeft(B0 * (2 * B0 + 1), 5);
+                int u0 = Integer.rotateLeft(D0 * (2 * D0 + 1), 5);
+                int t1 = Integer.rotateLeft(B1 * (2 * B1 + 1), 5);
+                int u1 = Integer.rotateLeft(D1 * (2 * D1 + 1), 5);
+                int t2 = Integer.rotateLeft(B2 * (2 * B2 + 1), 5);
+                int u2 = Integer.rotateLeft(D2 * (2 * D2 + 1), 5);
+                int t3 = Integer.rotateLeft(B3 * (2 * B3 + 1), 5);
+                int u3 = Integer.rotateLeft(D3 * (2 * D3 + 1), 5);
+                // Сдвиг (A, B, C, D) <- (B, C, D, A) выполняется переименованием
+                int a0 = Integer.rotateLeft(A0 ^ t0, u0) + s0;
+                A0 = B0;
+                B0 = Integer.rotateLeft(C0 ^ u0, t0) + s1;
+                C0 = D0;
+                D0 = a0;
+                int a1 = Integer.rotateLeft(A1 ^ t1, u1) + s0;
+                A1 = B1;
+                B1 = Integer.rotateLeft(C1 ^ u1, t1) + s1;
+                C1 = D1;
+                D1 = a1;
+                int a2 = Integer.rotateLeft(A2 ^ t2, u2) + s0;
+                A2 = B2;
+                B2 = Integer.rotateLeft(C2 ^ u2, t2) + s1;
+                C2 = D2;
+                D2 = a2;
+                int a3 = Integer.rotateLeft(A3 ^ t3, u3) + s0;
+                A3 = B3;
+                B3 = Integer.rotateLeft(C3 ^ u3, t3) + s1;
+                C3 = D3;
+                D3 = a3;
+            }
+
+            writeWords(A0 + S[2 * R + 2], B0, C0 + S[2 * R + 3], D0, out, null, outOff);
+            writeWords(A1 + S[2 * R + 2], B1, C1 + S[2 * R + 3], D1, out, null, outOff + 16);
+            writeWords(A2 + S[2 * R + 2], B2, C2 + S[2 * R + 3], D2, out, null, outOff + 32);
+            writeWords(A3 + S[2 * R + 2], B3, C3 + S[2 * R + 3], D3, out, null, outOff + 48);
         }
-        int sLength = 2 * R + 4;
-        int[] S = new int[sLength];
-        S[0] = P32;
-        for (int i = 1; i < sLength; i++) {
-            S[i] = S[i-1] + Q32;
+
+        // 8 независимых блоков шифруются вперемешку: цепочки умножений и сдвигов разных блоков
+        // не зависят друг от друга и занимают свободные порты процессора
+        private void encrypt8(byte[] in, int inOff, byte[] out, int outOff) {
+            int A0 = LittleEndian.getInt(in, inOff);
+            int B0 = LittleEndian.getInt(in, inOff + 4) + S[0];
+            int C0 = LittleEndian.getInt(in, inOff + 8);
+            int D0 = LittleEndian.getInt(in, inOff + 12) + S[1];
+            int A1 = LittleEndian.getInt(in, inOff + 16);
+            int B1 = LittleEndian.getInt(in, inOff + 20) + S[0];
+            int C1 = LittleEndian.getInt(in, inOff + 24);
+            int D1 = LittleEndian.getInt(in, inOff + 28) + S[1];
+            int A2 = LittleEndian.getInt(in, inOff + 32);
+            int B2 = LittleEndian.getInt(in, inOff + 36) + S[0];
+            int C2 = LittleEndian.getInt(in, inOff + 40);
+            int D2 = LittleEndian.getInt(in, inOff + 44) + S[1];
+            int A3 = LittleEndian.getInt(in, inOff + 48);
+            int B3 = LittleEndian.getInt(in, inOff + 52) + S[0];
+            int C3 = LittleEndian.getInt(in, inOff + 56);
+            int D3 = LittleEndian.getInt(in, inOff + 60) + S[1];
+            int A4 = LittleEndian.getInt(in, inOff + 64);
+            int B4 = LittleEndian.getInt(in, inOff + 68) + S[0];
+            int C4 = LittleEndian.getInt(in, inOff + 72);
+            int D4 = LittleEndian.getInt(in, inOff + 76) + S[1];
+            int A5 = LittleEndian.getInt(in, inOff + 80);
+            int B5 = LittleEndian.getInt(in, inOff + 84) + S[0];
+            int C5 = LittleEndian.getInt(in, inOff + 88);
+            int D5 = LittleEndian.getInt(in, inOff + 92) + S[1];
+            int A6 = LittleEndian.getInt(in, inOff + 96);
+            int B6 = LittleEndian.getInt(in, inOff + 100) + S[0];
+            int C6 = LittleEndian.getInt(in, inOff + 104);
+            int D6 = LittleEndian.getInt(in, inOff + 108) + S[1];
+            int A7 = LittleEndian.getInt(in, inOff + 112);
+            int B7 = LittleEndian.getInt(in, inOff + 116) + S[0];
+            int C7 = LittleEndian.getInt(in, inOff + 120);
+            int D7 = LittleEndian.getInt(in, inOff + 124) + S[1];
+
+            for (int i = 0; i < R; i++) {
+                int s0 = S[2 * i + 2];
+                int s1 = S[2 * i + 3];
+                int t0 = Integer.rotateLeft(B0 * (2 * B0 + 1), 5);
+                int u0 = Integer.rotateLeft(D0 * (2 * D0 + 1), 5);
+                int t1 = Integer.rotateLeft(B1 * (2 * B1 + 1), 5);
+                int u1 = Integer.rotateLeft(D1 * (2 * D1 + 1), 5);
+                int t2 = Integer.rotateLeft(B2 * (2 * B2 + 1), 5);
+                int u2 = Integer.rotateLeft(D2 * (2 * D2 + 1), 5);
+                int t3 = Integer.rotateLeft(B3 * (2 * B3 + 1), 5);
+                int u3 = Integer.rotateLeft(D3 * (2 * D3 + 1), 5);
+                int t4 = Integer.rotateLeft(B4 * (2 * B4 + 1), 5);
+                int u4 = Integer.rotateLeft(D4 * (2 * D4 + 1), 5);
+                int t5 = Integer.rotateLeft(B5 * (2 * B5 + 1), 5);
+                int u5 = Integer.rotateLeft(D5 * (2 * D5 + 1), 5);
+                int t6 = Integer.rotateLeft(B6 * (2 * B6 + 1), 5);
+                int u6 = Integer.rotateLeft(D6 * (2 * D6 + 1), 5);
+                int t7 = Integer.rotateLeft(B7 * (2 * B7 + 1), 5);
+                int u7 = Integer.rotateLeft(D7 * (2 * D7 + 1), 5);
+                // Сдвиг (A, B, C, D) <- (B, C, D, A) выполняется переименованием
+                int a0 = Integer.rotateLeft(A0 ^ t0, u0) + s0;
+                A0 = B0;
+                B0 = Integer.rotateLeft(C0 ^ u0, t0) + s1;
+                C0 = D0;
+                D0 = a0;
+                int a1 = Integer.rotateLeft(A1 ^ t1, u1) + s0;
+                A1 = B1;
+                B1 = Integer.rotateLeft(C1 ^ u1, t1) + s1;
+                C1 = D1;
+                D1 = a1;
+                int a2 = Integer.rotateLeft(A2 ^ t2, u2) + s0;
+                A2 = B2;
+                B2 = Integer.rotateLeft(C2 ^ u2, t2) + s1;
+                C2 = D2;
+                D2 = a2;
+                int a3 = Integer.rotateLeft(A3 ^ t3, u3) + s0;
+                A3 = B3;
+                B3 = Integer.rotateLeft(C3 ^ u3, t3) + s1;
+                C3 = D3;
+                D3 = a3;
+                int a4 = Integer.rotateLeft(A4 ^ t4, u4) + s0;
+                A4 = B4;
+                B4 = Integer.rotateLeft(C4 ^ u4, t4) + s1;
+                C4 = D4;
+                D4 = a4;
+                int a5 = Integer.rotateLeft(A5 ^ t5, u5) + s0;
+                A5 = B5;
+                B5 = Integer.rotateLeft(C5 ^ u5, t5) + s1;
+                C5 = D5;
+                D5 = a5;
+                int a6 = Integer.rotateLeft(A6 ^ t6, u6) + s0;
+                A6 = B6;
+                B6 = Integer.rotateLeft(C6 ^ u6, t6) + s1;
+                C6 = D6;
+                D6 = a6;
+                int a7 = Integer.rotateLeft(A7 ^ t7, u7) + s0;
+                A7 = B7;
+                B7 = Integer.rotateLeft(C7 ^ u7, t7) + s1;
+                C7 = D7;
+                D7 = a7;
+            }
+
+            writeWords(A0 + S[2 * R + 2], B0, C0 + S[2 * R + 3], D0, out, null, outOff);
+            writeWords(A1 + S[2 * R + 2], B1, C1 + S[2 * R + 3], D1, out, null, outOff + 16);
+            writeWords(A2 + S[2 * R + 2], B2, C2 + S[2 * R + 3], D2, out, null, outOff + 32);
+            writeWords(A3 + S[2 * R + 2], B3, C3 + S[2 * R + 3], D3, out, null, outOff + 48);
+            writeWords(A4 + S[2 * R + 2], B4, C4 + S[2 * R + 3], D4, out, null, outOff + 64);
+            writeWords(A5 + S[2 * R + 2], B5, C5 + S[2 * R + 3], D5, out, null, outOff + 80);
+            writeWords(A6 + S[2 * R + 2], B6, C6 + S[2 * R + 3], D6, out, null, outOff + 96);
+            writeWords(A7 + S[2 * R + 2], B7, C7 + S[2 * R + 3], D7, out, null, outOff + 112);
         }
-        int i = 0, j = 0;
-        int A = 0, B = 0;
-        for (int h = 0; h < 3 * Math.max(c, sLength); h++) {
-            A = S[i] = Integer.rotateLeft(S[i] + A + B, 3);
-            B = L[j] = Integer.rotateLeft(L[j] + A + B, A + B);
-            i = (i + 1) % sLength;
-            j = (j + 1) % c;
+
+        // 4 независимых блоков дешифруются вперемешку: цепочки умножений и сдвигов разных блоков
+        // не зависят друг от друга и занимают свободные порты процессора
+        private void decrypt4(byte[] in, int inOff, byte[] out, int outOff) {
+            int A0 = LittleEndian.getInt(in, inOff) - S[2 * R + 2];
+            int B0 = LittleEndian.getInt(in, inOff + 4);
+            int C0 = LittleEndian.getInt(in, inOff + 8) - S[2 * R + 3];
+            int D0 = LittleEndian.getInt(in, inOff + 12);
+            int A1 = LittleEndian.getInt(in, inOff + 16) - S[2 * R + 2];
+            int B1 = LittleEndian.getInt(in, inOff + 20);
+            int C1 = LittleEndian.getInt(in, inOff + 24) - S[2 * R + 3];
+            int D1 = LittleEndian.getInt(in, inOff + 28);
+            int A2 = LittleEndian.getInt(in, inOff + 32) - S[2 * R + 2];
+            int B2 = LittleEndian.getInt(in, inOff + 36);
+            int C2 = LittleEndian.getInt(in, inOff + 40) - S[2 * R + 3];
+            int D2 = LittleEndian.getInt(in, inOff + 44);
+            int A3 = LittleEndian.getInt(in, inOff + 48) - S[2 * R + 2];
+            int B3 = LittleEndian.getInt(in, inOff + 52);
+            int C3 = LittleEndian.getInt(in, inOff + 56) - S[2 * R + 3];
+            int D3 = LittleEndian.getInt(in, inOff + 60);
+
+            for (int i = R - 1; i >= 0; i--) {
+                int s0 = S[2 * i + 2];
+                int s1 = S[2 * i + 3];
+                // После сдвига (A, B, C, D) <- (D, A, B, C) роль B играет A, роль D - C
+                int t0 = Integer.rotateLeft(A0 * (2 * A0 + 1), 5);
+                int u0 = Integer.rotateLeft(C0 * (2 * C0 + 1), 5);
+                int t1 = Integer.rotateLeft(A1 * (2 * A1 + 1), 5);
+                int u1 = Integer.rotateLeft(C1 * (2 * C1 + 1), 5);
+                int t2 = Integer.rotateLeft(A2 * (2 * A2 + 1), 5);
+                int u2 = Integer.rotateLeft(C2 * (2 * C2 + 1), 5);
+                int t3 = Integer.rotateLeft(A3 * (2 * A3 + 1), 5);
+                int u3 = Integer.rotateLeft(C3 * (2 * C3 + 1), 5);
+                int a0 = Integer.rotateRight(D0 - s0, u0) ^ t0;
+                D0 = C0;
+                C0 = Integer.rotateRight(B0 - s1, t0) ^ u0;
+                B0 = A0;
+                A0 = a0;
+                int a1 = Integer.rotateRight(D1 - s0, u1) ^ t1;
+                D1 = C1;
+                C1 = Integer.rotateRight(B1 - s1, t1) ^ u1;
+                B1 = A1;
+                A1 = a1;
+                int a2 = Integer.rotateRight(D2 - s0, u2) ^ t2;
+                D2 = C2;
+                C2 = Integer.rotateRight(B2 - s1, t2) ^ u2;
+                B2 = A2;
+                A2 = a2;
+                int a3 = Integer.rotateRight(D3 - s0, u3) ^ t3;
+                D3 = C3;
+                C3 = Integer.rotateRight(B3 - s1, t3) ^ u3;
+                B3 = A3;
+                A3 = a3;
+            }
+
+            writeWords(A0, B0 - S[0], C0, D0 - S[1], out, null, outOff);
+            writeWords(A1, B1 - S[0], C1, D1 - S[1], out, null, outOff + 16);
+            writeWords(A2, B2 - S[0], C2, D2 - S[1], out, null, outOff + 32);
+            writeWords(A3, B3 - S[0], C3, D3 - S[1], out, null, outOff + 48);
+        }
+
+        // 8 независимых блоков дешифруются вперемешку: цепочки умножений и сдвигов разных блоков
+        // не зависят друг от друга и занимают свободные порты процессора
+        private void decrypt8(byte[] in, int inOff, byte[] out, int outOff) {
+            int A0 = LittleEndian.getInt(in, inOff) - S[2 * R + 2];
+            int B0 = LittleEndian.getInt(in, inOff + 4);
+            int C0 = LittleEndian.getInt(in, inOff + 8) - S[2 * R + 3];
+            int D0 = LittleEndian.getInt(in, inOff + 12);
+            int A1 = LittleEndian.getInt(in, inOff + 16) - S[2 * R + 2];
+            int B1 = LittleEndian.getInt(in, inOff + 20);
+            int C1 = LittleEndian.getInt(in, inOff + 24) - S[2 * R + 3];
+            int D1 = LittleEndian.getInt(in, inOff + 28);
+            int A2 = LittleEndian.getInt(in, inOff + 32) - S[2 * R + 2];
+            int B2 = LittleEndian.getInt(in, inOff + 36);
+            int C2 = LittleEndian.getInt(in, inOff + 40) - S[2 * R + 3];
+            int D2 = LittleEndian.getInt(in, inOff + 44);
+            int A3 = LittleEndian.getInt(in, inOff + 48) - S[2 * R + 2];
+            int B3 = LittleEndian.getInt(in, inOff + 52);
+            int C3 = LittleEndian.getInt(in, inOff + 56) - S[2 * R + 3];
+            int D3 = LittleEndian.getInt(in, inOff + 60);
+            int A4 = LittleEndian.getInt(in, inOff + 64) - S[2 * R + 2];
+            int B4 = LittleEndian.getInt(in, inOff + 68);
+            int C4 = LittleEndian.getInt(in, inOff + 72) - S[2 * R + 3];
+            int D4 = LittleEndian.getInt(in, inOff + 76);
+            int A5 = LittleEndian.getInt(in, inOff + 80) - S[2 * R + 2];
+            int B5 = LittleEndian.getInt(in, inOff + 84);
+            int C5 = LittleEndian.getInt(in, inOff + 88) - S[2 * R + 3];
+            int D5 = LittleEndian.getInt(in, inOff + 92);
+            int A6 = LittleEndian.getInt(in, inOff + 96) - S[2 * R + 2];
+            int B6 = LittleEndian.getInt(in, inOff + 100);
+            int C6 = LittleEndian.getInt(in, inOff + 104) - S[2 * R + 3];
+            int D6 = LittleEndian.getInt(in, inOff + 108);
+            int A7 = LittleEndian.getInt(in, inOff + 112) - S[2 * R + 2];
+            int B7 = LittleEndian.getInt(in, inOff + 116);
+            int C7 = LittleEndian.getInt(in, inOff + 120) - S[2 * R + 3];
+            int D7 = LittleEndian.getInt(in, inOff + 124);
+
+            for (int i = R - 1; i >= 0; i--) {
+                int s0 = S[2 * i + 2];
+                int s1 = S[2 * i + 3];
+                // После сдвига (A, B, C, D) <- (D, A, B, C) роль B играет A, роль D - C
+                int t0 = Integer.rotateLeft(A0 * (2 * A0 + 1), 5);
+                int u0 = Integer.rotateLeft(C0 * (2 * C0 + 1), 5);
+                int t1 = Integer.rotateLeft(A1 * (2 * A1 + 1), 5);
+                int u1 = Integer.rotateLeft(C1 * (2 * C1 + 1), 5);
+                int t2 = Integer.rotateLeft(A2 * (2 * A2 + 1), 5);
+                int u2 = Integer.rotateLeft(C2 * (2 * C2 + 1), 5);
+                int t3 = Integer.rotateLeft(A3 * (2 * A3 + 1), 5);
+                int u3 = Integer.rotateLeft(C3 * (2 * C3 + 1), 5);
+                int t4 = Integer.rotateLeft(A4 * (2 * A4 + 1), 5);
+                int u4 = Integer.rotateLeft(C4 * (2 * C4 + 1), 5);
+                int t5 = Integer.rotateLeft(A5 * (2 * A5 + 1), 5);
+                int u5 = Integer.rotateLeft(C5 * (2 * C5 + 1), 5);
+                int t6 = Integer.rotateLeft(A6 * (2 * A6 + 1), 5);
+                int u6 = Integer.rotateLeft(C6 * (2 * C6 + 1), 5);
+                int t7 = Integer.rotateLeft(A7 * (2 * A7 + 1), 5);
+                int u7 = Integer.rotateLeft(C7 * (2 * C7 + 1), 5);
+                int a0 = Integer.rotateRight(D0 - s0, u0) ^ t0;
+                D0 = C0;
+                C0 = Integer.rotateRight(B0 - s1, t0) ^ u0;
+                B0 = A0;
+                A0 = a0;
+                int a1 = Integer.rotateRight(D1 - s0, u1) ^ t1;
+                D1 = C1;
+                C1 = Integer.rotateRight(B1 - s1, t1) ^ u1;
+                B1 = A1;
+                A1 = a1;
+                int a2 = Integer.rotateRight(D2 - s0, u2) ^ t2;
+                D2 = C2;
+                C2 = Integer.rotateRight(B2 - s1, t2) ^ u2;
+                B2 = A2;
+                A2 = a2;
+                int a3 = Integer.rotateRight(D3 - s0, u3) ^ t3;
+                D3 = C3;
+                C3 = Integer.rotateRight(B3 - s1, t3) ^ u3;
+                B3 = A3;
+                A3 = a3;
+                int a4 = Integer.rotateRight(D4 - s0, u4) ^ t4;
+                D4 = C4;
+                C4 = Integer.rotateRight(B4 - s1, t4) ^ u4;
+                B4 = A4;
+                A4 = a4;
+                int a5 = Integer.rotateRight(D5 - s0, u5) ^ t5;
+                D5 = C5;
+                C5 = Integer.rotateRight(B5 - s1, t5) ^ u5;
+                B5 = A5;
+                A5 = a5;
+                int a6 = Integer.rotateRight(D6 - s0, u6) ^ t6;
+                D6 = C6;
+                C6 = Integer.rotateRight(B6 - s1, t6) ^ u6;
+                B6 = A6;
+                A6 = a6;
+                int a7 = Integer.rotateRight(D7 - s0, u7) ^ t7;
+                D7 = C7;
+                C7 = Integer.rotateRight(B7 - s1, t7) ^ u7;
+                B7 = A7;
+                A7 = a7;
+            }
+
+            writeWords(A0, B0 - S[0], C0, D0 - S[1], out, null, outOff);
+            writeWords(A1, B1 - S[0], C1, D1 - S[1], out, null, outOff + 16);
+            writeWords(A2, B2 - S[0], C2, D2 - S[1], out, null, outOff + 32);
+            writeWords(A3, B3 - S[0], C3, D3 - S[1], out, null, outOff + 48);
+            writeWords(A4, B4 - S[0], C4, D4 - S[1], out, null, outOff + 64);
+            writeWords(A5, B5 - S[0], C5, D5 - S[1], out, null, outOff + 80);
+            writeWords(A6, B6 - S[0], C6, D6 - S[1], out, null, outOff + 96);
+            writeWords(A7, B7 - S[0], C7, D7 - S[1], out, null, outOff + 112);
+        }
+
+        // Запись четырёх 32-битных слов в little-endian
+        private static void writeWords(int A, int B, int C, int D, byte[] out, ByteBuffer outBuffer, int outOff) {
+            if (out != null) {
+                LittleEndian.putInt(out, outOff, A);
+                LittleEndian.putInt(out, outOff + 4, B);
+                LittleEndian.putInt(out, outOff + 8, C);
+                LittleEndian.putInt(out, outOff + 12, D);
+            } else {
+                LittleEndian.putInt(outBuffer, outOff, A);
+                LittleEndian.putInt(outBuffer, outOff + 4, B);
+                LittleEndian.putInt(outBuffer, outOff + 8, C);
+                LittleEndian.putInt(outBuffer, outOff + 12, D);
+            }
         }
-        return S;
     }
 }
@@ -0,0 +1,125 @@
+package com.example.crypto_project.crypto;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Векторное ядро RC6 на jdk.incubator.vector.
+ * Блоки хранятся "послойно": вектор A содержит слово A всех блоков группы, B - слово B и т.д.,
+ * поэтому один раунд выполняется сразу для SPECIES.length() блоков.
+ * Класс загружается только после проверки наличия модуля (см. {@link RC6Vectorized}).
+ */
+final class RC6VectorKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int BLOCK_SIZE_BYTES = 16;
+
+    private RC6VectorKernel() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // Число блоков в одной группе (ширина регистра в 32-битных словах)
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    // nBlocks должно быть кратно lanes()
+    static void encryptBlocks(int[] S, byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int lanes = lanes();
+        int[] a = new int[lanes], b = new int[lanes], c = new int[lanes], d = new int[lanes];
+        for (int i = 0; i < nBlocks; i += lanes) {
+            int groupOff = i * BLOCK_SIZE_BYTES;
+            transposeIn(in, inOff + groupOff, a, b, c, d);
+
+            IntVector A = IntVector.fromArray(SPECIES, a, 0);
+            IntVector B = IntVector.fromArray(SPECIES, b, 0).add(S[0]);
+            IntVector C = IntVector.fromArray(SPECIES, c, 0);
+            IntVector D = IntVector.fromArray(SPECIES, d, 0).add(S[1]);
+            for (int r = 1; r <= RC6.R; r++) {
+                IntVector t = f(B);
+                IntVector u = f(D);
+                IntVector nextD = rotl(A.lanewise(VectorOperators.XOR, t), u).add(S[2 * r]);
+                IntVector nextB = rotl(C.lanewise(VectorOperators.XOR, u), t).add(S[2 * r + 1]);
+                A = B;
+                B = nextB;
+                C = D;
+                D = nextD;
+            }
+            A.add(S[2 * RC6.R + 2]).intoArray(a, 0);
+            B.intoArray(b, 0);
+            C.add(S[2 * RC6.R + 3]).intoArray(c, 0);
+            D.intoArray(d, 0);
+
+            transposeOut(a, b, c, d, out, outOff + groupOff);
+        }
+    }
+
+    // nBlocks должно быть кратно lanes()
+    static void decryptBlocks(int[] S, byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+        int lanes = lanes();
+        int[] a = new int[lanes], b = new int[lanes], c = new int[lanes], d = new int[lanes];
+        for (int i = 0; i < nBlocks; i += lanes) {
+            int groupOff = i * BLOCK_SIZE_BYTES;
+            transposeIn(in, inOff + groupOff, a, b, c, d);
+
+            IntVector A = IntVector.fromArray(SPECIES, a, 0).sub(S[2 * RC6.R + 2]);
+            IntVector B = IntVector.fromArray(SPECIES, b, 0);
+            IntVector C = IntVector.fromArray(SPECIES, c, 0).sub(S[2 * RC6.R + 3]);
+            IntVector D = IntVector.fromArray(SPECIES, d, 0);
+            for (int r = RC6.R; r >= 1; r--) {
+                // Обратный сдвиг (A, B, C, D) = (D, A, B, C)
+                IntVector prevA = D;
+                IntVector prevB = A;
+                IntVector prevD = C;
+                IntVector u = f(prevD);
+                IntVector t = f(prevB);
+                C = rotr(B.sub(S[2 * r + 1]), t).lanewise(VectorOperators.XOR, u);
+                A = rotr(prevA.sub(S[2 * r]), u).lanewise(VectorOperators.XOR, t);
+                B = prevB;
+                D = prevD;
+            }
+            A.intoArray(a, 0);
+            B.sub(S[0]).intoArray(b, 0);
+            C.intoArray(c, 0);
+            D.sub(S[1]).intoArray(d, 0);
+
+            transposeOut(a, b, c, d, out, outOff + groupOff);
+        }
+    }
+
+    // f(x) = (x * (2x + 1)) <<< 5. Все циклические сдвиги записаны парой логических сдвигов:
+    // lanewise(ROL/ROR) C2 компилирует не везде, и при неудаче ядро уходит в медленный Java-путь
+    private static IntVector f(IntVector x) {
+        IntVector y = x.mul(x.add(x).add(1));
+        return y.lanewise(VectorOperators.LSHL, 5).or(y.lanewise(VectorOperators.LSHR, 27));
+    }
+
+    // Циклический сдвиг на своё число бит в каждой дорожке; счётчик сдвига берётся по модулю 32
+    private static IntVector rotl(IntVector x, IntVector n) {
+        return x.lanewise(VectorOperators.LSHL, n).or(x.lanewise(VectorOperators.LSHR, n.neg()));
+    }
+
+    private static IntVector rotr(IntVector x, IntVector n) {
+        return x.lanewise(VectorOperators.LSHR, n).or(x.lanewise(VectorOperators.LSHL, n.neg()));
+    }
+
+    // Блоки -> слои: слово k блока j попадает в j-ю дорожку k-го массива
+    private static void transposeIn(byte[] in, int off, int[] a, int[] b, int[] c, int[] d) {
+        for (int j = 0; j < a.length; j++, off += BLOCK_SIZE_BYTES) {
+            a[j] = LittleEndian.getInt(in, off);
+            b[j] = LittleEndian.getInt(in, off + 4);
+            c[j] = LittleEndian.getInt(in, off + 8);
+            d[j] = LittleEndian.getInt(in, off + 12);
+        }
+    }
+
+    private static void transposeOut(int[] a, int[] b, int[] c, int[] d, byte[] out, int off) {
+        for (int j = 0; j < a.length; j++, off += BLOCK_SIZE_BYTES) {
+            LittleEndian.putInt(out, off, a[j]);
+            LittleEndian.putInt(out, off + 4, b[j]);
+            LittleEndian.putInt(out, off + 8, c[j]);
+            LittleEndian.putInt(out, off + 12, d[j]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.crypto_project.crypto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RC6 с векторным ядром на jdk.incubator.vector: пакеты блоков шифруются послойно,
+ * по одному блоку на дорожку IntVector (8 блоков для AVX2, 16 для AVX-512).
+ * Одиночные блоки, хвосты пакетов и ByteBuffer-операции идут через скалярный {@link RC6}.
+ * Если модуль не подключён (--add-modules jdk.incubator.vector) или регистр вмещает
+ * всего одно слово, init возвращает обычный скалярный ключ. Результат совпадает с RC6.
+ */
+public class RC6Vectorized implements ISymmetricCipher {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final RC6 scalar = new RC6();
+
+    /**
+     * Доступно ли векторное ядро в текущей JVM
+     * @return true, если модуль подключён и в регистре больше одной дорожки
+     */
+    public static boolean isVectorized() {
+        return Support.LANES > 1;
+    }
+
+    @Override
+    public IExpandedKey init(byte[] key) {
+        RC6.ExpandedKey scalarKey = (RC6.ExpandedKey) scalar.init(key);
+        return isVectorized() ? new ExpandedKey(scalarKey, Support.LANES) : scalarKey;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return scalar.getBlockSize();
+    }
+
+    // Проверка выполняется один раз при первом обращении; RC6VectorKernel загружается,
+    // только если модуль присутствует, иначе классы Vector API не были бы найдены
+    private static final class Support {
+        static final int LANES = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()
+                ? RC6VectorKernel.lanes() : 1;
+    }
+
+    // Векторный ключ поверх скалярного: пакеты по lanes блоков - в ядро, остальное - скалярно
+    static final class ExpandedKey implements IExpandedKey {
+
+        private final RC6.ExpandedKey scalarKey;
+        private final int[] S;
+        private final int lanes;
+
+        private ExpandedKey(RC6.ExpandedKey scalarKey, int lanes) {
+            this.scalarKey = scalarKey;
+            this.S = scalarKey.roundKeys();
+            this.lanes = lanes;
+        }
+
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            scalarKey.encryptBlock(in, inOff, out, outOff);
+        }
+
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            scalarKey.decryptBlock(in, inOff, out, outOff);
+        }
+
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            scalarKey.encryptBlock(in, inIndex, out, outIndex);
+        }
+
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            scalarKey.decryptBlock(in, inIndex, out, outIndex);
+        }
+
+        @Override
+        public void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            int vectorBlocks = nBlocks - nBlocks % lanes;
+            RC6VectorKernel.encryptBlocks(S, in, inOff, out, outOff, vectorBlocks);
+            int done = vectorBlocks * getBlockSize();
+            scalarKey.encryptBlocks(in, inOff + done, out, outOff + done, nBlocks - vectorBlocks);
+        }
+
+        @Override
+        public void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            int vectorBlocks = nBlocks - nBlocks % lanes;
+            RC6VectorKernel.decryptBlocks(S, in, inOff, out, outOff, vectorBlocks);
+            int done = vectorBlocks * getBlockSize();
+            scalarKey.decryptBlocks(in, inOff + done, out, outOff + done, nBlocks - vectorBlocks);
+        }
+
+        @Override
+        public int getBlockSize() {
+            return scalarKey.getBlockSize();
+        }
+
+        // S - массив скалярного ключа
+        @Override
+        public void wipe() {
+            scalarKey.wipe();
+        }
+    }
+}
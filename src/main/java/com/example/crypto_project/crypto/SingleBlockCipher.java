@@ -0,0 +1,72 @@
+package com.example.crypto_project.crypto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Скалярная реализация любого шифра: пакеты блоков обрабатываются строго по одному блоку
+ * (методы IExpandedKey по умолчанию), без чередования и векторного ядра исходного ключа.
+ * Нужна как кандидат замера в {@link CipherCalibrator} и для воспроизводимого сравнения.
+ */
+final class SingleBlockCipher implements ISymmetricCipher {
+
+    private final ISymmetricCipher delegate;
+
+    SingleBlockCipher(ISymmetricCipher delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public IExpandedKey init(byte[] key) {
+        return new SingleBlockKey(delegate.init(key));
+    }
+
+    @Override
+    public IExpandedKey init(byte[] key, long expectedBytes) {
+        return new SingleBlockKey(delegate.init(key, expectedBytes));
+    }
+
+    @Override
+    public int getBlockSize() {
+        return delegate.getBlockSize();
+    }
+
+    // encryptBlocks/decryptBlocks не переопределены: цикл по encryptBlock из интерфейса
+    private static final class SingleBlockKey implements IExpandedKey {
+
+        private final IExpandedKey key;
+
+        SingleBlockKey(IExpandedKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            key.encryptBlock(in, inOff, out, outOff);
+        }
+
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            key.decryptBlock(in, inOff, out, outOff);
+        }
+
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            key.encryptBlock(in, inIndex, out, outIndex);
+        }
+
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            key.decryptBlock(in, inIndex, out, outIndex);
+        }
+
+        @Override
+        public int getBlockSize() {
+            return key.getBlockSize();
+        }
+
+        @Override
+        public void wipe() {
+            key.wipe();
+        }
+    }
+}
@@ -1,212 +1,597 @@
 package com.example.crypto_project.crypto;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * Twofish - 128-битный блочный шифр
  * Поддерживает ключи 128, 192, 256 бит
  * 16 раундов шифрования
+ * <p>
+ * Реализация по спецификации (Schneier et al., 1998). Стратегия развёртывания ключа
+ * ({@link Keying}) меняет время подготовки ключа на стоимость блока: при полном развёртывании
+ * ключезависимые S-боксы вместе с матрицей MDS сворачиваются в четыре таблицы int[256],
+ * и функция g сводится к четырём плоским обращениям к таблицам.
  */
 public class Twofish implements ISymmetricCipher {
     
+    /**
+     * Стратегия развёртывания ключа Twofish (раздел 4.1 спецификации).
+     */
+    public enum Keying {
+        /** Без таблиц: S-боксы вычисляются в каждом раунде. Самая быстрая подготовка ключа. */
+        ZERO,
+        /** Четыре ключезависимых S-бокса byte[256]; MDS через общие таблицы. */
+        PARTIAL,
+        /** Четыре таблицы int[256] с S-боксом и MDS. Самый быстрый блок. */
+        FULL;
+        
+        /**
+         * Стратегия по ожидаемому объёму данных под одним ключом.
+         * Пороги - точки пересечения из TwofishKeyingBenchmark.
+         * @param expectedBytes ожидаемое число байт; отрицательное значение - объём неизвестен
+         */
+        public static Keying forVolume(long expectedBytes) {
+            if (expectedBytes < 0) {
+                return FULL;
+            }
+            if (expectedBytes < ZERO_KEYING_LIMIT) {
+                return ZERO;
+            }
+            return expectedBytes < PARTIAL_KEYING_LIMIT ? PARTIAL : FULL;
+        }
+    }
+    
+    // Границы объёма данных, ниже которых выгоднее нулевое и частичное развёртывание
+    static final long ZERO_KEYING_LIMIT = 128;
+    static final long PARTIAL_KEYING_LIMIT = 512;
+    
     private static final int BLOCK_SIZE_BYTES = 16;
     private static final int ROUNDS = 16;
+    private static final int SUBKEY_COUNT = 8 + 2 * ROUNDS;
     
-    // S-боксы Twofish (упрощенная версия)
-    private static final int[][] SBOX = {
-        {
-            0xa9, 0x67, 0xb3, 0xe8, 0x04, 0xfd, 0xa3, 0x76, 0x9a, 0x92, 0x80, 0x78, 0xe4, 0xdd, 0xd1, 0x38,
-            0x0d, 0xc6, 0x35, 0x98, 0x18, 0xf7, 0xec, 0x6c, 0x43, 0x75, 0x37, 0x26, 0xfa, 0x13, 0x94, 0x48,
-            0xf2, 0xd0, 0x8b, 0x30, 0x84, 0x54, 0xdf, 0x23, 0x19, 0x5b, 0x3d, 0x59, 0xf3, 0xae, 0xa2, 0x82,
-            0x63, 0x01, 0x83, 0x2e, 0xd9, 0x51, 0x9b, 0x7c, 0xa6, 0xeb, 0xa5, 0xbe, 0x16, 0x0c, 0xe3, 0x61,
-            0xc0, 0x8c, 0x3a, 0xf5, 0x73, 0x2c, 0x25, 0x0b, 0xbb, 0x4e, 0x89, 0x6b, 0x53, 0x6a, 0xb4, 0xf1,
-            0xe1, 0xe6, 0xbd, 0x45, 0xe2, 0xf4, 0xb6, 0x66, 0xcc, 0x95, 0x03, 0x56, 0xd4, 0x1c, 0x1e, 0xd7,
-            0xfb, 0xc3, 0x8e, 0xb5, 0xe9, 0xcf, 0xbf, 0xba, 0xea, 0x77, 0x39, 0xaf, 0x33, 0xc9, 0x62, 0x71,
-            0x81, 0x79, 0x09, 0xad, 0x24, 0xcd, 0xf9, 0xd8, 0xe5, 0xc5, 0xb9, 0x4d, 0x44, 0x08, 0x86, 0xe7,
-            0xa1, 0x1d, 0xaa, 0xed, 0x06, 0x70, 0xb2, 0xd2, 0x41, 0x7b, 0xa0, 0x11, 0x31, 0xc2, 0x27, 0x90,
-            0x20, 0xf6, 0x60, 0xff, 0x96, 0x5c, 0xb1, 0xab, 0x9e, 0x9c, 0x52, 0x1b, 0x5f, 0x93, 0x0a, 0xef,
-            0x91, 0x85, 0x49, 0xee, 0x2d, 0x4f, 0x8f, 0x3b, 0x47, 0x87, 0x6d, 0x46, 0xd6, 0x3e, 0x69, 0x64,
-            0x2a, 0xce, 0xcb, 0x2f, 0xfc, 0x97, 0x05, 0x7a, 0xac, 0x7f, 0xd5, 0x1a, 0x4b, 0x0e, 0xa7, 0x5a,
-            0x28, 0x14, 0x3f, 0x29, 0x88, 0x3c, 0x4c, 0x02, 0xb8, 0xda, 0xb0, 0x17, 0x55, 0x1f, 0x8a, 0x7d,
-            0x57, 0xc7, 0x8d, 0x74, 0xb7, 0xc4, 0x9f, 0x72, 0x7e, 0x15, 0x22, 0x12, 0x58, 0x07, 0x99, 0x34,
-            0x6e, 0x50, 0xde, 0x68, 0x65, 0xbc, 0xdb, 0xf8, 0xc8, 0xa8, 0x2b, 0x40, 0xdc, 0xfe, 0x32, 0xa4,
-            0xca, 0x10, 0x21, 0xf0, 0xd3, 0x5d, 0x0f, 0x00, 0x6f, 0x9d, 0x36, 0x42, 0x4a, 0x5e, 0xc1, 0xe0
-        },
-        {
-            0x75, 0xf3, 0xc6, 0xf4, 0xdb, 0x7b, 0xfb, 0xc8, 0x4a, 0xd3, 0xe6, 0x6b, 0x45, 0x7d, 0xe8, 0x4b,
-            0xd6, 0x32, 0xd8, 0xfd, 0x37, 0x71, 0xf1, 0xe1, 0x30, 0x0f, 0xf8, 0x1b, 0x87, 0xfa, 0x06, 0x3f,
-            0x5e, 0xba, 0xae, 0x5b, 0x8a, 0x00, 0xbc, 0x9d, 0x6d, 0xc1, 0xb1, 0x0e, 0x80, 0x5d, 0xd2, 0xd5,
-            0xa0, 0x84, 0x07, 0x14, 0xb5, 0x90, 0x2c, 0xa3, 0xb2, 0x73, 0x4c, 0x54, 0x92, 0x74, 0x36, 0x51,
-            0x38, 0xb0, 0xbd, 0x5a, 0xfc, 0x60, 0x62, 0x96, 0x6c, 0x42, 0xf7, 0x10, 0x7c, 0x28, 0x27, 0x8c,
-            0x13, 0x95, 0x9c, 0xc7, 0x24, 0x46, 0x3b, 0x70, 0xca, 0xe3, 0x85, 0xcb, 0x11, 0xd0, 0x93, 0xb8,
-            0xa6, 0x83, 0x20, 0xff, 0x9f, 0x77, 0xc3, 0xcc, 0x03, 0x6f, 0x08, 0xbf, 0x40, 0xe7, 0x2b, 0xe2,
-            0x79, 0x0c, 0xaa, 0x82, 0x41, 0x3a, 0xea, 0xb9, 0xe4, 0x9a, 0xa4, 0x97, 0x7e, 0xda, 0x7a, 0x17,
-            0x66, 0x94, 0xa1, 0x1d, 0x3d, 0xf0, 0xde, 0xb3, 0x0b, 0x72, 0xa7, 0x1c, 0xef, 0xd1, 0x53, 0x3e,
-            0x8f, 0x33, 0x26, 0x5f, 0xec, 0x76, 0x2a, 0x49, 0x81, 0x88, 0xee, 0x21, 0xc4, 0x1a, 0xeb, 0xd9,
-            0xc5, 0x39, 0x99, 0xcd, 0xad, 0x31, 0x8b, 0x01, 0x18, 0x23, 0xdd, 0x1f, 0x4e, 0x2d, 0xf9, 0x48,
-            0x4f, 0xf2, 0x65, 0x8e, 0x78, 0x5c, 0x58, 0x19, 0x8d, 0xe5, 0x98, 0x57, 0x67, 0x7f, 0x05, 0x64,
-            0xaf, 0x63, 0xb6, 0xfe, 0xf5, 0xb7, 0x3c, 0xa5, 0xce, 0xe9, 0x68, 0x44, 0xe0, 0x4d, 0x43, 0x69,
-            0x29, 0x2e, 0xac, 0x15, 0x59, 0xa8, 0x0a, 0x9e, 0x6e, 0x47, 0xdf, 0x34, 0x35, 0x6a, 0xcf, 0xdc,
-            0x22, 0xc9, 0xc0, 0x9b, 0x89, 0xd4, 0xed, 0xab, 0x12, 0xa2, 0x0d, 0x52, 0xbb, 0x02, 0x2f, 0xa9,
-            0xd7, 0x61, 0x1e, 0xb4, 0x50, 0x04, 0xf6, 0xc2, 0x16, 0x25, 0x86, 0x56, 0x55, 0x09, 0xbe, 0x91
-        }
+    // Примитивные многочлены полей GF(2^8) для MDS и RS
+    private static final int MDS_POLYNOMIAL = 0x169;
+    private static final int RS_POLYNOMIAL = 0x14D;
+    // rho = 2^24 + 2^16 + 2^8 + 1
+    private static final int RHO = 0x01010101;
+    
+    // Фиксированные перестановки q0 и q1
+    private static final int[] Q0 = {
+        0xa9, 0x67, 0xb3, 0xe8, 0x04, 0xfd, 0xa3, 0x76, 0x9a, 0x92, 0x80, 0x78, 0xe4, 0xdd, 0xd1, 0x38,
+        0x0d, 0xc6, 0x35, 0x98, 0x18, 0xf7, 0xec, 0x6c, 0x43, 0x75, 0x37, 0x26, 0xfa, 0x13, 0x94, 0x48,
+        0xf2, 0xd0, 0x8b, 0x30, 0x84, 0x54, 0xdf, 0x23, 0x19, 0x5b, 0x3d, 0x59, 0xf3, 0xae, 0xa2, 0x82,
+        0x63, 0x01, 0x83, 0x2e, 0xd9, 0x51, 0x9b, 0x7c, 0xa6, 0xeb, 0xa5, 0xbe, 0x16, 0x0c, 0xe3, 0x61,
+        0xc0, 0x8c, 0x3a, 0xf5, 0x73, 0x2c, 0x25, 0x0b, 0xbb, 0x4e, 0x89, 0x6b, 0x53, 0x6a, 0xb4, 0xf1,
+        0xe1, 0xe6, 0xbd, 0x45, 0xe2, 0xf4, 0xb6, 0x66, 0xcc, 0x95, 0x03, 0x56, 0xd4, 0x1c, 0x1e, 0xd7,
+        0xfb, 0xc3, 0x8e, 0xb5, 0xe9, 0xcf, 0xbf, 0xba, 0xea, 0x77, 0x39, 0xaf, 0x33, 0xc9, 0x62, 0x71,
+        0x81, 0x79, 0x09, 0xad, 0x24, 0xcd, 0xf9, 0xd8, 0xe5, 0xc5, 0xb9, 0x4d, 0x44, 0x08, 0x86, 0xe7,
+        0xa1, 0x1d, 0xaa, 0xed, 0x06, 0x70, 0xb2, 0xd2, 0x41, 0x7b, 0xa0, 0x11, 0x31, 0xc2, 0x27, 0x90,
+        0x20, 0xf6, 0x60, 0xff, 0x96, 0x5c, 0xb1, 0xab, 0x9e, 0x9c, 0x52, 0x1b, 0x5f, 0x93, 0x0a, 0xef,
+        0x91, 0x85, 0x49, 0xee, 0x2d, 0x4f, 0x8f, 0x3b, 0x47, 0x87, 0x6d, 0x46, 0xd6, 0x3e, 0x69, 0x64,
+        0x2a, 0xce, 0xcb, 0x2f, 0xfc, 0x97, 0x05, 0x7a, 0xac, 0x7f, 0xd5, 0x1a, 0x4b, 0x0e, 0xa7, 0x5a,
+        0x28, 0x14, 0x3f, 0x29, 0x88, 0x3c, 0x4c, 0x02, 0xb8, 0xda, 0xb0, 0x17, 0x55, 0x1f, 0x8a, 0x7d,
+        0x57, 0xc7, 0x8d, 0x74, 0xb7, 0xc4, 0x9f, 0x72, 0x7e, 0x15, 0x22, 0x12, 0x58, 0x07, 0x99, 0x34,
+        0x6e, 0x50, 0xde, 0x68, 0x65, 0xbc, 0xdb, 0xf8, 0xc8, 0xa8, 0x2b, 0x40, 0xdc, 0xfe, 0x32, 0xa4,
+        0xca, 0x10, 0x21, 0xf0, 0xd3, 0x5d, 0x0f, 0x00, 0x6f, 0x9d, 0x36, 0x42, 0x4a, 0x5e, 0xc1, 0xe0
+    };
+    
+    private static final int[] Q1 = {
+        0x75, 0xf3, 0xc6, 0xf4, 0xdb, 0x7b, 0xfb, 0xc8, 0x4a, 0xd3, 0xe6, 0x6b, 0x45, 0x7d, 0xe8, 0x4b,
+        0xd6, 0x32, 0xd8, 0xfd, 0x37, 0x71, 0xf1, 0xe1, 0x30, 0x0f, 0xf8, 0x1b, 0x87, 0xfa, 0x06, 0x3f,
+        0x5e, 0xba, 0xae, 0x5b, 0x8a, 0x00, 0xbc, 0x9d, 0x6d, 0xc1, 0xb1, 0x0e, 0x80, 0x5d, 0xd2, 0xd5,
+        0xa0, 0x84, 0x07, 0x14, 0xb5, 0x90, 0x2c, 0xa3, 0xb2, 0x73, 0x4c, 0x54, 0x92, 0x74, 0x36, 0x51,
+        0x38, 0xb0, 0xbd, 0x5a, 0xfc, 0x60, 0x62, 0x96, 0x6c, 0x42, 0xf7, 0x10, 0x7c, 0x28, 0x27, 0x8c,
+        0x13, 0x95, 0x9c, 0xc7, 0x24, 0x46, 0x3b, 0x70, 0xca, 0xe3, 0x85, 0xcb, 0x11, 0xd0, 0x93, 0xb8,
+        0xa6, 0x83, 0x20, 0xff, 0x9f, 0x77, 0xc3, 0xcc, 0x03, 0x6f, 0x08, 0xbf, 0x40, 0xe7, 0x2b, 0xe2,
+        0x79, 0x0c, 0xaa, 0x82, 0x41, 0x3a, 0xea, 0xb9, 0xe4, 0x9a, 0xa4, 0x97, 0x7e, 0xda, 0x7a, 0x17,
+        0x66, 0x94, 0xa1, 0x1d, 0x3d, 0xf0, 0xde, 0xb3, 0x0b, 0x72, 0xa7, 0x1c, 0xef, 0xd1, 0x53, 0x3e,
+        0x8f, 0x33, 0x26, 0x5f, 0xec, 0x76, 0x2a, 0x49, 0x81, 0x88, 0xee, 0x21, 0xc4, 0x1a, 0xeb, 0xd9,
+        0xc5, 0x39, 0x99, 0xcd, 0xad, 0x31, 0x8b, 0x01, 0x18, 0x23, 0xdd, 0x1f, 0x4e, 0x2d, 0xf9, 0x48,
+        0x4f, 0xf2, 0x65, 0x8e, 0x78, 0x5c, 0x58, 0x19, 0x8d, 0xe5, 0x98, 0x57, 0x67, 0x7f, 0x05, 0x64,
+        0xaf, 0x63, 0xb6, 0xfe, 0xf5, 0xb7, 0x3c, 0xa5, 0xce, 0xe9, 0x68, 0x44, 0xe0, 0x4d, 0x43, 0x69,
+        0x29, 0x2e, 0xac, 0x15, 0x59, 0xa8, 0x0a, 0x9e, 0x6e, 0x47, 0xdf, 0x34, 0x35, 0x6a, 0xcf, 0xdc,
+        0x22, 0xc9, 0xc0, 0x9b, 0x89, 0xd4, 0xed, 0xab, 0x12, 0xa2, 0x0d, 0x52, 0xbb, 0x02, 0x2f, 0xa9,
+        0xd7, 0x61, 0x1e, 0xb4, 0x50, 0x04, 0xf6, 0xc2, 0x16, 0x25, 0x86, 0x56, 0x55, 0x09, 0xbe, 0x91
+    };
+    
+    // Перестановки цепочки h для каждого байта слова: шаги с L3, L2, L1, L0 и выходная
+    private static final int[][][] Q_CHAIN = {
+        {Q1, Q1, Q0, Q0, Q1},
+        {Q0, Q1, Q1, Q0, Q0},
+        {Q0, Q0, Q0, Q1, Q1},
+        {Q1, Q0, Q1, Q1, Q0}
+    };
+    
+    // Матрица MDS
+    private static final int[][] MDS = {
+        {0x01, 0xEF, 0x5B, 0x5B},
+        {0x5B, 0xEF, 0xEF, 0x01},
+        {0xEF, 0x5B, 0x01, 0xEF},
+        {0xEF, 0x01, 0xEF, 0x5B}
     };
     
+    // Матрица Рида-Соломона для вычисления S-ключей
+    private static final int[][] RS = {
+        {0x01, 0xA4, 0x55, 0x87, 0x5A, 0x58, 0xDB, 0x9E},
+        {0xA4, 0x56, 0x82, 0xF3, 0x1E, 0xC6, 0x68, 0xE5},
+        {0x02, 0xA1, 0xFC, 0xC1, 0x47, 0xAE, 0x3D, 0x19},
+        {0xA4, 0x55, 0x87, 0x5A, 0x58, 0xDB, 0x9E, 0x03}
+    };
+    
+    // Столбец j матрицы MDS, умноженный на байт y: MDS_COLUMNS[j][y] - готовое 32-битное слово
+    private static final int[][] MDS_COLUMNS = new int[4][256];
+    
+    static {
+        for (int j = 0; j < 4; j++) {
+            for (int y = 0; y < 256; y++) {
+                int word = 0;
+                for (int i = 0; i < 4; i++) {
+                    word |= gfMultiply(MDS[i][j], y, MDS_POLYNOMIAL) << (8 * i);
+                }
+                MDS_COLUMNS[j][y] = word;
+            }
+        }
+    }
+    
+    // null - стратегия выбирается по ожидаемому объёму данных
+    private final Keying keying;
+    
+    public Twofish() {
+        this(null);
+    }
+    
+    /**
+     * @param keying фиксированная стратегия развёртывания ключа или null для выбора по объёму данных
+     */
+    public Twofish(Keying keying) {
+        this.keying = keying;
+    }
+    
+    // Объём данных неизвестен: ключ считается долгоживущим
     @Override
-    public byte[] encrypt(byte[] data, byte[] key) {
-        if (data.length != BLOCK_SIZE_BYTES) {
-            throw new IllegalArgumentException("Data block size must be " + BLOCK_SIZE_BYTES + " bytes for Twofish");
+    public IExpandedKey init(byte[] key) {
+        return init(key, -1L);
+    }
+    
+    @Override
+    public IExpandedKey init(byte[] key, long expectedBytes) {
+        return init(key, keying != null ? keying : Keying.forVolume(expectedBytes));
+    }
+    
+    /**
+     * Развёртывание ключа с явно заданной стратегией.
+     * @param key ключ 16, 24 или 32 байта
+     * @param keying стратегия развёртывания
+     * @return развёрнутый ключ
+     */
+    public IExpandedKey init(byte[] key, Keying keying) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("Key size must be 16, 24 or 32 bytes for Twofish");
+        }
+        int k = key.length / 8;
+        int[] even = new int[k];
+        int[] odd = new int[k];
+        int[] sboxKey = new int[k];
+        for (int i = 0; i < k; i++) {
+            even[i] = LittleEndian.getInt(key, 8 * i);
+            odd[i] = LittleEndian.getInt(key, 8 * i + 4);
+            // S-ключи идут в обратном порядке
+            sboxKey[k - 1 - i] = reedSolomon(key, 8 * i);
+        }
+        return new ExpandedKey(generateSubkeys(even, odd), sboxKey, keying);
+    }
+    
+    @Override
+    public int getBlockSize() {
+        return BLOCK_SIZE_BYTES;
+    }
+    
+    // Подключи K0..K39: A = h(2i*rho, Me), B = ROL(h((2i+1)*rho, Mo), 8)
+    private static int[] generateSubkeys(int[] even, int[] odd) {
+        int[] subkeys = new int[SUBKEY_COUNT];
+        for (int i = 0; i < SUBKEY_COUNT / 2; i++) {
+            int a = h(2 * i * RHO, even);
+            int b = Integer.rotateLeft(h((2 * i + 1) * RHO, odd), 8);
+            subkeys[2 * i] = a + b;
+            subkeys[2 * i + 1] = Integer.rotateLeft(a + 2 * b, 9);
+        }
+        return subkeys;
+    }
+    
+    // Полное развёртывание: для байта x в позиции lane - MDS-столбец от ключезависимого S-бокса
+    private static int[] buildFullTable(int lane, int[] sboxKey) {
+        int[] table = new int[256];
+        for (int x = 0; x < 256; x++) {
+            table[x] = MDS_COLUMNS[lane][keyedSbox(lane, x, sboxKey)];
         }
+        return table;
+    }
+    
+    // Частичное развёртывание: только ключезависимый S-бокс позиции lane
+    private static byte[] buildPartialTable(int lane, int[] sboxKey) {
+        byte[] table = new byte[256];
+        for (int x = 0; x < 256; x++) {
+            table[x] = (byte) keyedSbox(lane, x, sboxKey);
+        }
+        return table;
+    }
+    
+    // Функция h: ключезависимые S-боксы и умножение на MDS
+    private static int h(int x, int[] key) {
+        int result = 0;
+        for (int j = 0; j < 4; j++) {
+            result ^= MDS_COLUMNS[j][keyedSbox(j, (x >>> (8 * j)) & 0xFF, key)];
+        }
+        return result;
+    }
+    
+    // Ключезависимый S-бокс байта lane: цепочка q0/q1 с XOR байтов слов ключа L(k-1)..L0
+    private static int keyedSbox(int lane, int x, int[] key) {
+        int[][] chain = Q_CHAIN[lane];
+        int shift = 8 * lane;
+        for (int i = key.length - 1; i >= 0; i--) {
+            x = chain[3 - i][x] ^ ((key[i] >>> shift) & 0xFF);
+        }
+        return chain[4][x];
+    }
+    
+    // S-ключ: произведение матрицы RS на 8 байт ключа начиная с offset
+    private static int reedSolomon(byte[] key, int offset) {
+        int word = 0;
+        for (int i = 0; i < 4; i++) {
+            int value = 0;
+            for (int j = 0; j < 8; j++) {
+                value ^= gfMultiply(RS[i][j], key[offset + j] & 0xFF, RS_POLYNOMIAL);
+            }
+            word |= value << (8 * i);
+        }
+        return word;
+    }
+    
+    // Умножение в GF(2^8) по модулю многочлена polynomial
+    private static int gfMultiply(int a, int b, int polynomial) {
+        int result = 0;
+        while (b != 0) {
+            if ((b & 1) != 0) {
+                result ^= a;
+            }
+            a <<= 1;
+            if ((a & 0x100) != 0) {
+                a ^= polynomial;
+            }
+            b >>>= 1;
+        }
+        return result;
+    }
+    
+    // Развёрнутый ключ Twofish: подключи и таблицы выбранной стратегии вычисляются один раз.
+    // Слова читаются через little-endian VarHandle; массивы и буферы проходят через общие раунды
+    static final class ExpandedKey implements IExpandedKey {
         
-        int[] subkeys = generateSubkeys(key);
+        // Число блоков, обрабатываемых вперемешку: при 8 блоках состояние не помещается
+        // в регистры и ядро медленнее (ядро на 8 блоков - в InterleavingBenchmark)
+        static final int INTERLEAVE = 4;
         
-        // Преобразование байтов в 32-битные слова
-        int[] block = bytesToWords(data);
+        private final int[] subkeys;
+        private final int[] sboxKey;
+        // FULL: S-бокс и MDS, свёрнутые для каждого из четырёх байтов входа g
+        private final int[] t0;
+        private final int[] t1;
+        private final int[] t2;
+        private final int[] t3;
+        // PARTIAL: только ключезависимые S-боксы
+        private final byte[] s0;
+        private final byte[] s1;
+        private final byte[] s2;
+        private final byte[] s3;
         
-        // Предварительное отбеливание
-        block[0] ^= subkeys[0];
-        block[1] ^= subkeys[1];
-        block[2] ^= subkeys[2];
-        block[3] ^= subkeys[3];
+        private ExpandedKey(int[] subkeys, int[] sboxKey, Keying keying) {
+            this.subkeys = subkeys;
+            this.sboxKey = sboxKey;
+            boolean full = keying == Keying.FULL;
+            boolean partial = keying == Keying.PARTIAL;
+            this.t0 = full ? buildFullTable(0, sboxKey) : null;
+            this.t1 = full ? buildFullTable(1, sboxKey) : null;
+            this.t2 = full ? buildFullTable(2, sboxKey) : null;
+            this.t3 = full ? buildFullTable(3, sboxKey) : null;
+            this.s0 = partial ? buildPartialTable(0, sboxKey) : null;
+            this.s1 = partial ? buildPartialTable(1, sboxKey) : null;
+            this.s2 = partial ? buildPartialTable(2, sboxKey) : null;
+            this.s3 = partial ? buildPartialTable(3, sboxKey) : null;
+        }
         
-        // 16 раундов
-        for (int round = 0; round < ROUNDS; round++) {
-            int t0 = g(block[0], subkeys);
-            int t1 = g(Integer.rotateLeft(block[1], 8), subkeys);
-            
-            block[2] = Integer.rotateRight(block[2] ^ (t0 + t1 + subkeys[2 * round + 8]), 1);
-            block[3] = Integer.rotateLeft(block[3], 1) ^ (t0 + 2 * t1 + subkeys[2 * round + 9]);
-            
-            // Обмен половин
-            int temp = block[0];
-            block[0] = block[2];
-            block[2] = temp;
-            temp = block[1];
-            block[1] = block[3];
-            block[3] = temp;
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            encrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
         }
         
-        // Отмена последнего обмена
-        int temp = block[0];
-        block[0] = block[2];
-        block[2] = temp;
-        temp = block[1];
-        block[1] = block[3];
-        block[3] = temp;
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            encrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
+        }
         
-        // Финальное отбеливание
-        block[0] ^= subkeys[4];
-        block[1] ^= subkeys[5];
-        block[2] ^= subkeys[6];
-        block[3] ^= subkeys[7];
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            decrypt(LittleEndian.getInt(in, inOff), LittleEndian.getInt(in, inOff + 4),
+                    LittleEndian.getInt(in, inOff + 8), LittleEndian.getInt(in, inOff + 12), out, null, outOff);
+        }
         
-        return wordsToBytes(block);
-    }
-    
-    @Override
-    public byte[] decrypt(byte[] data, byte[] key) {
-        if (data.length != BLOCK_SIZE_BYTES) {
-            throw new IllegalArgumentException("Data block size must be " + BLOCK_SIZE_BYTES + " bytes for Twofish");
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            decrypt(LittleEndian.getInt(in, inIndex), LittleEndian.getInt(in, inIndex + 4),
+                    LittleEndian.getInt(in, inIndex + 8), LittleEndian.getInt(in, inIndex + 12), null, out, outIndex);
         }
         
-        int[] subkeys = generateSubkeys(key);
+        @Override
+        public void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            encryptBlocks(in, inOff, out, outOff, nBlocks, INTERLEAVE);
+        }
         
-        // Преобразование байтов в 32-битные слова
-        int[] block = bytesToWords(data);
+        @Override
+        public void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks) {
+            decryptBlocks(in, inOff, out, outOff, nBlocks, INTERLEAVE);
+        }
         
-        // Обратное финальное отбеливание
-        block[0] ^= subkeys[4];
-        block[1] ^= subkeys[5];
-        block[2] ^= subkeys[6];
-        block[3] ^= subkeys[7];
+        // interleave - 1 или 4 блока за проход (для сравнения в InterleavingBenchmark);
+        // хвост меньше ширины обрабатывается поблочно
+        void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks, int interleave) {
+            int i = 0;
+            if (interleave >= 4) {
+                for (; i + 4 <= nBlocks; i += 4) {
+                    encrypt4(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            for (; i < nBlocks; i++) {
+                encryptBlock(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+            }
+        }
         
-        // 16 раундов в обратном порядке
-        for (int round = ROUNDS - 1; round >= 0; round--) {
-            int t0 = g(block[0], subkeys);
-            int t1 = g(Integer.rotateLeft(block[1], 8), subkeys);
-            
-            block[2] = Integer.rotateLeft(block[2], 1) ^ (t0 + t1 + subkeys[2 * round + 8]);
-            block[3] = Integer.rotateRight(block[3] ^ (t0 + 2 * t1 + subkeys[2 * round + 9]), 1);
-            
-            // Обмен половин
-            int temp = block[0];
-            block[0] = block[2];
-            block[2] = temp;
-            temp = block[1];
-            block[1] = block[3];
-            block[3] = temp;
+        void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int nBlocks, int interleave) {
+            int i = 0;
+            if (interleave >= 4) {
+                for (; i + 4 <= nBlocks; i += 4) {
+                    decrypt4(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+                }
+            }
+            for (; i < nBlocks; i++) {
+                decryptBlock(in, inOff + i * BLOCK_SIZE_BYTES, out, outOff + i * BLOCK_SIZE_BYTES);
+            }
         }
         
-        // Обратное предварительное отбеливание
-        block[0] ^= subkeys[0];
-        block[1] ^= subkeys[1];
-        block[2] ^= subkeys[2];
-        block[3] ^= subkeys[3];
+        @Override
+        public int getBlockSize() {
+            return BLOCK_SIZE_BYTES;
+        }
         
-        return wordsToBytes(block);
-    }
-    
-    @Override
-    public int getBlockSize() {
-        return BLOCK_SIZE_BYTES;
-    }
-    
-    // Функция g (упрощенная версия)
-    private int g(int x, int[] subkeys) {
-        int a = x & 0xFF;
-        int b = (x >>> 8) & 0xFF;
-        int c = (x >>> 16) & 0xFF;
-        int d = (x >>> 24) & 0xFF;
+        // Таблицы стратегии, которой нет у ключа, равны null
+        @Override
+        public void wipe() {
+            Arrays.fill(subkeys, 0);
+            Arrays.fill(sboxKey, 0);
+            for (int[] table : new int[][]{t0, t1, t2, t3}) {
+                if (table != null) {
+                    Arrays.fill(table, 0);
+                }
+            }
+            for (byte[] table : new byte[][]{s0, s1, s2, s3}) {
+                if (table != null) {
+                    Arrays.fill(table, (byte) 0);
+                }
+            }
+        }
         
-        int y0 = SBOX[0][a] ^ SBOX[1][b] ^ SBOX[0][c] ^ SBOX[1][d];
-        int y1 = SBOX[1][a] ^ SBOX[0][b] ^ SBOX[1][c] ^ SBOX[0][d];
-        int y2 = SBOX[0][a] ^ SBOX[1][b] ^ SBOX[0][c] ^ SBOX[1][d];
-        int y3 = SBOX[1][a] ^ SBOX[0][b] ^ SBOX[1][c] ^ SBOX[0][d];
+        // Раунды шифрования; результат пишется в out или outBuffer (второй равен null)
+        private void encrypt(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            // Предварительное отбеливание
+            int a = w0 ^ subkeys[0];
+            int b = w1 ^ subkeys[1];
+            int c = w2 ^ subkeys[2];
+            int d = w3 ^ subkeys[3];
+            
+            // 16 раундов, по два за итерацию: вместо обмена половин меняются роли пар (a, b) и (c, d)
+            for (int round = 0; round < ROUNDS; round += 2) {
+                int t0 = g(a);
+                int t1 = g(Integer.rotateLeft(b, 8));
+                c = Integer.rotateRight(c ^ (t0 + t1 + subkeys[2 * round + 8]), 1);
+                d = Integer.rotateLeft(d, 1) ^ (t0 + 2 * t1 + subkeys[2 * round + 9]);
+                
+                t0 = g(c);
+                t1 = g(Integer.rotateLeft(d, 8));
+                a = Integer.rotateRight(a ^ (t0 + t1 + subkeys[2 * round + 10]), 1);
+                b = Integer.rotateLeft(b, 1) ^ (t0 + 2 * t1 + subkeys[2 * round + 11]);
+            }
+            
+            // Отмена последнего обмена и финальное отбеливание
+            writeWords(c ^ subkeys[4], d ^ subkeys[5], a ^ subkeys[6], b ^ subkeys[7], out, outBuffer, outOff);
+        }
         
-        return (y3 << 24) | (y2 << 16) | (y1 << 8) | y0;
-    }
-    
-    // Генерация подключей (упрощенная версия)
-    private int[] generateSubkeys(byte[] key) {
-        int[] subkeys = new int[40]; // 8 для отбеливания + 32 для раундов
+        private void decrypt(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            // Обратное финальное отбеливание с восстановлением последнего обмена
+            int c = w0 ^ subkeys[4];
+            int d = w1 ^ subkeys[5];
+            int a = w2 ^ subkeys[6];
+            int b = w3 ^ subkeys[7];
+            
+            // 16 раундов в обратном порядке
+            for (int round = ROUNDS - 2; round >= 0; round -= 2) {
+                int t0 = g(c);
+                int t1 = g(Integer.rotateLeft(d, 8));
+                a = Integer.rotateLeft(a, 1) ^ (t0 + t1 + subkeys[2 * round + 10]);
+                b = Integer.rotateRight(b ^ (t0 + 2 * t1 + subkeys[2 * round + 11]), 1);
+                
+                t0 = g(a);
+                t1 = g(Integer.rotateLeft(b, 8));
+                c = Integer.rotateLeft(c, 1) ^ (t0 + t1 + subkeys[2 * round + 8]);
+                d = Integer.rotateRight(d ^ (t0 + 2 * t1 + subkeys[2 * round + 9]), 1);
+            }
+            
+            // Обратное предварительное отбеливание
+            writeWords(a ^ subkeys[0], b ^ subkeys[1], c ^ subkeys[2], d ^ subkeys[3], out, outBuffer, outOff);
+        }
+        
+        // 4 независимых блоков шифруются вперемешку: обращения к таблицам разных блоков
+        // перекрываются по задержке
+        private void encrypt4(byte[] in, int inOff, byte[] out, int outOff) {
+            int a0 = LittleEndian.getInt(in, inOff) ^ subkeys[0];
+            int b0 = LittleEndian.getInt(in, inOff + 4) ^ subkeys[1];
+            int c0 = LittleEndian.getInt(in, inOff + 8) ^ subkeys[2];
+            int d0 = LittleEndian.getInt(in, inOff + 12) ^ subkeys[3];
+            int a1 = LittleEndian.getInt(in, inOff + 16) ^ subkeys[0];
+            int b1 = LittleEndian.getInt(in, inOff + 20) ^ subkeys[1];
+            int c1 = LittleEndian.getInt(in, inOff + 24) ^ subkeys[2];
+            int d1 = LittleEndian.getInt(in, inOff + 28) ^ subkeys[3];
+            int a2 = LittleEndian.getInt(in, inOff + 32) ^ subkeys[0];
+            int b2 = LittleEndian.getInt(in, inOff + 36) ^ subkeys[1];
+            int c2 = LittleEndian.getInt(in, inOff + 40) ^ subkeys[2];
+            int d2 = LittleEndian.getInt(in, inOff + 44) ^ subkeys[3];
+            int a3 = LittleEndian.getInt(in, inOff + 48) ^ subkeys[0];
+            int b3 = LittleEndian.getInt(in, inOff + 52) ^ subkeys[1];
+            int c3 = LittleEndian.getInt(in, inOff + 56) ^ subkeys[2];
+            int d3 = LittleEndian.getInt(in, inOff + 60) ^ subkeys[3];
+            
+            for (int round = 0; round < ROUNDS; round += 2) {
+                int k0 = subkeys[2 * round + 8];
+                int k1 = subkeys[2 * round + 9];
+                int k2 = subkeys[2 * round + 10];
+                int k3 = subkeys[2 * round + 11];
+                int x0 = g(a0);
+                int y0 = g(Integer.rotateLeft(b0, 8));
+                int x1 = g(a1);
+                int y1 = g(Integer.rotateLeft(b1, 8));
+                int x2 = g(a2);
+                int y2 = g(Integer.rotateLeft(b2, 8));
+                int x3 = g(a3);
+                int y3 = g(Integer.rotateLeft(b3, 8));
+                c0 = Integer.rotateRight(c0 ^ (x0 + y0 + k0), 1);
+                d0 = Integer.rotateLeft(d0, 1) ^ (x0 + 2 * y0 + k1);
+                c1 = Integer.rotateRight(c1 ^ (x1 + y1 + k0), 1);
+                d1 = Integer.rotateLeft(d1, 1) ^ (x1 + 2 * y1 + k1);
+                c2 = Integer.rotateRight(c2 ^ (x2 + y2 + k0), 1);
+                d2 = Integer.rotateLeft(d2, 1) ^ (x2 + 2 * y2 + k1);
+                c3 = Integer.rotateRight(c3 ^ (x3 + y3 + k0), 1);
+                d3 = Integer.rotateLeft(d3, 1) ^ (x3 + 2 * y3 + k1);
+                x0 = g(c0);
+                y0 = g(Integer.rotateLeft(d0, 8));
+                x1 = g(c1);
+                y1 = g(Integer.rotateLeft(d1, 8));
+                x2 = g(c2);
+                y2 = g(Integer.rotateLeft(d2, 8));
+                x3 = g(c3);
+                y3 = g(Integer.rotateLeft(d3, 8));
+                a0 = Integer.rotateRight(a0 ^ (x0 + y0 + k2), 1);
+                b0 = Integer.rotateLeft(b0, 1) ^ (x0 + 2 * y0 + k3);
+                a1 = Integer.rotateRight(a1 ^ (x1 + y1 + k2), 1);
+                b1 = Integer.rotateLeft(b1, 1) ^ (x1 + 2 * y1 + k3);
+                a2 = Integer.rotateRight(a2 ^ (x2 + y2 + k2), 1);
+                b2 = Integer.rotateLeft(b2, 1) ^ (x2 + 2 * y2 + k3);
+                a3 = Integer.rotateRight(a3 ^ (x3 + y3 + k2), 1);
+                b3 = Integer.rotateLeft(b3, 1) ^ (x3 + 2 * y3 + k3);
+            }
+            
+            writeWords(c0 ^ subkeys[4], d0 ^ subkeys[5], a0 ^ subkeys[6], b0 ^ subkeys[7], out, null, outOff);
+            writeWords(c1 ^ subkeys[4], d1 ^ subkeys[5], a1 ^ subkeys[6], b1 ^ subkeys[7], out, null, outOff + 16);
+            writeWords(c2 ^ subkeys[4], d2 ^ subkeys[5], a2 ^ subkeys[6], b2 ^ subkeys[7], out, null, outOff + 32);
+            writeWords(c3 ^ subkeys[4], d3 ^ subkeys[5], a3 ^ subkeys[6], b3 ^ subkeys[7], out, null, outOff + 48);
+        }
         
-        // Простое расширение ключа (в реальной реализации это сложнее)
-        int[] keyWords = bytesToWords(padKey(key));
+        // 4 независимых блоков дешифруются вперемешку: обращения к таблицам разных блоков
+        // перекрываются по задержке
+        private void decrypt4(byte[] in, int inOff, byte[] out, int outOff) {
+            int c0 = LittleEndian.getInt(in, inOff) ^ subkeys[4];
+            int d0 = LittleEndian.getInt(in, inOff + 4) ^ subkeys[5];
+            int a0 = LittleEndian.getInt(in, inOff + 8) ^ subkeys[6];
+            int b0 = LittleEndian.getInt(in, inOff + 12) ^ subkeys[7];
+            int c1 = LittleEndian.getInt(in, inOff + 16) ^ subkeys[4];
+            int d1 = LittleEndian.getInt(in, inOff + 20) ^ subkeys[5];
+            int a1 = LittleEndian.getInt(in, inOff + 24) ^ subkeys[6];
+            int b1 = LittleEndian.getInt(in, inOff + 28) ^ subkeys[7];
+            int c2 = LittleEndian.getInt(in, inOff + 32) ^ subkeys[4];
+            int d2 = LittleEndian.getInt(in, inOff + 36) ^ subkeys[5];
+            int a2 = LittleEndian.getInt(in, inOff + 40) ^ subkeys[6];
+            int b2 = LittleEndian.getInt(in, inOff + 44) ^ subkeys[7];
+            int c3 = LittleEndian.getInt(in, inOff + 48) ^ subkeys[4];
+            int d3 = LittleEndian.getInt(in, inOff + 52) ^ subkeys[5];
+            int a3 = LittleEndian.getInt(in, inOff + 56) ^ subkeys[6];
+            int b3 = LittleEndian.getInt(in, inOff + 60) ^ subkeys[7];
+            
+            for (int round = ROUNDS - 2; round >= 0; round -= 2) {
+                int k0 = subkeys[2 * round + 8];
+                int k1 = subkeys[2 * round + 9];
+                int k2 = subkeys[2 * round + 10];
+                int k3 = subkeys[2 * round + 11];
+                int x0 = g(c0);
+                int y0 = g(Integer.rotateLeft(d0, 8));
+                int x1 = g(c1);
+                int y1 = g(Integer.rotateLeft(d1, 8));
+                int x2 = g(c2);
+                int y2 = g(Integer.rotateLeft(d2, 8));
+                int x3 = g(c3);
+                int y3 = g(Integer.rotateLeft(d3, 8));
+                a0 = Integer.rotateLeft(a0, 1) ^ (x0 + y0 + k2);
+                b0 = Integer.rotateRight(b0 ^ (x0 + 2 * y0 + k3), 1);
+                a1 = Integer.rotateLeft(a1, 1) ^ (x1 + y1 + k2);
+                b1 = Integer.rotateRight(b1 ^ (x1 + 2 * y1 + k3), 1);
+                a2 = Integer.rotateLeft(a2, 1) ^ (x2 + y2 + k2);
+                b2 = Integer.rotateRight(b2 ^ (x2 + 2 * y2 + k3), 1);
+                a3 = Integer.rotateLeft(a3, 1) ^ (x3 + y3 + k2);
+                b3 = Integer.rotateRight(b3 ^ (x3 + 2 * y3 + k3), 1);
+                x0 = g(a0);
+                y0 = g(Integer.rotateLeft(b0, 8));
+                x1 = g(a1);
+                y1 = g(Integer.rotateLeft(b1, 8));
+                x2 = g(a2);
+                y2 = g(Integer.rotateLeft(b2, 8));
+                x3 = g(a3);
+                y3 = g(Integer.rotateLeft(b3, 8));
+                c0 = Integer.rotateLeft(c0, 1) ^ (x0 + y0 + k0);
+                d0 = Integer.rotateRight(d0 ^ (x0 + 2 * y0 + k1), 1);
+                c1 = Integer.rotateLeft(c1, 1) ^ (x1 + y1 + k0);
+                d1 = Integer.rotateRight(d1 ^ (x1 + 2 * y1 + k1), 1);
+                c2 = Integer.rotateLeft(c2, 1) ^ (x2 + y2 + k0);
+                d2 = Integer.rotateRight(d2 ^ (x2 + 2 * y2 + k1), 1);
+                c3 = Integer.rotateLeft(c3, 1) ^ (x3 + y3 + k0);
+                d3 = Integer.rotateRight(d3 ^ (x3 + 2 * y3 + k1), 1);
+            }
+            
+            writeWords(a0 ^ subkeys[0], b0 ^ subkeys[1], c0 ^ subkeys[2], d0 ^ subkeys[3], out, null, outOff);
+            writeWords(a1 ^ subkeys[0], b1 ^ subkeys[1], c1 ^ subkeys[2], d1 ^ subkeys[3], out, null, outOff + 16);
+            writeWords(a2 ^ subkeys[0], b2 ^ subkeys[1], c2 ^ subkeys[2], d2 ^ subkeys[3], out, null, outOff + 32);
+            writeWords(a3 ^ subkeys[0], b3 ^ subkeys[1], c3 ^ subkeys[2], d3 ^ subkeys[3], out, null, outOff + 48);
+        }
         
-        for (int i = 0; i < subkeys.length; i++) {
-            subkeys[i] = keyWords[i % keyWords.length] + i * 0x9E3779B9;
-            subkeys[i] = Integer.rotateLeft(subkeys[i], i % 32);
+        // Подключи для ядер, которые сравниваются с рабочими в бенчмарках
+        int[] subkeys() {
+            return subkeys;
         }
         
-        return subkeys;
-    }
-    
-    // Дополнение ключа до нужного размера
-    private byte[] padKey(byte[] key) {
-        byte[] padded = new byte[32]; // Максимальный размер ключа
-        System.arraycopy(key, 0, padded, 0, Math.min(key.length, 32));
-        return padded;
-    }
-    
-    // Преобразование байтов в 32-битные слова (little-endian)
-    private int[] bytesToWords(byte[] bytes) {
-        int[] words = new int[bytes.length / 4];
-        for (int i = 0; i < words.length; i++) {
-            words[i] = (bytes[4*i] & 0xFF) | 
-                      ((bytes[4*i+1] & 0xFF) << 8) | 
-                      ((bytes[4*i+2] & 0xFF) << 16) | 
-                      ((bytes[4*i+3] & 0xFF) << 24);
+        // Функция g по стратегии ключа; ветвь одна на весь срок жизни ключа и хорошо предсказывается
+        int g(int x) {
+            if (t0 != null) {
+                return t0[x & 0xFF] ^ t1[(x >>> 8) & 0xFF] ^ t2[(x >>> 16) & 0xFF] ^ t3[x >>> 24];
+            }
+            if (s0 != null) {
+                return MDS_COLUMNS[0][s0[x & 0xFF] & 0xFF] ^ MDS_COLUMNS[1][s1[(x >>> 8) & 0xFF] & 0xFF]
+                        ^ MDS_COLUMNS[2][s2[(x >>> 16) & 0xFF] & 0xFF] ^ MDS_COLUMNS[3][s3[x >>> 24] & 0xFF];
+            }
+            return h(x, sboxKey);
         }
-        return words;
-    }
-    
-    // Преобразование 32-битных слов в байты (little-endian)
-    private byte[] wordsToBytes(int[] words) {
-        byte[] bytes = new byte[words.length * 4];
-        for (int i = 0; i < words.length; i++) {
-            bytes[4*i] = (byte) words[i];
-            bytes[4*i+1] = (byte) (words[i] >>> 8);
-            bytes[4*i+2] = (byte) (words[i] >>> 16);
-            bytes[4*i+3] = (byte) (words[i] >>> 24);
+        
+        // Запись четырёх 32-битных слов в little-endian
+        private static void writeWords(int w0, int w1, int w2, int w3, byte[] out, ByteBuffer outBuffer, int outOff) {
+            if (out != null) {
+                LittleEndian.putInt(out, outOff, w0);
+                LittleEndian.putInt(out, outOff + 4, w1);
+                LittleEndian.putInt(out, outOff + 8, w2);
+                LittleEndian.putInt(out, outOff + 12, w3);
+            } else {
+                LittleEndian.putInt(outBuffer, outOff, w0);
+                LittleEndian.putInt(outBuffer, outOff + 4, w1);
+                LittleEndian.putInt(outBuffer, outOff + 8, w2);
+                LittleEndian.putInt(outBuffer, outOff + 12, w3);
+            }
         }
-        return bytes;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,356 @@
+package com.example.crypto_project.crypto;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Согласование ключа X25519 (RFC 7748): умножение точки кривой Curve25519 на скаляр
+ * лестницей Монтгомери по одной координате u.
+ * Элемент поля GF(2^255 - 19) хранится в пяти 51-битных лимбах long; произведения лимбов
+ * (до 2^110) собираются из младшей и старшей половин Math.multiplyHigh, BigInteger не используется.
+ * Лестница и выбор ветвей без условных переходов по битам секрета (cswap по маске).
+ */
+public class X25519 implements IKeyAgreement {
+
+    // Длина скаляра, координаты u и общего секрета в байтах
+    public static final int KEY_LENGTH = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final long MASK = (1L << 51) - 1;
+    // (A - 2) / 4 для Curve25519
+    private static final long A24 = 121665;
+    // Лимбы 2p: прибавляются в вычитании, чтобы результат оставался неотрицательным
+    private static final long TWO_P0 = 2 * (MASK - 18);
+    private static final long TWO_P = 2 * MASK;
+
+    // Базовая точка u = 9
+    private static final byte[] BASE_POINT = new byte[KEY_LENGTH];
+
+    static {
+        BASE_POINT[0] = 9;
+    }
+
+    private final byte[] privateKey;
+    private final byte[] publicKey;
+
+    /**
+     * Участник со случайным приватным ключом.
+     */
+    public X25519() {
+        this(randomKey());
+    }
+
+    // Участник с заданным приватным ключом (векторы RFC 7748 в тестах)
+    X25519(byte[] privateKey) {
+        if (privateKey.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Private key must be " + KEY_LENGTH + " bytes long.");
+        }
+        this.privateKey = privateKey.clone();
+        this.publicKey = scalarMult(this.privateKey, BASE_POINT);
+    }
+
+    /**
+     * @return публичный ключ: координата u точки k*9, 32 байта little-endian
+     */
+    public byte[] getPublicKey() {
+        return publicKey.clone();
+    }
+
+    @Override
+    public byte[] getEncodedPublicKey() {
+        return getPublicKey();
+    }
+
+    /**
+     * Вычисляет общий секрет на основе публичного ключа другой стороны.
+     *
+     * @param otherPartyPublicKey Публичный ключ другого участника (32 байта).
+     * @return Общий секрет (32 байта).
+     * @throws IllegalArgumentException если длина ключа неверна или ключ - точка малого порядка
+     */
+    @Override
+    public byte[] computeSharedSecret(byte[] otherPartyPublicKey) {
+        if (otherPartyPublicKey.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Public key must be " + KEY_LENGTH + " bytes long.");
+        }
+        byte[] sharedSecret = scalarMult(privateKey, otherPartyPublicKey);
+        // Нулевой секрет означает точку малого порядка (RFC 7748, раздел 6.1)
+        int acc = 0;
+        for (byte b : sharedSecret) {
+            acc |= b;
+        }
+        if (acc == 0) {
+            throw new IllegalArgumentException("Invalid public key received.");
+        }
+        return sharedSecret;
+    }
+
+    /**
+     * Функция X25519 из RFC 7748: скаляр ограничивается (clamping), старший бит u отбрасывается.
+     *
+     * @param scalar скаляр, 32 байта little-endian
+     * @param u координата u точки, 32 байта little-endian
+     * @return координата u точки scalar*u, 32 байта little-endian
+     */
+    public static byte[] scalarMult(byte[] scalar, byte[] u) {
+        if (scalar.length != KEY_LENGTH || u.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Scalar and u-coordinate must be " + KEY_LENGTH + " bytes long.");
+        }
+        byte[] k = scalar.clone();
+        k[0] &= (byte) 248;
+        k[31] &= 127;
+        k[31] |= 64;
+
+        long[] x1 = decode(u);
+        long[] x2 = {1, 0, 0, 0, 0};
+        long[] z2 = new long[5];
+        long[] x3 = x1.clone();
+        long[] z3 = {1, 0, 0, 0, 0};
+        long[] a = new long[5];
+        long[] aa = new long[5];
+        long[] b = new long[5];
+        long[] bb = new long[5];
+        long[] e = new long[5];
+        long[] c = new long[5];
+        long[] d = new long[5];
+
+        int swap = 0;
+        for (int t = 254; t >= 0; t--) {
+            int bit = (k[t >>> 3] >>> (t & 7)) & 1;
+            swap ^= bit;
+            cswap(swap, x2, x3);
+            cswap(swap, z2, z3);
+            swap = bit;
+
+            add(a, x2, z2);
+            square(aa, a);
+            sub(b, x2, z2);
+            square(bb, b);
+            sub(e, aa, bb);
+            add(c, x3, z3);
+            sub(d, x3, z3);
+            mul(d, d, a);       // DA
+            mul(c, c, b);       // CB
+            add(x3, d, c);
+            square(x3, x3);
+            sub(z3, d, c);
+            square(z3, z3);
+            mul(z3, z3, x1);
+            mul(x2, aa, bb);
+            mulSmall(z2, e, A24);
+            add(z2, z2, aa);
+            mul(z2, z2, e);
+        }
+        cswap(swap, x2, x3);
+        cswap(swap, z2, z3);
+
+        invert(z2, z2);
+        mul(x2, x2, z2);
+        Arrays.fill(k, (byte) 0);
+        return encode(x2);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    // Старший бит u отбрасывается; неканонические значения (u >= p) допустимы
+    private static long[] decode(byte[] u) {
+        return new long[]{
+                LittleEndian.getLong(u, 0) & MASK,
+                (LittleEndian.getLong(u, 6) >>> 3) & MASK,
+                (LittleEndian.getLong(u, 12) >>> 6) & MASK,
+                (LittleEndian.getLong(u, 19) >>> 1) & MASK,
+                (LittleEndian.getLong(u, 24) >>> 12) & MASK
+        };
+    }
+
+    // Полная редукция по модулю p и упаковка 255 бит
+    private static byte[] encode(long[] f) {
+        long h0 = f[0], h1 = f[1], h2 = f[2], h3 = f[3], h4 = f[4];
+        h1 += h0 >>> 51; h0 &= MASK;
+        h2 += h1 >>> 51; h1 &= MASK;
+        h3 += h2 >>> 51; h2 &= MASK;
+        h4 += h3 >>> 51; h3 &= MASK;
+        h0 += 19 * (h4 >>> 51); h4 &= MASK;
+        h1 += h0 >>> 51; h0 &= MASK;
+        // h < 2^255 + 2^51; q = 1, если h >= p (h + 19 переносится за 2^255)
+        long q = (h0 + 19) >>> 51;
+        q = (h1 + q) >>> 51;
+        q = (h2 + q) >>> 51;
+        q = (h3 + q) >>> 51;
+        q = (h4 + q) >>> 51;
+        h0 += 19 * q;
+        h1 += h0 >>> 51; h0 &= MASK;
+        h2 += h1 >>> 51; h1 &= MASK;
+        h3 += h2 >>> 51; h2 &= MASK;
+        h4 += h3 >>> 51; h3 &= MASK;
+        h4 &= MASK;
+
+        byte[] out = new byte[KEY_LENGTH];
+        LittleEndian.putLong(out, 0, h0 | (h1 << 51));
+        LittleEndian.putLong(out, 8, (h1 >>> 13) | (h2 << 38));
+        LittleEndian.putLong(out, 16, (h2 >>> 26) | (h3 << 25));
+        LittleEndian.putLong(out, 24, (h3 >>> 39) | (h4 << 12));
+        return out;
+    }
+
+    // Обмен значений при swap = 1 без ветвления
+    private static void cswap(int swap, long[] f, long[] g) {
+        long mask = -swap;
+        for (int i = 0; i < 5; i++) {
+            long x = mask & (f[i] ^ g[i]);
+            f[i] ^= x;
+            g[i] ^= x;
+        }
+    }
+
+    private static void add(long[] out, long[] f, long[] g) {
+        for (int i = 0; i < 5; i++) {
+            out[i] = f[i] + g[i];
+        }
+    }
+
+    // f - g + 2p; лимбы g не превышают лимбов 2p после умножения или возведения в квадрат
+    private static void sub(long[] out, long[] f, long[] g) {
+        out[0] = f[0] + TWO_P0 - g[0];
+        for (int i = 1; i < 5; i++) {
+            out[i] = f[i] + TWO_P - g[i];
+        }
+    }
+
+    // Лимбы входов до 2^53; out может совпадать с f или g
+    private static void mul(long[] out, long[] f, long[] g) {
+        long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        long g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4];
+        // 2^255 = 19 (mod p): старшие произведения сворачиваются умножением на 19
+        long g1x19 = 19 * g1, g2x19 = 19 * g2, g3x19 = 19 * g3, g4x19 = 19 * g4;
+
+        reduce(out,
+                lo(f0, g0) + lo(f1, g4x19) + lo(f2, g3x19) + lo(f3, g2x19) + lo(f4, g1x19),
+                hi(f0, g0) + hi(f1, g4x19) + hi(f2, g3x19) + hi(f3, g2x19) + hi(f4, g1x19),
+                lo(f0, g1) + lo(f1, g0) + lo(f2, g4x19) + lo(f3, g3x19) + lo(f4, g2x19),
+                hi(f0, g1) + hi(f1, g0) + hi(f2, g4x19) + hi(f3, g3x19) + hi(f4, g2x19),
+                lo(f0, g2) + lo(f1, g1) + lo(f2, g0) + lo(f3, g4x19) + lo(f4, g3x19),
+                hi(f0, g2) + hi(f1, g1) + hi(f2, g0) + hi(f3, g4x19) + hi(f4, g3x19),
+                lo(f0, g3) + lo(f1, g2) + lo(f2, g1) + lo(f3, g0) + lo(f4, g4x19),
+                hi(f0, g3) + hi(f1, g2) + hi(f2, g1) + hi(f3, g0) + hi(f4, g4x19),
+                lo(f0, g4) + lo(f1, g3) + lo(f2, g2) + lo(f3, g1) + lo(f4, g0),
+                hi(f0, g4) + hi(f1, g3) + hi(f2, g2) + hi(f3, g1) + hi(f4, g0));
+    }
+
+    // Квадрат: 15 произведений вместо 25
+    private static void square(long[] out, long[] f) {
+        long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        long f0x2 = 2 * f0, f1x2 = 2 * f1, f2x2 = 2 * f2, f3x2 = 2 * f3;
+        long f3x19 = 19 * f3, f4x19 = 19 * f4;
+
+        reduce(out,
+                lo(f0, f0) + lo(f1x2, f4x19) + lo(f2x2, f3x19),
+                hi(f0, f0) + hi(f1x2, f4x19) + hi(f2x2, f3x19),
+                lo(f0x2, f1) + lo(f2x2, f4x19) + lo(f3, f3x19),
+                hi(f0x2, f1) + hi(f2x2, f4x19) + hi(f3, f3x19),
+                lo(f0x2, f2) + lo(f1, f1) + lo(f3x2, f4x19),
+                hi(f0x2, f2) + hi(f1, f1) + hi(f3x2, f4x19),
+                lo(f0x2, f3) + lo(f1x2, f2) + lo(f4, f4x19),
+                hi(f0x2, f3) + hi(f1x2, f2) + hi(f4, f4x19),
+                lo(f0x2, f4) + lo(f1x2, f3) + lo(f2, f2),
+                hi(f0x2, f4) + hi(f1x2, f3) + hi(f2, f2));
+    }
+
+    // Умножение на небольшую константу (до 2^20)
+    private static void mulSmall(long[] out, long[] f, long k) {
+        reduce(out,
+                lo(f[0], k), hi(f[0], k),
+                lo(f[1], k), hi(f[1], k),
+                lo(f[2], k), hi(f[2], k),
+                lo(f[3], k), hi(f[3], k),
+                lo(f[4], k), hi(f[4], k));
+    }
+
+    // Младшие 51 бит произведения
+    private static long lo(long a, long b) {
+        return (a * b) & MASK;
+    }
+
+    // Произведение, сдвинутое на 51 бит вправо; a*b < 2^115
+    private static long hi(long a, long b) {
+        return (Math.multiplyHigh(a, b) << 13) | ((a * b) >>> 51);
+    }
+
+    // Лимб i равен hi_i * 2^51 + lo_i; перенос из старшего лимба умножается на 19
+    private static void reduce(long[] out, long lo0, long hi0, long lo1, long hi1, long lo2, long hi2,
+                               long lo3, long hi3, long lo4, long hi4) {
+        long r0 = lo0;
+        long carry = hi0 + (r0 >>> 51);
+        r0 &= MASK;
+        long r1 = lo1 + carry;
+        carry = hi1 + (r1 >>> 51);
+        r1 &= MASK;
+        long r2 = lo2 + carry;
+        carry = hi2 + (r2 >>> 51);
+        r2 &= MASK;
+        long r3 = lo3 + carry;
+        carry = hi3 + (r3 >>> 51);
+        r3 &= MASK;
+        long r4 = lo4 + carry;
+        carry = hi4 + (r4 >>> 51);
+        r4 &= MASK;
+        // carry < 2^62: 19 * carry переполнил бы long, поэтому старшая часть уходит в r1
+        r0 += 19 * (carry & MASK);
+        r1 += 19 * (carry >>> 51);
+        r1 += r0 >>> 51;
+        r0 &= MASK;
+        out[0] = r0;
+        out[1] = r1;
+        out[2] = r2;
+        out[3] = r3;
+        out[4] = r4;
+    }
+
+    private static void squareTimes(long[] out, long[] f, int n) {
+        square(out, f);
+        for (int i = 1; i < n; i++) {
+            square(out, out);
+        }
+    }
+
+    // z^(p-2) = z^(2^255 - 21) по цепочке из 254 квадратов и 11 умножений
+    private static void invert(long[] out, long[] z) {
+        long[] z2 = new long[5];
+        long[] z9 = new long[5];
+        long[] z11 = new long[5];
+        long[] z2_5_0 = new long[5];
+        long[] z2_10_0 = new long[5];
+        long[] z2_20_0 = new long[5];
+        long[] z2_50_0 = new long[5];
+        long[] z2_100_0 = new long[5];
+        long[] t = new long[5];
+
+        square(z2, z);
+        squareTimes(t, z2, 2);
+        mul(z9, t, z);
+        mul(z11, z9, z2);
+        square(t, z11);
+        mul(z2_5_0, t, z9);
+        squareTimes(t, z2_5_0, 5);
+        mul(z2_10_0, t, z2_5_0);
+        squareTimes(t, z2_10_0, 10);
+        mul(z2_20_0, t, z2_10_0);
+        squareTimes(t, z2_20_0, 20);
+        mul(t, t, z2_20_0);
+        squareTimes(t, t, 10);
+        mul(z2_50_0, t, z2_10_0);
+        squareTimes(t, z2_50_0, 50);
+        mul(z2_100_0, t, z2_50_0);
+        squareTimes(t, z2_100_0, 100);
+        mul(t, t, z2_100_0);
+        squareTimes(t, t, 50);
+        mul(t, t, z2_50_0);
+        squareTimes(t, t, 5);
+        mul(out, t, z11);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.crypto_project.crypto.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * XOR целыми векторными регистрами на jdk.incubator.vector.
+ * Класс загружается только после проверки наличия модуля (см. {@link XorUtils}).
+ */
+final class VectorXor {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorXor() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // Ширина регистра в байтах
+    static int width() {
+        return SPECIES.length();
+    }
+
+    // Обрабатывает наибольший кратный ширине регистра префикс, возвращает его длину
+    static int xor(byte[] a, int aOff, byte[] b, int bOff, byte[] out, int outOff, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            ByteVector.fromArray(SPECIES, a, aOff + i)
+                    .lanewise(VectorOperators.XOR, ByteVector.fromArray(SPECIES, b, bOff + i))
+                    .intoArray(out, outOff + i);
+        }
+        return bound;
+    }
+}
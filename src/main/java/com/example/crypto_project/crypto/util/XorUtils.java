@@ -0,0 +1,79 @@
+package com.example.crypto_project.crypto.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Поточечный XOR участков массивов и буферов для поточных режимов (CTR, OFB, CFB, CBC).
+ * Длинные участки обрабатываются векторными регистрами (ByteVector), если подключён модуль
+ * jdk.incubator.vector, остаток - словами по 8 байт через VarHandle, хвост - побайтно.
+ * Результат допускается писать поверх одного из операндов по тому же смещению.
+ */
+public final class XorUtils {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    // Порядок байт для XOR не важен, берётся родной для процессора
+    private static final VarHandle LONG_ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG_BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private XorUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * out[outOff..] = a[aOff..] ^ b[bOff..] на длине length
+     */
+    public static void xor(byte[] a, int aOff, byte[] b, int bOff, byte[] out, int outOff, int length) {
+        int i = 0;
+        if (length >= Support.VECTOR_BYTES) {
+            i = VectorXor.xor(a, aOff, b, bOff, out, outOff, length);
+        }
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            LONG_ARRAY.set(out, outOff + i,
+                    (long) LONG_ARRAY.get(a, aOff + i) ^ (long) LONG_ARRAY.get(b, bOff + i));
+        }
+        for (; i < length; i++) {
+            out[outOff + i] = (byte) (a[aOff + i] ^ b[bOff + i]);
+        }
+    }
+
+    /**
+     * XOR участков буферов (heap или direct) по абсолютным индексам; позиции и пределы не меняются.
+     * Если все три буфера - доступные для записи heap-буферы, работает как версия для массивов
+     */
+    public static void xor(ByteBuffer a, int aIndex, ByteBuffer b, int bIndex, ByteBuffer out, int outIndex, int length) {
+        if (a.hasArray() && b.hasArray() && out.hasArray()) {
+            checkIndex(a, aIndex, length);
+            checkIndex(b, bIndex, length);
+            checkIndex(out, outIndex, length);
+            xor(a.array(), a.arrayOffset() + aIndex, b.array(), b.arrayOffset() + bIndex,
+                    out.array(), out.arrayOffset() + outIndex, length);
+            return;
+        }
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            LONG_BUFFER.set(out, outIndex + i,
+                    (long) LONG_BUFFER.get(a, aIndex + i) ^ (long) LONG_BUFFER.get(b, bIndex + i));
+        }
+        for (; i < length; i++) {
+            out.put(outIndex + i, (byte) (a.get(aIndex + i) ^ b.get(bIndex + i)));
+        }
+    }
+
+    // Массив heap-буфера шире его предела, поэтому границы проверяются явно, как у get/put
+    private static void checkIndex(ByteBuffer buffer, int index, int length) {
+        if (index < 0 || length < 0 || index > buffer.limit() - length) {
+            throw new IndexOutOfBoundsException("Range [" + index + ", " + index + " + " + length
+                    + ") out of bounds for limit " + buffer.limit());
+        }
+    }
+
+    // Проверка модуля выполняется один раз; без него векторный путь отключён
+    private static final class Support {
+        static final int VECTOR_BYTES = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()
+                && VectorXor.width() > Long.BYTES ? VectorXor.width() : Integer.MAX_VALUE;
+    }
+}
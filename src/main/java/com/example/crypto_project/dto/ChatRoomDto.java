@@ -13,5 +13,6 @@ public class ChatRoomDto {
     private Long id;
     private String status;
     private String encryptionAlgorithm;
+    private String keyAgreement;
     private List<String> participants;
 }
\ No newline at end of file
@@ -10,5 +10,6 @@ public class CreateChatRequest {
     private String encryptionAlgorithm; // "RC6" или "Twofish"
     private String cipherMode;
     private String paddingMode;
+    private String keyAgreement; // "DH" (по умолчанию) или "X25519"
     private String dhPublicKey; // Публичный ключ в HEX-формате
 }
\ No newline at end of file
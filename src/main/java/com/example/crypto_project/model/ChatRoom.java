@@ -1,5 +1,6 @@
 package com.example.crypto_project.model;
 
+import com.example.crypto_project.crypto.KeyAgreementAlgorithm;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,6 +24,10 @@ public class ChatRoom {
     @Column(nullable = false)
     private String encryptionAlgorithm;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private KeyAgreementAlgorithm keyAgreement = KeyAgreementAlgorithm.DH;
+
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private Set<ChatParticipant> participants = new HashSet<>();
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.crypto_project.service;
 
+import com.example.crypto_project.crypto.CipherRegistry;
+import com.example.crypto_project.crypto.KeyAgreementAlgorithm;
 import com.example.crypto_project.dto.ChatRoomDto;
 import com.example.crypto_project.dto.CreateChatRequest;
 import com.example.crypto_project.dto.JoinChatRequest;
@@ -14,7 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -28,6 +29,7 @@ public class ChatService {
     private final ContactService contactService;
     private final NotificationService notificationService;
     private final EntityManager entityManager;
+    private final CipherRegistry cipherRegistry;
 
     @Transactional
     public ChatRoom createChatRoom(CreateChatRequest request, String initiatorUsername) {
@@ -44,16 +46,23 @@ public class ChatService {
         }
 
         // 3. Проверяем валидность алгоритма
-        if (!Arrays.asList("RC6", "Twofish").contains(request.getEncryptionAlgorithm())) {
+        if (!cipherRegistry.isSupported(request.getEncryptionAlgorithm())) {
             throw new IllegalArgumentException("Invalid encryption algorithm specified.");
         }
 
-        // 4. Создаем комнату
+        // 4. Проверяем протокол согласования ключа и публичный ключ инициатора
+        KeyAgreementAlgorithm keyAgreement = KeyAgreementAlgorithm.fromName(request.getKeyAgreement());
+        if (!keyAgreement.isValidPublicKey(request.getDhPublicKey())) {
+            throw new IllegalArgumentException("Invalid public key for " + keyAgreement + ".");
+        }
+
+        // 5. Создаем комнату
         ChatRoom chatRoom = new ChatRoom();
         chatRoom.setStatus(ChatRoomStatus.PENDING);
         chatRoom.setEncryptionAlgorithm(request.getEncryptionAlgorithm());
+        chatRoom.setKeyAgreement(keyAgreement);
 
-        // 5. Создаем участников и связываем с комнатой
+        // 6. Создаем участников и связываем с комнатой
         ChatParticipant initiatorParticipant = new ChatParticipant();
         initiatorParticipant.setUser(initiator);
         initiatorParticipant.setChatRoom(chatRoom);
@@ -108,6 +117,9 @@ public class ChatService {
         }
 
         // 5. Сохраняем его публичный ключ и активируем комнату
+        if (!chatRoom.getKeyAgreement().isValidPublicKey(request.getDhPublicKey())) {
+            throw new IllegalArgumentException("Invalid public key for " + chatRoom.getKeyAgreement() + ".");
+        }
         joiningParticipant.setDhPublicKey(request.getDhPublicKey());
         chatRoom.setStatus(ChatRoomStatus.ACTIVE);
 
@@ -135,6 +147,7 @@ public class ChatService {
                 chatRoom.getId(),
                 chatRoom.getStatus().name(),
                 chatRoom.getEncryptionAlgorithm(),
+                chatRoom.getKeyAgreement().name(),
                 chatRoom.getParticipants().stream()
                         .map(p -> p.getUser().getLogin())
                         .collect(Collectors.toList())
@@ -0,0 +1,92 @@
+package com.example.crypto_project.service;
+
+import com.example.crypto_project.crypto.CipherCalibrator;
+import com.example.crypto_project.crypto.CipherRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Service
+@Slf4j
+public class CipherCalibrationService {
+
+    private static final String AUTO = "auto";
+
+    private final CipherRegistry cipherRegistry;
+    private final String implementation;
+    private final Duration budget;
+    private final Map<String, CipherCalibrator.Result> results = new ConcurrentSkipListMap<>();
+
+    public CipherCalibrationService(CipherRegistry cipherRegistry,
+                                    @Value("${app.crypto.implementation:auto}") String implementation,
+                                    @Value("${app.crypto.calibrationMillis:300}") long calibrationMillis) {
+        this.cipherRegistry = cipherRegistry;
+        this.implementation = implementation.trim();
+        this.budget = Duration.ofMillis(calibrationMillis);
+    }
+
+    /**
+     * Выбирает реализацию каждого алгоритма после старта: замером или по закреплённому свойству.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrate() {
+        CipherCalibrator calibrator = new CipherCalibrator(budget);
+        CipherRegistry.Implementation pinned = pinnedImplementation();
+        for (String algorithm : cipherRegistry.getAlgorithms()) {
+            CipherCalibrator.Result result;
+            if (pinned == null) {
+                result = calibrator.calibrate(cipherRegistry, algorithm);
+                log.info("{}: selected {} implementation, single thread MB/s {}, parallel MB/s {}",
+                        algorithm, result.getImplementation(), format(result.getThroughput()),
+                        String.format(Locale.ROOT, "%.1f", result.getParallelThroughput()));
+            } else if (cipherRegistry.getImplementations(algorithm).contains(pinned)) {
+                result = calibrator.pin(cipherRegistry, algorithm, pinned);
+                log.info("{}: {} implementation pinned by app.crypto.implementation", algorithm, pinned);
+            } else {
+                // Закреплённой реализации у алгоритма нет - остаётся реализация по умолчанию
+                result = calibrator.pin(cipherRegistry, algorithm, cipherRegistry.describe(algorithm).getImplementation());
+                log.warn("{}: {} implementation is not available, keeping {}", algorithm, pinned, result.getImplementation());
+            }
+            results.put(algorithm, result);
+        }
+    }
+
+    /**
+     * @return итоги калибровки по алгоритмам; пусто до окончания старта приложения
+     */
+    public Collection<CipherCalibrator.Result> getResults() {
+        return Collections.unmodifiableCollection(results.values());
+    }
+
+    // null - выбор замером
+    private CipherRegistry.Implementation pinnedImplementation() {
+        if (AUTO.equalsIgnoreCase(implementation)) {
+            return null;
+        }
+        try {
+            return CipherRegistry.Implementation.valueOf(implementation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown cipher implementation: " + implementation, e);
+        }
+    }
+
+    private static String format(Map<CipherRegistry.Implementation, Double> throughput) {
+        StringBuilder sb = new StringBuilder();
+        throughput.forEach((implementation, speed) -> {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(implementation).append('=').append(String.format(Locale.ROOT, "%.1f", speed));
+        });
+        return sb.toString();
+    }
+}
@@ -170,16 +170,17 @@ function initializeApp() {
         const encryptionAlgorithm = document.getElementById('algorithm-select').value;
         const cipherMode = document.getElementById('mode-select').value;
         const paddingMode = document.getElementById('padding-select').value;
+        const keyAgreement = document.getElementById('key-agreement-select').value;
 
-        const dhKeys = DiffieHellman.generateKeys();
+        const dhKeys = keyAgreementFor(keyAgreement).generateKeys();
         const dhPublicKey = dhKeys.publicKey;
-        console.log(`Generated DH keys for new chat. Public key: ${dhPublicKey.substring(0, 20)}...`);
+        console.log(`Generated ${keyAgreement} keys for new chat. Public key: ${dhPublicKey.substring(0, 20)}...`);
 
-        const response = await createChat(contactUsername, encryptionAlgorithm, cipherMode, paddingMode, dhPublicKey);
+        const response = await createChat(contactUsername, encryptionAlgorithm, cipherMode, paddingMode, keyAgreement, dhPublicKey);
         if (response.ok) {
             const responseText = await response.text();
             const chatId = parseInt(responseText.match(/\d+/)[0]);
-            chatSessionKeys[chatId] = { privateKey: dhKeys.privateKey, sharedSecret: null };
+            chatSessionKeys[chatId] = { keyAgreement, privateKey: dhKeys.privateKey, sharedSecret: null };
             saveSessionKeys();
             console.log(`Saved private key for chat ${chatId}`);
             await loadChats();
@@ -344,9 +345,9 @@ function initializeApp() {
                     const joinButton = document.createElement('button');
                     joinButton.textContent = 'Join';
                     joinButton.onclick = async () => {
-                        const dhKeys = DiffieHellman.generateKeys();
+                        const dhKeys = keyAgreementFor(chat.keyAgreement).generateKeys();
                         const dhPublicKey = dhKeys.publicKey;
-                        chatSessionKeys[chat.id] = { privateKey: dhKeys.privateKey, sharedSecret: null };
+                        chatSessionKeys[chat.id] = { keyAgreement: chat.keyAgreement, privateKey: dhKeys.privateKey, sharedSecret: null };
                         saveSessionKeys();
                         console.log(`Generated and saved private key for joining chat ${chat.id}`);
                         await joinChat(chat.id, dhPublicKey);
@@ -405,7 +406,7 @@ function initializeApp() {
         });
     }
 
-    async function createChat(contactUsername, encryptionAlgorithm, cipherMode, paddingMode, dhPublicKey) {
+    async function createChat(contactUsername, encryptionAlgorithm, cipherMode, paddingMode, keyAgreement, dhPublicKey) {
         const token = localStorage.getItem('jwtToken');
         return await fetch('/api/chats/create', {
             method: 'POST',
@@ -413,7 +414,7 @@ function initializeApp() {
                 'Content-Type': 'application/json',
                 'Authorization': `Bearer ${token}`
             },
-            body: JSON.stringify({ contactUsername, encryptionAlgorithm, cipherMode, paddingMode, dhPublicKey })
+            body: JSON.stringify({ contactUsername, encryptionAlgorithm, cipherMode, paddingMode, keyAgreement, dhPublicKey })
         });
     }
 
@@ -656,6 +657,11 @@ function initializeApp() {
         }
     }
 
+    // Sessions saved before key agreement selection have no keyAgreement and use Diffie-Hellman
+    function keyAgreementFor(name) {
+        return name === 'X25519' ? X25519 : DiffieHellman;
+    }
+
     async function computeSharedSecretForChat(chatId) {
         if (chatSessionKeys[chatId] && chatSessionKeys[chatId].sharedSecret) {
             console.log(`Shared secret for chat ${chatId} already exists.`);
@@ -678,7 +684,7 @@ function initializeApp() {
             const theirPublicKey = await response.text();
             console.log(`Got other user's public key for chat ${chatId}: ${theirPublicKey.substring(0, 20)}...`);
 
-            const sharedSecret = DiffieHellman.computeSharedSecret(mySession.privateKey, theirPublicKey);
+            const sharedSecret = keyAgreementFor(mySession.keyAgreement).computeSharedSecret(mySession.privateKey, theirPublicKey);
             chatSessionKeys[chatId].sharedSecret = sharedSecret;
             saveSessionKeys();
             console.log(`Computed and saved shared secret for chat ${chatId}: ${sharedSecret.substring(0, 20)}...`);
@@ -68,6 +68,100 @@ const DiffieHellman = {
     }
 };
 
+// X25519 key agreement (RFC 7748); keys and shared secret are 32 bytes little-endian in HEX
+const X25519 = {
+    generateKeys: function() {
+        const privateKey = new Uint8Array(32);
+        crypto.getRandomValues(privateKey);
+        const basePoint = new Uint8Array(32);
+        basePoint[0] = 9;
+
+        return {
+            privateKey: this._toHex(privateKey),
+            publicKey: this._toHex(this._scalarMult(privateKey, basePoint))
+        };
+    },
+
+    computeSharedSecret: function(privateKeyHex, otherPublicKeyHex) {
+        const sharedSecret = this._scalarMult(this._fromHex(privateKeyHex), this._fromHex(otherPublicKeyHex));
+        // All-zero output means a small-order public key
+        if (sharedSecret.every(b => b === 0)) {
+            throw new Error('Invalid public key received.');
+        }
+        return this._toHex(sharedSecret);
+    },
+
+    _scalarMult: function(scalar, uBytes) {
+        const p = BigInt(2) ** BigInt(255) - BigInt(19);
+        const a24 = BigInt(121665);
+        const mod = (x) => ((x % p) + p) % p;
+
+        const k = scalar.slice();
+        k[0] &= 248;
+        k[31] &= 127;
+        k[31] |= 64;
+        const u = uBytes.slice();
+        u[31] &= 127;
+
+        const x1 = this._decode(u) % p;
+        let x2 = BigInt(1), z2 = BigInt(0), x3 = x1, z3 = BigInt(1);
+        let swap = 0;
+        for (let t = 254; t >= 0; t--) {
+            const bit = (k[t >> 3] >> (t & 7)) & 1;
+            if (swap ^ bit) {
+                [x2, x3] = [x3, x2];
+                [z2, z3] = [z3, z2];
+            }
+            swap = bit;
+
+            const a = mod(x2 + z2), aa = mod(a * a);
+            const b = mod(x2 - z2), bb = mod(b * b);
+            const e = mod(aa - bb);
+            const c = mod(x3 + z3), d = mod(x3 - z3);
+            const da = mod(d * a), cb = mod(c * b);
+            x3 = mod((da + cb) * (da + cb));
+            z3 = mod(x1 * mod((da - cb) * (da - cb)));
+            x2 = mod(aa * bb);
+            z2 = mod(e * (aa + a24 * e));
+        }
+        if (swap) {
+            [x2, x3] = [x3, x2];
+            [z2, z3] = [z3, z2];
+        }
+        const result = mod(x2 * DiffieHellman._modPow(z2, p - BigInt(2), p));
+        return this._encode(result);
+    },
+
+    _decode: function(bytes) {
+        let value = BigInt(0);
+        for (let i = bytes.length - 1; i >= 0; i--) {
+            value = (value << BigInt(8)) | BigInt(bytes[i]);
+        }
+        return value;
+    },
+
+    _encode: function(value) {
+        const bytes = new Uint8Array(32);
+        for (let i = 0; i < 32; i++) {
+            bytes[i] = Number(value & BigInt(255));
+            value >>= BigInt(8);
+        }
+        return bytes;
+    },
+
+    _toHex: function(bytes) {
+        return Array.from(bytes, b => b.toString(16).padStart(2, '0')).join('');
+    },
+
+    _fromHex: function(hex) {
+        const bytes = new Uint8Array(hex.length / 2);
+        for (let i = 0; i < bytes.length; i++) {
+            bytes[i] = parseInt(hex.substr(i * 2, 2), 16);
+        }
+        return bytes;
+    }
+};
+
 // RC6 implementation (simplified for client-side)
 const RC6 = {
     encrypt: function(plaintext, keyHex, ivHex) {
@@ -0,0 +1,280 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BlockCipherModesTest {
+
+    private static final CipherMode[] IMPLEMENTED_MODES = {
+        CipherMode.ECB, CipherMode.CBC, CipherMode.PCBC, CipherMode.CFB, CipherMode.OFB, CipherMode.CTR,
+        CipherMode.RANDOM_DELTA
+    };
+
+    @Test
+    @DisplayName("Every mode should restore the plaintext for lengths around block boundaries")
+    void testRoundTripAllModes() {
+        Random random = new Random(42);
+        for (ISymmetricCipher cipher : new ISymmetricCipher[]{new RC6(), new Twofish()}) {
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            byte[] key = new byte[16];
+            random.nextBytes(key);
+            byte[] iv = modes.generateIV();
+
+            for (int length : new int[]{0, 1, 15, 16, 17, 31, 32, 33, 1000}) {
+                byte[] data = new byte[length];
+                random.nextBytes(data);
+                for (CipherMode mode : IMPLEMENTED_MODES) {
+                    byte[] encrypted = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+                    byte[] decrypted = modes.decrypt(encrypted, key, iv, mode, PaddingMode.PKCS7);
+                    assertArrayEquals(data, decrypted, mode + " failed for length " + length);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Expanded key overloads should match the raw key overloads")
+    void testExpandedKeyOverloads() {
+        RC6 cipher = new RC6();
+        BlockCipherModes modes = new BlockCipherModes(cipher);
+        byte[] key = new byte[16];
+        byte[] iv = modes.generateIV();
+        byte[] data = "Expanded key reuse across messages".getBytes();
+        IExpandedKey expandedKey = cipher.init(key);
+
+        for (CipherMode mode : IMPLEMENTED_MODES) {
+            assertArrayEquals(modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7),
+                    modes.encrypt(data, expandedKey, iv, mode, PaddingMode.PKCS7));
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel execution should be byte-identical to the sequential path")
+    void testParallelMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(11);
+            RC6 cipher = new RC6();
+            BlockCipherModes sequential = new BlockCipherModes(cipher, pool, Integer.MAX_VALUE);
+            BlockCipherModes parallel = new BlockCipherModes(cipher, pool, 0);
+            byte[] key = new byte[16];
+            random.nextBytes(key);
+            byte[] iv = sequential.generateIV();
+            // Несколько порций и неполный последний блок
+            byte[] data = new byte[5 * BlockCipherModes.CHUNK_SIZE + 7];
+            random.nextBytes(data);
+
+            for (CipherMode mode : IMPLEMENTED_MODES) {
+                byte[] expected = sequential.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+                assertArrayEquals(expected, parallel.encrypt(data, key, iv, mode, PaddingMode.PKCS7),
+                        mode + " parallel encryption differs");
+                assertArrayEquals(data, parallel.decrypt(expected, key, iv, mode, PaddingMode.PKCS7),
+                        mode + " parallel decryption differs");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("ByteBuffer overloads should match byte[] for direct, offset and in-place buffers")
+    void testByteBufferOverloads() {
+        Random random = new Random(23);
+        Twofish cipher = new Twofish();
+        BlockCipherModes modes = new BlockCipherModes(cipher);
+        IExpandedKey key = cipher.init(new byte[32]);
+        byte[] iv = modes.generateIV();
+
+        for (int length : new int[]{0, 15, 16, 1001}) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            for (CipherMode mode : IMPLEMENTED_MODES) {
+                byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+
+                // direct-буферы с ненулевой позицией
+                ByteBuffer src = ByteBuffer.allocateDirect(length + 3).position(3);
+                src.put(data).position(3);
+                ByteBuffer dst = ByteBuffer.allocateDirect(expected.length + 5).position(5);
+                assertEquals(expected.length, modes.encrypt(src, dst, key, iv, mode, PaddingMode.PKCS7));
+                assertEquals(src.limit(), src.position());
+                byte[] actual = new byte[expected.length];
+                dst.flip().position(5);
+                dst.get(actual);
+                assertArrayEquals(expected, actual, mode + " direct encryption differs for length " + length);
+
+                // Дешифрование "на месте" в heap-буфере
+                ByteBuffer inPlace = ByteBuffer.wrap(expected.clone());
+                int written = modes.decrypt(inPlace, inPlace, key, iv, mode, PaddingMode.PKCS7);
+                assertArrayEquals(data, Arrays.copyOf(inPlace.array(), written),
+                        mode + " in-place decryption differs for length " + length);
+                assertEquals(written, inPlace.position());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ByteBuffer overload should reject an output buffer without room for padding")
+    void testByteBufferTooSmall() {
+        BlockCipherModes modes = new BlockCipherModes(new RC6());
+        IExpandedKey key = new RC6().init(new byte[16]);
+        byte[] iv = modes.generateIV();
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        assertThrows(IllegalArgumentException.class,
+                () -> modes.encrypt(buffer, buffer, key, iv, CipherMode.CBC, PaddingMode.PKCS7));
+    }
+
+    @Test
+    @DisplayName("Random Delta keystream block i should be E_K(IV + i*delta) with delta = E_K(IV) | 1")
+    void testRandomDeltaCounterSequence() {
+        BlockCipherModes modes = new BlockCipherModes(new RC6());
+        IExpandedKey key = new RC6().init(new byte[16]);
+        byte[] iv = new byte[16];
+        // Счётчик у верхней границы, чтобы сложение переходило через 2^128
+        Arrays.fill(iv, (byte) 0xFF);
+        // Нулевой открытый текст: шифротекст равен гамме; последний блок неполный
+        byte[] keystream = modes.encrypt(new byte[5 * 16 - 9], key, iv, CipherMode.RANDOM_DELTA, PaddingMode.PKCS7);
+
+        BigInteger modulus = BigInteger.ONE.shiftLeft(128);
+        BigInteger delta = new BigInteger(1, key.encrypt(iv)).setBit(0);
+        for (int i = 0; i * 16 < keystream.length; i++) {
+            BigInteger counter = new BigInteger(1, iv).add(delta.multiply(BigInteger.valueOf(i))).mod(modulus);
+            byte[] expected = key.encrypt(toBlock(counter, 16));
+            int length = Math.min(16, keystream.length - i * 16);
+            assertArrayEquals(Arrays.copyOf(expected, length), Arrays.copyOfRange(keystream, i * 16, i * 16 + length),
+                    "Keystream differs at block " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Random Delta jump to block n should equal n single steps")
+    void testRandomDeltaJumpMatchesSteps() {
+        Random random = new Random(13);
+        byte[] delta = new byte[16];
+        random.nextBytes(delta);
+        delta[15] |= 1;
+        byte[] stepped = new byte[16];
+        random.nextBytes(stepped);
+        byte[] jumped = stepped.clone();
+
+        for (int i = 0; i < 1000; i++) {
+            BlockCipherModes.addDelta(stepped, delta);
+        }
+        BlockCipherModes.addDelta(jumped, delta, 1000);
+        assertArrayEquals(stepped, jumped);
+    }
+
+    @Test
+    @DisplayName("CBC-CS3 should keep the length and equal CBC with the last two blocks swapped")
+    void testCiphertextStealing() {
+        Random random = new Random(17);
+        for (ISymmetricCipher cipher : new ISymmetricCipher[]{new RC6(), new Twofish()}) {
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            IExpandedKey key = cipher.init(new byte[16]);
+            byte[] iv = modes.generateIV();
+
+            for (int length : new int[]{0, 16, 17, 31, 32, 33, 48, 200, 1000}) {
+                byte[] data = new byte[length];
+                random.nextBytes(data);
+                byte[] encrypted = modes.encrypt(data, key, iv, CipherMode.CBC, PaddingMode.CTS);
+                assertEquals(length, encrypted.length);
+                assertArrayEquals(data, modes.decrypt(encrypted, key, iv, CipherMode.CBC, PaddingMode.CTS),
+                        "CTS failed for length " + length);
+
+                // Эталон: CBC по данным, дополненным нулями, затем перестановка C(n-1) и C(n)
+                int blocks = (length + 15) / 16;
+                byte[] expected = Arrays.copyOf(
+                        modes.encrypt(data, key, iv, CipherMode.CBC, PaddingMode.ZEROS), blocks * 16);
+                if (blocks >= 2) {
+                    byte[] penultimate = Arrays.copyOfRange(expected, (blocks - 2) * 16, (blocks - 1) * 16);
+                    System.arraycopy(expected, (blocks - 1) * 16, expected, (blocks - 2) * 16, 16);
+                    System.arraycopy(penultimate, 0, expected, (blocks - 1) * 16, 16);
+                }
+                assertArrayEquals(Arrays.copyOf(expected, length), encrypted, "CS3 layout differs for length " + length);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Ciphertext stealing should reject data shorter than a block and non-CBC block modes")
+    void testCiphertextStealingLimits() {
+        BlockCipherModes modes = new BlockCipherModes(new RC6());
+        byte[] key = new byte[16];
+        byte[] iv = modes.generateIV();
+        assertThrows(IllegalArgumentException.class,
+                () -> modes.encrypt(new byte[15], key, iv, CipherMode.CBC, PaddingMode.CTS));
+        assertThrows(IllegalArgumentException.class,
+                () -> modes.encrypt(new byte[32], key, iv, CipherMode.ECB, PaddingMode.CTS));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for unaligned ciphertext in padded modes")
+    void testUnalignedCiphertext() {
+        BlockCipherModes modes = new BlockCipherModes(new RC6());
+        byte[] key = new byte[16];
+        byte[] iv = modes.generateIV();
+        assertThrows(IllegalArgumentException.class,
+                () -> modes.decrypt(new byte[20], key, iv, CipherMode.CBC, PaddingMode.PKCS7));
+    }
+
+    @Test
+    @DisplayName("Modes should not allocate per block: only the result array and fixed-size scratch")
+    void testNoPerBlockAllocation() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BlockCipherModes modes = new BlockCipherModes(new RC6());
+        IExpandedKey key = new RC6().init(new byte[16]);
+        byte[] iv = modes.generateIV();
+        byte[] data = new byte[256 * 1024];
+        new Random(7).nextBytes(data);
+        // Допуск на фиксированные буферы (keystream, счётчик) и заголовки массивов
+        long slack = 4096;
+
+        for (CipherMode mode : IMPLEMENTED_MODES) {
+            // Прогрев, чтобы исключить выделения при загрузке классов
+            modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+            byte[] encrypted = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+            modes.decrypt(encrypted, key, iv, mode, PaddingMode.PKCS7);
+
+            // Векторный XOR до компиляции C2 создаёт объект на каждый регистр, поэтому замер
+            // повторяется, пока JIT не уберёт эти выделения; в зачёт идёт лучший проход
+            long encryptAllocated = Long.MAX_VALUE;
+            long decryptAllocated = Long.MAX_VALUE;
+            long encryptLimit = encrypted.length + slack;
+            // Режимы с набивкой дополнительно копируют результат без набивки
+            long decryptLimit = encrypted.length + data.length + slack;
+            for (int attempt = 0; attempt < 50
+                    && (encryptAllocated > encryptLimit || decryptAllocated > decryptLimit); attempt++) {
+                long before = threadBean.getCurrentThreadAllocatedBytes();
+                encrypted = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+                encryptAllocated = Math.min(encryptAllocated, threadBean.getCurrentThreadAllocatedBytes() - before);
+
+                before = threadBean.getCurrentThreadAllocatedBytes();
+                modes.decrypt(encrypted, key, iv, mode, PaddingMode.PKCS7);
+                decryptAllocated = Math.min(decryptAllocated, threadBean.getCurrentThreadAllocatedBytes() - before);
+            }
+            assertTrue(encryptAllocated <= encryptLimit, mode + " encryption allocated " + encryptAllocated + " bytes");
+            assertTrue(decryptAllocated <= decryptLimit, mode + " decryption allocated " + decryptAllocated + " bytes");
+        }
+    }
+
+    // Число в блок фиксированной длины (big-endian)
+    private static byte[] toBlock(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] block = new byte[length];
+        int copied = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copied, block, length - copied, copied);
+        return block;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CipherCalibratorTest {
+
+    private final CipherCalibrator calibrator = new CipherCalibrator(Duration.ofMillis(60));
+
+    @Test
+    @DisplayName("Calibration should measure every implementation and select the fastest one")
+    void testCalibrate() {
+        CipherRegistry registry = CipherRegistry.withDefaults();
+        for (String algorithm : registry.getAlgorithms()) {
+            CipherCalibrator.Result result = calibrator.calibrate(registry, algorithm);
+            assertEquals(registry.getImplementations(algorithm), result.getThroughput().keySet());
+            assertEquals(result.getImplementation(), registry.describe(algorithm).getImplementation());
+            assertEquals(result.getParallelThreshold(), registry.getParallelThreshold(algorithm));
+            double best = result.getThroughput().get(result.getImplementation());
+            result.getThroughput().values().forEach(speed -> assertTrue(speed > 0 && speed <= best));
+            assertFalse(result.isPinned());
+        }
+    }
+
+    @Test
+    @DisplayName("Pinned implementation should be selected without measuring")
+    void testPin() {
+        CipherRegistry registry = CipherRegistry.withDefaults();
+        CipherCalibrator.Result result = calibrator.pin(registry, "RC6", CipherRegistry.Implementation.SCALAR);
+        assertTrue(result.isPinned());
+        assertTrue(result.getThroughput().isEmpty());
+        assertEquals(CipherRegistry.Implementation.SCALAR, registry.describe("RC6").getImplementation());
+        assertEquals(BlockCipherModes.DEFAULT_PARALLEL_THRESHOLD, registry.getParallelThreshold("RC6"));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.select("RC6", CipherRegistry.Implementation.SCALAR, -1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> calibrator.pin(registry, "Twofish", CipherRegistry.Implementation.VECTORIZED));
+        assertThrows(IllegalArgumentException.class, () -> new CipherCalibrator(Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Every implementation of an algorithm should produce the same ciphertext")
+    void testImplementationsAgree() {
+        CipherRegistry registry = CipherRegistry.withDefaults();
+        Random random = new Random(5);
+        byte[] key = new byte[32];
+        byte[] data = new byte[4000];
+        random.nextBytes(key);
+        random.nextBytes(data);
+
+        for (String algorithm : registry.getAlgorithms()) {
+            BlockCipherModes reference = new BlockCipherModes(registry.get(algorithm));
+            byte[] iv = reference.generateIV();
+            byte[] expected = reference.encrypt(data, key, iv, CipherMode.CTR, PaddingMode.PKCS7);
+            for (CipherRegistry.Implementation implementation : registry.getImplementations(algorithm)) {
+                BlockCipherModes modes = new BlockCipherModes(registry.describe(algorithm, implementation).getCipher());
+                assertArrayEquals(expected, modes.encrypt(data, key, iv, CipherMode.CTR, PaddingMode.PKCS7),
+                        algorithm + " " + implementation + " differs");
+            }
+            assertArrayEquals(expected, registry.createModes(algorithm).encrypt(data, key, iv, CipherMode.CTR, PaddingMode.PKCS7));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CipherRegistryTest {
+
+    @Test
+    @DisplayName("Default registry should provide shared RC6 and Twofish instances with their metadata")
+    void testDefaults() {
+        CipherRegistry registry = CipherRegistry.withDefaults();
+        assertTrue(registry.isSupported("RC6"));
+        assertTrue(registry.isSupported("Twofish"));
+        assertFalse(registry.isSupported("AES"));
+        assertFalse(registry.isSupported(null));
+
+        assertSame(registry.get("RC6"), registry.get("RC6"));
+        CipherRegistry.Descriptor twofish = registry.describe("Twofish");
+        assertEquals(16, twofish.getBlockSize());
+        assertArrayEquals(new int[]{16, 24, 32}, twofish.getKeySizes());
+        assertFalse(twofish.supportsKeySize(20));
+        assertEquals(RC6Vectorized.isVectorized() ? CipherRegistry.Implementation.VECTORIZED
+                : CipherRegistry.Implementation.INTERLEAVED, registry.describe("RC6").getImplementation());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.get("DES"));
+    }
+
+    @Test
+    @DisplayName("Registered cipher should be created once and found by name")
+    void testRegister() {
+        CipherRegistry registry = new CipherRegistry();
+        int[] created = new int[1];
+        registry.register("Twofish-Zero", () -> {
+            created[0]++;
+            return new Twofish(Twofish.Keying.ZERO);
+        }, CipherRegistry.Implementation.SCALAR, 16);
+
+        ISymmetricCipher cipher = registry.get("Twofish-Zero");
+        assertSame(cipher, registry.get("Twofish-Zero"));
+        assertEquals(1, created[0]);
+        assertTrue(registry.getAlgorithms().contains("Twofish-Zero"));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.register("Empty", RC6::new, CipherRegistry.Implementation.SCALAR));
+    }
+
+    @Test
+    @DisplayName("Lookup by name should not allocate")
+    void testLookupDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CipherRegistry registry = CipherRegistry.withDefaults();
+        String name = new String("Twofish");
+        for (int i = 0; i < 10_000; i++) {
+            registry.get(name);
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            registry.get(name);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        // Допуск на сам замер; выделение на каждый поиск дало бы сотни килобайт
+        assertTrue(allocated < 1024, "Lookups allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CipherSessionTest {
+
+    private static final CipherMode[] STREAMABLE_MODES = {
+        CipherMode.ECB, CipherMode.CBC, CipherMode.PCBC, CipherMode.CFB, CipherMode.OFB, CipherMode.CTR,
+        CipherMode.RANDOM_DELTA
+    };
+
+    private final Random random = new Random(11);
+    private final RC6 cipher = new RC6();
+    private final BlockCipherModes modes = new BlockCipherModes(cipher);
+
+    @Test
+    @DisplayName("Session reused for many messages should match the one-shot API after each reset")
+    void testReusedSessionMatchesOneShot() {
+        IExpandedKey key = cipher.init(randomBytes(16));
+        for (CipherMode mode : STREAMABLE_MODES) {
+            CipherSession encryptor = CipherSession.encrypting(key, modes.generateIV(), mode, PaddingMode.PKCS7);
+            CipherSession decryptor = CipherSession.decrypting(key, modes.generateIV(), mode, PaddingMode.PKCS7);
+            for (int length : new int[]{0, 1, 16, 31, 200, 5000}) {
+                byte[] iv = modes.generateIV();
+                byte[] data = randomBytes(length);
+                byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+
+                encryptor.reset(iv);
+                assertArrayEquals(expected, encryptor.doFinal(data), mode + " encryption differs for length " + length);
+
+                decryptor.reset(iv);
+                assertArrayEquals(data, decryptor.doFinal(expected), mode + " decryption differs for length " + length);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Data fed in uneven portions should give the same result as a single call")
+    void testIncrementalUpdates() {
+        IExpandedKey key = cipher.init(randomBytes(16));
+        byte[] iv = modes.generateIV();
+        byte[] data = randomBytes(10_007);
+        for (CipherMode mode : STREAMABLE_MODES) {
+            byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.ANSI_X923);
+            CipherSession session = CipherSession.encrypting(key, iv, mode, PaddingMode.ANSI_X923);
+
+            byte[] out = new byte[session.getOutputSize(data.length)];
+            int inOff = 0;
+            int outOff = 0;
+            while (inOff < data.length) {
+                int chunk = Math.min(1 + random.nextInt(100), data.length - inOff);
+                outOff += session.update(data, inOff, chunk, out, outOff);
+                inOff += chunk;
+            }
+            outOff += session.doFinal(out, outOff);
+            assertEquals(expected.length, outOff, mode + " produced a wrong number of bytes");
+            assertArrayEquals(expected, Arrays.copyOf(out, outOff), mode + " encryption differs");
+        }
+    }
+
+    @Test
+    @DisplayName("CBC with ciphertext stealing should stream in uneven portions in both directions")
+    void testCiphertextStealingIncremental() {
+        IExpandedKey key = cipher.init(randomBytes(16));
+        byte[] iv = modes.generateIV();
+        for (int length : new int[]{16, 17, 32, 33, 10_007}) {
+            byte[] data = randomBytes(length);
+            byte[] expected = modes.encrypt(data, key, iv, CipherMode.CBC, PaddingMode.CTS);
+
+            CipherSession encryptor = CipherSession.encrypting(key, iv, CipherMode.CBC, PaddingMode.CTS);
+            assertArrayEquals(expected, feedInPortions(encryptor, data), "Encryption differs for length " + length);
+            CipherSession decryptor = CipherSession.decrypting(key, iv, CipherMode.CBC, PaddingMode.CTS);
+            assertArrayEquals(data, feedInPortions(decryptor, expected), "Decryption differs for length " + length);
+        }
+    }
+
+    @Test
+    @DisplayName("Finished session should refuse data until reset with a new IV")
+    void testFinishedSessionRequiresReset() {
+        IExpandedKey key = cipher.init(randomBytes(16));
+        CipherSession session = CipherSession.encrypting(key, modes.generateIV(), CipherMode.CTR, PaddingMode.PKCS7);
+        session.doFinal(randomBytes(20));
+
+        assertThrows(IllegalStateException.class, () -> session.doFinal(randomBytes(20)));
+        assertThrows(IllegalStateException.class, () -> session.update(new byte[4], 0, 4, new byte[4], 0));
+
+        session.reset(modes.generateIV());
+        assertEquals(20, session.doFinal(randomBytes(20)).length);
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for wrong IV or small output buffer")
+    void testInvalidArguments() {
+        IExpandedKey key = cipher.init(randomBytes(16));
+        CipherSession session = CipherSession.encrypting(key, modes.generateIV(), CipherMode.CBC, PaddingMode.PKCS7);
+
+        assertThrows(IllegalArgumentException.class, () -> session.reset(new byte[8]));
+        assertThrows(IllegalArgumentException.class, () -> session.doFinal(new byte[20], 0, 20, new byte[16], 0));
+    }
+
+    private byte[] feedInPortions(CipherSession session, byte[] data) {
+        byte[] out = new byte[session.getOutputSize(data.length)];
+        int inOff = 0;
+        int outOff = 0;
+        while (inOff < data.length) {
+            int chunk = Math.min(1 + random.nextInt(40), data.length - inOff);
+            outOff += session.update(data, inOff, chunk, out, outOff);
+            inOff += chunk;
+        }
+        outOff += session.doFinal(out, outOff);
+        return Arrays.copyOf(out, outOff);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
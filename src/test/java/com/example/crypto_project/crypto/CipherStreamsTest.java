@@ -0,0 +1,148 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class CipherStreamsTest {
+
+    private static final CipherMode[] STREAMABLE_MODES = {
+        CipherMode.ECB, CipherMode.CBC, CipherMode.PCBC, CipherMode.CFB, CipherMode.OFB, CipherMode.CTR,
+        CipherMode.RANDOM_DELTA
+    };
+
+    private final Random random = new Random(3);
+
+    @Test
+    @DisplayName("Output stream with uneven writes should match the one-shot API byte for byte")
+    void testOutputStreamMatchesOneShot() throws IOException {
+        for (ISymmetricCipher cipher : new ISymmetricCipher[]{new RC6(), new Twofish()}) {
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            IExpandedKey key = cipher.init(randomBytes(16));
+            byte[] iv = modes.generateIV();
+
+            for (int length : new int[]{0, 5, 16, 32, 100_003}) {
+                byte[] data = randomBytes(length);
+                for (CipherMode mode : STREAMABLE_MODES) {
+                    byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+
+                    ByteArrayOutputStream sink = new ByteArrayOutputStream();
+                    try (OutputStream out = BlockCipherOutputStream.encrypting(sink, key, iv, mode, PaddingMode.PKCS7)) {
+                        writeInRandomChunks(out, data);
+                    }
+                    assertArrayEquals(expected, sink.toByteArray(), mode + " encryption differs for length " + length);
+
+                    ByteArrayOutputStream plain = new ByteArrayOutputStream();
+                    try (OutputStream out = BlockCipherOutputStream.decrypting(plain, key, iv, mode, PaddingMode.PKCS7)) {
+                        writeInRandomChunks(out, expected);
+                    }
+                    assertArrayEquals(data, plain.toByteArray(), mode + " decryption differs for length " + length);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Input stream with uneven reads should match the one-shot API byte for byte")
+    void testInputStreamMatchesOneShot() throws IOException {
+        RC6 cipher = new RC6();
+        BlockCipherModes modes = new BlockCipherModes(cipher);
+        IExpandedKey key = cipher.init(randomBytes(16));
+        byte[] iv = modes.generateIV();
+        byte[] data = randomBytes(50_001);
+
+        for (CipherMode mode : STREAMABLE_MODES) {
+            for (PaddingMode paddingMode : new PaddingMode[]{PaddingMode.PKCS7, PaddingMode.ANSI_X923}) {
+                byte[] expected = modes.encrypt(data, key, iv, mode, paddingMode);
+                InputStream encrypting = BlockCipherInputStream.encrypting(
+                        new ByteArrayInputStream(data), key, iv, mode, paddingMode);
+                assertArrayEquals(expected, readInRandomChunks(encrypting), mode + " encryption differs");
+
+                InputStream decrypting = BlockCipherInputStream.decrypting(
+                        new ByteArrayInputStream(expected), key, iv, mode, paddingMode);
+                assertArrayEquals(data, readInRandomChunks(decrypting), mode + " decryption differs");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Channels should round-trip direct buffers and match the one-shot API")
+    void testChannelsMatchOneShot() throws IOException {
+        Twofish cipher = new Twofish();
+        BlockCipherModes modes = new BlockCipherModes(cipher);
+        IExpandedKey key = cipher.init(randomBytes(32));
+        byte[] iv = modes.generateIV();
+        byte[] data = randomBytes(70_000);
+
+        for (CipherMode mode : STREAMABLE_MODES) {
+            byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            try (WritableByteChannel channel = BlockCipherWritableChannel.encrypting(
+                    Channels.newChannel(sink), key, iv, mode, PaddingMode.PKCS7)) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(4093);
+                int offset = 0;
+                while (offset < data.length) {
+                    int n = Math.min(direct.capacity(), data.length - offset);
+                    direct.clear();
+                    direct.put(data, offset, n).flip();
+                    channel.write(direct);
+                    offset += n;
+                }
+            }
+            assertArrayEquals(expected, sink.toByteArray(), mode + " channel encryption differs");
+
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            try (ReadableByteChannel channel = BlockCipherReadableChannel.decrypting(
+                    Channels.newChannel(new ByteArrayInputStream(expected)), key, iv, mode, PaddingMode.PKCS7)) {
+                ByteBuffer buffer = ByteBuffer.allocate(777);
+                while (channel.read(buffer) != -1) {
+                    plain.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            }
+            assertArrayEquals(data, plain.toByteArray(), mode + " channel decryption differs");
+        }
+    }
+
+    private void writeInRandomChunks(OutputStream out, byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int n = Math.min(data.length - offset, random.nextInt(40));
+            if (n == 1) {
+                out.write(data[offset]);
+            } else {
+                out.write(data, offset, n);
+            }
+            offset += n;
+        }
+    }
+
+    private byte[] readInRandomChunks(InputStream in) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64];
+        int n;
+        while ((n = in.read(buffer, 0, 1 + random.nextInt(buffer.length))) != -1) {
+            result.write(buffer, 0, n);
+        }
+        return result.toByteArray();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CryptoMathUtilsTest {
+
+    private final Random random = new Random(21);
+
+    @Test
+    @DisplayName("Every exponentiation should match BigInteger.modPow for moduli of different widths")
+    void testMatchesBigInteger() {
+        for (int bits : new int[]{2, 63, 64, 65, 128, 521, 2048}) {
+            for (int i = 0; i < 10; i++) {
+                BigInteger modulus = new BigInteger(bits, random).setBit(bits - 1).setBit(0);
+                CryptoMathUtils.Montgomery montgomery = new CryptoMathUtils.Montgomery(modulus);
+                // Основание может быть больше модуля и отрицательным
+                BigInteger base = new BigInteger(bits + 8, random).subtract(modulus);
+                BigInteger exponent = i == 0 ? BigInteger.ZERO : new BigInteger(1 + random.nextInt(bits), random);
+                BigInteger expected = base.modPow(exponent, modulus);
+                for (CryptoMathUtils.Exponentiation exponentiation : CryptoMathUtils.Exponentiation.values()) {
+                    assertEquals(expected, montgomery.modPow(base, exponent, exponentiation),
+                            bits + "-bit " + exponentiation);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid modulus and exponent should be rejected and the context should be shared")
+    void testArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CryptoMathUtils.Montgomery(BigInteger.valueOf(1024)));
+        assertThrows(IllegalArgumentException.class, () -> new CryptoMathUtils.Montgomery(BigInteger.ONE));
+        CryptoMathUtils.Montgomery montgomery = CryptoMathUtils.montgomery(BigInteger.valueOf(1_000_003));
+        assertSame(montgomery, CryptoMathUtils.montgomery(BigInteger.valueOf(1_000_003)));
+        assertEquals(1, montgomery.getLimbs());
+        assertThrows(IllegalArgumentException.class,
+                () -> montgomery.modPow(BigInteger.TWO, BigInteger.ONE.shiftLeft(64)));
+        assertThrows(IllegalArgumentException.class,
+                () -> montgomery.modPow(BigInteger.TWO, BigInteger.valueOf(-1)));
+    }
+
+    @Test
+    @DisplayName("Exponentiation should allocate only the input copies and the result")
+    void testAllocation() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BigInteger modulus = BigInteger.probablePrime(2048, random);
+        CryptoMathUtils.Montgomery montgomery = new CryptoMathUtils.Montgomery(modulus);
+        BigInteger base = new BigInteger(2047, random);
+        BigInteger exponent = new BigInteger(2047, random);
+        montgomery.modPow(base, exponent, CryptoMathUtils.Exponentiation.FIXED_WINDOW);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        montgomery.modPow(base, exponent, CryptoMathUtils.Exponentiation.FIXED_WINDOW);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 4096, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    @DisplayName("Fixed-base table should match BigInteger.modPow for any exponent")
+    void testFixedBase() {
+        for (int bits : new int[]{64, 200, 1024}) {
+            BigInteger modulus = BigInteger.probablePrime(bits, random);
+            BigInteger base = new BigInteger(bits - 1, random);
+            CryptoMathUtils.FixedBase fixedBase = new CryptoMathUtils.Montgomery(modulus).fixedBase(base);
+            for (int i = 0; i < 20; i++) {
+                BigInteger exponent = i == 0 ? BigInteger.ZERO : new BigInteger(1 + random.nextInt(bits), random);
+                assertEquals(base.modPow(exponent, modulus), fixedBase.modPow(exponent), bits + "-bit");
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> new CryptoMathUtils.Montgomery(modulus).fixedBase(modulus));
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel generator should produce a safe prime and a group with a generator of order q")
+    void testSafePrimeGeneration() {
+        for (int threads : new int[]{1, 3}) {
+            CryptoMathUtils.SafePrime safePrime = new CryptoMathUtils.SafePrimeGenerator(threads).generate(256);
+            BigInteger p = safePrime.getP();
+            BigInteger q = safePrime.getQ();
+            assertEquals(256, p.bitLength());
+            assertEquals(p, q.shiftLeft(1).add(BigInteger.ONE));
+            assertTrue(q.isProbablePrime(64) && p.isProbablePrime(64), "Not a safe prime");
+            assertTrue(safePrime.getCandidates() > 0);
+
+            DhGroup group = safePrime.toDhGroup();
+            assertEquals(p, group.getP());
+            assertEquals(BigInteger.ONE, group.getG().modPow(q, p));
+            DiffieHellman alice = group.createParticipant();
+            DiffieHellman bob = group.createParticipant();
+            assertEquals(new BigInteger(1, alice.computeSharedSecret(bob.getPublicKey())),
+                    new BigInteger(1, bob.computeSharedSecret(alice.getPublicKey())));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CryptoMathUtils.SafePrimeGenerator(0));
+        assertThrows(IllegalArgumentException.class, () -> new CryptoMathUtils.SafePrimeGenerator(1).generate(32));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.InvalidParameterException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CryptoProjectProviderTest {
+
+    private static final CipherMode[] STREAMABLE_MODES = {
+        CipherMode.ECB, CipherMode.CBC, CipherMode.PCBC, CipherMode.CFB, CipherMode.OFB, CipherMode.CTR,
+        CipherMode.RANDOM_DELTA
+    };
+
+    private final CryptoProjectProvider provider = new CryptoProjectProvider();
+    private final Random random = new Random(3);
+
+    @Test
+    @DisplayName("javax.crypto.Cipher and CipherInputStream should match BlockCipherModes for every mode")
+    void testMatchesBlockCipherModes() throws GeneralSecurityException, IOException {
+        for (String algorithm : new String[]{"RC6", "Twofish"}) {
+            byte[] keyBytes = randomBytes(24);
+            SecretKeySpec key = new SecretKeySpec(keyBytes, algorithm);
+            ISymmetricCipher cipher = CipherRegistry.withDefaults().get(algorithm);
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            byte[] iv = modes.generateIV();
+            byte[] data = randomBytes(1000);
+
+            for (CipherMode mode : STREAMABLE_MODES) {
+                byte[] expected = modes.encrypt(data, keyBytes, iv, mode, PaddingMode.PKCS7);
+                Cipher jca = Cipher.getInstance(algorithm + "/" + mode + "/PKCS5Padding", provider);
+                jca.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+                assertArrayEquals(expected, jca.doFinal(data), algorithm + "/" + mode + " encryption differs");
+                // После doFinal шифр возвращается к состоянию после init
+                assertArrayEquals(expected, jca.doFinal(data), algorithm + "/" + mode + " repeated encryption differs");
+
+                jca.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+                try (CipherInputStream in = new CipherInputStream(new ByteArrayInputStream(expected), jca)) {
+                    assertArrayEquals(data, in.readAllBytes(), algorithm + "/" + mode + " stream decryption differs");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ByteBuffer update and doFinal should work on direct buffers")
+    void testDirectByteBuffers() throws GeneralSecurityException {
+        SecretKeySpec key = new SecretKeySpec(randomBytes(16), "RC6");
+        byte[] iv = randomBytes(16);
+        byte[] data = randomBytes(5000);
+        Cipher jca = Cipher.getInstance("RC6/CBC/PKCS5Padding", provider);
+        jca.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        byte[] expected = jca.doFinal(data);
+
+        ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+        src.put(data).flip();
+        ByteBuffer dst = ByteBuffer.allocateDirect(jca.getOutputSize(data.length));
+        src.limit(1234);
+        jca.update(src, dst);
+        src.limit(data.length);
+        jca.doFinal(src, dst);
+        assertEquals(expected.length, dst.position());
+
+        byte[] actual = new byte[expected.length];
+        dst.flip().get(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("GCM should round-trip, reject a modified tag and refuse IV reuse for encryption")
+    void testGcm() throws GeneralSecurityException {
+        SecretKeySpec key = new SecretKeySpec(randomBytes(32), "Twofish");
+        GCMParameterSpec spec = new GCMParameterSpec(128, randomBytes(12));
+        byte[] data = randomBytes(300);
+        Cipher encryptor = Cipher.getInstance("Twofish/GCM/NoPadding", provider);
+        encryptor.init(Cipher.ENCRYPT_MODE, key, spec);
+        encryptor.update(data, 0, 100);
+        byte[] encrypted = encryptor.doFinal(data, 100, 200);
+        assertEquals(data.length + 16, encrypted.length);
+        assertThrows(IllegalStateException.class, () -> encryptor.doFinal(data));
+
+        Cipher decryptor = Cipher.getInstance("Twofish/GCM/NoPadding", provider);
+        decryptor.init(Cipher.DECRYPT_MODE, key, spec);
+        assertArrayEquals(data, decryptor.doFinal(encrypted));
+        encrypted[encrypted.length - 1] ^= 1;
+        assertThrows(AEADBadTagException.class, () -> decryptor.doFinal(encrypted));
+    }
+
+    @Test
+    @DisplayName("CTS mode should keep the length and NoPadding should reject unaligned input")
+    void testCtsAndNoPadding() throws GeneralSecurityException {
+        SecretKeySpec key = new SecretKeySpec(randomBytes(16), "RC6");
+        IvParameterSpec iv = new IvParameterSpec(randomBytes(16));
+        byte[] data = randomBytes(37);
+
+        Cipher cts = Cipher.getInstance("RC6/CTS/NoPadding", provider);
+        cts.init(Cipher.ENCRYPT_MODE, key, iv);
+        byte[] encrypted = cts.doFinal(data);
+        assertEquals(data.length, encrypted.length);
+        cts.init(Cipher.DECRYPT_MODE, key, iv);
+        assertArrayEquals(data, cts.doFinal(encrypted));
+
+        Cipher noPadding = Cipher.getInstance("RC6/CBC/NoPadding", provider);
+        noPadding.init(Cipher.ENCRYPT_MODE, key, iv);
+        assertThrows(IllegalBlockSizeException.class, () -> noPadding.doFinal(data));
+    }
+
+    @Test
+    @DisplayName("Decryption with a wrong key or corrupted padding should throw BadPaddingException")
+    void testBadPadding() throws GeneralSecurityException {
+        for (String algorithm : new String[]{"RC6", "Twofish"}) {
+            SecretKeySpec key = new SecretKeySpec(randomBytes(16), algorithm);
+            IvParameterSpec iv = new IvParameterSpec(randomBytes(16));
+            // Длина кратна блоку: последний блок открытого текста - целиком набивка
+            byte[] data = randomBytes(32);
+
+            for (String padding : new String[]{"PKCS5Padding", "X923Padding"}) {
+                Cipher cipher = Cipher.getInstance(algorithm + "/CBC/" + padding, provider);
+                cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+                byte[] encrypted = cipher.doFinal(data);
+
+                cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(randomBytes(16), algorithm), iv);
+                assertThrows(BadPaddingException.class, () -> cipher.doFinal(encrypted), algorithm + " " + padding);
+
+                // Изменение предпоследнего шифроблока меняет тот же байт последнего блока открытого текста
+                byte[] corrupted = encrypted.clone();
+                corrupted[corrupted.length - 16 - 2] ^= 1;
+                cipher.init(Cipher.DECRYPT_MODE, key, iv);
+                assertThrows(BadPaddingException.class, () -> cipher.doFinal(corrupted), algorithm + " " + padding);
+                ByteBuffer output = ByteBuffer.allocate(corrupted.length);
+                assertThrows(BadPaddingException.class, () -> cipher.doFinal(ByteBuffer.wrap(corrupted), output));
+                // После ошибки шифр возвращается к состоянию после init
+                assertArrayEquals(data, cipher.doFinal(encrypted));
+            }
+
+            Cipher cipher = Cipher.getInstance(algorithm + "/CBC/PKCS5Padding", provider);
+            assertThrows(InvalidParameterException.class, () -> cipher.init(Cipher.WRAP_MODE, key, iv));
+        }
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
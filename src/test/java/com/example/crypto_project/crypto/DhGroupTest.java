@@ -0,0 +1,41 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DhGroupTest {
+
+    @Test
+    @DisplayName("Participants created from a group should agree with participants using plain modPow")
+    void testGroupParticipants() {
+        for (DhGroup group : new DhGroup[]{DhGroup.MODP_2048, DhGroup.MODP_3072}) {
+            DiffieHellman alice = group.createParticipant();
+            DiffieHellman bob = new DiffieHellman(group.getP(), group.getG());
+            DiffieHellman carol = new DiffieHellman(group, CryptoMathUtils.Exponentiation.LADDER);
+
+            assertArrayEquals(alice.computeSharedSecret(bob.getPublicKey()),
+                    bob.computeSharedSecret(alice.getPublicKey()));
+            assertArrayEquals(alice.computeSharedSecret(carol.getPublicKey()),
+                    carol.computeSharedSecret(alice.getPublicKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("Standard parameters should map to the shared group and invalid generators should be rejected")
+    void testOf() {
+        assertSame(DhGroup.MODP_2048, DhGroup.of(DhGroup.MODP_2048.getP(), BigInteger.TWO));
+        DhGroup other = DhGroup.of(DhGroup.MODP_2048.getP(), BigInteger.valueOf(5));
+        assertNotSame(DhGroup.MODP_2048, other);
+
+        BigInteger p = DhGroup.MODP_2048.getP();
+        assertThrows(IllegalArgumentException.class, () -> new DhGroup(p, BigInteger.ONE));
+        assertThrows(IllegalArgumentException.class, () -> new DhGroup(p, p.subtract(BigInteger.ONE)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DhKeyPairPoolTest {
+
+    private static final DhGroup GROUP = DhGroup.MODP_2048;
+
+    @Test
+    @DisplayName("Pool should fill to the target depth and refill after dropping to the low watermark")
+    void testRefill() throws InterruptedException {
+        try (DhKeyPairPool pool = new DhKeyPairPool(6, 2, GROUP)) {
+            awaitDepth(pool, 6);
+            Set<BigInteger> publicKeys = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 4; i++) {
+                assertTrue(publicKeys.add(pool.acquire(GROUP).getPublicKey()));
+            }
+            awaitDepth(pool, 6);
+            assertEquals(4, pool.getHits(GROUP));
+            assertEquals(0, pool.getMisses(GROUP));
+            assertEquals(0.0, pool.getMissRate(GROUP));
+        }
+    }
+
+    @Test
+    @DisplayName("Empty pool should generate synchronously and count a miss")
+    void testFallback() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        // Исполнитель занят, пополнение не начинается
+        executor.execute(() -> awaitQuietly(release));
+        try (DhKeyPairPool pool = new DhKeyPairPool(executor, 4, 1, GROUP)) {
+            DiffieHellman alice = pool.acquire(GROUP);
+            DiffieHellman bob = new DiffieHellman(GROUP);
+            assertArrayEquals(alice.computeSharedSecret(bob.getPublicKey()),
+                    bob.computeSharedSecret(alice.getPublicKey()));
+            assertEquals(1, pool.getMisses(GROUP));
+            assertEquals(1.0, pool.getMissRate(GROUP));
+            release.countDown();
+            awaitDepth(pool, 4);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new DhKeyPairPool(4, 4, GROUP));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DhKeyPairPool(4, 1).acquire(GROUP));
+    }
+
+    @Test
+    @DisplayName("Concurrent consumers should never receive the same pair twice")
+    void testPairsHandedOutOnce() throws Exception {
+        ExecutorService consumers = Executors.newFixedThreadPool(4);
+        try (DhKeyPairPool pool = new DhKeyPairPool(8, 4, GROUP)) {
+            awaitDepth(pool, 8);
+            Set<BigInteger> publicKeys = ConcurrentHashMap.newKeySet();
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(consumers.submit(() -> publicKeys.add(pool.acquire(GROUP).getPublicKey())));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(), "Pair handed out twice");
+            }
+            assertEquals(16, pool.getHits(GROUP) + pool.getMisses(GROUP));
+        } finally {
+            consumers.shutdownNow();
+        }
+    }
+
+    private static void awaitDepth(DhKeyPairPool pool, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (pool.getDepth(GROUP) < depth) {
+            assertTrue(System.nanoTime() < deadline, "Pool was not refilled");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,9 +4,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigInteger;
+import java.util.HexFormat;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DiffieHellmanTest {
 
@@ -53,4 +57,38 @@ public class DiffieHellmanTest {
         assertNotNull(bobsSharedSecret);
         assertArrayEquals(alicesSharedSecret, bobsSharedSecret, "Shared secrets must be identical!");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Parties using BigInteger and Montgomery exponentiation should agree")
+    void testMontgomeryExponentiation() {
+        // RFC 2409, группа 2 (1024 бит): нечётный модуль для движка Монтгомери
+        BigInteger p = new BigInteger(
+            "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
+            "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
+            "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
+            "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED" +
+            "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE65381" +
+            "FFFFFFFFFFFFFFFF", 16);
+        BigInteger g = BigInteger.valueOf(2);
+
+        DiffieHellman reference = new DiffieHellman(p, g);
+        for (CryptoMathUtils.Exponentiation exponentiation : CryptoMathUtils.Exponentiation.values()) {
+            DiffieHellman party = new DiffieHellman(p, g, exponentiation);
+            assertArrayEquals(reference.computeSharedSecret(party.getPublicKey()),
+                    party.computeSharedSecret(reference.getPublicKey()), exponentiation + " secret differs");
+        }
+    }
+
+    @Test
+    @DisplayName("Encoded public keys should have the modulus length and give the same shared secret")
+    void testEncodedPublicKey() {
+        IKeyAgreement alice = KeyAgreementAlgorithm.DH.createParticipant();
+        DiffieHellman bob = DhGroup.MODP_3072.createParticipant();
+        assertEquals(384, alice.getEncodedPublicKey().length);
+        assertEquals(bob.getPublicKey(), new BigInteger(1, bob.getEncodedPublicKey()));
+        assertArrayEquals(alice.computeSharedSecret(bob.getEncodedPublicKey()),
+                bob.computeSharedSecret(alice.getEncodedPublicKey()));
+        assertTrue(KeyAgreementAlgorithm.DH.isValidPublicKey(HexFormat.of().formatHex(alice.getEncodedPublicKey())));
+        assertFalse(KeyAgreementAlgorithm.DH.isValidPublicKey("a".repeat(769)));
+    }
+}
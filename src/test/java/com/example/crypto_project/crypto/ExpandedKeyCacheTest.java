@@ -0,0 +1,149 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExpandedKeyCacheTest {
+
+    private final Random random = new Random(11);
+    private final ISymmetricCipher cipher = new Twofish();
+    private final byte[] block = new byte[16];
+    private long now;
+
+    @Test
+    @DisplayName("BlockCipherModes with a cache should match uncached results and count hits and misses")
+    void testBlockCipherModesUsesCache() {
+        ExpandedKeyCache cache = new ExpandedKeyCache(16, Duration.ofMinutes(1), () -> now);
+        for (ISymmetricCipher algorithm : new ISymmetricCipher[]{new RC6(), new Twofish()}) {
+            BlockCipherModes plain = new BlockCipherModes(algorithm);
+            BlockCipherModes cached = new BlockCipherModes(algorithm, ForkJoinPool.commonPool(),
+                    BlockCipherModes.DEFAULT_PARALLEL_THRESHOLD, cache);
+            byte[] key = randomBytes(32);
+            byte[] iv = plain.generateIV();
+            byte[] data = randomBytes(1000);
+            for (CipherMode mode : new CipherMode[]{CipherMode.CBC, CipherMode.CTR, CipherMode.GCM}) {
+                byte[] expected = plain.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+                assertArrayEquals(expected, cached.encrypt(data, key, iv, mode, PaddingMode.PKCS7));
+                assertArrayEquals(data, cached.decrypt(expected, key, iv, mode, PaddingMode.PKCS7));
+            }
+        }
+        // Ключ разворачивается один раз на шифр
+        assertEquals(2, cache.getMisses());
+        assertEquals(10, cache.getHits());
+        assertEquals(2, cache.getSize());
+
+        // Режимы из реестра работают через тот же кэш
+        BlockCipherModes fromRegistry = CipherRegistry.withDefaults().createModes("Twofish", cache);
+        byte[] key = randomBytes(16);
+        byte[] iv = fromRegistry.generateIV();
+        byte[] encrypted = fromRegistry.encrypt(block, key, iv, CipherMode.CTR, PaddingMode.PKCS7);
+        assertArrayEquals(block, fromRegistry.decrypt(encrypted, key, iv, CipherMode.CTR, PaddingMode.PKCS7));
+        assertEquals(3, cache.getMisses());
+        assertEquals(11, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("GCM tables of a cached key should be wiped together with the key")
+    void testGcmTablesWipedOnEviction() {
+        ExpandedKeyCache cache = new ExpandedKeyCache(16, Duration.ofSeconds(10), () -> now);
+        byte[] key = randomBytes(16);
+        byte[] iv = randomBytes(12);
+        byte[] data = randomBytes(100);
+        byte[] expected = new BlockCipherModes(cipher).encrypt(data, key, iv, CipherMode.GCM, PaddingMode.PKCS7);
+        GaloisCounterMode gcm = cache.withGaloisCounterMode(cipher, key, g -> g);
+        assertSame(gcm, cache.withGaloisCounterMode(cipher, key, g -> g));
+        assertArrayEquals(expected, gcm.encrypt(data, iv));
+
+        now += Duration.ofSeconds(11).toNanos();
+        cache.evictIdle();
+        assertFalse(Arrays.equals(expected, gcm.encrypt(data, iv)), "Evicted GCM tables should be wiped");
+        assertArrayEquals(expected, cache.withGaloisCounterMode(cipher, key, g -> g.encrypt(data, iv)));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Least recently used key should be evicted and wiped when the cache is full")
+    void testSizeEviction() {
+        ExpandedKeyCache cache = new ExpandedKeyCache(2, Duration.ofMinutes(1), () -> now);
+        byte[] first = randomBytes(16);
+        byte[] expected = cipher.init(first).encrypt(block);
+        IExpandedKey firstKey = cache.withKey(cipher, first, key -> key);
+        cache.withKey(cipher, randomBytes(16), key -> key);
+        // Повторное обращение делает первый ключ самым свежим
+        assertSame(firstKey, cache.withKey(cipher, first, key -> key));
+        cache.withKey(cipher, randomBytes(16), key -> key);
+        assertEquals(1, cache.getEvictions());
+        assertArrayEquals(expected, firstKey.encrypt(block));
+
+        cache.withKey(cipher, randomBytes(16), key -> key);
+        assertEquals(2, cache.getEvictions());
+        assertEquals(2, cache.getSize());
+        assertFalse(Arrays.equals(expected, firstKey.encrypt(block)), "Evicted key should be wiped");
+    }
+
+    @Test
+    @DisplayName("Idle key should be evicted, and a key in use should be wiped only after release")
+    void testIdleEviction() {
+        ExpandedKeyCache cache = new ExpandedKeyCache(16, Duration.ofSeconds(10), () -> now);
+        byte[] key = randomBytes(24);
+        byte[] expected = cipher.init(key).encrypt(block);
+
+        byte[] insideUse = cache.withKey(cipher, key, expanded -> {
+            now += Duration.ofSeconds(11).toNanos();
+            cache.evictIdle();
+            assertEquals(0, cache.getSize());
+            return expanded.encrypt(block);
+        });
+        assertArrayEquals(expected, insideUse);
+        assertEquals(1, cache.getEvictions());
+
+        IExpandedKey expanded = cache.withKey(cipher, key, k -> k);
+        now += Duration.ofSeconds(5).toNanos();
+        cache.withKey(cipher, randomBytes(16), k -> k);
+        assertEquals(2, cache.getSize());
+        now += Duration.ofSeconds(6).toNanos();
+        cache.withKey(cipher, randomBytes(16), k -> k);
+        assertEquals(2, cache.getSize());
+        assertFalse(Arrays.equals(expected, expanded.encrypt(block)), "Idle key should be wiped");
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(4, cache.getMisses());
+        assertThrows(IllegalArgumentException.class, () -> new ExpandedKeyCache(0, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Idle key should be evicted and wiped in the background without cache accesses")
+    void testScheduledIdleEviction() throws InterruptedException {
+        try (ExpandedKeyCache cache = new ExpandedKeyCache(16, Duration.ofMillis(50))) {
+            byte[] key = randomBytes(16);
+            byte[] expected = cipher.init(key).encrypt(block);
+            IExpandedKey expanded = cache.withKey(cipher, key, k -> k);
+            // getSize не вытесняет сам, поэтому запись может убрать только фоновый поток
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (cache.getSize() > 0 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, cache.getSize());
+            assertEquals(1, cache.getEvictions());
+            assertFalse(Arrays.equals(expected, expanded.encrypt(block)), "Idle key should be wiped");
+        }
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FileCipherTest {
+
+    private static final CipherMode[] STREAMABLE_MODES = {
+        CipherMode.ECB, CipherMode.CBC, CipherMode.PCBC, CipherMode.CFB, CipherMode.OFB, CipherMode.CTR,
+        CipherMode.RANDOM_DELTA
+    };
+
+    @Test
+    @DisplayName("Mapped file encryption over several windows should match the one-shot API")
+    void testFileMatchesOneShot() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Path dir = Files.createTempDirectory("file-cipher");
+        try {
+            Random random = new Random(5);
+            RC6 cipher = new RC6();
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            IExpandedKey key = cipher.init(new byte[16]);
+            byte[] iv = modes.generateIV();
+            // Маленькое окно, чтобы проверить и параллельный путь, и перенос состояния между окнами
+            FileCipher fileCipher = new FileCipher(pool, BlockCipherModes.CHUNK_SIZE * 2);
+
+            for (int length : new int[]{0, 17, BlockCipherModes.CHUNK_SIZE * 2, BlockCipherModes.CHUNK_SIZE * 5 + 9}) {
+                byte[] data = new byte[length];
+                random.nextBytes(data);
+                Path plain = Files.write(dir.resolve("plain"), data);
+                Path encrypted = dir.resolve("encrypted");
+                Path decrypted = dir.resolve("decrypted");
+
+                for (CipherMode mode : STREAMABLE_MODES) {
+                    byte[] expected = modes.encrypt(data, key, iv, mode, PaddingMode.PKCS7);
+                    long written = fileCipher.encrypt(plain, encrypted, key, iv, mode, PaddingMode.PKCS7);
+                    assertEquals(expected.length, written);
+                    assertArrayEquals(expected, Files.readAllBytes(encrypted), mode + " encryption differs for length " + length);
+
+                    fileCipher.decrypt(encrypted, decrypted, key, iv, mode, PaddingMode.PKCS7);
+                    assertArrayEquals(data, Files.readAllBytes(decrypted), mode + " decryption differs for length " + length);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
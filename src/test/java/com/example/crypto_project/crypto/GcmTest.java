@@ -0,0 +1,171 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GcmTest {
+
+    private final Random random = new Random(5);
+
+    @Test
+    @DisplayName("GCM over AES should match the JDK AES/GCM/NoPadding for 96-bit and 128-bit IVs")
+    void testMatchesJdkAesGcm() throws GeneralSecurityException {
+        byte[] keyBytes = randomBytes(16);
+        SecretKeySpec secretKey = new SecretKeySpec(keyBytes, "AES");
+        GaloisCounterMode gcm = new GaloisCounterMode(new AesKey(secretKey));
+
+        for (int ivLength : new int[]{12, 16}) {
+            for (int length : new int[]{0, 1, 15, 16, 17, 1023, 1024, 1025, 5000}) {
+                byte[] iv = randomBytes(ivLength);
+                byte[] data = randomBytes(length);
+                Cipher jdk = Cipher.getInstance("AES/GCM/NoPadding");
+                jdk.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(128, iv));
+
+                byte[] encrypted = gcm.encrypt(data, iv);
+                assertArrayEquals(jdk.doFinal(data), encrypted,
+                        "IV " + ivLength + " bytes, length " + length);
+                assertArrayEquals(data, gcm.decrypt(encrypted, iv));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("RC6 and Twofish should round-trip through GCM and append a 16-byte tag")
+    void testRoundTrip() {
+        for (ISymmetricCipher cipher : new ISymmetricCipher[]{new RC6(), new Twofish()}) {
+            BlockCipherModes modes = new BlockCipherModes(cipher);
+            IExpandedKey key = cipher.init(randomBytes(32));
+            byte[] iv = modes.generateIV();
+            for (int length : new int[]{0, 7, 16, 100_000}) {
+                byte[] data = randomBytes(length);
+                byte[] encrypted = modes.encrypt(data, key, iv, CipherMode.GCM, PaddingMode.PKCS7);
+                assertEquals(length + GaloisCounterMode.TAG_LENGTH, encrypted.length);
+                assertArrayEquals(data, modes.decrypt(encrypted, key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Any modified byte, wrong IV or short input should fail authentication")
+    void testTamperDetection() {
+        RC6 cipher = new RC6();
+        BlockCipherModes modes = new BlockCipherModes(cipher);
+        IExpandedKey key = cipher.init(randomBytes(16));
+        byte[] iv = modes.generateIV();
+        byte[] encrypted = modes.encrypt(randomBytes(100), key, iv, CipherMode.GCM, PaddingMode.PKCS7);
+
+        for (int i = 0; i < encrypted.length; i += 13) {
+            byte[] tampered = encrypted.clone();
+            tampered[i] ^= 1;
+            assertThrows(SecurityException.class,
+                    () -> modes.decrypt(tampered, key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+        }
+        byte[] otherIv = modes.generateIV();
+        assertThrows(SecurityException.class,
+                () -> modes.decrypt(encrypted, key, otherIv, CipherMode.GCM, PaddingMode.PKCS7));
+        assertThrows(IllegalArgumentException.class,
+                () -> modes.decrypt(new byte[15], key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+    }
+
+    @Test
+    @DisplayName("ByteBuffer overloads should process GCM messages in heap and direct buffers, also in place")
+    void testByteBuffers() {
+        BlockCipherModes modes = new BlockCipherModes(new Twofish());
+        IExpandedKey key = new Twofish().init(randomBytes(32));
+        byte[] iv = randomBytes(12);
+        byte[] data = randomBytes(333);
+        byte[] expected = modes.encrypt(data, key, iv, CipherMode.GCM, PaddingMode.PKCS7);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+        direct.put(data).flip();
+        ByteBuffer inPlace = direct.duplicate().limit(expected.length);
+        assertEquals(expected.length, modes.encrypt(direct, inPlace, key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+        assertEquals(direct.limit(), direct.position());
+        byte[] actual = new byte[expected.length];
+        direct.clear().get(actual);
+        assertArrayEquals(expected, actual);
+
+        ByteBuffer plain = ByteBuffer.allocate(data.length);
+        assertEquals(data.length, modes.decrypt(ByteBuffer.wrap(expected), plain, key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+        assertArrayEquals(data, plain.array());
+
+        // При неверном теге dst не меняется
+        byte[] tampered = expected.clone();
+        tampered[0] ^= 1;
+        ByteBuffer untouched = ByteBuffer.allocate(data.length);
+        assertThrows(SecurityException.class,
+                () -> modes.decrypt(ByteBuffer.wrap(tampered), untouched, key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+        assertEquals(0, untouched.position());
+        assertArrayEquals(new byte[data.length], untouched.array());
+        assertThrows(IllegalArgumentException.class, () -> modes.encrypt(ByteBuffer.wrap(data),
+                ByteBuffer.allocate(data.length), key, iv, CipherMode.GCM, PaddingMode.PKCS7));
+    }
+
+    @Test
+    @DisplayName("Incremental APIs should refuse GCM with IllegalArgumentException")
+    void testStreamingUnsupported() {
+        IExpandedKey key = new RC6().init(new byte[16]);
+        assertThrows(IllegalArgumentException.class,
+                () -> CipherSession.encrypting(key, new byte[16], CipherMode.GCM, PaddingMode.PKCS7));
+        assertThrows(IllegalArgumentException.class, () -> BlockCipherInputStream.decrypting(
+                new java.io.ByteArrayInputStream(new byte[0]), key, new byte[16], CipherMode.GCM, PaddingMode.PKCS7));
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    // Эталонный блочный шифр AES из JDK для сверки с AES/GCM
+    private static final class AesKey implements IExpandedKey {
+
+        private final Cipher cipher;
+
+        AesKey(SecretKeySpec key) throws GeneralSecurityException {
+            cipher = Cipher.getInstance("AES/ECB/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+        }
+
+        @Override
+        public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            try {
+                cipher.doFinal(Arrays.copyOfRange(in, inOff, inOff + 16), 0, 16, out, outOff);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void encryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void decryptBlock(ByteBuffer in, int inIndex, ByteBuffer out, int outIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getBlockSize() {
+            return 16;
+        }
+    }
+}
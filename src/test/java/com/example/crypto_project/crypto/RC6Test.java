@@ -4,7 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class RC6Test {
@@ -21,12 +25,10 @@ public class RC6Test {
     @Test
     @DisplayName("Test RC6-128 encryption and decryption with known vector 1")
     void testRC6_128_Vector1() {
-        // !!! ВАЖНО: Замените эти значения на реальные тестовые векторы RC6-128 !!!
-        // Пример (эти значения НЕ являются реальными тестовыми векторами RC6,
-        // их нужно найти в официальной документации RC6):
-        byte[] key = hexStringToByteArray("000102030405060708090A0B0C0D0E0F"); // 16-байтовый ключ (128 бит)
-        byte[] plaintext = hexStringToByteArray("00112233445566778899AABBCCDDEEFF"); // 16-байтовый открытый текст
-        byte[] expectedCiphertext = hexStringToByteArray("A1B2C3D4E5F67890123456789ABCDEF0"); // Ожидаемый шифротекст
+        // Тестовый вектор из спецификации RC6 (Rivest et al.)
+        byte[] key = hexStringToByteArray("0123456789ABCDEF0112233445566778"); // 16-байтовый ключ (128 бит)
+        byte[] plaintext = hexStringToByteArray("02132435465768798A9BACBDCEDFE0F1"); // 16-байтовый открытый текст
+        byte[] expectedCiphertext = hexStringToByteArray("524E192F4715C6231F51F6367EA43F18"); // Ожидаемый шифротекст
 
         byte[] actualCiphertext = rc6.encrypt(plaintext, key);
         assertArrayEquals(expectedCiphertext, actualCiphertext, "Encryption failed for vector 1");
@@ -38,10 +40,10 @@ public class RC6Test {
     @Test
     @DisplayName("Test RC6-192 encryption and decryption with known vector 2")
     void testRC6_192_Vector2() {
-        // !!! ВАЖНО: Замените эти значения на реальные тестовые векторы RC6-192 !!!
-        byte[] key = hexStringToByteArray("000102030405060708090A0B0C0D0E0F1011121314151617"); // 24-байтовый ключ (192 бит)
-        byte[] plaintext = hexStringToByteArray("00112233445566778899AABBCCDDEEFF"); // 16-байтовый открытый текст
-        byte[] expectedCiphertext = hexStringToByteArray("B1C2D3E4F5A67890123456789ABCDEF0"); // Ожидаемый шифротекст
+        // Тестовый вектор из спецификации RC6 (Rivest et al.)
+        byte[] key = hexStringToByteArray("0123456789ABCDEF0112233445566778899AABBCCDDEEFF0"); // 24-байтовый ключ (192 бит)
+        byte[] plaintext = hexStringToByteArray("02132435465768798A9BACBDCEDFE0F1"); // 16-байтовый открытый текст
+        byte[] expectedCiphertext = hexStringToByteArray("688329D019E505041E52E92AF95291D4"); // Ожидаемый шифротекст
 
         byte[] actualCiphertext = rc6.encrypt(plaintext, key);
         assertArrayEquals(expectedCiphertext, actualCiphertext, "Encryption failed for vector 2");
@@ -53,10 +55,10 @@ public class RC6Test {
     @Test
     @DisplayName("Test RC6-256 encryption and decryption with known vector 3")
     void testRC6_256_Vector3() {
-        // !!! ВАЖНО: Замените эти значения на реальные тестовые векторы RC6-256 !!!
-        byte[] key = hexStringToByteArray("000102030405060708090A0B0C0D0E0F101112131415161718191A1B1C1D1E1F"); // 32-байтовый ключ (256 бит)
-        byte[] plaintext = hexStringToByteArray("00112233445566778899AABBCCDDEEFF"); // 16-байтовый открытый текст
-        byte[] expectedCiphertext = hexStringToByteArray("C1D2E3F4A5B67890123456789ABCDEF0"); // Ожидаемый шифротекст
+        // Тестовый вектор из спецификации RC6 (Rivest et al.)
+        byte[] key = hexStringToByteArray("0123456789ABCDEF0112233445566778899AABBCCDDEEFF01032547698BADCFE"); // 32-байтовый ключ (256 бит)
+        byte[] plaintext = hexStringToByteArray("02132435465768798A9BACBDCEDFE0F1"); // 16-байтовый открытый текст
+        byte[] expectedCiphertext = hexStringToByteArray("C8241816F0D7E48920AD16A1674E5D48"); // Ожидаемый шифротекст
 
         byte[] actualCiphertext = rc6.encrypt(plaintext, key);
         assertArrayEquals(expectedCiphertext, actualCiphertext, "Encryption failed for vector 3");
@@ -65,6 +67,85 @@ public class RC6Test {
         assertArrayEquals(plaintext, actualDecryptedText, "Decryption failed for vector 3");
     }
 
+    @Test
+    @DisplayName("Expanded key should produce the same result as per-call key expansion")
+    void testExpandedKeyMatchesPerCallExpansion() {
+        byte[] key = hexStringToByteArray("0123456789ABCDEF0112233445566778");
+        byte[] plaintext = hexStringToByteArray("02132435465768798A9BACBDCEDFE0F1");
+
+        IExpandedKey expandedKey = rc6.init(key);
+        assertArrayEquals(rc6.encrypt(plaintext, key), expandedKey.encrypt(plaintext));
+        assertArrayEquals(plaintext, expandedKey.decrypt(expandedKey.encrypt(plaintext)));
+    }
+
+    @Test
+    @DisplayName("ByteBuffer encryption should match the known vector for direct and in-place buffers")
+    void testByteBufferKnownVector() {
+        IExpandedKey key = rc6.init(hexStringToByteArray("0123456789ABCDEF0112233445566778"));
+        byte[] plaintext = hexStringToByteArray("02132435465768798A9BACBDCEDFE0F1");
+        byte[] expectedCiphertext = hexStringToByteArray("524E192F4715C6231F51F6367EA43F18");
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(16).put(plaintext).flip();
+        assertEquals(16, key.encrypt(direct, direct));
+        byte[] actual = new byte[16];
+        direct.flip().get(actual);
+        assertArrayEquals(expectedCiphertext, actual);
+
+        ByteBuffer heap = ByteBuffer.wrap(expectedCiphertext.clone());
+        key.decrypt(heap, heap);
+        assertArrayEquals(plaintext, heap.array());
+    }
+
+    @Test
+    @DisplayName("Interleaved multi-block kernels should match single-block encryption")
+    void testInterleavedKernelsMatchSingleBlock() {
+        Random random = new Random(17);
+        byte[] key = new byte[16];
+        random.nextBytes(key);
+        RC6.ExpandedKey expandedKey = (RC6.ExpandedKey) rc6.init(key);
+        // 13 блоков: проход по 8, по 4 и одиночный хвост
+        byte[] data = new byte[13 * 16];
+        random.nextBytes(data);
+        byte[] expected = new byte[data.length];
+        for (int i = 0; i < data.length; i += 16) {
+            expandedKey.encryptBlock(data, i, expected, i);
+        }
+
+        for (int interleave : new int[]{1, 4, 8}) {
+            byte[] actual = new byte[data.length];
+            expandedKey.encryptBlocks(data, 0, actual, 0, 13, interleave);
+            assertArrayEquals(expected, actual, "Encryption differs for interleave " + interleave);
+
+            expandedKey.decryptBlocks(actual, 0, actual, 0, 13, interleave);
+            assertArrayEquals(data, actual, "In-place decryption differs for interleave " + interleave);
+        }
+    }
+
+    @Test
+    @DisplayName("Vectorized RC6 should produce the same output as scalar RC6")
+    void testVectorizedMatchesScalar() {
+        Random random = new Random(29);
+        RC6Vectorized vectorized = new RC6Vectorized();
+        for (int keySize : new int[]{16, 24, 32}) {
+            byte[] key = new byte[keySize];
+            random.nextBytes(key);
+            IExpandedKey scalarKey = rc6.init(key);
+            IExpandedKey vectorKey = vectorized.init(key);
+            // 37 блоков: несколько полных групп для любой ширины регистра и скалярный хвост
+            byte[] data = new byte[37 * 16];
+            random.nextBytes(data);
+            byte[] expected = new byte[data.length];
+            scalarKey.encryptBlocks(data, 0, expected, 0, 37);
+
+            byte[] actual = new byte[data.length];
+            vectorKey.encryptBlocks(data, 0, actual, 0, 37);
+            assertArrayEquals(expected, actual, "Encryption differs for key size " + keySize);
+
+            vectorKey.decryptBlocks(actual, 0, actual, 0, 37);
+            assertArrayEquals(data, actual, "In-place decryption differs for key size " + keySize);
+        }
+    }
+
     // --- Тесты для обработки ошибок ---
 
     @Test
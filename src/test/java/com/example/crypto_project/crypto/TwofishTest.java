@@ -15,6 +15,89 @@ public class TwofishTest {
         twofish = new Twofish();
     }
 
+    // --- Официальные тестовые векторы (ecb_tbl.txt, ecb_ival.txt) ---
+
+    @Test
+    @DisplayName("Test Twofish-128 known answer: zero key and plaintext")
+    void testKnownAnswer128() {
+        assertKnownAnswer("00000000000000000000000000000000",
+                "00000000000000000000000000000000", "9F589F5CF6122C32B6BFEC2F2AE8C35A");
+        assertKnownAnswer("00000000000000000000000000000000",
+                "9F589F5CF6122C32B6BFEC2F2AE8C35A", "D491DB16E7B1C39E86CB086B789F5419");
+    }
+
+    @Test
+    @DisplayName("Test Twofish-192 known answers")
+    void testKnownAnswer192() {
+        assertKnownAnswer("0123456789ABCDEFFEDCBA98765432100011223344556677",
+                "00000000000000000000000000000000", "CFD1D2E5A9BE9CDF501F13B892BD2248");
+        assertKnownAnswer("000000000000000000000000000000000000000000000000",
+                "00000000000000000000000000000000", "EFA71F788965BD4453F860178FC19101");
+    }
+
+    @Test
+    @DisplayName("Test Twofish-256 known answers")
+    void testKnownAnswer256() {
+        assertKnownAnswer("0123456789ABCDEFFEDCBA987654321000112233445566778899AABBCCDDEEFF",
+                "00000000000000000000000000000000", "37527BE0052334B89F0CFCCAE87CFA20");
+        assertKnownAnswer("0000000000000000000000000000000000000000000000000000000000000000",
+                "00000000000000000000000000000000", "57FF739D4DC92C1BD7FC01700CC8216F");
+    }
+
+    @Test
+    @DisplayName("Zero, partial and full keying should produce identical ciphertext")
+    void testKeyingStrategiesAgree() {
+        byte[] key = hexStringToByteArray("0123456789ABCDEFFEDCBA987654321000112233445566778899AABBCCDDEEFF");
+        byte[] plaintext = new byte[16];
+        byte[] expectedCiphertext = hexStringToByteArray("37527BE0052334B89F0CFCCAE87CFA20");
+
+        for (Twofish.Keying keying : Twofish.Keying.values()) {
+            IExpandedKey expandedKey = twofish.init(key, keying);
+            assertArrayEquals(expectedCiphertext, expandedKey.encrypt(plaintext), keying + " encryption failed");
+            assertArrayEquals(plaintext, expandedKey.decrypt(expectedCiphertext), keying + " decryption failed");
+        }
+    }
+
+    @Test
+    @DisplayName("Keying strategy should follow the expected data volume")
+    void testKeyingForVolume() {
+        assertEquals(Twofish.Keying.ZERO, Twofish.Keying.forVolume(16));
+        assertEquals(Twofish.Keying.PARTIAL, Twofish.Keying.forVolume(Twofish.ZERO_KEYING_LIMIT));
+        assertEquals(Twofish.Keying.FULL, Twofish.Keying.forVolume(Twofish.PARTIAL_KEYING_LIMIT));
+        assertEquals(Twofish.Keying.FULL, Twofish.Keying.forVolume(-1));
+    }
+
+    @Test
+    @DisplayName("Interleaved multi-block kernels should match single-block encryption")
+    void testInterleavedKernelsMatchSingleBlock() {
+        java.util.Random random = new java.util.Random(17);
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        Twofish.ExpandedKey expandedKey = (Twofish.ExpandedKey) twofish.init(key);
+        // 13 блоков: три прохода по 4 и одиночный хвост
+        byte[] data = new byte[13 * 16];
+        random.nextBytes(data);
+        byte[] expected = new byte[data.length];
+        for (int i = 0; i < data.length; i += 16) {
+            expandedKey.encryptBlock(data, i, expected, i);
+        }
+
+        for (int interleave : new int[]{1, 4}) {
+            byte[] actual = new byte[data.length];
+            expandedKey.encryptBlocks(data, 0, actual, 0, 13, interleave);
+            assertArrayEquals(expected, actual, "Encryption differs for interleave " + interleave);
+
+            expandedKey.decryptBlocks(actual, 0, actual, 0, 13, interleave);
+            assertArrayEquals(data, actual, "In-place decryption differs for interleave " + interleave);
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for invalid key size")
+    void testInvalidKeySize() {
+        assertThrows(IllegalArgumentException.class, () -> twofish.init(new byte[10]));
+    }
+
     @Test
     @DisplayName("Test Twofish basic encryption and decryption")
     void testBasicEncryptionDecryption() {
@@ -94,6 +177,15 @@ public class TwofishTest {
         assertArrayEquals(plaintext, decrypted);
     }
 
+    private void assertKnownAnswer(String keyHex, String plaintextHex, String ciphertextHex) {
+        byte[] key = hexStringToByteArray(keyHex);
+        byte[] plaintext = hexStringToByteArray(plaintextHex);
+        byte[] expectedCiphertext = hexStringToByteArray(ciphertextHex);
+
+        assertArrayEquals(expectedCiphertext, twofish.encrypt(plaintext, key), "Encryption failed for key " + keyHex);
+        assertArrayEquals(plaintext, twofish.decrypt(expectedCiphertext, key), "Decryption failed for key " + keyHex);
+    }
+
     // Вспомогательный метод для преобразования HEX-строки в массив байт
     private static byte[] hexStringToByteArray(String s) {
         int len = s.length();
@@ -0,0 +1,82 @@
+package com.example.crypto_project.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class X25519Test {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    @DisplayName("Scalar multiplication should match RFC 7748 section 5.2 test vectors")
+    void testScalarMultVectors() {
+        assertEquals("c3da55379de9c6908e94ea4df28d084f32eccf03491c71f754b4075577a28552",
+                HEX.formatHex(X25519.scalarMult(
+                        HEX.parseHex("a546e36bf0527c9d3b16154b82465edd62144c0ac1fc5a18506a2244ba449ac4"),
+                        HEX.parseHex("e6db6867583030db3594c1a424b15f7c726624ec26b3353b10a903a6d0ab1c4c"))));
+        // Старший бит u установлен и должен отбрасываться
+        assertEquals("95cbde9476e8907d7aade45cb4b873f88b595a68799fa152e6f8f7647aac7957",
+                HEX.formatHex(X25519.scalarMult(
+                        HEX.parseHex("4b66e9d4d1b4673c5ad22691957d6af5c11b6421e0ea01d42ca4169e7918ba0d"),
+                        HEX.parseHex("e5210f12786811d3f4b7959d0538ae2c31dbe7106fc03c3efc4cd549c715a493"))));
+    }
+
+    @Test
+    @DisplayName("Iterated scalar multiplication should match RFC 7748 after 1 and 1000 iterations")
+    void testIteratedVectors() {
+        byte[] k = new byte[X25519.KEY_LENGTH];
+        k[0] = 9;
+        byte[] u = k.clone();
+        for (int i = 1; i <= 1000; i++) {
+            byte[] next = X25519.scalarMult(k, u);
+            u = k;
+            k = next;
+            if (i == 1) {
+                assertEquals("422c8e7a6227d7bca1350b3e2bb7279f7897b87bb6854b783c60e80311ae3079", HEX.formatHex(k));
+            }
+        }
+        assertEquals("684cf59ba83309552800ef566f2f4d3c1c3887c49360e3875f2eb94d99532c51", HEX.formatHex(k));
+    }
+
+    @Test
+    @DisplayName("Alice and Bob should derive the RFC 7748 section 6.1 keys and shared secret")
+    void testKeyAgreementVector() {
+        X25519 alice = new X25519(HEX.parseHex("77076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a"));
+        X25519 bob = new X25519(HEX.parseHex("5dab087e624a8a4b79e17f8b83800ee66f3bb1292618b6fd1c2f8b27ff88e0eb"));
+        assertEquals("8520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a", HEX.formatHex(alice.getPublicKey()));
+        assertEquals("de9edb7d7b7dc1b4d35b61c2ece435373f8343c85b78674dadfc7e146f882b4f", HEX.formatHex(bob.getPublicKey()));
+        String shared = "4a5d9d5ba4ce2de1728e3bf480350f25e07e21c947d19e3376f09b3c1e161742";
+        assertEquals(shared, HEX.formatHex(alice.computeSharedSecret(bob.getPublicKey())));
+        assertEquals(shared, HEX.formatHex(bob.computeSharedSecret(alice.getPublicKey())));
+    }
+
+    @Test
+    @DisplayName("Random participants should agree; malformed and small-order keys should be rejected")
+    void testRandomParticipantsAndInvalidKeys() {
+        IKeyAgreement alice = KeyAgreementAlgorithm.X25519.createParticipant();
+        IKeyAgreement bob = KeyAgreementAlgorithm.X25519.createParticipant();
+        assertArrayEquals(alice.computeSharedSecret(bob.getEncodedPublicKey()),
+                bob.computeSharedSecret(alice.getEncodedPublicKey()));
+
+        assertThrows(IllegalArgumentException.class, () -> alice.computeSharedSecret(new byte[31]));
+        // u = 0 и u = 1 - точки малого порядка, общий секрет нулевой
+        assertThrows(IllegalArgumentException.class, () -> alice.computeSharedSecret(new byte[32]));
+        byte[] one = new byte[32];
+        one[0] = 1;
+        assertThrows(IllegalArgumentException.class, () -> alice.computeSharedSecret(one));
+
+        assertTrue(KeyAgreementAlgorithm.X25519.isValidPublicKey(HEX.formatHex(alice.getEncodedPublicKey())));
+        assertFalse(KeyAgreementAlgorithm.X25519.isValidPublicKey("abcd"));
+        assertEquals(KeyAgreementAlgorithm.DH, KeyAgreementAlgorithm.fromName(null));
+        assertEquals(KeyAgreementAlgorithm.X25519, KeyAgreementAlgorithm.fromName("x25519"));
+        assertThrows(IllegalArgumentException.class, () -> KeyAgreementAlgorithm.fromName("ECDH"));
+    }
+}
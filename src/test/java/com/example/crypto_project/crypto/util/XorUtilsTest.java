@@ -0,0 +1,81 @@
+package com.example.crypto_project.crypto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class XorUtilsTest {
+
+    // Длины вокруг границ слова (8) и векторного регистра (до 64 байт)
+    private static final int[] LENGTHS = {0, 1, 7, 8, 9, 15, 16, 63, 64, 65, 127, 1000, 4099};
+
+    @Test
+    @DisplayName("Array XOR should match byte-by-byte XOR for any length and offset")
+    void testArrayXorMatchesBytewise() {
+        Random random = new Random(3);
+        for (int length : LENGTHS) {
+            byte[] a = new byte[length + 5];
+            byte[] b = new byte[length + 3];
+            random.nextBytes(a);
+            random.nextBytes(b);
+            byte[] expected = new byte[length + 1];
+            for (int i = 0; i < length; i++) {
+                expected[1 + i] = (byte) (a[5 + i] ^ b[3 + i]);
+            }
+
+            byte[] actual = new byte[length + 1];
+            XorUtils.xor(a, 5, b, 3, actual, 1, length);
+            assertArrayEquals(expected, actual, "XOR differs for length " + length);
+
+            // Запись поверх первого операнда
+            byte[] inPlace = new byte[length + 1];
+            System.arraycopy(a, 5, inPlace, 1, length);
+            XorUtils.xor(inPlace, 1, b, 3, inPlace, 1, length);
+            assertArrayEquals(expected, inPlace, "In-place XOR differs for length " + length);
+        }
+    }
+
+    @Test
+    @DisplayName("Buffer XOR should give the same result for heap, direct and mixed buffers")
+    void testBufferXor() {
+        Random random = new Random(5);
+        for (int length : LENGTHS) {
+            byte[] a = new byte[length];
+            byte[] b = new byte[length];
+            random.nextBytes(a);
+            random.nextBytes(b);
+            byte[] expected = new byte[length];
+            XorUtils.xor(a, 0, b, 0, expected, 0, length);
+
+            ByteBuffer directA = ByteBuffer.allocateDirect(length + 2);
+            directA.position(2);
+            directA.put(a);
+            ByteBuffer heapB = ByteBuffer.wrap(b);
+            ByteBuffer out = ByteBuffer.allocateDirect(length);
+            XorUtils.xor(directA, 2, heapB, 0, out, 0, length);
+            byte[] actual = new byte[length];
+            out.get(0, actual);
+            assertArrayEquals(expected, actual, "Direct buffer XOR differs for length " + length);
+
+            // Срез heap-буфера: индексы считаются от начала среза
+            ByteBuffer slice = ByteBuffer.allocate(length + 4).position(4).slice();
+            XorUtils.xor(ByteBuffer.wrap(a), 0, heapB, 0, slice, 0, length);
+            slice.get(0, actual);
+            assertArrayEquals(expected, actual, "Heap slice XOR differs for length " + length);
+        }
+    }
+
+    @Test
+    @DisplayName("Buffer XOR should reject ranges beyond the buffer limit")
+    void testBufferBounds() {
+        ByteBuffer a = ByteBuffer.allocate(32).limit(16);
+        ByteBuffer b = ByteBuffer.allocate(32);
+        ByteBuffer out = ByteBuffer.allocate(32);
+        assertThrows(IndexOutOfBoundsException.class, () -> XorUtils.xor(a, 8, b, 0, out, 0, 16));
+    }
+}